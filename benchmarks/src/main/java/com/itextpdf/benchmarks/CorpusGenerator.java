@@ -0,0 +1,222 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.benchmarks;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates the documents used by the benchmarks. The generation is deterministic: the same parameters
+ * always produce byte-identical documents, so the results of different runs are comparable.
+ */
+public final class CorpusGenerator {
+
+    private static final long SEED = 20200101L;
+
+    private static final String[] WORDS = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing",
+            "elit", "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua",
+            "enim", "ad", "minim", "veniam", "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi",
+            "aliquip", "ex", "ea", "commodo", "consequat"};
+
+    private CorpusGenerator() {
+    }
+
+    /**
+     * Writes the corpus into the directory passed as the first argument, or into the current directory.
+     *
+     * @param args the command line arguments
+     * @throws IOException on error
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : ".");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        write(new File(directory, "text.pdf"), createTextDocument(50, false));
+        write(new File(directory, "text_full_compression.pdf"), createTextDocument(50, true));
+        write(new File(directory, "vector.pdf"), createVectorDocument(50, 2000));
+        write(new File(directory, "table.pdf"), createTableDocument(2000, 5));
+    }
+
+    /**
+     * Creates a document with the pages full of paragraphs of pseudo-random words.
+     *
+     * @param pages the approximate number of pages
+     * @param fullCompression whether the objects shall be written into object streams
+     * @return the document bytes
+     */
+    public static byte[] createTextDocument(int pages, boolean fullCompression) {
+        Random random = new Random(SEED);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = createDocument(baos, new WriterProperties().setFullCompressionMode(fullCompression));
+        Document document = new Document(pdfDocument);
+        // about 10 paragraphs of 60 words fit on a page
+        for (int i = 0; i < pages * 10; i++) {
+            document.add(new Paragraph(createText(random, 60)));
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a document with the pages full of path construction and painting operators.
+     *
+     * @param pages the number of pages
+     * @param pathsPerPage the number of the paths on each page
+     * @return the document bytes
+     */
+    public static byte[] createVectorDocument(int pages, int pathsPerPage) {
+        Random random = new Random(SEED);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = createDocument(baos, new WriterProperties());
+        for (int i = 0; i < pages; i++) {
+            PdfPage page = pdfDocument.addNewPage(PageSize.A4);
+            drawPaths(new PdfCanvas(page), random, pathsPerPage);
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a document with a table of pseudo-random words.
+     *
+     * @param rows the number of table rows
+     * @param columns the number of table columns
+     * @return the document bytes
+     */
+    public static byte[] createTableDocument(int rows, int columns) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(createDocument(baos, new WriterProperties()));
+        document.add(createTable(new Random(SEED), rows, columns));
+        document.close();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a table of pseudo-random words.
+     *
+     * @param random the source of the words
+     * @param rows the number of table rows
+     * @param columns the number of table columns
+     * @return the table
+     */
+    static Table createTable(Random random, int rows, int columns) {
+        Table table = new Table(columns).useAllAvailableWidth();
+        for (int i = 0; i < rows * columns; i++) {
+            table.addCell(createText(random, 1 + random.nextInt(8)));
+        }
+        return table;
+    }
+
+    /**
+     * Creates a text of pseudo-random words.
+     *
+     * @param random the source of the words
+     * @param words the number of words
+     * @return the text
+     */
+    static String createText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Draws pseudo-random lines, curves and rectangles.
+     *
+     * @param canvas the canvas to draw on
+     * @param random the source of the coordinates
+     * @param paths the number of paths to draw
+     */
+    static void drawPaths(PdfCanvas canvas, Random random, int paths) {
+        for (int i = 0; i < paths; i++) {
+            canvas.saveState()
+                    .setLineWidth(0.5f + random.nextInt(4))
+                    .moveTo(random.nextDouble() * 595, random.nextDouble() * 842)
+                    .lineTo(random.nextDouble() * 595, random.nextDouble() * 842)
+                    .curveTo(random.nextDouble() * 595, random.nextDouble() * 842, random.nextDouble() * 595,
+                            random.nextDouble() * 842, random.nextDouble() * 595, random.nextDouble() * 842)
+                    .rectangle(random.nextDouble() * 500, random.nextDouble() * 800, 10, 10)
+                    .stroke()
+                    .restoreState();
+        }
+    }
+
+    private static PdfDocument createDocument(ByteArrayOutputStream baos, WriterProperties properties) {
+        properties.setInitialDocumentId(new PdfString("corpus"))
+                .setModifiedDocumentId(new PdfString("corpus"));
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, properties));
+        pdfDocument.getDocumentInfo().setMoreInfo("CreationDate", "D:20200101000000Z");
+        pdfDocument.getDocumentInfo().setMoreInfo("ModDate", "D:20200101000000Z");
+        return pdfDocument;
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(bytes);
+        } finally {
+            fos.close();
+        }
+    }
+}
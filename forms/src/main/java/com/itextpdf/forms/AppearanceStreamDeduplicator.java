@@ -0,0 +1,179 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds identical appearance streams of the flattened fields, e.g. of repeated check boxes,
+ * so that a single form XObject is drawn for all of them instead of a separate one per field.
+ * <p>
+ * Two appearance streams are identical if they have the same bytes and the same dictionary
+ * entries. Direct objects in the dictionaries are compared by their content, while indirect
+ * objects, e.g. fonts in the resources, are compared by their references.
+ */
+final class AppearanceStreamDeduplicator {
+
+    private final Map<AppearanceKey, PdfFormXObject> appearances = new HashMap<>();
+
+    /**
+     * Gets the previously seen form XObject which is identical to the given one.
+     * If there is no such, the given form XObject is remembered and returned.
+     *
+     * @param xObject the appearance of the flattened field
+     * @return the form XObject to be drawn for the field
+     */
+    PdfFormXObject deduplicate(PdfFormXObject xObject) {
+        PdfStream stream = xObject.getPdfObject();
+        if (stream.isFlushed()) {
+            return xObject;
+        }
+        byte[] bytes = stream.getBytes(false);
+        if (bytes == null) {
+            return xObject;
+        }
+        StringBuilder description = new StringBuilder();
+        describeDictionary(stream, description);
+        AppearanceKey key = new AppearanceKey(description.toString(), bytes);
+        PdfFormXObject seen = appearances.get(key);
+        if (seen == null) {
+            appearances.put(key, xObject);
+            return xObject;
+        }
+        return seen;
+    }
+
+    private static void describeDictionary(PdfDictionary dictionary, StringBuilder description) {
+        Map<String, PdfObject> entries = new TreeMap<>();
+        for (PdfName key : dictionary.keySet()) {
+            if (!PdfName.Length.equals(key)) {
+                entries.put(key.getValue(), dictionary.get(key, false));
+            }
+        }
+        description.append('<');
+        for (Map.Entry<String, PdfObject> entry : entries.entrySet()) {
+            appendValue(entry.getKey(), description);
+            describeObject(entry.getValue(), description);
+        }
+        description.append('>');
+    }
+
+    private static void describeObject(PdfObject object, StringBuilder description) {
+        if (object == null) {
+            description.append('N');
+            return;
+        }
+        if (object.getIndirectReference() != null) {
+            // containers may hold an indirect object itself rather than its reference
+            object = object.getIndirectReference();
+        }
+        switch (object.getType()) {
+            case PdfObject.INDIRECT_REFERENCE:
+                PdfIndirectReference reference = (PdfIndirectReference) object;
+                description.append('R').append(reference.getObjNumber()).append(' ').append(reference.getGenNumber());
+                break;
+            case PdfObject.DICTIONARY:
+            case PdfObject.STREAM:
+                describeDictionary((PdfDictionary) object, description);
+                break;
+            case PdfObject.ARRAY:
+                description.append('[');
+                PdfArray array = (PdfArray) object;
+                for (int i = 0; i < array.size(); i++) {
+                    describeObject(array.get(i, false), description);
+                }
+                description.append(']');
+                break;
+            default:
+                description.append(object.getType());
+                appendValue(object.toString(), description);
+                break;
+        }
+    }
+
+    private static void appendValue(String value, StringBuilder description) {
+        // the length prefix keeps values containing the delimiters unambiguous
+        description.append(value.length()).append(':').append(value);
+    }
+
+    private static final class AppearanceKey {
+        private final String description;
+        private final byte[] bytes;
+        private final int hash;
+
+        AppearanceKey(String description, byte[] bytes) {
+            this.description = description;
+            this.bytes = bytes;
+            this.hash = 31 * description.hashCode() + Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            AppearanceKey that = (AppearanceKey) o;
+            return hash == that.hash && description.equals(that.description) && Arrays.equals(bytes, that.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
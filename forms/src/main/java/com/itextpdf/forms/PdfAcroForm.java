@@ -43,9 +43,11 @@
  */
 package com.itextpdf.forms;
 
+import com.itextpdf.forms.fields.FormFieldStyle;
 import com.itextpdf.forms.fields.PdfFormField;
 import com.itextpdf.forms.xfa.XfaForm;
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.geom.AffineTransform;
 import com.itextpdf.kernel.geom.Point;
@@ -72,10 +74,14 @@ import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -144,9 +150,25 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
      * @param pdfObject the PdfDictionary to be wrapped
      */
     private PdfAcroForm(PdfDictionary pdfObject, PdfDocument pdfDocument) {
+        this(pdfObject, pdfDocument, null);
+    }
+
+    /**
+     * Creates a PdfAcroForm as a wrapper of a dictionary with already known form fields,
+     * so that the field tree isn't walked.
+     *
+     * @param pdfObject   the PdfDictionary to be wrapped
+     * @param pdfDocument the document of the form
+     * @param fields      the form fields of the form, or <code>null</code> to read them from the field tree
+     */
+    private PdfAcroForm(PdfDictionary pdfObject, PdfDocument pdfDocument, Map<String, PdfFormField> fields) {
         super(pdfObject);
         document = pdfDocument;
-        getFormFields();
+        if (fields == null) {
+            getFormFields();
+        } else {
+            this.fields = fields;
+        }
         xfaForm = new XfaForm(pdfObject);
     }
 
@@ -185,6 +207,29 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
             acroForm = new PdfAcroForm(acroFormDictionary, document);
         }
 
+        initAcroForm(acroForm, document);
+        return acroForm;
+    }
+
+    /**
+     * Retrieves AcroForm from the document using the form fields which were already resolved,
+     * e.g. by a {@link PdfFormTemplate}, instead of walking the field tree of the document.
+     *
+     * @param document the document to retrieve the {@link PdfAcroForm} from
+     * @param fields   the map of field names and their associated {@link PdfFormField form field} objects
+     * @return the {@link PdfDocument document}'s AcroForm, or <code>null</code> if there is no AcroForm in the document
+     */
+    static PdfAcroForm getAcroForm(PdfDocument document, Map<String, PdfFormField> fields) {
+        PdfDictionary acroFormDictionary = document.getCatalog().getPdfObject().getAsDictionary(PdfName.AcroForm);
+        if (acroFormDictionary == null) {
+            return null;
+        }
+        PdfAcroForm acroForm = new PdfAcroForm(acroFormDictionary, document, fields);
+        initAcroForm(acroForm, document);
+        return acroForm;
+    }
+
+    private static void initAcroForm(PdfAcroForm acroForm, PdfDocument document) {
         if (acroForm != null) {
             acroForm.defaultResources = acroForm.getDefaultResources();
             if (acroForm.defaultResources == null) {
@@ -193,8 +238,6 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
             acroForm.document = document;
             acroForm.xfaForm = new XfaForm(document);
         }
-
-        return acroForm;
     }
 
     /**
@@ -573,6 +616,88 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
         return fields.get(fieldName);
     }
 
+    /**
+     * Fills the {@link PdfFormField form field}s with the given values. The appearance of each filled
+     * field is regenerated only once, after the value is set. See {@link #fillFields(Map, FormFieldStyle)}.
+     *
+     * @param values the map of full field names and the values to be set
+     * @return the edited {@link PdfAcroForm}
+     */
+    public PdfAcroForm fillFields(Map<String, String> values) {
+        return fillFields(values, null);
+    }
+
+    /**
+     * Fills the {@link PdfFormField form field}s with the given values and applies the style overrides
+     * to each filled field. Instead of regenerating the field appearance on each change, the fields are
+     * only marked for regeneration and the appearance of each field is regenerated once when all the
+     * changes are applied.
+     * <p>
+     * The fields for which the regeneration was already disabled, e.g. by {@link #disableRegenerationForAllFields()},
+     * are left disabled and will be regenerated when the regeneration is enabled again.
+     * Names which don't correspond to any field are skipped with a warning.
+     *
+     * @param values the map of full field names and the values to be set
+     * @param style  the style overrides to be applied to each filled field, may be <code>null</code>
+     * @return the edited {@link PdfAcroForm}
+     */
+    public PdfAcroForm fillFields(Map<String, String> values, FormFieldStyle style) {
+        Map<String, PdfFormField> formFields = getFormFields();
+        List<PdfFormField> fieldsToRegenerate = new ArrayList<>(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            PdfFormField field = formFields.get(entry.getKey());
+            if (field == null) {
+                logger.warn(MessageFormatUtil.format(LogMessageConstant.FORM_FIELD_TO_FILL_NOT_FOUND, entry.getKey()));
+                continue;
+            }
+            if (field.isFieldRegenerationEnabled()) {
+                field.disableFieldRegeneration();
+                fieldsToRegenerate.add(field);
+            }
+            if (style != null) {
+                style.applyTo(field);
+            }
+            if (entry.getValue() != null) {
+                field.setValue(entry.getValue());
+            }
+        }
+        for (PdfFormField field : fieldsToRegenerate) {
+            field.enableFieldRegeneration();
+        }
+        return this;
+    }
+
+    /**
+     * Disables the appearance regeneration of all the {@link PdfFormField form field}s of the form.
+     * Changes to the fields only mark them for regeneration until {@link #enableRegenerationForAllFields()}
+     * or {@link #flattenFields()} is called, so that the appearance of each field is generated only
+     * once after a batch of changes.
+     *
+     * @return the edited {@link PdfAcroForm}
+     * @see PdfFormField#disableFieldRegeneration()
+     */
+    public PdfAcroForm disableRegenerationForAllFields() {
+        for (PdfFormField field : getFormFields().values()) {
+            field.disableFieldRegeneration();
+        }
+        return this;
+    }
+
+    /**
+     * Enables the appearance regeneration of all the {@link PdfFormField form field}s of the form
+     * and regenerates the appearance of those fields which were changed while the regeneration was disabled.
+     *
+     * @return whether or not the regeneration of all the changed fields was successful
+     * @see PdfFormField#enableFieldRegeneration()
+     */
+    public boolean enableRegenerationForAllFields() {
+        boolean result = true;
+        for (PdfFormField field : fields.values()) {
+            result &= field.enableFieldRegeneration();
+        }
+        return result;
+    }
+
     /**
      * Gets the attribute generateAppearance, which tells {@link #flattenFields()}
      * to generate an appearance Stream for all {@link PdfFormField form field}s
@@ -614,11 +739,16 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
      * no fields have been explicitly included via {@link #partialFormFlattening},
      * then all fields are flattened. Otherwise only the included fields are
      * flattened.
+     * <p>
+     * The fields are flattened page by page. Identical appearance streams, e.g. of
+     * repeated check boxes, are drawn as a single form XObject.
      */
     public void flattenFields() {
         if (document.isAppendMode()) {
             throw new PdfException(PdfException.FieldFlatteningIsNotSupportedInAppendMode);
         }
+        // the fields map is rebuilt below, so the pending appearances must be generated beforehand
+        enableRegenerationForAllFields();
         Set<PdfFormField> fields;
         if (fieldsForFlattening.size() == 0) {
             this.fields.clear();
@@ -641,105 +771,46 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
             initialPageResourceClones.put(i, resources == null ? null : resources.clone());
         }
 
-        Set<PdfPage> wrappedPages = new LinkedHashSet<>();
-        PdfPage page;
-        for (PdfFormField field : fields) {
-            PdfDictionary fieldObject = field.getPdfObject();
-            page = getFieldPage(fieldObject);
-            if (page == null) {
-                continue;
-            }
-
-            PdfAnnotation annotation = PdfAnnotation.makeAnnotation(fieldObject);
-            TagTreePointer tagPointer = null;
-            if (annotation != null && document.isTagged()) {
-                tagPointer = document.getTagStructureContext().removeAnnotationTag(annotation);
-            }
-
-            PdfDictionary appDic = fieldObject.getAsDictionary(PdfName.AP);
-            PdfObject asNormal = null;
-            if (appDic != null) {
-                asNormal = appDic.getAsStream(PdfName.N);
-                if (asNormal == null) {
-                    asNormal = appDic.getAsDictionary(PdfName.N);
-                }
-            }
-            if (generateAppearance) {
-                if (appDic == null || asNormal == null) {
-                    field.regenerateField();
-                    appDic = fieldObject.getAsDictionary(PdfName.AP);
-                }
-            }
-            PdfObject normal = appDic != null ? appDic.get(PdfName.N) : null;
-            if (null != normal) {
-                PdfFormXObject xObject = null;
-                if (normal.isStream()) {
-                    xObject = new PdfFormXObject((PdfStream) normal);
-                } else if (normal.isDictionary()) {
-                    PdfName as = fieldObject.getAsName(PdfName.AS);
-                    if (((PdfDictionary) normal).getAsStream(as) != null) {
-                        xObject = new PdfFormXObject(((PdfDictionary) normal).getAsStream(as));
-                        xObject.makeIndirect(document);
-                    }
-                }
-
-                if (xObject != null) {
-                    //subtype is required field for FormXObject, but can be omitted in normal appearance.
-                    xObject.put(PdfName.Subtype, PdfName.Form);
-                    Rectangle annotBBox = fieldObject.getAsRectangle(PdfName.Rect);
-                    if (page.isFlushed()) {
-                        throw new PdfException(PdfException.PageAlreadyFlushedUseAddFieldAppearanceToPageMethodBeforePageFlushing);
-                    }
-                    PdfCanvas canvas = new PdfCanvas(page, !wrappedPages.contains(page));
-                    wrappedPages.add(page);
-
-                    // Here we avoid circular reference which might occur when page resources and the appearance xObject's
-                    // resources are the same object
-                    PdfObject xObjectResources = xObject.getPdfObject().get(PdfName.Resources);
-                    PdfObject pageResources = page.getResources().getPdfObject();
-                    if (xObjectResources != null && xObjectResources == pageResources) {
-                        xObject.getPdfObject().put(PdfName.Resources, initialPageResourceClones.get(document.getPageNumber(page)));
-                    }
-
-                    if (tagPointer != null) {
-                        tagPointer.setPageForTagging(page);
-                        TagReference tagRef = tagPointer.getTagReference();
-                        canvas.openTag(tagRef);
-                    }
-
-                    AffineTransform at = calcFieldAppTransformToAnnotRect(xObject, annotBBox);
-                    float[] m = new float[6];
-                    at.getMatrix(m);
-                    canvas.addXObject(xObject, m[0], m[1], m[2], m[3], m[4], m[5]);
-
-                    if (tagPointer != null) {
-                        canvas.closeTag();
+        // The fields are flattened page by page: the appearances are drawn with a single canvas per page,
+        // the widget annotations are removed from each page in one pass and the field objects are removed
+        // from the form in one pass at the end, so that the arrays aren't searched for each field.
+        Map<PdfPage, List<PdfFormField>> fieldsByPage = groupFieldsByPage(fields);
+        AppearanceStreamDeduplicator appearances = new AppearanceStreamDeduplicator();
+        Set<PdfObject> removedFields = new HashSet<>();
+        Map<PdfDictionary, Set<PdfObject>> removedKids = new LinkedHashMap<>();
+        for (Map.Entry<PdfPage, List<PdfFormField>> entry : fieldsByPage.entrySet()) {
+            PdfPage page = entry.getKey();
+            flattenPageFields(page, entry.getValue(), initialPageResourceClones, appearances);
+
+            for (PdfFormField field : entry.getValue()) {
+                PdfDictionary fieldObject = field.getPdfObject();
+                addObjectAndReference(fieldObject, removedFields);
+                PdfDictionary parent = fieldObject.getAsDictionary(PdfName.Parent);
+                if (parent != null) {
+                    if (parent.getAsArray(PdfName.Kids) != null) {
+                        Set<PdfObject> kids = removedKids.get(parent);
+                        if (kids == null) {
+                            kids = new HashSet<>();
+                            removedKids.put(parent, kids);
+                        }
+                        addObjectAndReference(fieldObject, kids);
+                    } else {
+                        addObjectAndReference(parent, removedFields);
                     }
                 }
-            } else {
-                logger.error(LogMessageConstant.N_ENTRY_IS_REQUIRED_FOR_APPEARANCE_DICTIONARY);
             }
+        }
 
-            PdfArray fFields = getFields();
-            fFields.remove(fieldObject);
-            if (annotation != null) {
-                page.removeAnnotation(annotation);
-            }
-            PdfDictionary parent = fieldObject.getAsDictionary(PdfName.Parent);
-            if (parent != null) {
-                PdfArray kids = parent.getAsArray(PdfName.Kids);
-                if(kids!=null) {
-                    kids.remove(fieldObject);
-                    // TODO what if parent was in it's turn the only child of it's parent (parent of parent)?
-                    // shouldn't we remove them recursively? check it
-                    if (kids.isEmpty()) {
-                        fFields.remove(parent);
-                    }
-                } else {
-                    fFields.remove(parent);
-                }
+        for (Map.Entry<PdfDictionary, Set<PdfObject>> entry : removedKids.entrySet()) {
+            PdfArray kids = entry.getKey().getAsArray(PdfName.Kids);
+            removeAll(kids, entry.getValue());
+            // TODO what if parent was in it's turn the only child of it's parent (parent of parent)?
+            // shouldn't we remove them recursively? check it
+            if (kids.isEmpty()) {
+                addObjectAndReference(entry.getKey(), removedFields);
             }
         }
+        removeAll(getFields(), removedFields);
 
         getPdfObject().remove(PdfName.NeedAppearances);
         if (fieldsForFlattening.size() == 0) {
@@ -1052,6 +1123,187 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
         return null;
     }
 
+    private Map<PdfPage, List<PdfFormField>> groupFieldsByPage(Set<PdfFormField> fields) {
+        Map<PdfPage, List<PdfFormField>> fieldsByPage = new LinkedHashMap<>();
+        Map<PdfObject, PdfPage> annotationPages = null;
+        for (PdfFormField field : fields) {
+            PdfDictionary fieldObject = field.getPdfObject();
+            PdfPage page;
+            PdfDictionary pageDic = fieldObject.getAsDictionary(PdfName.P);
+            if (pageDic != null) {
+                page = document.getPage(pageDic);
+            } else {
+                if (annotationPages == null) {
+                    annotationPages = mapAnnotationsToPages();
+                }
+                page = annotationPages.get(fieldObject);
+                if (page == null && fieldObject.getIndirectReference() != null) {
+                    page = annotationPages.get(fieldObject.getIndirectReference());
+                }
+            }
+            if (page == null) {
+                continue;
+            }
+            List<PdfFormField> pageFields = fieldsByPage.get(page);
+            if (pageFields == null) {
+                pageFields = new ArrayList<>();
+                fieldsByPage.put(page, pageFields);
+            }
+            pageFields.add(field);
+        }
+        return fieldsByPage;
+    }
+
+    private Map<PdfObject, PdfPage> mapAnnotationsToPages() {
+        Map<PdfObject, PdfPage> annotationPages = new HashMap<>();
+        for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            PdfPage page = document.getPage(i);
+            if (page.isFlushed()) {
+                continue;
+            }
+            PdfArray annots = page.getPdfObject().getAsArray(PdfName.Annots);
+            if (annots == null) {
+                continue;
+            }
+            for (int j = 0; j < annots.size(); j++) {
+                PdfObject annot = annots.get(j, false);
+                if (annot != null && !annotationPages.containsKey(annot)) {
+                    // the array may contain either the annotation dictionaries or the references to them
+                    annotationPages.put(annot, page);
+                }
+            }
+        }
+        return annotationPages;
+    }
+
+    private void flattenPageFields(PdfPage page, List<PdfFormField> pageFields,
+            Map<Integer, PdfObject> initialPageResourceClones, AppearanceStreamDeduplicator appearances) {
+        PdfCanvas canvas = null;
+        PdfObject initialPageResourcesClone = null;
+        Set<PdfObject> removedAnnotations = new HashSet<>();
+        for (PdfFormField field : pageFields) {
+            PdfDictionary fieldObject = field.getPdfObject();
+            PdfAnnotation annotation = PdfAnnotation.makeAnnotation(fieldObject);
+            TagTreePointer tagPointer = null;
+            if (annotation != null && document.isTagged()) {
+                tagPointer = document.getTagStructureContext().removeAnnotationTag(annotation);
+            }
+
+            PdfDictionary appDic = fieldObject.getAsDictionary(PdfName.AP);
+            PdfObject asNormal = null;
+            if (appDic != null) {
+                asNormal = appDic.getAsStream(PdfName.N);
+                if (asNormal == null) {
+                    asNormal = appDic.getAsDictionary(PdfName.N);
+                }
+            }
+            if (generateAppearance) {
+                if (appDic == null || asNormal == null) {
+                    field.regenerateField();
+                    appDic = fieldObject.getAsDictionary(PdfName.AP);
+                }
+            }
+            PdfObject normal = appDic != null ? appDic.get(PdfName.N) : null;
+            if (null != normal) {
+                PdfFormXObject xObject = null;
+                if (normal.isStream()) {
+                    xObject = new PdfFormXObject((PdfStream) normal);
+                } else if (normal.isDictionary()) {
+                    PdfName as = fieldObject.getAsName(PdfName.AS);
+                    if (((PdfDictionary) normal).getAsStream(as) != null) {
+                        xObject = new PdfFormXObject(((PdfDictionary) normal).getAsStream(as));
+                        xObject.makeIndirect(document);
+                    }
+                }
+
+                if (xObject != null) {
+                    //subtype is required field for FormXObject, but can be omitted in normal appearance.
+                    xObject.put(PdfName.Subtype, PdfName.Form);
+                    Rectangle annotBBox = fieldObject.getAsRectangle(PdfName.Rect);
+                    if (page.isFlushed()) {
+                        throw new PdfException(PdfException.PageAlreadyFlushedUseAddFieldAppearanceToPageMethodBeforePageFlushing);
+                    }
+                    if (canvas == null) {
+                        canvas = new PdfCanvas(page, true);
+                        initialPageResourcesClone = initialPageResourceClones.get(document.getPageNumber(page));
+                    }
+
+                    // Here we avoid circular reference which might occur when page resources and the appearance xObject's
+                    // resources are the same object
+                    PdfObject xObjectResources = xObject.getPdfObject().get(PdfName.Resources);
+                    PdfObject pageResources = page.getResources().getPdfObject();
+                    if (xObjectResources != null && xObjectResources == pageResources) {
+                        xObject.getPdfObject().put(PdfName.Resources, initialPageResourcesClone);
+                    }
+                    xObject = appearances.deduplicate(xObject);
+
+                    if (tagPointer != null) {
+                        tagPointer.setPageForTagging(page);
+                        TagReference tagRef = tagPointer.getTagReference();
+                        canvas.openTag(tagRef);
+                    }
+
+                    AffineTransform at = calcFieldAppTransformToAnnotRect(xObject, annotBBox);
+                    float[] m = new float[6];
+                    at.getMatrix(m);
+                    canvas.addXObject(xObject, m[0], m[1], m[2], m[3], m[4], m[5]);
+
+                    if (tagPointer != null) {
+                        canvas.closeTag();
+                    }
+                }
+            } else {
+                logger.error(LogMessageConstant.N_ENTRY_IS_REQUIRED_FOR_APPEARANCE_DICTIONARY);
+            }
+
+            if (annotation != null) {
+                addObjectAndReference(annotation.getPdfObject(), removedAnnotations);
+            }
+        }
+
+        PdfArray annots = page.getPdfObject().getAsArray(PdfName.Annots);
+        if (annots != null && removeAll(annots, removedAnnotations)) {
+            if (annots.isEmpty()) {
+                page.getPdfObject().remove(PdfName.Annots);
+                page.setModified();
+            } else if (annots.getIndirectReference() == null) {
+                page.setModified();
+            }
+        }
+    }
+
+    private static void addObjectAndReference(PdfObject object, Set<PdfObject> objects) {
+        objects.add(object);
+        if (object.getIndirectReference() != null) {
+            objects.add(object.getIndirectReference());
+        }
+    }
+
+    /**
+     * Removes all the items which are the given objects or references to them from the array in a single pass.
+     *
+     * @param array   the array to remove the items from
+     * @param objects the objects and their indirect references to be removed
+     * @return <code>true</code> if any item was removed
+     */
+    private static boolean removeAll(PdfArray array, Set<PdfObject> objects) {
+        List<PdfObject> keptItems = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            PdfObject item = array.get(i, false);
+            if (!objects.contains(item)) {
+                keptItems.add(item);
+            }
+        }
+        if (keptItems.size() == array.size()) {
+            return false;
+        }
+        array.clear();
+        for (PdfObject item : keptItems) {
+            array.add(item);
+        }
+        return true;
+    }
+
     private Set<PdfFormField> prepareFieldsForFlattening(PdfFormField field) {
         Set<PdfFormField> preparedFields = new LinkedHashSet<>();
         preparedFields.add(field);
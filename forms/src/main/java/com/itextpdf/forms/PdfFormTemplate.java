@@ -0,0 +1,243 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.FormFieldStyle;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.StampingProperties;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A form template which is read once and then used to fill the same AcroForm with
+ * different data many times.
+ * <p>
+ * The template keeps the bytes of the template document in memory and resolves its field
+ * tree once, remembering the object number of each field dictionary. Each filled document
+ * is opened over the cached bytes, so the template file isn't read again, and its
+ * {@link PdfAcroForm} is built by looking the fields up directly instead of walking
+ * the field tree and resolving the field names.
+ * <p>
+ * The template is immutable once created, so the same instance can be used to fill documents
+ * concurrently from several threads. Each filled document is a separate {@link PdfDocument},
+ * which must be used by a single thread only.
+ */
+public final class PdfFormTemplate {
+
+    private final byte[] templateBytes;
+
+    private final Set<String> fieldNames;
+
+    // null if some of the fields can't be looked up directly, then the field tree is walked for each document
+    private final Map<String, Integer> fieldObjectNumbers;
+
+    /**
+     * Creates a form template from the template document file.
+     *
+     * @param filename the path to the template document
+     * @throws IOException if the template document can't be read
+     */
+    public PdfFormTemplate(String filename) throws IOException {
+        this(readTemplate(filename));
+    }
+
+    /**
+     * Creates a form template from the template document stream. The stream is read
+     * to the end but is not closed.
+     *
+     * @param templateStream the stream containing the template document
+     * @throws IOException if the template document can't be read
+     */
+    public PdfFormTemplate(InputStream templateStream) throws IOException {
+        this(StreamUtil.inputStreamToArray(templateStream));
+    }
+
+    /**
+     * Creates a form template from the bytes of the template document.
+     *
+     * @param templateBytes the template document
+     * @throws IOException if the template document can't be read
+     */
+    public PdfFormTemplate(byte[] templateBytes) throws IOException {
+        this.templateBytes = templateBytes.clone();
+        PdfDocument templateDocument = new PdfDocument(createReader());
+        try {
+            PdfAcroForm form = PdfAcroForm.getAcroForm(templateDocument, false);
+            if (form == null) {
+                throw new PdfException(PdfException.TemplateDocumentDoesNotContainAcroForm);
+            }
+            Map<String, PdfFormField> fields = form.getFormFields();
+            this.fieldNames = Collections.unmodifiableSet(new LinkedHashSet<>(fields.keySet()));
+            this.fieldObjectNumbers = resolveFieldObjectNumbers(fields);
+        } finally {
+            templateDocument.close();
+        }
+    }
+
+    /**
+     * Gets the names of the {@link PdfFormField form field}s of the template.
+     *
+     * @return the unmodifiable set of the field names
+     */
+    public Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Creates a new document to be filled, which is opened over the cached template bytes.
+     *
+     * @param writer the writer of the filled document
+     * @return the new document
+     * @throws IOException if the template document can't be read
+     */
+    public PdfDocument createDocument(PdfWriter writer) throws IOException {
+        return new PdfDocument(createReader(), writer);
+    }
+
+    /**
+     * Creates a new document to be filled, which is opened over the cached template bytes.
+     *
+     * @param writer     the writer of the filled document
+     * @param properties the stamping properties of the filled document
+     * @return the new document
+     * @throws IOException if the template document can't be read
+     */
+    public PdfDocument createDocument(PdfWriter writer, StampingProperties properties) throws IOException {
+        return new PdfDocument(createReader(), writer, properties);
+    }
+
+    /**
+     * Gets the {@link PdfAcroForm} of the document created by {@link #createDocument(PdfWriter)},
+     * using the field tree resolved when the template was created.
+     * The document must be created from this template.
+     *
+     * @param document the document created from this template
+     * @return the AcroForm of the document
+     */
+    public PdfAcroForm getAcroForm(PdfDocument document) {
+        if (fieldObjectNumbers == null) {
+            return PdfAcroForm.getAcroForm(document, false);
+        }
+        Map<String, PdfFormField> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : fieldObjectNumbers.entrySet()) {
+            fields.put(entry.getKey(), PdfFormField.makeFormField(document.getPdfObject((int) entry.getValue()), document));
+        }
+        return PdfAcroForm.getAcroForm(document, fields);
+    }
+
+    /**
+     * Fills a new copy of the template with the given values and writes it to the output stream.
+     * The output stream is closed when the document is written.
+     *
+     * @param values the map of field names and the values to be set
+     * @param out    the output stream for the filled document
+     * @throws IOException if the template document can't be read
+     * @see PdfAcroForm#fillFields(Map)
+     */
+    public void fill(Map<String, String> values, OutputStream out) throws IOException {
+        fill(values, null, false, out);
+    }
+
+    /**
+     * Fills a new copy of the template with the given values and writes it to the output stream.
+     * The output stream is closed when the document is written.
+     *
+     * @param values  the map of field names and the values to be set
+     * @param style   the style overrides to be applied to each filled field, may be <code>null</code>
+     * @param flatten whether the form fields should be flattened after filling
+     * @param out     the output stream for the filled document
+     * @throws IOException if the template document can't be read
+     * @see PdfAcroForm#fillFields(Map, FormFieldStyle)
+     */
+    public void fill(Map<String, String> values, FormFieldStyle style, boolean flatten, OutputStream out) throws IOException {
+        PdfDocument document = createDocument(new PdfWriter(out));
+        PdfAcroForm form = getAcroForm(document);
+        form.fillFields(values, style);
+        if (flatten) {
+            form.flattenFields();
+        }
+        document.close();
+    }
+
+    private PdfReader createReader() throws IOException {
+        return new PdfReader(new RandomAccessSourceFactory().createSource(templateBytes), new ReaderProperties());
+    }
+
+    private static Map<String, Integer> resolveFieldObjectNumbers(Map<String, PdfFormField> fields) {
+        Map<String, Integer> objectNumbers = new LinkedHashMap<>();
+        for (Map.Entry<String, PdfFormField> entry : fields.entrySet()) {
+            PdfIndirectReference reference = entry.getValue().getPdfObject().getIndirectReference();
+            if (reference == null) {
+                return null;
+            }
+            objectNumbers.put(entry.getKey(), reference.getObjNumber());
+        }
+        return Collections.unmodifiableMap(objectNumbers);
+    }
+
+    private static byte[] readTemplate(String filename) throws IOException {
+        InputStream is = new FileInputStream(filename);
+        try {
+            return StreamUtil.inputStreamToArray(is);
+        } finally {
+            is.close();
+        }
+    }
+}
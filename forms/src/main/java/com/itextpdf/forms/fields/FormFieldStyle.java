@@ -0,0 +1,237 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms.fields;
+
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.font.PdfFont;
+
+/**
+ * A set of style overrides which can be applied to several {@link PdfFormField form field}s at once,
+ * e.g. with {@link com.itextpdf.forms.PdfAcroForm#fillFields(java.util.Map, FormFieldStyle)}.
+ * Only the properties which were explicitly set are applied, all the other properties
+ * of the fields stay untouched.
+ */
+public class FormFieldStyle {
+
+    private PdfFont font;
+    private float fontSize = -1;
+    private Color color;
+    private Color backgroundColor;
+    private Color borderColor;
+    private float borderWidth = -1;
+    private int justification = -1;
+
+    /**
+     * Creates an empty style which doesn't override anything.
+     */
+    public FormFieldStyle() {
+    }
+
+    /**
+     * Sets the font of the fields.
+     *
+     * @param font the new font
+     * @return this style
+     */
+    public FormFieldStyle setFont(PdfFont font) {
+        this.font = font;
+        return this;
+    }
+
+    /**
+     * Gets the font of the fields.
+     *
+     * @return the font or <code>null</code> if it isn't overridden
+     */
+    public PdfFont getFont() {
+        return font;
+    }
+
+    /**
+     * Sets the font size of the fields.
+     *
+     * @param fontSize the new font size
+     * @return this style
+     */
+    public FormFieldStyle setFontSize(float fontSize) {
+        this.fontSize = fontSize;
+        return this;
+    }
+
+    /**
+     * Gets the font size of the fields.
+     *
+     * @return the font size or a negative value if it isn't overridden
+     */
+    public float getFontSize() {
+        return fontSize;
+    }
+
+    /**
+     * Sets the text color of the fields.
+     *
+     * @param color the new text color
+     * @return this style
+     */
+    public FormFieldStyle setColor(Color color) {
+        this.color = color;
+        return this;
+    }
+
+    /**
+     * Gets the text color of the fields.
+     *
+     * @return the text color or <code>null</code> if it isn't overridden
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Sets the background color of the fields.
+     *
+     * @param backgroundColor the new background color
+     * @return this style
+     */
+    public FormFieldStyle setBackgroundColor(Color backgroundColor) {
+        this.backgroundColor = backgroundColor;
+        return this;
+    }
+
+    /**
+     * Gets the background color of the fields.
+     *
+     * @return the background color or <code>null</code> if it isn't overridden
+     */
+    public Color getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    /**
+     * Sets the border color of the fields.
+     *
+     * @param borderColor the new border color
+     * @return this style
+     */
+    public FormFieldStyle setBorderColor(Color borderColor) {
+        this.borderColor = borderColor;
+        return this;
+    }
+
+    /**
+     * Gets the border color of the fields.
+     *
+     * @return the border color or <code>null</code> if it isn't overridden
+     */
+    public Color getBorderColor() {
+        return borderColor;
+    }
+
+    /**
+     * Sets the border width of the fields.
+     *
+     * @param borderWidth the new border width
+     * @return this style
+     */
+    public FormFieldStyle setBorderWidth(float borderWidth) {
+        this.borderWidth = borderWidth;
+        return this;
+    }
+
+    /**
+     * Gets the border width of the fields.
+     *
+     * @return the border width or a negative value if it isn't overridden
+     */
+    public float getBorderWidth() {
+        return borderWidth;
+    }
+
+    /**
+     * Sets the justification of the fields: 0 for left-justified, 1 for centered, 2 for right-justified.
+     *
+     * @param justification the new justification
+     * @return this style
+     */
+    public FormFieldStyle setJustification(int justification) {
+        this.justification = justification;
+        return this;
+    }
+
+    /**
+     * Gets the justification of the fields.
+     *
+     * @return the justification or a negative value if it isn't overridden
+     */
+    public int getJustification() {
+        return justification;
+    }
+
+    /**
+     * Applies the overridden properties to the field. Each applied property regenerates the field
+     * appearance unless the regeneration is disabled, see {@link PdfFormField#disableFieldRegeneration()}.
+     *
+     * @param field the field to be styled
+     */
+    public void applyTo(PdfFormField field) {
+        if (font != null || fontSize >= 0) {
+            field.setFontAndSize(font != null ? font : field.getFont(), fontSize >= 0 ? fontSize : field.getFontSize());
+        }
+        if (color != null) {
+            field.setColor(color);
+        }
+        if (backgroundColor != null) {
+            field.setBackgroundColor(backgroundColor);
+        }
+        if (borderColor != null) {
+            field.setBorderColor(borderColor);
+        }
+        if (borderWidth >= 0) {
+            field.setBorderWidth(borderWidth);
+        }
+        if (justification >= 0) {
+            field.setJustification(justification);
+        }
+    }
+}
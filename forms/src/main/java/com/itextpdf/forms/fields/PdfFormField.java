@@ -226,6 +226,10 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
     protected PdfFormXObject form;
     protected PdfAConformanceLevel pdfAConformanceLevel;
 
+    private boolean fieldRegenerationEnabled = true;
+    private boolean regenerationPending = false;
+    private List<PdfFormField> pendingChildFields;
+
     /**
      * Creates a form field as a wrapper object around a {@link PdfDictionary}.
      * This {@link PdfDictionary} must be an indirect object.
@@ -1169,6 +1173,13 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
                 for (PdfObject kid: kids) {
                     if (kid.isDictionary() && ((PdfDictionary) kid).getAsString(PdfName.T) != null) {
                         PdfFormField field = new PdfFormField((PdfDictionary) kid);
+                        if (!fieldRegenerationEnabled) {
+                            field.disableFieldRegeneration();
+                            if (pendingChildFields == null) {
+                                pendingChildFields = new ArrayList<>();
+                            }
+                            pendingChildFields.add(field);
+                        }
                         field.setValue(value);
                         if (field.getDefaultAppearance() == null) {
                             field.font = this.font;
@@ -2002,9 +2013,18 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
      * changed any field parameters and didn't use setValue method which
      * generates appearance by itself.
      *
+     * <p>
+     * If regeneration is disabled for the field, the appearance is not generated, the field is only
+     * marked for regeneration and <code>false</code> is returned. See {@link #disableFieldRegeneration()}.
+     *
      * @return whether or not the regeneration was successful.
      */
     public boolean regenerateField() {
+        if (!fieldRegenerationEnabled) {
+            regenerationPending = true;
+            return false;
+        }
+        regenerationPending = false;
         boolean result = true;
         updateDefaultAppearance();
         for (PdfWidgetAnnotation widget: getWidgets()) {
@@ -2015,7 +2035,60 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
         return result;
     }
 
+    /**
+     * Disables the appearance regeneration of the field. All the methods which normally regenerate
+     * the appearance, e.g. {@link #setValue(String)}, {@link #setFont(PdfFont)} or {@link #setColor(Color)},
+     * only mark the field for regeneration until {@link #enableFieldRegeneration()} is called.
+     * This allows to change several parameters of the field and generate its appearance only once.
+     *
+     * @return the edited field
+     */
+    public PdfFormField disableFieldRegeneration() {
+        this.fieldRegenerationEnabled = false;
+        return this;
+    }
 
+    /**
+     * Enables the appearance regeneration of the field, which was disabled by {@link #disableFieldRegeneration()}.
+     * If any of the field parameters were changed while regeneration was disabled, the appearance
+     * is regenerated once.
+     *
+     * @return whether or not the regeneration was successful, <code>true</code> if nothing had to be regenerated.
+     */
+    public boolean enableFieldRegeneration() {
+        this.fieldRegenerationEnabled = true;
+        boolean result = true;
+        if (pendingChildFields != null) {
+            for (PdfFormField child : pendingChildFields) {
+                result &= child.enableFieldRegeneration();
+            }
+            pendingChildFields = null;
+        }
+        if (regenerationPending) {
+            result &= regenerateField();
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the appearance regeneration is enabled for the field.
+     *
+     * @return <code>true</code> if the appearance is regenerated each time the field is changed,
+     * <code>false</code> if the regeneration is deferred until {@link #enableFieldRegeneration()} is called.
+     */
+    public boolean isFieldRegenerationEnabled() {
+        return fieldRegenerationEnabled;
+    }
+
+    /**
+     * Checks whether the field was changed while its appearance regeneration was disabled
+     * and thus its appearance has to be regenerated.
+     *
+     * @return <code>true</code> if the field appearance regeneration is pending, <code>false</code> otherwise.
+     */
+    public boolean isRegenerationPending() {
+        return regenerationPending || pendingChildFields != null;
+    }
 
     /**
      * Gets the border width for the field.
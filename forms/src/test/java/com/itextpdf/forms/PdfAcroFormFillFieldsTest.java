@@ -0,0 +1,256 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.FormFieldStyle;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Category(UnitTest.class)
+public class PdfAcroFormFillFieldsTest extends ExtendedITextTest {
+
+    private static final int FIELDS_COUNT = 10;
+
+    @Test
+    public void deferredRegenerationTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfAcroForm form = createForm(pdfDoc);
+        PdfFormField field = form.getField("field0");
+        PdfObject appearance = getNormalAppearance(field);
+
+        field.disableFieldRegeneration();
+        Assert.assertFalse(field.isFieldRegenerationEnabled());
+        Assert.assertFalse(field.isRegenerationPending());
+        field.setValue("\u0001\u0002");
+        field.setColor(ColorConstants.RED);
+        field.setJustification(1);
+        Assert.assertTrue(field.isRegenerationPending());
+        Assert.assertSame(appearance, getNormalAppearance(field));
+        Assert.assertEquals("\u0001\u0002", field.getValueAsString());
+
+        Assert.assertTrue(field.enableFieldRegeneration());
+        Assert.assertTrue(field.isFieldRegenerationEnabled());
+        Assert.assertFalse(field.isRegenerationPending());
+        Assert.assertNotSame(appearance, getNormalAppearance(field));
+
+        // nothing was changed, so nothing is regenerated
+        appearance = getNormalAppearance(field);
+        field.disableFieldRegeneration();
+        Assert.assertTrue(field.enableFieldRegeneration());
+        Assert.assertSame(appearance, getNormalAppearance(field));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void fillFieldsRegeneratesEachFieldOnceTest() {
+        FormFieldStyle style = new FormFieldStyle()
+                .setFontSize(10)
+                .setColor(ColorConstants.BLUE)
+                .setBackgroundColor(ColorConstants.LIGHT_GRAY)
+                .setBorderColor(ColorConstants.BLACK)
+                .setJustification(2);
+
+        PdfDocument immediateDoc = createDocument();
+        PdfAcroForm immediateForm = createForm(immediateDoc);
+        int immediateObjectsBefore = immediateDoc.getNumberOfPdfObjects();
+        for (Map.Entry<String, String> entry : createValues().entrySet()) {
+            PdfFormField field = immediateForm.getField(entry.getKey());
+            style.applyTo(field);
+            field.setValue(entry.getValue());
+        }
+        int immediateObjects = immediateDoc.getNumberOfPdfObjects() - immediateObjectsBefore;
+
+        PdfDocument batchDoc = createDocument();
+        PdfAcroForm batchForm = createForm(batchDoc);
+        int batchObjectsBefore = batchDoc.getNumberOfPdfObjects();
+        batchForm.fillFields(createValues(), style);
+        int batchObjects = batchDoc.getNumberOfPdfObjects() - batchObjectsBefore;
+
+        // each regeneration creates a new appearance stream for the single widget of a field
+        Assert.assertEquals(FIELDS_COUNT, batchObjects);
+        Assert.assertTrue(immediateObjects > batchObjects);
+
+        for (int i = 0; i < FIELDS_COUNT; i++) {
+            PdfFormField immediateField = immediateForm.getField("field" + i);
+            PdfFormField batchField = batchForm.getField("field" + i);
+            Assert.assertTrue(batchField.isFieldRegenerationEnabled());
+            Assert.assertEquals(immediateField.getValueAsString(), batchField.getValueAsString());
+            Assert.assertEquals(immediateField.getJustification(), batchField.getJustification());
+            Assert.assertEquals(immediateField.getFontSize(), batchField.getFontSize(), 0);
+            Assert.assertNotNull(getNormalAppearance(batchField));
+        }
+        immediateDoc.close();
+        batchDoc.close();
+    }
+
+    @Test
+    public void fillFieldsKeepsDisabledFieldsDeferredTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfAcroForm form = createForm(pdfDoc);
+        form.disableRegenerationForAllFields();
+
+        int objectsBefore = pdfDoc.getNumberOfPdfObjects();
+        form.fillFields(createValues());
+        form.fillFields(createValues(), new FormFieldStyle().setColor(ColorConstants.GREEN));
+        Assert.assertEquals(objectsBefore, pdfDoc.getNumberOfPdfObjects());
+        for (PdfFormField field : form.getFormFields().values()) {
+            Assert.assertFalse(field.isFieldRegenerationEnabled());
+            Assert.assertTrue(field.isRegenerationPending());
+        }
+
+        Assert.assertTrue(form.enableRegenerationForAllFields());
+        Assert.assertEquals(objectsBefore + FIELDS_COUNT, pdfDoc.getNumberOfPdfObjects());
+        for (PdfFormField field : form.getFormFields().values()) {
+            Assert.assertTrue(field.isFieldRegenerationEnabled());
+            Assert.assertFalse(field.isRegenerationPending());
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void flattenRegeneratesPendingFieldsTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfAcroForm form = createForm(pdfDoc);
+        // the test font has no glyphs, so the fields are told apart by their backgrounds
+        for (int i = 1; i < FIELDS_COUNT; i += 2) {
+            form.getField("field" + i).setBackgroundColor(ColorConstants.LIGHT_GRAY);
+        }
+        form.disableRegenerationForAllFields();
+        form.fillFields(createValues());
+        PdfObject appearance = getNormalAppearance(form.getField("field0"));
+
+        int objectsBefore = pdfDoc.getNumberOfPdfObjects();
+        form.flattenFields();
+        // one regenerated appearance per field, the pending appearances are used for flattening
+        Assert.assertTrue(pdfDoc.getNumberOfPdfObjects() >= objectsBefore + FIELDS_COUNT);
+        Assert.assertTrue(pdfDoc.getPage(1).getAnnotations().isEmpty());
+        PdfDictionary xObjects = pdfDoc.getPage(1).getResources().getResource(PdfName.XObject);
+        // identical appearances share one XObject
+        Assert.assertEquals(2, xObjects.size());
+        Assert.assertFalse(xObjects.containsValue(appearance));
+        pdfDoc.close();
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.FORM_FIELD_TO_FILL_NOT_FOUND))
+    public void fillMissingFieldTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfAcroForm form = createForm(pdfDoc);
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("missing", "\u0001");
+        values.put("field1", "\u0002");
+        form.fillFields(values);
+        Assert.assertEquals("\u0002", form.getField("field1").getValueAsString());
+        Assert.assertNull(form.getField("missing"));
+        pdfDoc.close();
+    }
+
+    private static PdfDocument createDocument() {
+        // the document default font is replaced with a Type3 font, so that the test doesn't depend on font resources
+        return new PdfDocument(new PdfWriter(new ByteArrayOutputStream())) {
+            private PdfFont defaultFont;
+
+            @Override
+            public PdfFont getDefaultFont() {
+                if (defaultFont == null) {
+                    defaultFont = createFont(this);
+                }
+                return defaultFont;
+            }
+        };
+    }
+
+    private static PdfAcroForm createForm(PdfDocument pdfDoc) {
+        PdfFont font = pdfDoc.getDefaultFont();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        for (int i = 0; i < FIELDS_COUNT; i++) {
+            form.addField(PdfFormField.createText(pdfDoc, new Rectangle(36, 700 - i * 30, 200, 20),
+                    "field" + i, "", font, 12), page);
+        }
+        return form;
+    }
+
+    private static Map<String, String> createValues() {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < FIELDS_COUNT; i++) {
+            values.put("field" + i, i % 2 == 0 ? "\u0001\u0002" : "\u0002\u0001");
+        }
+        return values;
+    }
+
+    private static PdfObject getNormalAppearance(PdfFormField field) {
+        PdfDictionary ap = field.getWidgets().get(0).getAppearanceDictionary();
+        return ap == null ? null : ap.get(PdfName.N, false);
+    }
+
+    private static PdfFont createFont(PdfDocument pdfDoc) {
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDoc, false);
+        font.addGlyph((char) 1, 500, 0, 0, 500, 700).rectangle(0, 0, 500, 700).fill();
+        font.addGlyph((char) 2, 500, 0, 0, 500, 700).rectangle(0, 0, 250, 700).fill();
+        return font;
+    }
+}
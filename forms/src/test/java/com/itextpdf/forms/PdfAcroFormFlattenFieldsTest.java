@@ -0,0 +1,287 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+
+@Category(UnitTest.class)
+public class PdfAcroFormFlattenFieldsTest extends ExtendedITextTest {
+
+    private static final String RECTANGLE_APPEARANCE = "0 0 100 20 re S";
+    private static final String FILLED_APPEARANCE = "0 0 50 10 re f";
+
+    @Test
+    public void identicalAppearancesAreSharedTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        for (int i = 0; i < 8; i++) {
+            addField(form, page, "field" + i, i, i < 6 ? RECTANGLE_APPEARANCE : FILLED_APPEARANCE);
+        }
+
+        form.flattenFields();
+
+        Assert.assertEquals(2, page.getResources().getResource(PdfName.XObject).size());
+        Assert.assertEquals(8, countXObjectsDrawn(page));
+        Assert.assertNull(page.getPdfObject().getAsArray(PdfName.Annots));
+        Assert.assertNull(pdfDoc.getCatalog().getPdfObject().get(PdfName.AcroForm));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void appearancesWithDifferentBBoxAreNotSharedTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        addField(form, page, "field0", 0, RECTANGLE_APPEARANCE);
+        PdfFormField field = addField(form, page, "field1", 1, RECTANGLE_APPEARANCE);
+        field.getWidgets().get(0).getNormalAppearanceObject().put(PdfName.BBox, new PdfArray(new Rectangle(200, 40)));
+
+        form.flattenFields();
+
+        Assert.assertEquals(2, page.getResources().getResource(PdfName.XObject).size());
+        Assert.assertEquals(2, countXObjectsDrawn(page));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void indirectArrayItemsAreComparedByReferenceTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        for (int i = 0; i < 2; i++) {
+            PdfFormField field = addField(form, page, "field" + i, i, RECTANGLE_APPEARANCE);
+            PdfArray array = new PdfArray();
+            array.add(new PdfDictionary().makeIndirect(pdfDoc));
+            field.getWidgets().get(0).getNormalAppearanceObject().put(new PdfName("Items"), array);
+        }
+
+        form.flattenFields();
+
+        Assert.assertEquals(2, page.getResources().getResource(PdfName.XObject).size());
+        Assert.assertEquals(2, countXObjectsDrawn(page));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void fieldsOnSeveralPagesTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        int[] fieldsPerPage = {1, 5, 20};
+        for (int i = 0; i < fieldsPerPage.length; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            for (int j = 0; j < fieldsPerPage[i]; j++) {
+                addField(form, page, "field" + i + "_" + j, j, j % 2 == 0 ? RECTANGLE_APPEARANCE : FILLED_APPEARANCE);
+            }
+        }
+
+        form.flattenFields();
+
+        for (int i = 0; i < fieldsPerPage.length; i++) {
+            PdfPage page = pdfDoc.getPage(i + 1);
+            Assert.assertNull(page.getPdfObject().getAsArray(PdfName.Annots));
+            Assert.assertEquals(fieldsPerPage[i], countXObjectsDrawn(page));
+            // the appearances are appended to the page content once, regardless of the number of fields
+            Assert.assertEquals(pdfDoc.getPage(1).getContentStreamCount(), page.getContentStreamCount());
+        }
+        Assert.assertNull(pdfDoc.getCatalog().getPdfObject().get(PdfName.AcroForm));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void fieldsWithoutPageEntryTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        pdfDoc.addNewPage();
+        PdfPage page = pdfDoc.addNewPage();
+        for (int i = 0; i < 4; i++) {
+            PdfFormField field = addField(form, page, "field" + i, i, RECTANGLE_APPEARANCE);
+            field.getPdfObject().remove(PdfName.P);
+        }
+
+        form.flattenFields();
+
+        Assert.assertEquals(0, countXObjectsDrawn(pdfDoc.getPage(1)));
+        Assert.assertEquals(4, countXObjectsDrawn(page));
+        Assert.assertNull(page.getPdfObject().getAsArray(PdfName.Annots));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void partialFlatteningTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        for (int i = 0; i < 5; i++) {
+            addField(form, page, "field" + i, i, RECTANGLE_APPEARANCE);
+        }
+
+        form.partialFormFlattening("field1");
+        form.partialFormFlattening("field3");
+        form.flattenFields();
+
+        Assert.assertEquals(2, countXObjectsDrawn(page));
+        Assert.assertEquals(3, page.getAnnotsSize());
+        PdfArray fields = form.getPdfObject().getAsArray(PdfName.Fields);
+        Assert.assertEquals(3, fields.size());
+        Assert.assertEquals("field0", fields.getAsDictionary(0).getAsString(PdfName.T).toUnicodeString());
+        Assert.assertEquals("field2", fields.getAsDictionary(1).getAsString(PdfName.T).toUnicodeString());
+        Assert.assertEquals("field4", fields.getAsDictionary(2).getAsString(PdfName.T).toUnicodeString());
+        pdfDoc.close();
+    }
+
+    @Test
+    public void parentFieldIsRemovedWithItsKidsTest() {
+        PdfDocument pdfDoc = createDocument();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        PdfFormField parent = PdfFormField.createEmptyField(pdfDoc).setFieldName("parent");
+        PdfFormField otherParent = PdfFormField.createEmptyField(pdfDoc).setFieldName("otherParent");
+        for (int i = 0; i < 3; i++) {
+            parent.addKid(createField(pdfDoc, "kid" + i, i, RECTANGLE_APPEARANCE));
+            otherParent.addKid(createField(pdfDoc, "otherKid" + i, i + 3, RECTANGLE_APPEARANCE));
+        }
+        form.addField(parent, page);
+        form.addField(otherParent, page);
+
+        form.partialFormFlattening("parent");
+        form.partialFormFlattening("otherParent.otherKid1");
+        form.flattenFields();
+
+        Assert.assertEquals(4, countXObjectsDrawn(page));
+        Assert.assertEquals(2, page.getAnnotsSize());
+        PdfArray fields = form.getPdfObject().getAsArray(PdfName.Fields);
+        Assert.assertEquals(1, fields.size());
+        Assert.assertEquals(otherParent.getPdfObject(), fields.getAsDictionary(0));
+        Assert.assertEquals(2, otherParent.getKids().size());
+        pdfDoc.close();
+    }
+
+    private static PdfFormField addField(PdfAcroForm form, PdfPage page, String name, int index, String appearance) {
+        PdfFormField field = createField(form.getPdfDocument(), name, index, appearance);
+        form.addField(field, page);
+        return field;
+    }
+
+    private static PdfFormField createField(PdfDocument pdfDoc, String name, int index, String appearance) {
+        PdfFormField field = PdfFormField.createText(pdfDoc, new Rectangle(36, 750 - index * 30, 100, 20),
+                name, "", pdfDoc.getDefaultFont(), 12);
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(100, 20));
+        xObject.getPdfObject().setData(ByteUtils.getIsoBytes(appearance));
+        xObject.makeIndirect(pdfDoc);
+        field.getWidgets().get(0).setNormalAppearance(xObject.getPdfObject());
+        return field;
+    }
+
+    private static int countXObjectsDrawn(PdfPage page) {
+        String content = new String(page.getContentBytes());
+        int count = 0;
+        for (int i = content.indexOf(" Do"); i >= 0; i = content.indexOf(" Do", i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static PdfDocument createDocument() {
+        // the document default font is replaced, so that the test doesn't depend on font resources
+        return new PdfDocument(new PdfWriter(new ByteArrayOutputStream())) {
+            private PdfFont defaultFont;
+
+            @Override
+            public PdfFont getDefaultFont() {
+                if (defaultFont == null) {
+                    defaultFont = createFont(this);
+                }
+                return defaultFont;
+            }
+        };
+    }
+
+    private static PdfFont createFont(PdfDocument document) {
+        // a non-embedded font described by its widths only, no font program has to be loaded for it
+        PdfArray widths = new PdfArray();
+        for (int i = 32; i <= 126; i++) {
+            widths.add(new PdfNumber(500));
+        }
+        PdfDictionary fontDescriptor = new PdfDictionary();
+        fontDescriptor.put(PdfName.Type, PdfName.FontDescriptor);
+        fontDescriptor.put(PdfName.FontName, new PdfName("FlatteningTestFont"));
+        fontDescriptor.put(PdfName.Flags, new PdfNumber(32));
+        fontDescriptor.put(PdfName.FontBBox, new PdfArray(new float[] {0, -200, 500, 800}));
+        fontDescriptor.put(PdfName.Ascent, new PdfNumber(800));
+        fontDescriptor.put(PdfName.Descent, new PdfNumber(-200));
+        fontDescriptor.put(PdfName.CapHeight, new PdfNumber(700));
+        fontDescriptor.put(PdfName.ItalicAngle, new PdfNumber(0));
+        fontDescriptor.put(PdfName.StemV, new PdfNumber(80));
+        PdfDictionary fontDictionary = new PdfDictionary();
+        fontDictionary.put(PdfName.Type, PdfName.Font);
+        fontDictionary.put(PdfName.Subtype, PdfName.Type1);
+        fontDictionary.put(PdfName.BaseFont, new PdfName("FlatteningTestFont"));
+        fontDictionary.put(PdfName.FirstChar, new PdfNumber(32));
+        fontDictionary.put(PdfName.LastChar, new PdfNumber(126));
+        fontDictionary.put(PdfName.Widths, widths);
+        fontDictionary.put(PdfName.Encoding, PdfName.WinAnsiEncoding);
+        fontDictionary.put(PdfName.FontDescriptor, fontDescriptor.makeIndirect(document));
+        fontDictionary.makeIndirect(document);
+        return document.getFont(fontDictionary);
+    }
+}
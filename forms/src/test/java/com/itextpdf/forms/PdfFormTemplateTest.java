@@ -0,0 +1,250 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Category(UnitTest.class)
+public class PdfFormTemplateTest extends ExtendedITextTest {
+
+    private static final int FIELDS_COUNT = 5;
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void fieldNamesTest() throws IOException {
+        PdfFormTemplate template = new PdfFormTemplate(createTemplate());
+        Assert.assertEquals(FIELDS_COUNT, template.getFieldNames().size());
+        for (int i = 0; i < FIELDS_COUNT; i++) {
+            Assert.assertTrue(template.getFieldNames().contains("field" + i));
+        }
+        PdfDocument document = template.createDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Assert.assertEquals(template.getFieldNames(), template.getAcroForm(document).getFormFields().keySet());
+        document.close();
+    }
+
+    @Test
+    public void acroFormFromTemplateFieldsTest() throws IOException {
+        PdfFormTemplate template = new PdfFormTemplate(createTemplate());
+        PdfDocument document = template.createDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Map<String, PdfFormField> templateFields = template.getAcroForm(document).getFormFields();
+
+        PdfDocument regularDocument = template.createDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Map<String, PdfFormField> regularFields = PdfAcroForm.getAcroForm(regularDocument, false).getFormFields();
+
+        Assert.assertEquals(new ArrayList<>(regularFields.keySet()), new ArrayList<>(templateFields.keySet()));
+        for (Map.Entry<String, PdfFormField> entry : templateFields.entrySet()) {
+            PdfFormField regularField = regularFields.get(entry.getKey());
+            Assert.assertEquals(regularField.getPdfObject().getIndirectReference().getObjNumber(),
+                    entry.getValue().getPdfObject().getIndirectReference().getObjNumber());
+            Assert.assertEquals(regularField.getFormType(), entry.getValue().getFormType());
+        }
+        document.close();
+        regularDocument.close();
+    }
+
+    @Test
+    public void fillTest() throws IOException {
+        PdfFormTemplate template = new PdfFormTemplate(new ByteArrayInputStream(createTemplate()));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        template.fill(createValues(1), baos);
+
+        assertFilled(baos.toByteArray(), createValues(1));
+    }
+
+    @Test
+    public void fillAndFlattenTest() throws IOException {
+        PdfFormTemplate template = new PdfFormTemplate(createTemplate());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        template.fill(createValues(2), null, true, baos);
+
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertNull(PdfAcroForm.getAcroForm(document, false));
+        Assert.assertTrue(document.getPage(1).getAnnotations().isEmpty());
+        document.close();
+    }
+
+    @Test
+    public void concurrentFillTest() throws Exception {
+        final PdfFormTemplate template = new PdfFormTemplate(createTemplate());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final int seed = i;
+                results.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws IOException {
+                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                        template.fill(createValues(seed), baos);
+                        return baos.toByteArray();
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertFilled(results.get(i).get(), createValues(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void templateWithoutAcroFormTest() throws IOException {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(PdfException.TemplateDocumentDoesNotContainAcroForm);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        document.close();
+        new PdfFormTemplate(baos.toByteArray());
+    }
+
+    private static void assertFilled(byte[] filled, Map<String, String> values) throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled)));
+        Map<String, PdfFormField> fields = PdfAcroForm.getAcroForm(document, false).getFormFields();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            Assert.assertEquals(entry.getValue(), fields.get(entry.getKey()).getValueAsString());
+        }
+        document.close();
+    }
+
+    private static Map<String, String> createValues(int seed) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < FIELDS_COUNT; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int j = 0; j <= (seed + i) % 4; j++) {
+                value.append((char) ('a' + (seed + j) % 26));
+            }
+            values.put("field" + i, value.toString());
+        }
+        return values;
+    }
+
+    private static byte[] createTemplate() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        // the document default font is replaced, so that the test doesn't depend on font resources
+        PdfDocument document = new PdfDocument(new PdfWriter(baos)) {
+            private PdfFont defaultFont;
+
+            @Override
+            public PdfFont getDefaultFont() {
+                if (defaultFont == null) {
+                    defaultFont = createFont(this);
+                }
+                return defaultFont;
+            }
+        };
+        PdfPage page = document.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(document, true);
+        for (int i = 0; i < FIELDS_COUNT; i++) {
+            form.addField(PdfFormField.createText(document, new Rectangle(36, 700 - i * 30, 200, 20),
+                    "field" + i, "", document.getDefaultFont(), 12), page);
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static PdfFont createFont(PdfDocument document) {
+        // a non-embedded font described by its widths only, no font program has to be loaded for it
+        PdfArray widths = new PdfArray();
+        for (int i = 32; i <= 126; i++) {
+            widths.add(new PdfNumber(500));
+        }
+        PdfDictionary fontDescriptor = new PdfDictionary();
+        fontDescriptor.put(PdfName.Type, PdfName.FontDescriptor);
+        fontDescriptor.put(PdfName.FontName, new PdfName("TemplateTestFont"));
+        fontDescriptor.put(PdfName.Flags, new PdfNumber(32));
+        fontDescriptor.put(PdfName.FontBBox, new PdfArray(new float[] {0, -200, 500, 800}));
+        fontDescriptor.put(PdfName.Ascent, new PdfNumber(800));
+        fontDescriptor.put(PdfName.Descent, new PdfNumber(-200));
+        fontDescriptor.put(PdfName.CapHeight, new PdfNumber(700));
+        fontDescriptor.put(PdfName.ItalicAngle, new PdfNumber(0));
+        fontDescriptor.put(PdfName.StemV, new PdfNumber(80));
+        PdfDictionary fontDictionary = new PdfDictionary();
+        fontDictionary.put(PdfName.Type, PdfName.Font);
+        fontDictionary.put(PdfName.Subtype, PdfName.Type1);
+        fontDictionary.put(PdfName.BaseFont, new PdfName("TemplateTestFont"));
+        fontDictionary.put(PdfName.FirstChar, new PdfNumber(32));
+        fontDictionary.put(PdfName.LastChar, new PdfNumber(126));
+        fontDictionary.put(PdfName.Widths, widths);
+        fontDictionary.put(PdfName.Encoding, PdfName.WinAnsiEncoding);
+        fontDictionary.put(PdfName.FontDescriptor, fontDescriptor.makeIndirect(document));
+        fontDictionary.makeIndirect(document);
+        return document.getFont(fontDictionary);
+    }
+}
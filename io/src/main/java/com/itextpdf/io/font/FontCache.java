@@ -62,7 +62,6 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class FontCache {
 
@@ -75,7 +74,7 @@ public class FontCache {
     private static final String W_PROP = "W";
     private static final String W2_PROP = "W2";
 
-    private static Map<FontCacheKey, FontProgram> fontCache = new ConcurrentHashMap<>();
+    private static final FontProgramCache fontCache = new FontProgramCache();
 
     static {
         try {
@@ -191,12 +190,50 @@ public class FontCache {
     }
 
     static FontProgram saveFont(FontProgram font, FontCacheKey key) {
-        FontProgram fontFound = fontCache.get(key);
-        if (fontFound != null) {
-            return fontFound;
+        return fontCache.put(key, font);
+    }
+
+    /**
+     * Sets the memory budget of the cached font programs. When the estimated size of the font programs saved via
+     * {@link #saveFont(FontProgram, String)} exceeds the budget, the least recently used ones are removed from
+     * the cache. The most recently saved font program is always kept. By default the cache is not bounded.
+     *
+     * @param maxSizeInBytes the budget in bytes, {@link Long#MAX_VALUE} to disable eviction.
+     */
+    public static void setMaxCachedFontsSize(long maxSizeInBytes) {
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("The font cache size must be positive.");
         }
-        fontCache.put(key, font);
-        return font;
+        fontCache.setMaxSize(maxSizeInBytes);
+    }
+
+    /**
+     * Gets the memory budget of the cached font programs.
+     *
+     * @return the budget in bytes.
+     * @see #setMaxCachedFontsSize(long)
+     */
+    public static long getMaxCachedFontsSize() {
+        return fontCache.getMaxSize();
+    }
+
+    /**
+     * Defines whether the font programs saved from now on are held by soft references. Such font programs could be
+     * reclaimed by the garbage collector when memory runs low, they will be parsed again on the next request.
+     *
+     * @param useSoftReferences {@code true} to hold the cached font programs by soft references.
+     */
+    public static void setUseSoftReferences(boolean useSoftReferences) {
+        fontCache.setUseSoftReferences(useSoftReferences);
+    }
+
+    /**
+     * Gets the current metrics of the font program cache.
+     *
+     * @return the snapshot of the cache metrics.
+     */
+    public static FontCacheStatistics getStatistics() {
+        return fontCache.getStatistics();
     }
 
     private static void loadRegistry() throws java.io.IOException {
@@ -0,0 +1,116 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+/**
+ * Snapshot of the {@link FontCache} font program cache metrics, see {@link FontCache#getStatistics()}.
+ */
+public class FontCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int cachedFontsCount;
+    private final long cachedFontsSize;
+
+    FontCacheStatistics(long hits, long misses, long evictions, int cachedFontsCount, long cachedFontsSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.cachedFontsCount = cachedFontsCount;
+        this.cachedFontsSize = cachedFontsSize;
+    }
+
+    /**
+     * Gets the number of font program lookups which found a cached font program.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of font program lookups which did not find a cached font program,
+     * including the ones whose soft referenced font program has been collected.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of font programs removed from the cache to stay within the memory budget.
+     *
+     * @return the number of evicted font programs
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of currently cached font programs.
+     *
+     * @return the number of cached font programs
+     */
+    public int getCachedFontsCount() {
+        return cachedFontsCount;
+    }
+
+    /**
+     * Gets the estimated memory size of the currently cached font programs.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getCachedFontsSize() {
+        return cachedFontsSize;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + hits + ", misses: " + misses + ", evictions: " + evictions + ", fonts: " + cachedFontsCount
+                + ", size: " + cachedFontsSize + " bytes";
+    }
+}
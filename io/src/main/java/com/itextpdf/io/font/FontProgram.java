@@ -59,6 +59,11 @@ public abstract class FontProgram implements Serializable {
     public static final int DEFAULT_WIDTH = 1000;
     public static final int UNITS_NORMALIZATION = 1000;
 
+    static final int ESTIMATED_BASE_SIZE = 2048;
+    static final int ESTIMATED_MAP_ENTRY_SIZE = 48;
+    // glyph object with its unicode chars plus the map entry
+    static final int ESTIMATED_GLYPH_SIZE = 96 + ESTIMATED_MAP_ENTRY_SIZE;
+
     // In case Type1: char code to glyph.
     // In case TrueType: glyph index to glyph.
     protected Map<Integer, Glyph> codeToGlyph = new HashMap<>();
@@ -299,6 +304,17 @@ public abstract class FontProgram implements Serializable {
         }
     }
 
+    /**
+     * Roughly estimates the heap memory retained by the font program. Used by {@link FontCache}
+     * to keep the cached font programs within the configured memory budget.
+     *
+     * @return estimated size in bytes.
+     */
+    long estimateMemorySize() {
+        return ESTIMATED_BASE_SIZE + (long) codeToGlyph.size() * ESTIMATED_GLYPH_SIZE
+                + (long) unicodeToGlyph.size() * ESTIMATED_MAP_ENTRY_SIZE;
+    }
+
     @Override
     public String toString() {
         String name = getFontNames().getFontName();
@@ -0,0 +1,194 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent cache of {@link FontProgram}s with a memory budget.
+ * <p>
+ * Lookups do not lock, they only update the access stamp of the found entry. When the estimated size of the cached
+ * font programs exceeds the budget, the least recently used font programs are evicted. Font programs could also be
+ * held by soft references, so that the garbage collector is able to reclaim them under memory pressure.
+ */
+class FontProgramCache {
+
+    private final ConcurrentMap<FontCacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong totalSize = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    private volatile long maxSize = Long.MAX_VALUE;
+    private volatile boolean useSoftReferences;
+
+    FontProgram get(FontCacheKey key) {
+        Entry entry = entries.get(key);
+        FontProgram fontProgram = entry != null ? entry.get() : null;
+        if (fontProgram == null) {
+            if (entry != null) {
+                remove(key, entry);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        hits.incrementAndGet();
+        return fontProgram;
+    }
+
+    /**
+     * Puts the font program to the cache unless another one is already cached for the key.
+     *
+     * @param key         cache key.
+     * @param fontProgram font program to cache.
+     * @return the font program which is cached for the key.
+     */
+    FontProgram put(FontCacheKey key, FontProgram fontProgram) {
+        Entry newEntry = new Entry(fontProgram, fontProgram.estimateMemorySize(), useSoftReferences);
+        newEntry.lastAccess = clock.incrementAndGet();
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, newEntry);
+            if (existing == null) {
+                break;
+            }
+            FontProgram existingProgram = existing.get();
+            if (existingProgram != null) {
+                existing.lastAccess = clock.incrementAndGet();
+                return existingProgram;
+            }
+            if (entries.replace(key, existing, newEntry)) {
+                totalSize.addAndGet(-existing.size);
+                break;
+            }
+        }
+        totalSize.addAndGet(newEntry.size);
+        evictIfNeeded(newEntry);
+        return fontProgram;
+    }
+
+    void clear() {
+        for (Map.Entry<FontCacheKey, Entry> entry : entries.entrySet()) {
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        evictIfNeeded(null);
+    }
+
+    long getMaxSize() {
+        return maxSize;
+    }
+
+    void setUseSoftReferences(boolean useSoftReferences) {
+        this.useSoftReferences = useSoftReferences;
+    }
+
+    boolean isUseSoftReferences() {
+        return useSoftReferences;
+    }
+
+    FontCacheStatistics getStatistics() {
+        return new FontCacheStatistics(hits.get(), misses.get(), evictions.get(), entries.size(), totalSize.get());
+    }
+
+    private boolean remove(FontCacheKey key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            totalSize.addAndGet(-entry.size);
+            return true;
+        }
+        return false;
+    }
+
+    private void evictIfNeeded(Entry keptEntry) {
+        if (totalSize.get() <= maxSize) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (totalSize.get() > maxSize) {
+                FontCacheKey lruKey = null;
+                Entry lruEntry = null;
+                for (Map.Entry<FontCacheKey, Entry> entry : entries.entrySet()) {
+                    Entry candidate = entry.getValue();
+                    if (candidate != keptEntry && (lruEntry == null || candidate.lastAccess < lruEntry.lastAccess)) {
+                        lruKey = entry.getKey();
+                        lruEntry = candidate;
+                    }
+                }
+                if (lruEntry == null) {
+                    // the just cached font program is kept even if it alone exceeds the budget
+                    break;
+                }
+                if (remove(lruKey, lruEntry)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final FontProgram fontProgram;
+        private final SoftReference<FontProgram> softReference;
+        private final long size;
+        private volatile long lastAccess;
+
+        Entry(FontProgram fontProgram, long size, boolean soft) {
+            this.fontProgram = soft ? null : fontProgram;
+            this.softReference = soft ? new SoftReference<>(fontProgram) : null;
+            this.size = size;
+        }
+
+        FontProgram get() {
+            return softReference != null ? softReference.get() : fontProgram;
+        }
+    }
+}
@@ -94,6 +94,24 @@ public class FontProgramDescriptor {
         this.fullNamesEnglishOpenType = extractFullNamesEnglishOpenType(fontNames);
     }
 
+    FontProgramDescriptor(String fontName, String fullNameLowerCase, String familyNameLowerCase, String style,
+                          int macStyle, int weight, float italicAngle, boolean isMonospace,
+                          Set<String> fullNamesAllLangs, Set<String> fullNamesEnglishOpenType,
+                          String familyNameEnglishOpenType) {
+        this.fontName = fontName;
+        this.fontNameLowerCase = fontName.toLowerCase();
+        this.fullNameLowerCase = fullNameLowerCase;
+        this.familyNameLowerCase = familyNameLowerCase;
+        this.style = style;
+        this.macStyle = macStyle;
+        this.weight = weight;
+        this.italicAngle = italicAngle;
+        this.isMonospace = isMonospace;
+        this.fullNamesAllLangs = fullNamesAllLangs;
+        this.fullNamesEnglishOpenType = fullNamesEnglishOpenType;
+        this.familyNameEnglishOpenType = familyNameEnglishOpenType;
+    }
+
     FontProgramDescriptor(FontNames fontNames, FontMetrics fontMetrics) {
         this(fontNames, fontMetrics.getItalicAngle(), fontMetrics.isFixedPitch());
     }
@@ -144,6 +162,10 @@ public class FontProgramDescriptor {
 
     String getFamilyNameEnglishOpenType() { return familyNameEnglishOpenType; }
 
+    int getMacStyle() {
+        return macStyle;
+    }
+
     private Set<String> extractFullFontNames(FontNames fontNames) {
         Set<String> uniqueFullNames = new HashSet<>();
         for (String[] fullName : fontNames.getFullName())
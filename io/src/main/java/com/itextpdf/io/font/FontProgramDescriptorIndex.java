@@ -0,0 +1,283 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.util.MessageFormatUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index of {@link FontProgramDescriptor}s of font files.
+ * <p>
+ * Fetching a descriptor requires opening and parsing the font file, which is expensive when a lot of fonts are
+ * registered, e.g. with {@code FontProvider#addSystemFonts()}. The index keeps the descriptors together with
+ * the size and the modification time of their files, so that they can be stored on disk with {@link #store(String)},
+ * loaded on the next run with {@link #load(String)} and reused for files which have not been changed since then.
+ * Only new and changed files are parsed again. Files which could not be parsed are remembered as well.
+ * <p>
+ * The index could be shared for multiple threads.
+ */
+public final class FontProgramDescriptorIndex {
+
+    private static final int MAGIC = 0x69544644;
+    private static final int VERSION = 1;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    /**
+     * Creates a new empty index.
+     */
+    public FontProgramDescriptorIndex() {
+    }
+
+    /**
+     * Loads the index stored with {@link #store(String)}.
+     * If the file does not exist or cannot be read, an empty index is returned,
+     * which will be filled on the next font registration.
+     *
+     * @param path path to the index file.
+     * @return loaded index.
+     */
+    public static FontProgramDescriptorIndex load(String path) {
+        FontProgramDescriptorIndex index = new FontProgramDescriptorIndex();
+        File file = new File(path);
+        if (!file.isFile()) {
+            return index;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported font descriptor index format.");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String fontPath = in.readUTF();
+                long lastModified = in.readLong();
+                long length = in.readLong();
+                FontProgramDescriptor descriptor = in.readBoolean() ? readDescriptor(in) : null;
+                index.entries.put(fontPath, new Entry(lastModified, length, descriptor));
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger logger = LoggerFactory.getLogger(FontProgramDescriptorIndex.class);
+            logger.warn(MessageFormatUtil.format(LogMessageConstant.FONT_DESCRIPTOR_INDEX_CANNOT_BE_READ, path), e);
+            index.entries.clear();
+        }
+        return index;
+    }
+
+    /**
+     * Stores the index to the file. Entries of the files which no longer exist are not stored.
+     * The file is written to a temporary file first and then moved to the target path,
+     * so a concurrently loading process never sees a partially written index.
+     *
+     * @param path path to the index file.
+     * @throws IOException if the index cannot be written.
+     */
+    public void store(String path) throws IOException {
+        File target = new File(path);
+        File temp = new File(target.getAbsolutePath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            Map<String, Entry> snapshot = new TreeMap<>(entries);
+            for (String fontPath : entries.keySet()) {
+                if (!new File(fontPath).isFile()) {
+                    snapshot.remove(fontPath);
+                }
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().lastModified);
+                out.writeLong(entry.getValue().length);
+                FontProgramDescriptor descriptor = entry.getValue().descriptor;
+                out.writeBoolean(descriptor != null);
+                if (descriptor != null) {
+                    writeDescriptor(out, descriptor);
+                }
+            }
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        modified = false;
+    }
+
+    /**
+     * Gets the descriptor of the font file. The descriptor is taken from the index if the file has not been
+     * changed since it was indexed, otherwise it is fetched with {@link FontProgramDescriptorFactory}
+     * and the index is updated.
+     * <p>
+     * Font names which do not point to a file, e.g. standard or predefined CID fonts,
+     * are passed to {@link FontProgramDescriptorFactory} directly and are not indexed.
+     *
+     * @param fontPath path to the font file.
+     * @return font descriptor, or {@code null} if the font cannot be parsed.
+     */
+    public FontProgramDescriptor fetchDescriptor(String fontPath) {
+        if (fontPath == null) {
+            return null;
+        }
+        File file = new File(fontPath);
+        if (!file.isFile()) {
+            return FontProgramDescriptorFactory.fetchDescriptor(fontPath);
+        }
+        long lastModified = file.lastModified();
+        long length = file.length();
+        Entry entry = entries.get(fontPath);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return entry.descriptor;
+        }
+        FontProgramDescriptor descriptor = FontProgramDescriptorFactory.fetchDescriptor(fontPath);
+        put(fontPath, lastModified, length, descriptor);
+        return descriptor;
+    }
+
+    /**
+     * Gets the number of indexed font files.
+     *
+     * @return the number of indexed font files.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks whether the index has been changed since it was loaded or stored.
+     *
+     * @return {@code true} if the index should be stored again to avoid parsing the changed files on the next run.
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    void put(String fontPath, long lastModified, long length, FontProgramDescriptor descriptor) {
+        entries.put(fontPath, new Entry(lastModified, length, descriptor));
+        modified = true;
+    }
+
+    private static void writeDescriptor(DataOutputStream out, FontProgramDescriptor descriptor) throws IOException {
+        out.writeUTF(descriptor.getFontName());
+        writeNullableString(out, descriptor.getFullNameLowerCase());
+        writeNullableString(out, descriptor.getFamilyNameLowerCase());
+        writeNullableString(out, descriptor.getStyle());
+        out.writeInt(descriptor.getMacStyle());
+        out.writeInt(descriptor.getFontWeight());
+        out.writeFloat(descriptor.getItalicAngle());
+        out.writeBoolean(descriptor.isMonospace());
+        writeStrings(out, descriptor.getFullNameAllLangs());
+        writeStrings(out, descriptor.getFullNamesEnglishOpenType());
+        writeNullableString(out, descriptor.getFamilyNameEnglishOpenType());
+    }
+
+    private static FontProgramDescriptor readDescriptor(DataInputStream in) throws IOException {
+        String fontName = in.readUTF();
+        String fullNameLowerCase = readNullableString(in);
+        String familyNameLowerCase = readNullableString(in);
+        String style = readNullableString(in);
+        int macStyle = in.readInt();
+        int weight = in.readInt();
+        float italicAngle = in.readFloat();
+        boolean isMonospace = in.readBoolean();
+        Set<String> fullNamesAllLangs = readStrings(in);
+        Set<String> fullNamesEnglishOpenType = readStrings(in);
+        String familyNameEnglishOpenType = readNullableString(in);
+        return new FontProgramDescriptor(fontName, fullNameLowerCase, familyNameLowerCase, style, macStyle, weight,
+                italicAngle, isMonospace, fullNamesAllLangs, fullNamesEnglishOpenType, familyNameEnglishOpenType);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static Set<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<String> values = new HashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private static final class Entry {
+        private final long lastModified;
+        private final long length;
+        private final FontProgramDescriptor descriptor;
+
+        Entry(long lastModified, long length, FontProgramDescriptor descriptor) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.descriptor = descriptor;
+        }
+    }
+}
@@ -115,6 +115,26 @@ public class TrueTypeFont extends FontProgram {
         this(new OpenTypeParser(ttc, ttcIndex));
     }
 
+    @Override
+    long estimateMemorySize() {
+        long size = super.estimateMemorySize() + (long) kerning.size() * ESTIMATED_MAP_ENTRY_SIZE;
+        if (bBoxes != null) {
+            // int[4] array per glyph
+            size += (long) bBoxes.length * 32;
+        }
+        if (fontStreamBytes != null) {
+            size += fontStreamBytes.length;
+        }
+        if (fontParser != null && fontParser.fileName == null) {
+            // the parser created from bytes keeps the whole font data in memory
+            try {
+                size += fontParser.raf.length();
+            } catch (java.io.IOException ignored) {
+            }
+        }
+        return size;
+    }
+
     @Override
     public boolean hasKernPairs() {
         return kerning.size() > 0;
@@ -59,6 +59,11 @@ public final class ByteUtils {
     private static final byte[] one = new byte[]{49};
     private static final byte[] negOne = new byte[]{(byte) '-', 49};
 
+    private static final double HIGH_PRECISION_SCALE = 1000000;
+    // scaled values stay below 2^40 here, so their fractional part is accurate to far better than the margin
+    private static final double HIGH_PRECISION_FAST_PATH_LIMIT = 1000000;
+    private static final double HIGH_PRECISION_TIE_MARGIN = 0.001;
+
     public static byte[] getIsoBytes(String text) {
         if (text == null)
             return null;
@@ -142,6 +147,9 @@ public final class ByteUtils {
                 logger.error(LogMessageConstant.ATTEMPT_PROCESS_NAN);
                 d = 0;
             }
+            if (buffer != null && prependHighPrecisionNumber(d, buffer)) {
+                return null;
+            }
             byte[] result = DecimalFormatUtil.formatNumber(d, "0.######").getBytes(StandardCharsets.ISO_8859_1);
             if (buffer != null) {
                 buffer.prepend(result);
@@ -267,6 +275,57 @@ public final class ByteUtils {
         return buffer == null ? buf.getInternalBuffer() : null;
     }
 
+    /**
+     * Writes {@code d} to the buffer using the same representation as the {@code "0.######"} decimal format,
+     * without creating intermediate objects.
+     * Values whose scaled fractional part is too close to a rounding tie, as well as very big values,
+     * are not handled here, because the exact binary value is needed to round them the way the decimal format does.
+     *
+     * @param d      the number to write, its absolute value is expected to be not less than 0.000001
+     * @param buffer the buffer to prepend the number to
+     * @return {@code true} if the number was written, {@code false} if the caller has to fall back to the decimal format
+     */
+    private static boolean prependHighPrecisionNumber(double d, ByteBuffer buffer) {
+        boolean negative = d < 0;
+        double abs = negative ? -d : d;
+        if (abs >= HIGH_PRECISION_FAST_PATH_LIMIT) {
+            return false;
+        }
+        double scaled = abs * HIGH_PRECISION_SCALE;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) < HIGH_PRECISION_TIE_MARGIN) {
+            return false;
+        }
+        long v = (long) floor;
+        if (fraction > 0.5) {
+            v++;
+        }
+        long intPart = v / (long) HIGH_PRECISION_SCALE;
+        int fracPart = (int) (v % (long) HIGH_PRECISION_SCALE);
+        if (fracPart != 0) {
+            int fracLen = 6;
+            while (fracPart % 10 == 0) {
+                fracPart /= 10;
+                fracLen--;
+            }
+            for (int i = 0; i < fracLen; i++) {
+                buffer.prepend(bytes[fracPart % 10]);
+                fracPart /= 10;
+            }
+            buffer.prepend((byte) '.');
+        }
+        int intLen = longSize(intPart);
+        for (int i = 0; i < intLen; i++) {
+            buffer.prepend(bytes[(int) (intPart % 10)]);
+            intPart /= 10;
+        }
+        if (negative) {
+            buffer.prepend((byte) '-');
+        }
+        return true;
+    }
+
     private static int longSize(long l) {
         long m = 10;
         for (int i = 1; i < 19; i++) {
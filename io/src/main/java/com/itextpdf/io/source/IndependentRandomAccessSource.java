@@ -83,6 +83,10 @@ public class IndependentRandomAccessSource implements IRandomAccessSource {
         return source.length();
     }
 
+    IRandomAccessSource getSource() {
+        return source;
+    }
+
     /**
      * Does nothing - the underlying source is not closed
      */
@@ -114,6 +114,10 @@ public class PdfTokenizer implements Closeable, Serializable {
     public static final byte[] True = ByteUtils.getIsoBytes("true");
     public static final byte[] False = ByteUtils.getIsoBytes("false");
 
+    private static final int MAX_EXACT_NUMBER_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     protected TokenType type;
     protected int reference;
     protected int generation;
@@ -187,6 +191,16 @@ public class PdfTokenizer implements Closeable, Serializable {
         return new String(outBuf.getInternalBuffer(), 0, outBuf.size());
     }
 
+    /**
+     * Gets the content of the current token without copying it. The buffer is reused by the tokenizer,
+     * so its content is valid only until the next token is read. The buffer must not be modified.
+     *
+     * @return the buffer with the content of the current token
+     */
+    public ByteBuffer getTokenContent() {
+        return outBuf;
+    }
+
     public byte[] getDecodedStringContent() {
         return decodeStringContent(outBuf.getInternalBuffer(), 0, outBuf.size() - 1, isHexString());
     }
@@ -504,6 +518,56 @@ public class PdfTokenizer implements Closeable, Serializable {
         return true;
     }
 
+    /**
+     * Gets the value of the current {@link TokenType#Number} token. Unlike parsing of {@link #getStringValue()},
+     * this method doesn't create intermediate objects for the numbers with up to 15 significant digits,
+     * the result is the same as the one of {@link Double#parseDouble(String)}.
+     *
+     * @return the value of the number, or {@link Double#NaN} if the token is not a valid number
+     */
+    public double getDoubleValue() {
+        byte[] content = outBuf.getInternalBuffer();
+        int size = outBuf.size();
+        int pos = 0;
+        boolean negative = false;
+        if (pos < size && (content[pos] == '-' || content[pos] == '+')) {
+            negative = content[pos] == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean hasDigits = false;
+        for (; pos < size; pos++) {
+            int ch = content[pos];
+            if (ch >= '0' && ch <= '9') {
+                hasDigits = true;
+                if (mantissa != 0 || ch != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (ch - '0');
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (ch == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!hasDigits || pos != size || digits > MAX_EXACT_NUMBER_DIGITS || fractionDigits >= POWERS_OF_TEN.length) {
+            try {
+                return Double.parseDouble(getStringValue());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        // both the mantissa and the power of ten are exact, so the division is correctly rounded
+        double value = fractionDigits == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
     public long getLongValue() {
         return Long.parseLong(getStringValue());
     }
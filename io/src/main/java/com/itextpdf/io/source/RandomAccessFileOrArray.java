@@ -98,8 +98,7 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      * @return the new view
      */
     public RandomAccessFileOrArray createView() {
-        ensureByteSourceIsThreadSafe();
-        return new RandomAccessFileOrArray(new IndependentRandomAccessSource(byteSource));
+        return new RandomAccessFileOrArray(new IndependentRandomAccessSource(getThreadSafeByteSource()));
     }
 
     /**
@@ -109,8 +108,31 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      * @return the byte source view.
      */
     public IRandomAccessSource createSourceView() {
-        ensureByteSourceIsThreadSafe();
-        return new IndependentRandomAccessSource(byteSource);
+        return new IndependentRandomAccessSource(getThreadSafeByteSource());
+    }
+
+    /**
+     * Creates the view of the byte source of this object, which may outlive this object.
+     * If the byte source reads a memory mapping shared via {@link SharedMappedSourceRegistry}, the view
+     * holds its own reference to the mapping, so closing this object won't affect the view,
+     * and the view shall be closed separately. Otherwise the view is the same as {@link #createSourceView()}.
+     *
+     * @return the byte source view.
+     */
+    public IRandomAccessSource acquireSourceView() {
+        IRandomAccessSource source = getThreadSafeByteSource();
+        IRandomAccessSource underlyingSource = source;
+        // this object may be a view itself
+        while (underlyingSource instanceof IndependentRandomAccessSource) {
+            underlyingSource = ((IndependentRandomAccessSource) underlyingSource).getSource();
+        }
+        if (underlyingSource instanceof SharedMappedRandomAccessSource) {
+            IRandomAccessSource view = ((SharedMappedRandomAccessSource) underlyingSource).acquireView();
+            if (view != null) {
+                return view;
+            }
+        }
+        return new IndependentRandomAccessSource(source);
     }
 
     /**
@@ -603,9 +625,20 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
         return new String(buf, encoding);
     }
 
-    private void ensureByteSourceIsThreadSafe() {
-        if (!(byteSource instanceof ThreadSafeRandomAccessSource)) {
+    // views may be created concurrently, e.g. of a font program shared between documents,
+    // and all of them must be guarded by the same lock
+    private synchronized IRandomAccessSource getThreadSafeByteSource() {
+        if (!isThreadSafe(byteSource)) {
             byteSource = new ThreadSafeRandomAccessSource(byteSource);
         }
+        return byteSource;
+    }
+
+    private static boolean isThreadSafe(IRandomAccessSource source) {
+        // views of a thread-safe source are thread-safe as well
+        while (source instanceof IndependentRandomAccessSource) {
+            source = ((IndependentRandomAccessSource) source).getSource();
+        }
+        return source instanceof ThreadSafeRandomAccessSource || source instanceof SharedMappedRandomAccessSource;
     }
 }
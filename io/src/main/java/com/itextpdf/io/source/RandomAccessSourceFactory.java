@@ -78,6 +78,11 @@ public final class RandomAccessSourceFactory implements Serializable {
      */
     private boolean exclusivelyLockFile = false;
 
+    /**
+     * Whether files should be read through the mappings shared by {@link SharedMappedSourceRegistry}
+     */
+    private boolean useSharedMapping = false;
+
     /**
      * Creates a factory that will give preference to accessing the underling data source using memory mapped files
      */
@@ -109,6 +114,19 @@ public final class RandomAccessSourceFactory implements Serializable {
         return this;
     }
 
+    /**
+     * Determines whether files should be read through the memory mappings shared between all sources created for
+     * the same file, see {@link SharedMappedSourceRegistry}. Such sources are thread-safe without locking.
+     * The setting is ignored if the file is read into memory, read with {@link java.io.RandomAccessFile}
+     * or exclusively locked.
+     * @param useSharedMapping whether the shared memory mappings should be used
+     * @return this object (this allows chaining of method calls)
+     */
+    public RandomAccessSourceFactory setUseSharedMapping(boolean useSharedMapping){
+        this.useSharedMapping = useSharedMapping;
+        return this;
+    }
+
     /**
      * Creates a {@link IRandomAccessSource} based on a byte array
      * @param data the byte array
@@ -180,6 +198,17 @@ public final class RandomAccessSourceFactory implements Serializable {
             return createByReadingToMemory(new FileInputStream(filename));
         }
 
+        if (useSharedMapping && !exclusivelyLockFile && !usePlainRandomAccess) {
+            try {
+                return SharedMappedSourceRegistry.getInstance().acquire(filename);
+            } catch (java.io.IOException e) {
+                if (!exceptionIsMapFailureException(e)) {
+                    throw e;
+                }
+                // fall back to the source owned by the caller
+            }
+        }
+
         String openMode = exclusivelyLockFile ? "rw" : "r";
 
         RandomAccessFile raf = new RandomAccessFile(file, openMode);
@@ -0,0 +1,133 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import java.nio.Buffer;
+
+/**
+ * A source reading the memory mapping of a file shared with the other sources acquired from
+ * {@link SharedMappedSourceRegistry}. The reads are positional and don't modify the shared buffers,
+ * so the source is thread-safe without locking.
+ */
+class SharedMappedRandomAccessSource implements IRandomAccessSource {
+
+    private final SharedMappedSourceRegistry registry;
+    private volatile SharedMappedSourceRegistry.SharedMapping mapping;
+
+    SharedMappedRandomAccessSource(SharedMappedSourceRegistry registry, SharedMappedSourceRegistry.SharedMapping mapping) {
+        this.registry = registry;
+        this.mapping = mapping;
+    }
+
+    public int get(long position) throws java.io.IOException {
+        SharedMappedSourceRegistry.SharedMapping mapping = getMapping();
+        if (position < 0 || position >= mapping.length) {
+            return -1;
+        }
+        return mapping.segments[(int) (position >>> mapping.segmentShift)].get((int) (position & mapping.segmentMask)) & 0xff;
+    }
+
+    public int get(long position, byte[] bytes, int off, int len) throws java.io.IOException {
+        SharedMappedSourceRegistry.SharedMapping mapping = getMapping();
+        if (position < 0 || position >= mapping.length) {
+            return -1;
+        }
+        len = (int) Math.min(len, mapping.length - position);
+        int read = 0;
+        while (read < len) {
+            // a duplicate has its own position, so the shared buffer is never modified
+            java.nio.ByteBuffer segment = mapping.segments[(int) (position >>> mapping.segmentShift)].duplicate();
+            ((Buffer) segment).position((int) (position & mapping.segmentMask));
+            int n = Math.min(len - read, segment.remaining());
+            segment.get(bytes, off + read, n);
+            read += n;
+            position += n;
+        }
+        return read;
+    }
+
+    public long length() {
+        SharedMappedSourceRegistry.SharedMapping mapping = this.mapping;
+        return mapping != null ? mapping.length : 0;
+    }
+
+    public void close() throws java.io.IOException {
+        SharedMappedSourceRegistry.SharedMapping mapping;
+        synchronized (this) {
+            mapping = this.mapping;
+            this.mapping = null;
+        }
+        if (mapping != null) {
+            registry.release(mapping);
+        }
+    }
+
+    /**
+     * Creates one more source reading the same mapping. The created source holds its own reference
+     * to the mapping, so the mapping stays valid until both this and the created source are closed.
+     *
+     * @return the new source, or null if this source is already closed
+     */
+    SharedMappedRandomAccessSource acquireView() {
+        SharedMappedSourceRegistry.SharedMapping mapping = this.mapping;
+        if (mapping == null || !registry.retain(mapping)) {
+            return null;
+        }
+        return new SharedMappedRandomAccessSource(registry, mapping);
+    }
+
+    @Override
+    public String toString() {
+        SharedMappedSourceRegistry.SharedMapping mapping = this.mapping;
+        return getClass().getName() + " (" + (mapping != null ? mapping.key : "closed") + ")";
+    }
+
+    private SharedMappedSourceRegistry.SharedMapping getMapping() throws java.io.IOException {
+        SharedMappedSourceRegistry.SharedMapping mapping = this.mapping;
+        if (mapping == null) {
+            throw new java.io.IOException("RandomAccessSource not opened");
+        }
+        return mapping;
+    }
+}
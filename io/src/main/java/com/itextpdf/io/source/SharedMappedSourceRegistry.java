@@ -0,0 +1,185 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of read-only memory mappings of files, which are shared between all sources acquired for the same file.
+ * <p>
+ * Each file is mapped once, no matter how many readers open it. The sources returned by {@link #acquire(String)}
+ * read the mapping with positional reads without any locking, so they may be used by many threads at once.
+ * The mapping is reference-counted: it is unmapped and the file is closed when the last acquired source is closed.
+ * <p>
+ * If the length or the modification time of the file changes, the next acquired source gets a new mapping,
+ * while the sources acquired earlier keep reading the old one.
+ */
+public final class SharedMappedSourceRegistry {
+
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private static final SharedMappedSourceRegistry INSTANCE = new SharedMappedSourceRegistry(DEFAULT_SEGMENT_SIZE);
+
+    private final int segmentSize;
+    private final Map<String, SharedMapping> mappings = new HashMap<>();
+
+    SharedMappedSourceRegistry(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the registry shared by the whole application.
+     *
+     * @return the shared registry
+     */
+    public static SharedMappedSourceRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Acquires a source reading the shared mapping of the file. The source shall be closed when it's no longer
+     * needed, which doesn't affect the other sources acquired for the same file.
+     *
+     * @param filename the name of the file to read
+     * @return the thread-safe source reading the file
+     * @throws java.io.IOException if the file can't be opened or mapped
+     */
+    public IRandomAccessSource acquire(String filename) throws java.io.IOException {
+        File file = new File(filename).getCanonicalFile();
+        String key = file.getPath();
+        synchronized (mappings) {
+            SharedMapping mapping = mappings.get(key);
+            if (mapping == null || !mapping.isUpToDate(file)) {
+                mapping = new SharedMapping(key, file, segmentSize);
+                mappings.put(key, mapping);
+            }
+            mapping.referencesCount++;
+            return new SharedMappedRandomAccessSource(this, mapping);
+        }
+    }
+
+    /**
+     * Gets the number of files currently mapped by this registry.
+     *
+     * @return the number of mapped files
+     */
+    public int getMappedFilesCount() {
+        synchronized (mappings) {
+            return mappings.size();
+        }
+    }
+
+    boolean retain(SharedMapping mapping) {
+        synchronized (mappings) {
+            if (mapping.referencesCount <= 0) {
+                // the mapping is already released
+                return false;
+            }
+            mapping.referencesCount++;
+            return true;
+        }
+    }
+
+    void release(SharedMapping mapping) throws java.io.IOException {
+        synchronized (mappings) {
+            if (--mapping.referencesCount > 0) {
+                return;
+            }
+            if (mappings.get(mapping.key) == mapping) {
+                mappings.remove(mapping.key);
+            }
+        }
+        mapping.close();
+    }
+
+    static final class SharedMapping {
+        final String key;
+        final java.nio.ByteBuffer[] segments;
+        final int segmentShift;
+        final int segmentMask;
+        final long length;
+        private final long lastModified;
+        private final RandomAccessFile raf;
+        int referencesCount;
+
+        SharedMapping(String key, File file, int segmentSize) throws java.io.IOException {
+            this.key = key;
+            this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+            this.segmentMask = segmentSize - 1;
+            this.lastModified = file.lastModified();
+            this.raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                this.length = channel.size();
+                int segmentsCount = (int) ((length + segmentMask) >>> segmentShift);
+                this.segments = new java.nio.ByteBuffer[segmentsCount];
+                for (int i = 0; i < segmentsCount; i++) {
+                    long offset = (long) i << segmentShift;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentSize, length - offset));
+                }
+            } catch (java.io.IOException e) {
+                raf.close();
+                throw e;
+            }
+        }
+
+        boolean isUpToDate(File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+
+        void close() throws java.io.IOException {
+            try {
+                for (java.nio.ByteBuffer segment : segments) {
+                    new ByteBufferRandomAccessSource(segment).close();
+                }
+            } finally {
+                raf.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Category(UnitTest.class)
+public class FontProgramCacheTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void leastRecentlyUsedFontIsEvictedTest() {
+        FontProgramCache cache = new FontProgramCache();
+        cache.setMaxSize(3000);
+        FontProgram a = new SizedFontProgram(1000);
+        FontProgram b = new SizedFontProgram(1000);
+        cache.put(key("a"), a);
+        cache.put(key("b"), b);
+        cache.put(key("c"), new SizedFontProgram(1000));
+        Assert.assertSame(a, cache.get(key("a")));
+
+        cache.put(key("d"), new SizedFontProgram(1000));
+        Assert.assertNull(cache.get(key("b")));
+        Assert.assertSame(a, cache.get(key("a")));
+        Assert.assertNotNull(cache.get(key("c")));
+        Assert.assertNotNull(cache.get(key("d")));
+
+        FontCacheStatistics statistics = cache.getStatistics();
+        Assert.assertEquals(1, statistics.getEvictions());
+        Assert.assertEquals(3, statistics.getCachedFontsCount());
+        Assert.assertEquals(3000, statistics.getCachedFontsSize());
+        Assert.assertEquals(4, statistics.getHits());
+        Assert.assertEquals(1, statistics.getMisses());
+    }
+
+    @Test
+    public void fontBiggerThanBudgetIsKeptTest() {
+        FontProgramCache cache = new FontProgramCache();
+        cache.setMaxSize(500);
+        cache.put(key("a"), new SizedFontProgram(400));
+        FontProgram big = new SizedFontProgram(1000);
+        cache.put(key("big"), big);
+        Assert.assertSame(big, cache.get(key("big")));
+        Assert.assertNull(cache.get(key("a")));
+        Assert.assertEquals(1, cache.getStatistics().getCachedFontsCount());
+    }
+
+    @Test
+    public void shrinkingBudgetEvictsFontsTest() {
+        FontProgramCache cache = new FontProgramCache();
+        for (int i = 0; i < 10; i++) {
+            cache.put(key("font" + i), new SizedFontProgram(100));
+        }
+        Assert.assertEquals(1000, cache.getStatistics().getCachedFontsSize());
+
+        cache.setMaxSize(350);
+        Assert.assertEquals(3, cache.getStatistics().getCachedFontsCount());
+        Assert.assertEquals(300, cache.getStatistics().getCachedFontsSize());
+        Assert.assertNotNull(cache.get(key("font9")));
+        Assert.assertNull(cache.get(key("font0")));
+    }
+
+    @Test
+    public void alreadyCachedFontIsReturnedTest() {
+        FontProgramCache cache = new FontProgramCache();
+        FontProgram first = new SizedFontProgram(100);
+        Assert.assertSame(first, cache.put(key("a"), first));
+        Assert.assertSame(first, cache.put(key("a"), new SizedFontProgram(100)));
+        Assert.assertEquals(100, cache.getStatistics().getCachedFontsSize());
+    }
+
+    @Test
+    public void softReferencedFontTest() {
+        FontProgramCache cache = new FontProgramCache();
+        cache.setUseSoftReferences(true);
+        FontProgram font = new SizedFontProgram(100);
+        cache.put(key("a"), font);
+        Assert.assertSame(font, cache.get(key("a")));
+        Assert.assertTrue(cache.isUseSoftReferences());
+    }
+
+    @Test
+    public void clearTest() {
+        FontProgramCache cache = new FontProgramCache();
+        cache.put(key("a"), new SizedFontProgram(100));
+        cache.put(key("b"), new SizedFontProgram(100));
+        cache.clear();
+        Assert.assertEquals(0, cache.getStatistics().getCachedFontsCount());
+        Assert.assertEquals(0, cache.getStatistics().getCachedFontsSize());
+    }
+
+    @Test
+    public void concurrentAccessTest() throws Exception {
+        final FontProgramCache cache = new FontProgramCache();
+        cache.setMaxSize(5000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int thread = i;
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        for (int j = 0; j < 2000; j++) {
+                            FontCacheKey fontKey = key("font" + ((thread * 7 + j) % 40));
+                            if (cache.get(fontKey) == null) {
+                                Assert.assertNotNull(cache.put(fontKey, new SizedFontProgram(100)));
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        FontCacheStatistics statistics = cache.getStatistics();
+        Assert.assertTrue(statistics.getCachedFontsSize() <= 5000);
+        Assert.assertEquals(statistics.getCachedFontsCount() * 100L, statistics.getCachedFontsSize());
+    }
+
+    @Test
+    public void notPositiveFontCacheSizeTest() {
+        junitExpectedException.expect(IllegalArgumentException.class);
+        FontCache.setMaxCachedFontsSize(0);
+    }
+
+    private static FontCacheKey key(String name) {
+        return FontCacheKey.create(name);
+    }
+
+    private static class SizedFontProgram extends FontProgram {
+        private final long size;
+
+        SizedFontProgram(long size) {
+            this.size = size;
+            fontNames = new FontNames();
+        }
+
+        @Override
+        long estimateMemorySize() {
+            return size;
+        }
+
+        @Override
+        public int getPdfFontFlags() {
+            return 0;
+        }
+
+        @Override
+        public int getKerning(Glyph first, Glyph second) {
+            return 0;
+        }
+    }
+}
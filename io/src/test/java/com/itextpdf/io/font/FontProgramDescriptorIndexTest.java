@@ -0,0 +1,185 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.constants.FontMacStyleFlags;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+@Category(IntegrationTest.class)
+public class FontProgramDescriptorIndexTest extends ExtendedITextTest {
+
+    private static final String destinationFolder = "./target/test/com/itextpdf/io/font/FontProgramDescriptorIndexTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void storeAndLoadTest() throws IOException {
+        File font = writeFile("storeAndLoad.ttf", 100);
+        FontProgramDescriptorIndex index = new FontProgramDescriptorIndex();
+        index.put(font.getPath(), font.lastModified(), font.length(), createDescriptor());
+        Assert.assertTrue(index.isModified());
+        index.store(destinationFolder + "storeAndLoad.idx");
+        Assert.assertFalse(index.isModified());
+
+        FontProgramDescriptorIndex loaded = FontProgramDescriptorIndex.load(destinationFolder + "storeAndLoad.idx");
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertFalse(loaded.isModified());
+        // the file is not a valid font, so the descriptor can only be taken from the index
+        FontProgramDescriptor descriptor = loaded.fetchDescriptor(font.getPath());
+        Assert.assertNotNull(descriptor);
+        Assert.assertEquals("TestFont-BoldItalic", descriptor.getFontName());
+        Assert.assertEquals("testfont-bolditalic", descriptor.getFontNameLowerCase());
+        Assert.assertEquals("test font bold italic", descriptor.getFullNameLowerCase());
+        Assert.assertEquals("test font", descriptor.getFamilyNameLowerCase());
+        Assert.assertEquals("test font", descriptor.getFamilyNameEnglishOpenType());
+        Assert.assertEquals("BoldItalic", descriptor.getStyle());
+        Assert.assertEquals(700, descriptor.getFontWeight());
+        Assert.assertEquals(-12f, descriptor.getItalicAngle(), 0f);
+        Assert.assertTrue(descriptor.isMonospace());
+        Assert.assertTrue(descriptor.isBold());
+        Assert.assertTrue(descriptor.isItalic());
+        Assert.assertEquals(2, descriptor.getFullNameAllLangs().size());
+        Assert.assertTrue(descriptor.getFullNamesEnglishOpenType().contains("Test Font Bold Italic"));
+        Assert.assertFalse(loaded.isModified());
+    }
+
+    @Test
+    public void changedFileIsParsedAgainTest() throws IOException {
+        File font = writeFile("changed.ttf", 100);
+        FontProgramDescriptorIndex index = new FontProgramDescriptorIndex();
+        index.put(font.getPath(), font.lastModified(), font.length(), createDescriptor());
+        index.store(destinationFolder + "changed.idx");
+
+        writeFile("changed.ttf", 200);
+        FontProgramDescriptorIndex loaded = FontProgramDescriptorIndex.load(destinationFolder + "changed.idx");
+        Assert.assertNull(loaded.fetchDescriptor(font.getPath()));
+        Assert.assertTrue(loaded.isModified());
+        Assert.assertEquals(1, loaded.size());
+    }
+
+    @Test
+    public void invalidFontIsIndexedTest() throws IOException {
+        File font = writeFile("invalid.ttf", 100);
+        FontProgramDescriptorIndex index = new FontProgramDescriptorIndex();
+        Assert.assertNull(index.fetchDescriptor(font.getPath()));
+        Assert.assertEquals(1, index.size());
+        index.store(destinationFolder + "invalid.idx");
+
+        FontProgramDescriptorIndex loaded = FontProgramDescriptorIndex.load(destinationFolder + "invalid.idx");
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertNull(loaded.fetchDescriptor(font.getPath()));
+        Assert.assertFalse(loaded.isModified());
+    }
+
+    @Test
+    public void removedFileIsNotStoredTest() throws IOException {
+        File font = writeFile("removed.ttf", 100);
+        FontProgramDescriptorIndex index = new FontProgramDescriptorIndex();
+        index.put(font.getPath(), font.lastModified(), font.length(), createDescriptor());
+        Assert.assertTrue(font.delete());
+        index.store(destinationFolder + "removed.idx");
+
+        Assert.assertEquals(0, FontProgramDescriptorIndex.load(destinationFolder + "removed.idx").size());
+    }
+
+    @Test
+    public void notExistingFileIsNotIndexedTest() {
+        FontProgramDescriptorIndex index = new FontProgramDescriptorIndex();
+        Assert.assertNull(index.fetchDescriptor(destinationFolder + "notExisting.ttf"));
+        Assert.assertEquals(0, index.size());
+        Assert.assertFalse(index.isModified());
+    }
+
+    @Test
+    public void notExistingIndexTest() {
+        FontProgramDescriptorIndex index = FontProgramDescriptorIndex.load(destinationFolder + "notExisting.idx");
+        Assert.assertEquals(0, index.size());
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.FONT_DESCRIPTOR_INDEX_CANNOT_BE_READ))
+    public void corruptedIndexTest() throws IOException {
+        File indexFile = writeFile("corrupted.idx", 100);
+        FontProgramDescriptorIndex index = FontProgramDescriptorIndex.load(indexFile.getPath());
+        Assert.assertEquals(0, index.size());
+    }
+
+    private static FontProgramDescriptor createDescriptor() {
+        FontNames fontNames = new FontNames();
+        fontNames.setFontName("TestFont-BoldItalic");
+        fontNames.setFullName(new String[][] {
+                new String[] {"3", "1", "1033", "Test Font Bold Italic"},
+                new String[] {"3", "1", "1031", "Test Font Fett Kursiv"}});
+        fontNames.setFamilyName(new String[][] {new String[] {"3", "1", "1033", "Test Font"}});
+        fontNames.setStyle("BoldItalic");
+        fontNames.setFontWeight(700);
+        fontNames.setMacStyle(FontMacStyleFlags.BOLD | FontMacStyleFlags.ITALIC);
+        return new FontProgramDescriptor(fontNames, -12f, true);
+    }
+
+    private static File writeFile(String name, int length) throws IOException {
+        File file = new File(destinationFolder + name);
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            for (int i = 0; i < length; i++) {
+                fos.write(i);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Category(UnitTest.class)
+public class SharedMappedSourceRegistryTest extends ExtendedITextTest {
+
+    private static final String destinationFolder = "./target/test/com/itextpdf/io/source/SharedMappedSourceRegistryTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void sameFileIsMappedOnceTest() throws IOException {
+        byte[] content = createContent(10000);
+        String filename = writeFile("sameFile.bin", content);
+        SharedMappedSourceRegistry registry = new SharedMappedSourceRegistry(1024);
+
+        IRandomAccessSource first = registry.acquire(filename);
+        IRandomAccessSource second = registry.acquire(new File(filename).getAbsolutePath());
+        Assert.assertEquals(1, registry.getMappedFilesCount());
+        Assert.assertEquals(content.length, first.length());
+
+        first.close();
+        Assert.assertEquals(1, registry.getMappedFilesCount());
+        assertContent(content, second);
+        // closing twice doesn't release the mapping for the other sources
+        first.close();
+        Assert.assertEquals(1, registry.getMappedFilesCount());
+
+        second.close();
+        Assert.assertEquals(0, registry.getMappedFilesCount());
+    }
+
+    @Test
+    public void readAcrossSegmentsTest() throws IOException {
+        byte[] content = createContent(5000);
+        String filename = writeFile("segments.bin", content);
+        SharedMappedSourceRegistry registry = new SharedMappedSourceRegistry(1024);
+
+        IRandomAccessSource source = registry.acquire(filename);
+        assertContent(content, source);
+
+        byte[] buffer = new byte[3000];
+        Assert.assertEquals(3000, source.get(1000, buffer, 0, 3000));
+        for (int i = 0; i < buffer.length; i++) {
+            Assert.assertEquals(content[1000 + i], buffer[i]);
+        }
+        Assert.assertEquals(100, source.get(4900, buffer, 0, 3000));
+        Assert.assertEquals(-1, source.get(5000, buffer, 0, 10));
+        Assert.assertEquals(-1, source.get(5000));
+        source.close();
+    }
+
+    @Test
+    public void emptyFileTest() throws IOException {
+        String filename = writeFile("empty.bin", new byte[0]);
+        SharedMappedSourceRegistry registry = new SharedMappedSourceRegistry(1024);
+
+        IRandomAccessSource source = registry.acquire(filename);
+        Assert.assertEquals(0, source.length());
+        Assert.assertEquals(-1, source.get(0));
+        source.close();
+    }
+
+    @Test
+    public void changedFileIsMappedAgainTest() throws IOException {
+        byte[] content = createContent(2000);
+        String filename = writeFile("changed.bin", content);
+        SharedMappedSourceRegistry registry = new SharedMappedSourceRegistry(1024);
+
+        IRandomAccessSource first = registry.acquire(filename);
+        byte[] newContent = createContent(3000);
+        writeFile("changed.bin", newContent);
+        IRandomAccessSource second = registry.acquire(filename);
+        Assert.assertEquals(3000, second.length());
+        assertContent(newContent, second);
+
+        first.close();
+        Assert.assertEquals(1, registry.getMappedFilesCount());
+        second.close();
+        Assert.assertEquals(0, registry.getMappedFilesCount());
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void readClosedSourceTest() throws IOException {
+        String filename = writeFile("closed.bin", createContent(100));
+        IRandomAccessSource source = new SharedMappedSourceRegistry(1024).acquire(filename);
+        source.close();
+        source.get(0);
+    }
+
+    @Test
+    public void concurrentReadsTest() throws Exception {
+        final byte[] content = createContent(100000);
+        String filename = writeFile("concurrent.bin", content);
+        final IRandomAccessSource source = new SharedMappedSourceRegistry(4096).acquire(filename);
+        RandomAccessFileOrArray file = new RandomAccessFileOrArray(source);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final RandomAccessFileOrArray view = file.createView();
+                final int seed = i;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws IOException {
+                        byte[] buffer = new byte[777];
+                        for (int j = 0; j < 500; j++) {
+                            int position = (seed * 7919 + j * 104729) % (content.length - buffer.length);
+                            view.seek(position);
+                            view.readFully(buffer);
+                            for (int k = 0; k < buffer.length; k++) {
+                                if (buffer[k] != content[position + k]) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        file.close();
+    }
+
+    @Test
+    public void acquiredViewOutlivesSourceTest() throws IOException {
+        byte[] content = createContent(3000);
+        String filename = writeFile("acquiredView.bin", content);
+        SharedMappedSourceRegistry registry = new SharedMappedSourceRegistry(1024);
+
+        RandomAccessFileOrArray file = new RandomAccessFileOrArray(registry.acquire(filename));
+        IRandomAccessSource view = file.acquireSourceView();
+        // a plain view doesn't hold a reference to the mapping
+        Assert.assertTrue(file.createSourceView() instanceof IndependentRandomAccessSource);
+        file.close();
+        Assert.assertEquals(1, registry.getMappedFilesCount());
+        assertContent(content, view);
+
+        view.close();
+        Assert.assertEquals(0, registry.getMappedFilesCount());
+        // the view of a closed source doesn't retain the released mapping
+        Assert.assertTrue(file.acquireSourceView() instanceof IndependentRandomAccessSource);
+    }
+
+    @Test
+    public void factoryCreatesSharedSourceTest() throws IOException {
+        String filename = writeFile("factory.bin", createContent(100));
+        IRandomAccessSource source = new RandomAccessSourceFactory().setUseSharedMapping(true).createBestSource(filename);
+        Assert.assertTrue(source instanceof SharedMappedRandomAccessSource);
+        // the shared source is thread-safe itself, so it isn't wrapped with a lock
+        RandomAccessFileOrArray file = new RandomAccessFileOrArray(source);
+        Assert.assertTrue(file.createSourceView() instanceof IndependentRandomAccessSource);
+        file.close();
+    }
+
+    private static byte[] createContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i * 31 + i / 256);
+        }
+        return content;
+    }
+
+    private static String writeFile(String name, byte[] content) throws IOException {
+        String filename = destinationFolder + name;
+        FileOutputStream fos = new FileOutputStream(filename);
+        fos.write(content);
+        fos.close();
+        return filename;
+    }
+
+    private static void assertContent(byte[] expected, IRandomAccessSource source) throws IOException {
+        for (int i = 0; i < expected.length; i += 97) {
+            Assert.assertEquals(expected[i] & 0xff, source.get(i));
+        }
+    }
+}
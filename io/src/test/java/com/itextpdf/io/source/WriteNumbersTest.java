@@ -130,4 +130,40 @@ public class WriteNumbersTest extends ExtendedITextTest {
         String message = "Expects: " + new String(expecteds) + ", actual: " + new String(actuals) + " \\\\ "+ d;
         Assert.assertArrayEquals(message, expecteds, actuals);
     }
+
+    @Test
+    public void writeHighPrecisionNumberToBufferTest() {
+        Random rnd = new Random();
+        ByteBuffer buffer = new ByteBuffer(32);
+        for (int i = 0; i < 100000; i++) {
+            double d = (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(12) - 5);
+            assertHighPrecisionNumber(d, buffer);
+        }
+    }
+
+    @Test
+    public void writeHighPrecisionRoundingTiesToBufferTest() {
+        ByteBuffer buffer = new ByteBuffer(32);
+        double[] values = {0.0078125, -0.0078125, 0.0000005, 0.0000015, 0.0000025, 1.0000005, 2.5000005,
+                0.000001, 0.0000009999999, 999999.9999995, 1000000, 12345678.123456789, 0.1 + 0.2, 1e15};
+        for (double d : values) {
+            assertHighPrecisionNumber(d, buffer);
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.ATTEMPT_PROCESS_NAN))
+    public void writeNanHighPrecisionToBufferTest() {
+        ByteBuffer buffer = new ByteBuffer(32);
+        ByteUtils.getIsoBytes(Double.NaN, buffer, true);
+        Assert.assertArrayEquals(new byte[] {'0'}, buffer.toByteArray(buffer.capacity() - buffer.size(), buffer.size()));
+    }
+
+    private static void assertHighPrecisionNumber(double d, ByteBuffer buffer) {
+        ByteUtils.getIsoBytes(d, buffer.reset(), true);
+        byte[] actuals = buffer.toByteArray(buffer.capacity() - buffer.size(), buffer.size());
+        byte[] expecteds = ByteUtils.getIsoBytes(d, null, true);
+        String message = "Expects: " + new String(expecteds) + ", actual: " + new String(actuals) + " \\\\ " + d;
+        Assert.assertArrayEquals(message, expecteds, actuals);
+    }
 }
@@ -114,6 +114,7 @@ public class PdfException extends RuntimeException {
     public static final String CannotRemoveDocumentRootTag = "Cannot remove document root tag.";
     public static final String CannotRemoveMarkedContentReferenceBecauseItsPageWasAlreadyFlushed = "Cannot remove marked content reference, because its page has been already flushed.";
     public static final String CannotRemoveTagBecauseItsParentIsFlushed = "Cannot remove tag, because its parent is flushed.";
+    public static final String CannotRegisterOperatorInReadOnlyOperatorTable = "Cannot register operator in read only operator table.";
     @Deprecated
     public static final String CannotSetDataToPdfstreamWhichWasCreatedByInputStream = "Cannot set data to PdfStream which was created by InputStream.";
     public static final String CannotSetDataToPdfStreamWhichWasCreatedByInputStream = "Cannot set data to PdfStream which was created by InputStream.";
@@ -137,10 +138,13 @@ public class PdfException extends RuntimeException {
     public static final String DictionaryKey1IsNotAName = "Dictionary key {0} is not a name.";
     public static final String DictionaryDoesntHave1FontData = "Dictionary doesn't have {0} font data.";
     public static final String DictionaryDoesntHaveSupportedFontData = "Dictionary doesn't have supported font data.";
+    public static final String DigestAlgorithm1DoesNotMatchDocumentDigestAlgorithm2 = "Digest algorithm {0} does not match digest algorithm {1} the document is digested with.";
+    public static final String DigestingWhileWritingToOutputStreamRequiresAppendMode = "Digesting the document while writing it to an output stream requires append mode.";
     public static final String DocumentAlreadyPreClosed = "Document has been already pre closed.";
     public static final String DocumentClosedItIsImpossibleToExecuteAction = "Document was closed. It is impossible to execute action.";
     public static final String DocumentDoesntContainStructTreeRoot = "Document doesn't contain StructTreeRoot.";
     public static final String DocumentHasNoPages = "Document has no pages.";
+    public static final String DocumentHasNoReaderToExtractTextConcurrently = "Document has no PdfReader. Text can be extracted concurrently only from the documents opened for reading.";
     public static final String DocumentHasNoPdfCatalogObject = "Document has no PDF Catalog object.";
     public static final String DocumentHasNotBeenReadYet = "The PDF document has not been read yet. Document reading occurs in PdfDocument class constructor";
     public static final String DocumentMustBePreClosed = "Document must be preClosed.";
@@ -245,6 +249,7 @@ public class PdfException extends RuntimeException {
     public static final String PdfVersionNotValid = "PDF version is not valid.";
     public static final String RefArrayItemsInStructureElementDictionaryShallBeIndirectObjects = "Ref array items in structure element dictionary shall be indirect objects.";
     public static final String RequestedPageNumberIsOutOfBounds = "Requested page number {0} is out of bounds.";
+    public static final String RangeStreamIsNotAvailableWhenDigestingWhileWriting = "Range stream is not available when the document is digested while it is being written.";
     public static final String PngFilterUnknown = "PNG filter unknown.";
     public static final String PrintScalingEnforceEntryInvalid = "/PrintScaling shall may appear in the Enforce array only if the corresponding entry in the viewer preferences dictionary specifies a valid value other than AppDefault";
     public static final String ResourcesCannotBeNull = "Resources cannot be null.";
@@ -264,9 +269,11 @@ public class PdfException extends RuntimeException {
     public static final String TagStructureFlushingFailedItMightBeCorrupted = "Tag structure flushing failed: it might be corrupted.";
     public static final String TagTreePointerIsInInvalidStateItPointsAtFlushedElementUseMoveToRoot = "TagTreePointer is in invalid state: it points at flushed element. Use TagTreePointer#moveToRoot.";
     public static final String TagTreePointerIsInInvalidStateItPointsAtRemovedElementUseMoveToRoot = "TagTreePointer is in invalid state: it points at removed element use TagTreePointer#moveToRoot.";
+    public static final String TemplateDocumentDoesNotContainAcroForm = "The template document does not contain an AcroForm.";
     public static final String TextCannotBeNull = "Text cannot be null.";
     public static final String TextIsTooBig = "Text is too big.";
     public static final String TextMustBeEven = "The text length must be even.";
+    public static final String TextExtractionWasInterrupted = "Text extraction was interrupted.";
     public static final String TwoBarcodeMustBeExternally = "The two barcodes must be composed externally.";
     public static final String ThereAreIllegalCharactersForBarcode128In1 = "There are illegal characters for barcode 128 in {0}.";
     public static final String ThereIsNoAssociatePdfWriterForMakingIndirects = "There is no associate PdfWriter for making indirects.";
@@ -0,0 +1,142 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.crypto;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which decrypts the data of the underlying stream by means of {@link IDecryptor}.
+ */
+public class InputStreamDecryption extends FilterInputStream {
+
+    private final IDecryptor decryptor;
+    private final byte[] encrypted = new byte[8192];
+    private final byte[] sb = new byte[1];
+    private byte[] decrypted;
+    private int position;
+    private boolean finished;
+
+    /**
+     * Creates a new instance of {@link InputStreamDecryption}
+     *
+     * @param in        the {@link InputStream} to read the encrypted content from
+     * @param decryptor the decryptor initialized with the key of the decrypted object
+     */
+    public InputStreamDecryption(InputStream in, IDecryptor decryptor) {
+        super(in);
+        this.decryptor = decryptor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(sb, 0, 1);
+        return n == -1 ? -1 : sb[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (decrypted == null || position == decrypted.length) {
+            if (finished) {
+                return -1;
+            }
+            decryptNext();
+        }
+        int n = Math.min(len, decrypted.length - position);
+        System.arraycopy(decrypted, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        byte[] b = new byte[(int) Math.min(n, 2048)];
+        while (skipped < n) {
+            int read = read(b, 0, (int) Math.min(n - skipped, b.length));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return decrypted == null ? 0 : decrypted.length - position;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private void decryptNext() throws IOException {
+        int n = in.read(encrypted, 0, encrypted.length);
+        if (n <= 0) {
+            decrypted = decryptor.finish();
+            finished = true;
+        } else {
+            decrypted = decryptor.update(encrypted, 0, n);
+        }
+        position = 0;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.util.FileUtil;
+import com.itextpdf.io.util.MessageFormatUtil;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link IPdfReaderIndexCache} implementation which stores the indexes as compact binary files in the given directory,
+ * so that they survive restarts of the application and could be shared by several processes.
+ * <p>
+ * Each index is stored in a separate file named after the document fingerprint. The files are written
+ * to a temporary file first and then renamed, so that readers never observe partially written indexes.
+ */
+public class FilePdfReaderIndexCache implements IPdfReaderIndexCache {
+
+    private static final String INDEX_FILE_EXTENSION = ".idx";
+
+    private final File directory;
+
+    /**
+     * Creates the cache storing indexes in the given directory. The directory is created if it doesn't exist.
+     *
+     * @param directory the path to the directory to store indexes in.
+     */
+    public FilePdfReaderIndexCache(String directory) {
+        FileUtil.createDirectories(directory);
+        this.directory = new File(directory);
+    }
+
+    @Override
+    public PdfReaderIndex get(String fingerprint) {
+        File indexFile = getIndexFile(fingerprint);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        InputStream is = null;
+        try {
+            is = new BufferedInputStream(new FileInputStream(indexFile));
+            return PdfReaderIndex.readFrom(is, indexFile.length());
+        } catch (IOException e) {
+            return dropCorruptedIndex(indexFile, is, e);
+        } catch (RuntimeException e) {
+            return dropCorruptedIndex(indexFile, is, e);
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    @Override
+    public void put(String fingerprint, PdfReaderIndex index) {
+        File indexFile = getIndexFile(fingerprint);
+        File tempFile = new File(directory, fingerprint + "." + Thread.currentThread().getId() + ".tmp");
+        OutputStream os = null;
+        try {
+            os = FileUtil.wrapWithBufferedOutputStream(FileUtil.getFileOutputStream(tempFile));
+            index.writeTo(os);
+            os.close();
+            os = null;
+            if (!tempFile.renameTo(indexFile)) {
+                FileUtil.deleteFile(indexFile);
+                if (!tempFile.renameTo(indexFile)) {
+                    throw new IOException(MessageFormatUtil.format("Cannot rename {0} to {1}.", tempFile, indexFile));
+                }
+            }
+        } catch (IOException e) {
+            Logger logger = LoggerFactory.getLogger(FilePdfReaderIndexCache.class);
+            logger.warn(MessageFormatUtil.format(LogMessageConstant.PDF_READER_INDEX_CANNOT_BE_STORED, e.getMessage()));
+        } finally {
+            closeQuietly(os);
+            if (tempFile.exists()) {
+                FileUtil.deleteFile(tempFile);
+            }
+        }
+    }
+
+    private static PdfReaderIndex dropCorruptedIndex(File indexFile, InputStream is, Exception e) {
+        Logger logger = LoggerFactory.getLogger(FilePdfReaderIndexCache.class);
+        logger.warn(MessageFormatUtil.format(LogMessageConstant.PDF_READER_INDEX_CANNOT_BE_READ, e.getMessage()));
+        // the file shall be closed before it can be deleted
+        closeQuietly(is);
+        FileUtil.deleteFile(indexFile);
+        return null;
+    }
+
+    private File getIndexFile(String fingerprint) {
+        return new File(directory, fingerprint + INDEX_FILE_EXTENSION);
+    }
+
+    private static void closeQuietly(java.io.Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link IPdfReaderIndexCache} implementation which keeps the indexes in memory and evicts
+ * the least recently used ones when the maximum number of entries is exceeded.
+ */
+public class InMemoryPdfReaderIndexCache implements IPdfReaderIndexCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final Map<String, PdfReaderIndex> indexes;
+
+    /**
+     * Creates the cache which keeps at most 64 indexes.
+     */
+    public InMemoryPdfReaderIndexCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxEntries the maximum number of the indexes to keep.
+     */
+    public InMemoryPdfReaderIndexCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The maximum number of entries shall be positive.");
+        }
+        this.indexes = new LinkedHashMap<String, PdfReaderIndex>(16, 0.75f, true) {
+            private static final long serialVersionUID = 8474358346307637396L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PdfReaderIndex> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public PdfReaderIndex get(String fingerprint) {
+        synchronized (indexes) {
+            return indexes.get(fingerprint);
+        }
+    }
+
+    @Override
+    public void put(String fingerprint, PdfReaderIndex index) {
+        synchronized (indexes) {
+            indexes.put(fingerprint, index);
+        }
+    }
+
+    /**
+     * Gets the number of the indexes currently kept in the cache.
+     *
+     * @return the number of the cached indexes.
+     */
+    public int size() {
+        synchronized (indexes) {
+            return indexes.size();
+        }
+    }
+
+    /**
+     * Removes all the indexes from the cache.
+     */
+    public void clear() {
+        synchronized (indexes) {
+            indexes.clear();
+        }
+    }
+}
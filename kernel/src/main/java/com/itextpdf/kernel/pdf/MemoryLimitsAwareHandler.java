@@ -101,7 +101,8 @@ public class MemoryLimitsAwareHandler implements Serializable {
      * This value correlates with maximum heap size. This value should not exceed limit of the heap size.
      *
      * iText will throw an exception if during decompression a pdf stream with two or more filters of identical type
-     * occupies more memory than allowed.
+     * occupies more memory than allowed. The same applies to any pdf stream decoded on the fly,
+     * see {@link PdfReader#readStream(PdfStream, boolean)}.
      *
      * @param maxSizeOfSingleDecompressedPdfStream the maximum allowed size which can be occupied by a single decompressed pdf stream.
      * @return this {@link MemoryLimitsAwareHandler} instance.
@@ -126,7 +127,8 @@ public class MemoryLimitsAwareHandler implements Serializable {
      * Setting this value correlates with the maximum processing time spent on document reading
      *
      * iText will throw an exception if during decompression pdf streams with two or more filters of identical type
-     * occupy more memory than allowed.
+     * occupy more memory than allowed. The pdf streams decoded on the fly are considered as well,
+     * see {@link PdfReader#readStream(PdfStream, boolean)}.
      *
      * @param maxSizeOfDecompressedPdfStreamsSum he maximum allowed size which can be occupied by all decompressed pdf streams.
      * @return this {@link MemoryLimitsAwareHandler} instance.
@@ -182,6 +184,25 @@ public class MemoryLimitsAwareHandler implements Serializable {
         return this;
     }
 
+    /**
+     * Considers the bytes of a pdf stream which is decompressed on the fly. Unlike the streams decompressed in memory,
+     * such a stream is considered while it's being read, so the limit is checked before the whole stream
+     * is decompressed. If memory limits have been faced, throws an exception.
+     * <p>
+     * Only the limit of a single stream is applied: the streams with repeated filters, which are the only ones
+     * considered in the sum of decompressed streams, are never decompressed on the fly.
+     *
+     * @param numOfDecompressedBytes the number of bytes of the pdf stream decompressed so far.
+     * @return this {@link MemoryLimitsAwareHandler} instance.
+     * @see MemoryLimitsAwareException
+     */
+    MemoryLimitsAwareHandler considerBytesOfStreamingDecompression(long numOfDecompressedBytes) {
+        if (numOfDecompressedBytes > maxSizeOfSingleDecompressedPdfStream) {
+            throw new MemoryLimitsAwareException(PdfException.DuringDecompressionSingleStreamOccupiedMoreMemoryThanAllowed);
+        }
+        return this;
+    }
+
     long getAllMemoryUsedForDecompression() {
         return allMemoryUsedForDecompression;
     }
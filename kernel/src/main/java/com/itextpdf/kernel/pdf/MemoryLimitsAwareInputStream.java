@@ -0,0 +1,102 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class implements an input stream which considers the decompressed bytes of a pdf stream
+ * decoded on the fly, see {@link MemoryLimitsAwareHandler}.
+ */
+class MemoryLimitsAwareInputStream extends FilterInputStream {
+
+    private final MemoryLimitsAwareHandler memoryLimitsAwareHandler;
+    private long decodedBytes;
+
+    /**
+     * Creates a new stream which considers the bytes read from the passed decoding stream.
+     *
+     * @param decoded                  the stream of the decoded bytes.
+     * @param memoryLimitsAwareHandler the handler of the document the pdf stream belongs to.
+     */
+    MemoryLimitsAwareInputStream(InputStream decoded, MemoryLimitsAwareHandler memoryLimitsAwareHandler) {
+        super(decoded);
+        this.memoryLimitsAwareHandler = memoryLimitsAwareHandler;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            consider(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            consider(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // the skipped bytes are decompressed as well
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            consider(skipped);
+        }
+        return skipped;
+    }
+
+    private void consider(long numOfNewBytes) {
+        decodedBytes += numOfNewBytes;
+        memoryLimitsAwareHandler.considerBytesOfStreamingDecompression(decodedBytes);
+    }
+}
@@ -218,7 +218,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
     /**
      * Cache of already serialized objects from this document for smart mode.
      */
-    Map<PdfIndirectReference, byte[]> serializedObjectsCache = new HashMap<>();
+    Map<PdfIndirectReference, SerializedObjectContent> serializedObjectsCache = new HashMap<>();
 
     /**
      * Handler which will be used for decompression of pdf streams.
@@ -938,6 +938,9 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     }
                 }
 
+                // Objects waiting for parallel compression of streams shall be written while crypto is still set.
+                writer.flushPendingObjects();
+
                 // To avoid encryption of XrefStream and Encryption dictionary remove crypto.
                 // NOTE. No need in reverting, because it is the last operation with the document.
                 writer.crypto = null;
@@ -1866,6 +1869,10 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     } catch (XMPException ignored) {
                     }
                 }
+                if (reader.isIndexToBeStored()) {
+                    // the page tree is only walked to complete the index which isn't cached yet
+                    reader.storeIndex(catalog.getPdfObject().getAsDictionary(PdfName.Pages));
+                }
                 PdfObject infoDict = trailer.get(PdfName.Info);
                 info = new PdfDocumentInfo(infoDict instanceof PdfDictionary ? (PdfDictionary) infoDict : new PdfDictionary(), this);
                 XmpMetaInfoConverter.appendMetadataToInfo(xmpMetadata, info);
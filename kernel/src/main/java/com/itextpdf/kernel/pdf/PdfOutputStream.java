@@ -71,6 +71,10 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
     // For internal usage only
     private byte[] duplicateContentBuffer = null;
 
+    // Stream which content has already been compressed in parallel mode, see PdfWriter
+    private PdfStream precompressedStream = null;
+    private ByteArrayOutputStream precompressedContent = null;
+
     /**
      * Document associated with PdfOutputStream.
      */
@@ -282,15 +286,73 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         return PdfName.XRef.equals(pdfStream.getAsName(PdfName.Type));
     }
 
+    /**
+     * Checks whether the content of the stream is kept in memory and will be compressed when the stream is written,
+     * so that it can be compressed in advance with {@link #compressContent(PdfStream)}.
+     * The compression level of the stream is resolved the same way as during the writing.
+     *
+     * @param pdfStream the stream to check
+     * @return true, if the in-memory content of the stream will be compressed on writing
+     */
+    boolean isContentCompressedOnWrite(PdfStream pdfStream) {
+        if (pdfStream.getInputStream() != null || pdfStream.getOutputStream() == null || isXRefStream(pdfStream)) {
+            return false;
+        }
+        boolean userDefinedCompression = resolveCompressionLevel(pdfStream);
+        boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
+        return pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION
+                && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression);
+    }
+
+    /**
+     * Compresses the in-memory content of the stream with its compression level. The stream itself is not changed,
+     * so the method may be called from any thread as long as the stream is not modified.
+     *
+     * @param pdfStream the stream which content shall be compressed
+     * @return the compressed content
+     * @throws IOException on error
+     */
+    static ByteArrayOutputStream compressContent(PdfStream pdfStream) throws IOException {
+        ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
+        if (pdfStream instanceof PdfObjectStream) {
+            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
+            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
+        } else {
+            assert pdfStream.getOutputStream() != null : "Error in outputStream";
+            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
+        }
+        zip.finish();
+        return byteArrayStream;
+    }
+
+    /**
+     * Sets the already compressed content which shall be written for the stream instead of compressing
+     * the stream content once again.
+     *
+     * @param pdfStream the stream which content is compressed on writing, or null to reset
+     * @param compressedContent the result of {@link #compressContent(PdfStream)} for the stream
+     */
+    void setPrecompressedContent(PdfStream pdfStream, ByteArrayOutputStream compressedContent) {
+        precompressedStream = pdfStream;
+        precompressedContent = compressedContent;
+    }
+
+    private boolean resolveCompressionLevel(PdfStream pdfStream) {
+        boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
+        if (!userDefinedCompression) {
+            int defaultCompressionLevel = document != null ?
+                    document.getWriter().getCompressionLevel() :
+                    CompressionConstants.DEFAULT_COMPRESSION;
+            pdfStream.setCompressionLevel(defaultCompressionLevel);
+        }
+        return userDefinedCompression;
+    }
+
     private void write(PdfStream pdfStream) {
         try {
-            boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
-            if (!userDefinedCompression) {
-                int defaultCompressionLevel = document != null ?
-                        document.getWriter().getCompressionLevel() :
-                        CompressionConstants.DEFAULT_COMPRESSION;
-                pdfStream.setCompressionLevel(defaultCompressionLevel);
-            }
+            boolean userDefinedCompression = resolveCompressionLevel(pdfStream);
             boolean toCompress = pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION;
             boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
 
@@ -344,17 +406,11 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                     if (toCompress && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression)) {
                         // compress
                         updateCompressionFilter(pdfStream);
-                        byteArrayStream = new ByteArrayOutputStream();
-                        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
+                        if (pdfStream == precompressedStream) {
+                            byteArrayStream = precompressedContent;
                         } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
+                            byteArrayStream = compressContent(pdfStream);
                         }
-                        zip.finish();
                     } else {
                         if (pdfStream instanceof PdfObjectStream) {
                             PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
@@ -51,7 +51,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Algorithm for construction {@link PdfPages} tree
@@ -69,6 +71,10 @@ class PdfPagesTree implements Serializable {
     private boolean generated = false;
     private PdfPages root;
 
+    // page map of the cached reader index, it allows to get pages without splitting the page tree
+    private PdfReaderIndex pageIndex;
+    private Map<PdfDictionary, PdfPages> indexedParents;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(PdfPagesTree.class);
 
     /**
@@ -91,6 +97,12 @@ class PdfPagesTree implements Serializable {
                 this.pageRefs.add(null);
                 this.pages.add(null);
             }
+            PdfReader reader = document.getReader();
+            PdfReaderIndex readerIndex = reader != null && document.getWriter() == null ? reader.getLoadedIndex() : null;
+            if (readerIndex != null && readerIndex.getNumberOfPages() == this.root.getCount()) {
+                this.pageIndex = readerIndex;
+                this.indexedParents = new HashMap<>();
+            }
         } else {
             this.root = null;
             this.parents.add(new PdfPages(0, this.document));
@@ -111,6 +123,10 @@ class PdfPagesTree implements Serializable {
         }
         --pageNum;
         PdfPage pdfPage = pages.get(pageNum);
+        if (pdfPage == null && pageRefs.get(pageNum) == null) {
+            pdfPage = loadIndexedPage(pageNum);
+            pages.set(pageNum, pdfPage);
+        }
         if (pdfPage == null) {
             loadPage(pageNum);
             if (pageRefs.get(pageNum) != null) {
@@ -171,6 +187,16 @@ class PdfPagesTree implements Serializable {
         if (pageNum >= 0) {
             return pageNum + 1;
         }
+        PdfIndirectReference pageRef = pageDictionary.getIndirectReference();
+        if (pageIndex != null && pageRef != null) {
+            int[] objNumbers = pageIndex.getPageObjNumbers();
+            int[] genNumbers = pageIndex.getPageGenNumbers();
+            for (int i = 0; i < objNumbers.length; i++) {
+                if (objNumbers[i] == pageRef.getObjNumber() && genNumbers[i] == pageRef.getGenNumber()) {
+                    return i + 1;
+                }
+            }
+        }
         for (int i = 0; i < pageRefs.size(); i++) {
             if (pageRefs.get(i) == null) {
                 loadPage(i);
@@ -189,6 +215,7 @@ class PdfPagesTree implements Serializable {
      * @param pdfPage a {@link PdfPage} to be added
      */
     public void addPage(PdfPage pdfPage) {
+        pageIndex = null;
         PdfPages pdfPages;
         if (root != null) {
             // in this case we save tree structure
@@ -229,6 +256,7 @@ class PdfPagesTree implements Serializable {
             addPage(pdfPage);
             return;
         }
+        pageIndex = null;
         loadPage(index);
         pdfPage.makeIndirect(document);
         int parentIndex = findPageParent(index);
@@ -253,7 +281,9 @@ class PdfPagesTree implements Serializable {
         if (pdfPage.isFlushed()) {
             LOGGER.warn(LogMessageConstant.REMOVING_PAGE_HAS_ALREADY_BEEN_FLUSHED);
         }
-        if (internalRemovePage(--pageNum)) {
+        pageIndex = null;
+        loadPage(--pageNum);
+        if (internalRemovePage(pageNum)) {
             return pdfPage;
         } else {
             return null;
@@ -262,9 +292,14 @@ class PdfPagesTree implements Serializable {
 
     void releasePage(int pageNumber) {
         --pageNumber;
-        if (pageRefs.get(pageNumber) != null && !pageRefs.get(pageNumber).checkState(PdfObject.FLUSHED)
-                && !pageRefs.get(pageNumber).checkState(PdfObject.MODIFIED)
-                && (pageRefs.get(pageNumber).getOffset() > 0 || pageRefs.get(pageNumber).getIndex() >= 0)) {
+        PdfIndirectReference pageRef = pageRefs.get(pageNumber);
+        if (pageRef == null && pages.get(pageNumber) != null) {
+            // the page was loaded by means of the page map of the reader index
+            pageRef = pages.get(pageNumber).getPdfObject().getIndirectReference();
+        }
+        if (pageRef != null && !pageRef.checkState(PdfObject.FLUSHED)
+                && !pageRef.checkState(PdfObject.MODIFIED)
+                && (pageRef.getOffset() > 0 || pageRef.getIndex() >= 0)) {
             pages.set(pageNumber, null);
         }
     }
@@ -329,6 +364,58 @@ class PdfPagesTree implements Serializable {
         return parents.get(parentIndex);
     }
 
+    /**
+     * Loads the page by means of the page map of the reader index. The page tree is not split in this case,
+     * the parents of the page are created from its /Parent chain.
+     *
+     * @return the loaded page, or {@code null} if there is no page map or it doesn't match the document.
+     */
+    private PdfPage loadIndexedPage(int pageNum) {
+        if (pageIndex == null) {
+            return null;
+        }
+        PdfIndirectReference pageRef = document.getXref().get(pageIndex.getPageObjNumbers()[pageNum]);
+        if (pageRef == null || pageRef.isFree() || pageRef.getGenNumber() != pageIndex.getPageGenNumbers()[pageNum]) {
+            return null;
+        }
+        PdfObject pageObject = pageRef.getRefersTo();
+        if (!(pageObject instanceof PdfDictionary) || ((PdfDictionary) pageObject).containsKey(PdfName.Kids)) {
+            return null;
+        }
+        PdfPage pdfPage = document.getPageFactory().createPdfPage((PdfDictionary) pageObject);
+        pdfPage.parentPages = getIndexedParent(((PdfDictionary) pageObject).getAsDictionary(PdfName.Parent));
+        return pdfPage;
+    }
+
+    private PdfPages getIndexedParent(PdfDictionary parentDictionary) {
+        List<PdfDictionary> chain = new ArrayList<>();
+        PdfPages ancestor = null;
+        PdfDictionary current = parentDictionary;
+        while (current != null) {
+            if (root != null && current == root.getPdfObject()) {
+                ancestor = root;
+                break;
+            }
+            ancestor = indexedParents.get(current);
+            if (ancestor != null) {
+                break;
+            }
+            for (PdfDictionary descendant : chain) {
+                if (descendant == current) {
+                    // cyclic /Parent chain, the page will use the root of the tree as its parent
+                    return null;
+                }
+            }
+            chain.add(current);
+            current = current.getAsDictionary(PdfName.Parent);
+        }
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            ancestor = new PdfPages(0, Integer.MAX_VALUE, chain.get(i), ancestor);
+            indexedParents.put(chain.get(i), ancestor);
+        }
+        return ancestor;
+    }
+
     private void loadPage(int pageNum) {
         PdfIndirectReference targetPage = pageRefs.get(pageNum);
         if (targetPage != null)
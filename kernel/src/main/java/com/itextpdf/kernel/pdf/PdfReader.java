@@ -48,22 +48,32 @@ import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.source.WindowRandomAccessSource;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.securityhandler.UnsupportedSecurityHandlerException;
 import com.itextpdf.kernel.pdf.filters.FilterHandlers;
 import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.kernel.pdf.filters.IStreamingFilterHandler;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,12 +91,21 @@ public class PdfReader implements Closeable, Serializable {
     private static final byte[] endstream = ByteUtils.getIsoBytes("endstream");
     private static final byte[] endobj = ByteUtils.getIsoBytes("endobj");
 
+    private static final int INDEX_FINGERPRINT_TAIL_LENGTH = 1024;
+
     protected static boolean correctStreamLength = true;
 
     private boolean unethicalReading;
 
     private boolean memorySavingMode;
 
+    private boolean lazyLoadingMode;
+
+    // the index of the document read from or to be stored in ReaderProperties#indexCache
+    private PdfReaderIndex index;
+    private String indexFingerprint;
+    private boolean indexLoaded;
+
     //indicate nearest first Indirect reference object which includes current reading the object, using for PdfString decrypt
     private PdfIndirectReference currentIndirectReference;
 
@@ -168,6 +187,7 @@ public class PdfReader implements Closeable, Serializable {
         this(
                 new RandomAccessSourceFactory()
                         .setForceRead(false)
+                        .setUseSharedMapping(properties.useSharedFileMapping)
                         .createBestSource(filename),
                 properties
         );
@@ -218,6 +238,26 @@ public class PdfReader implements Closeable, Serializable {
         return this;
     }
 
+    /**
+     * Defines if lazy loading mode is enabled.
+     * <p>
+     * By default all entries of the cross-reference sections are read into {@link PdfIndirectReference} instances
+     * when the document is opened.
+     * <p>
+     * If lazy loading mode is enabled, the cross-reference entries are kept in a compact primitive index and
+     * the {@link PdfIndirectReference} instances, as well as the objects themselves and the object streams
+     * containing them, are created only when the corresponding object number is requested for the first time.
+     * This makes opening of huge documents considerably faster and the consumed memory proportional to the
+     * number of the objects which are actually accessed, e.g. when only a few pages of the document are processed.
+     *
+     * @param lazyLoadingMode true to enable lazy loading mode, false to disable it.
+     * @return this {@link PdfReader} instance.
+     */
+    public PdfReader setLazyLoadingMode(boolean lazyLoadingMode) {
+        this.lazyLoadingMode = lazyLoadingMode;
+        return this;
+    }
+
     /**
      * Gets whether {@link #close()} method shall close input stream.
      *
@@ -351,27 +391,9 @@ public class PdfReader implements Closeable, Serializable {
             file.seek(stream.getOffset());
             bytes = new byte[length];
             file.readFully(bytes);
-            if (decrypt != null && !decrypt.isEmbeddedFilesOnly()) {
-                PdfObject filter = stream.get(PdfName.Filter, true);
-                boolean skip = false;
-                if (filter != null) {
-                    if (PdfName.Crypt.equals(filter)) {
-                        skip = true;
-                    } else if (filter.getType() == PdfObject.ARRAY) {
-                        PdfArray filters = (PdfArray) filter;
-                        for (int k = 0; k < filters.size(); k++) {
-                            if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
-                                skip = true;
-                                break;
-                            }
-                        }
-                    }
-                    filter.release();
-                }
-                if (!skip) {
-                    decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
-                    bytes = decrypt.decryptByteArray(bytes);
-                }
+            if (isDecryptionRequired(stream)) {
+                decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
+                bytes = decrypt.decryptByteArray(bytes);
             }
         } finally {
             try {
@@ -382,8 +404,34 @@ public class PdfReader implements Closeable, Serializable {
         return bytes;
     }
 
+    private boolean isDecryptionRequired(PdfStream stream) {
+        if (decrypt == null || decrypt.isEmbeddedFilesOnly()) {
+            return false;
+        }
+        PdfObject filter = stream.get(PdfName.Filter, true);
+        boolean skip = false;
+        if (filter != null) {
+            if (PdfName.Crypt.equals(filter)) {
+                skip = true;
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                PdfArray filters = (PdfArray) filter;
+                for (int k = 0; k < filters.size(); k++) {
+                    if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
+                        skip = true;
+                        break;
+                    }
+                }
+            }
+            filter.release();
+        }
+        return !skip;
+    }
+
     /**
-     * Reads, decrypt and optionally decode stream bytes into {@link ByteArrayInputStream}.
+     * Reads, decrypt and optionally decode stream bytes into {@link InputStream}.
+     * The bytes are read, decrypted and decoded on the fly while the returned stream is being read, unless
+     * some of the filters of the stream doesn't support it (see {@link #createDecodedStream(InputStream, PdfDictionary, Map)}).
+     * The returned stream shall be read before the reader is closed.
      * User is responsible for closing returned stream.
      *
      * @param decode true if to get decoded stream, false if to leave it originally encoded.
@@ -391,8 +439,73 @@ public class PdfReader implements Closeable, Serializable {
      * @throws IOException on error.
      */
     public InputStream readStream(PdfStream stream, boolean decode) throws IOException {
-        byte[] bytes = readStreamBytes(stream, decode);
-        return bytes != null ? new ByteArrayInputStream(bytes) : null;
+        PdfName type = stream.getAsName(PdfName.Type);
+        if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
+            checkPdfStreamLength(stream);
+        long offset = stream.getOffset();
+        if (offset <= 0)
+            return null;
+        int length = stream.getLength();
+        InputStream is;
+        if (length <= 0) {
+            is = new ByteArrayInputStream(new byte[0]);
+        } else {
+            is = new RASInputStream(new WindowRandomAccessSource(tokens.getSafeFile().createSourceView(), offset, length));
+            if (isDecryptionRequired(stream)) {
+                decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
+                is = decrypt.getDecryptionStream(is);
+            }
+        }
+        return decode ? createDecodedStream(is, stream, FilterHandlers.getDefaultFilterHandlers()) : is;
+    }
+
+    /**
+     * Creates a stream which decodes the data of the passed stream applying the filters specified in the provided
+     * dictionary using the provided filter handlers. The data is decoded on the fly by the handlers which implement
+     * {@link IStreamingFilterHandler}, the filters of other handlers are applied to the whole data in memory.
+     * The memory limits of the document are considered (see {@link MemoryLimitsAwareHandler}): the decoded bytes
+     * are counted while they are being read, and the streams with repeated filters are decoded in memory.
+     *
+     * @param encoded          the stream of the bytes to decode
+     * @param streamDictionary the dictionary that contains filter information
+     * @param filterHandlers   the map used to look up a handler for each type of filter
+     * @return the stream of the decoded bytes
+     * @throws IOException if the data which is decoded in memory cannot be read
+     * @throws PdfException if there are any problems decoding the bytes
+     */
+    public static InputStream createDecodedStream(InputStream encoded, PdfDictionary streamDictionary,
+            Map<PdfName, IFilterHandler> filterHandlers) throws IOException {
+        PdfArray filters = getFilters(streamDictionary);
+        MemoryLimitsAwareHandler memoryLimitsAwareHandler = null;
+        if (null != streamDictionary.getIndirectReference()) {
+            memoryLimitsAwareHandler = streamDictionary.getIndirectReference().getDocument().memoryLimitsAwareHandler;
+        }
+        if (null != memoryLimitsAwareHandler && hasRepeatedFilters(filters)) {
+            byte[] b = StreamUtil.inputStreamToArray(encoded);
+            encoded.close();
+            return new ByteArrayInputStream(decodeBytes(b, streamDictionary, filterHandlers));
+        }
+        PdfArray dp = getDecodeParams(streamDictionary);
+        InputStream is = encoded;
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            if (filterHandler instanceof IStreamingFilterHandler) {
+                is = ((IStreamingFilterHandler) filterHandler).createDecodingStream(is, filterName, decodeParams, streamDictionary);
+            } else {
+                byte[] b = StreamUtil.inputStreamToArray(is);
+                is.close();
+                is = new ByteArrayInputStream(filterHandler.decode(b, filterName, decodeParams, streamDictionary));
+            }
+        }
+        if (null != memoryLimitsAwareHandler && !filters.isEmpty()) {
+            is = new MemoryLimitsAwareInputStream(is, memoryLimitsAwareHandler);
+        }
+        return is;
     }
 
     /**
@@ -420,6 +533,42 @@ public class PdfReader implements Closeable, Serializable {
         if (b == null) {
             return null;
         }
+        PdfArray filters = getFilters(streamDictionary);
+
+        MemoryLimitsAwareHandler memoryLimitsAwareHandler = null;
+        if (null != streamDictionary.getIndirectReference()) {
+            memoryLimitsAwareHandler = streamDictionary.getIndirectReference().getDocument().memoryLimitsAwareHandler;
+        }
+        if (null != memoryLimitsAwareHandler) {
+            if (hasRepeatedFilters(filters)) {
+                memoryLimitsAwareHandler.beginDecompressedPdfStreamProcessing();
+            } else {
+                // The stream isn't suspicious. We shouldn't process it.
+
+                memoryLimitsAwareHandler = null;
+            }
+        }
+
+        PdfArray dp = getDecodeParams(streamDictionary);
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
+            if (null != memoryLimitsAwareHandler) {
+                memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(b.length);
+            }
+        }
+        if (null != memoryLimitsAwareHandler) {
+            memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
+        }
+        return b;
+    }
+
+    private static PdfArray getFilters(PdfDictionary streamDictionary) {
         PdfObject filter = streamDictionary.get(PdfName.Filter);
         PdfArray filters = new PdfArray();
         if (filter != null) {
@@ -429,28 +578,20 @@ public class PdfReader implements Closeable, Serializable {
                 filters = ((PdfArray) filter);
             }
         }
+        return filters;
+    }
 
-        MemoryLimitsAwareHandler memoryLimitsAwareHandler = null;
-        if (null != streamDictionary.getIndirectReference()) {
-            memoryLimitsAwareHandler = streamDictionary.getIndirectReference().getDocument().memoryLimitsAwareHandler;
-        }
-        if (null != memoryLimitsAwareHandler) {
-            HashSet<PdfName> filterSet = new HashSet<>();
-            int index;
-            for (index = 0; index < filters.size(); index++) {
-                PdfName filterName = filters.getAsName(index);
-                if (!filterSet.add(filterName)) {
-                    memoryLimitsAwareHandler.beginDecompressedPdfStreamProcessing();
-                    break;
-                }
-            }
-            if (index == filters.size()) {
-                // The stream isn't suspicious. We shouldn't process it.
-
-                memoryLimitsAwareHandler = null;
+    private static boolean hasRepeatedFilters(PdfArray filters) {
+        HashSet<PdfName> filterSet = new HashSet<>();
+        for (int index = 0; index < filters.size(); index++) {
+            if (!filterSet.add(filters.getAsName(index))) {
+                return true;
             }
         }
+        return false;
+    }
 
+    private static PdfArray getDecodeParams(PdfDictionary streamDictionary) {
         PdfArray dp = new PdfArray();
         PdfObject dpo = streamDictionary.get(PdfName.DecodeParms);
         if (dpo == null || (dpo.getType() != PdfObject.DICTIONARY && dpo.getType() != PdfObject.ARRAY)) {
@@ -465,34 +606,21 @@ public class PdfReader implements Closeable, Serializable {
             }
             dpo.release();
         }
-        for (int j = 0; j < filters.size(); ++j) {
-            PdfName filterName = (PdfName) filters.get(j);
-            IFilterHandler filterHandler = filterHandlers.get(filterName);
-            if (filterHandler == null)
-                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+        return dp;
+    }
 
-            PdfDictionary decodeParams;
-            if (j < dp.size()) {
-                PdfObject dpEntry = dp.get(j, true);
-                if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
-                    decodeParams = null;
-                } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
-                    decodeParams = (PdfDictionary) dpEntry;
-                } else {
-                    throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
-                }
+    private static PdfDictionary getDecodeParams(PdfArray dp, int filterIndex) {
+        if (filterIndex < dp.size()) {
+            PdfObject dpEntry = dp.get(filterIndex, true);
+            if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
+                return null;
+            } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
+                return (PdfDictionary) dpEntry;
             } else {
-                decodeParams = null;
-            }
-            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
-            if (null != memoryLimitsAwareHandler) {
-                memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(b.length);
+                throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
             }
         }
-        if (null != memoryLimitsAwareHandler) {
-            memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
-        }
-        return b;
+        return null;
     }
 
     /**
@@ -673,13 +801,26 @@ public class PdfReader implements Closeable, Serializable {
         } catch (IllegalArgumentException exc) {
             throw new PdfException(PdfException.PdfVersionNotValid, version);
         }
-        try {
-            readXref();
-        } catch (RuntimeException ex) {
-            Logger logger = LoggerFactory.getLogger(PdfReader.class);
-            logger.error(LogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, ex);
+        if (lazyLoadingMode) {
+            pdfDocument.getXref().initLazyIndex(pdfDocument);
+        }
+        if (properties.indexCache != null) {
+            indexFingerprint = computeIndexFingerprint();
+            PdfReaderIndex cachedIndex = properties.indexCache.get(indexFingerprint);
+            indexLoaded = cachedIndex != null && readIndex(cachedIndex);
+        }
+        if (!indexLoaded) {
+            try {
+                readXref();
+            } catch (RuntimeException ex) {
+                Logger logger = LoggerFactory.getLogger(PdfReader.class);
+                logger.error(LogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, ex);
 
-            rebuildXref();
+                rebuildXref();
+            }
+            if (indexFingerprint != null) {
+                index = createIndex();
+            }
         }
         pdfDocument.getXref().markReadingCompleted();
         readDecryptObj();
@@ -991,11 +1132,11 @@ public class PdfReader implements Closeable, Serializable {
                     end--;
                     continue;
                 }
-                PdfIndirectReference reference = xref.get(num);
+                PdfIndirectReference reference = xref.getLoaded(num);
                 boolean refReadingState = reference != null && reference.checkState(PdfObject.READING) && reference.getGenNumber() == gen;
                 // for references that are added by xref table itself (like 0 entry)
-                boolean refFirstEncountered = reference == null
-                        || !refReadingState && reference.getDocument() == null;
+                boolean refFirstEncountered = reference == null && !xref.isIndexed(num)
+                        || reference != null && !refReadingState && reference.getDocument() == null;
 
                 if (refFirstEncountered) {
                     reference = new PdfIndirectReference(pdfDocument, num, gen, pos);
@@ -1019,7 +1160,7 @@ public class PdfReader implements Closeable, Serializable {
                 }
 
                 if (refFirstEncountered) {
-                    xref.add(reference);
+                    xref.addReadReference(reference);
                 }
             }
         }
@@ -1133,14 +1274,14 @@ public class PdfReader implements Closeable, Serializable {
                             throw new PdfException(PdfException.InvalidXrefStream);
                     }
 
-                    PdfIndirectReference reference = xref.get(base);
+                    PdfIndirectReference reference = xref.getLoaded(base);
                     boolean refReadingState = reference != null && reference.checkState(PdfObject.READING) && reference.getGenNumber() == newReference.getGenNumber();
                     // for references that are added by xref table itself (like 0 entry)
-                    boolean refFirstEncountered = reference == null
-                            || !refReadingState && reference.getDocument() == null;
+                    boolean refFirstEncountered = reference == null && !xref.isIndexed(base)
+                            || reference != null && !refReadingState && reference.getDocument() == null;
 
                     if (refFirstEncountered) {
-                        xref.add(newReference);
+                        xref.addReadReference(newReference);
                     } else if (refReadingState) {
                         reference.setOffset(newReference.getOffset());
                         reference.setObjStreamNumber(newReference.getObjStreamNumber());
@@ -1171,12 +1312,7 @@ public class PdfReader implements Closeable, Serializable {
                 int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
                 if (obj == null)
                     continue;
-                int num = obj[0];
-                int gen = obj[1];
-                PdfIndirectReference reference = xref.get(num);
-                if (reference != null && reference.getGenNumber() == gen) {
-                    reference.fixOffset(pos);
-                }
+                xref.fixOffset(obj[0], obj[1], pos);
             }
         }
     }
@@ -1217,11 +1353,7 @@ public class PdfReader implements Closeable, Serializable {
                 int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
                 if (obj == null)
                     continue;
-                int num = obj[0];
-                int gen = obj[1];
-                if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
-                    xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
-                }
+                xref.addRebuiltReference(new PdfIndirectReference(pdfDocument, obj[0], obj[1], pos));
             }
         }
         if (trailer == null)
@@ -1232,6 +1364,220 @@ public class PdfReader implements Closeable, Serializable {
         return memorySavingMode;
     }
 
+    /**
+     * Creates a new reader of the same document, which shares the source of bytes with this reader but has
+     * its own file pointer and parsing state. The source is made safe for concurrent reading if needed, so that
+     * several threads may read the document at the same time, each one by means of its own {@link PdfDocument}
+     * opened with its own reader. The method itself may be called by several threads at the same time as well.
+     * <p>
+     * The new reader inherits the decryption parameters, the index cache and the reading modes of this reader.
+     * If a {@link MemoryLimitsAwareHandler} was set, the new reader uses a handler with the same limits,
+     * since the handlers track the memory used by a single document.
+     * <p>
+     * If the document is read through a shared file mapping (see {@link ReaderProperties#setUseSharedFileMapping}),
+     * the new reader holds its own reference to the mapping and may still be used after this reader is closed.
+     * Otherwise this reader shall not be closed while the new reader is in use.
+     *
+     * @return a new reader of the same document, which is not bound to any {@link PdfDocument}.
+     * @throws IOException if the source of bytes cannot be accessed.
+     */
+    public PdfReader createConcurrentReader() throws IOException {
+        ReaderProperties readerProperties = new ReaderProperties();
+        readerProperties.password = properties.password;
+        readerProperties.certificate = properties.certificate;
+        readerProperties.certificateKey = properties.certificateKey;
+        readerProperties.certificateKeyProvider = properties.certificateKeyProvider;
+        readerProperties.externalDecryptionProcess = properties.externalDecryptionProcess;
+        readerProperties.indexCache = properties.indexCache;
+        readerProperties.useSharedFileMapping = properties.useSharedFileMapping;
+        if (properties.memoryLimitsAwareHandler != null) {
+            readerProperties.memoryLimitsAwareHandler = new MemoryLimitsAwareHandler()
+                    .setMaxSizeOfSingleDecompressedPdfStream(properties.memoryLimitsAwareHandler.getMaxSizeOfSingleDecompressedPdfStream())
+                    .setMaxSizeOfDecompressedPdfStreamsSum(properties.memoryLimitsAwareHandler.getMaxSizeOfDecompressedPdfStreamsSum());
+        }
+        // a shared file mapping is retained by the concurrent reader, so that it outlives this reader
+        PdfReader reader = new PdfReader(tokens.getSafeFile().acquireSourceView(), readerProperties);
+        reader.sourcePath = sourcePath;
+        reader.unethicalReading = unethicalReading;
+        reader.memorySavingMode = memorySavingMode;
+        reader.lazyLoadingMode = lazyLoadingMode;
+        return reader;
+    }
+
+    /**
+     * Gets the index which was used to read the document instead of parsing its cross-reference structure.
+     *
+     * @return the used {@link PdfReaderIndex}, or {@code null} if the document was read without it.
+     */
+    PdfReaderIndex getLoadedIndex() {
+        return indexLoaded ? index : null;
+    }
+
+    /**
+     * Checks if an index was created while reading the document, which has to be completed and stored
+     * in the cache by {@link #storeIndex(PdfDictionary)}.
+     *
+     * @return true if the index has to be stored, false if the document was read without index cache
+     * or by means of the cached index.
+     */
+    boolean isIndexToBeStored() {
+        return index != null && !indexLoaded;
+    }
+
+    /**
+     * Completes the index created while reading the document with the page map and stores it in the cache.
+     * Does nothing if the document was read without index cache or by means of the cached index.
+     *
+     * @param pagesRoot the root of the document page tree.
+     */
+    void storeIndex(PdfDictionary pagesRoot) {
+        if (!isIndexToBeStored()) {
+            return;
+        }
+        List<PdfIndirectReference> pageRefs = collectPageReferences(pagesRoot);
+        if (pageRefs != null) {
+            int[] objNumbers = new int[pageRefs.size()];
+            int[] genNumbers = new int[pageRefs.size()];
+            for (int i = 0; i < objNumbers.length; i++) {
+                objNumbers[i] = pageRefs.get(i).getObjNumber();
+                genNumbers[i] = pageRefs.get(i).getGenNumber();
+            }
+            index.setPages(objNumbers, genNumbers);
+        }
+        properties.indexCache.put(indexFingerprint, index);
+        index = null;
+    }
+
+    /**
+     * Calculates the fingerprint of the document which identifies its index in the cache. The fingerprint consists
+     * of the document length, the file modification time if the document is read from a file, and MD5 digest
+     * of the document tail, which contains startxref value and, as a rule, the trailer with the document ID.
+     */
+    private String computeIndexFingerprint() throws IOException {
+        RandomAccessFileOrArray file = tokens.getSafeFile();
+        try {
+            long length = file.length();
+            byte[] tail = new byte[(int) Math.min(length, INDEX_FINGERPRINT_TAIL_LENGTH)];
+            file.seek(length - tail.length);
+            file.readFully(tail);
+            long modificationTime = sourcePath != null ? new File(sourcePath).lastModified() : 0;
+            byte[] digest;
+            try {
+                digest = MessageDigest.getInstance("MD5").digest(tail);
+            } catch (NoSuchAlgorithmException e) {
+                throw new PdfException(PdfException.CannotReadPdfObject, e);
+            }
+            StringBuilder fingerprint = new StringBuilder();
+            fingerprint.append(Long.toHexString(length)).append('_').append(Long.toHexString(modificationTime)).append('_');
+            for (byte b : digest) {
+                fingerprint.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+            }
+            return fingerprint.toString();
+        } finally {
+            file.close();
+        }
+    }
+
+    private PdfReaderIndex createIndex() throws IOException {
+        ByteArrayOutputStream trailerBytes = new ByteArrayOutputStream();
+        PdfOutputStream trailerStream = new PdfOutputStream(trailerBytes);
+        trailerStream.write(trailer);
+        trailerStream.flush();
+        return new PdfReaderIndex(pdfDocument.getXref().createIndexSnapshot(), trailerBytes.toByteArray(),
+                lastXref, eofPos, xrefStm, hybridXref, rebuiltXref);
+    }
+
+    /**
+     * Fills the cross-reference table and reads the trailer from the cached index.
+     *
+     * @return true if the index was read successfully, false if the document shall be read without it.
+     */
+    private boolean readIndex(PdfReaderIndex index) throws IOException {
+        PdfXrefTable xref = pdfDocument.getXref();
+        xref.loadIndexSnapshot(index.getXrefIndex(), pdfDocument);
+        PdfTokenizer saveTokens = tokens;
+        try {
+            tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(index.getTrailer())));
+            PdfObject indexTrailer = readObject(false);
+            if (indexTrailer == null || indexTrailer.getType() != PdfObject.DICTIONARY) {
+                throw new PdfException(PdfException.TrailerNotFound);
+            }
+            trailer = (PdfDictionary) indexTrailer;
+        } catch (RuntimeException e) {
+            Logger logger = LoggerFactory.getLogger(PdfReader.class);
+            logger.warn(MessageFormatUtil.format(LogMessageConstant.PDF_READER_INDEX_CANNOT_BE_READ, e.getMessage()));
+            xref.clear();
+            trailer = null;
+            return false;
+        } finally {
+            tokens = saveTokens;
+        }
+        this.index = index;
+        lastXref = index.getLastXref();
+        eofPos = index.getEofPos();
+        xrefStm = index.isXrefStm();
+        hybridXref = index.isHybridXref();
+        rebuiltXref = index.isRebuiltXref();
+        return true;
+    }
+
+    /**
+     * Walks the page tree and collects the references of the pages in the document order.
+     * The page dictionaries, which were not read before, are released.
+     *
+     * @return the list of the page references, or {@code null} if the page tree is broken.
+     */
+    private static List<PdfIndirectReference> collectPageReferences(PdfDictionary pagesRoot) {
+        if (pagesRoot == null || pagesRoot.getAsArray(PdfName.Kids) == null) {
+            return null;
+        }
+        PdfNumber count = pagesRoot.getAsNumber(PdfName.Count);
+        List<PdfIndirectReference> pageRefs = new ArrayList<>(count != null ? Math.max(count.intValue(), 0) : 0);
+        Set<PdfDictionary> visited = new HashSet<>();
+        List<PdfArray> kidsStack = new ArrayList<>();
+        List<Integer> positionsStack = new ArrayList<>();
+        visited.add(pagesRoot);
+        kidsStack.add(pagesRoot.getAsArray(PdfName.Kids));
+        positionsStack.add(0);
+        while (!kidsStack.isEmpty()) {
+            int top = kidsStack.size() - 1;
+            PdfArray kids = kidsStack.get(top);
+            int position = (int) positionsStack.get(top);
+            if (position >= kids.size()) {
+                kidsStack.remove(top);
+                positionsStack.remove(top);
+                continue;
+            }
+            positionsStack.set(top, position + 1);
+            PdfObject kidObject = kids.get(position, false);
+            if (kidObject == null || kidObject.getType() != PdfObject.INDIRECT_REFERENCE) {
+                return null;
+            }
+            PdfIndirectReference kidRef = (PdfIndirectReference) kidObject;
+            boolean kidWasRead = kidRef.refersTo != null;
+            PdfObject kid = kidRef.getRefersTo();
+            if (kid == null || kid.getType() != PdfObject.DICTIONARY) {
+                return null;
+            }
+            PdfObject kidKids = ((PdfDictionary) kid).get(PdfName.Kids);
+            if (kidKids == null) {
+                pageRefs.add(kidRef);
+                if (!kidWasRead) {
+                    kid.release();
+                }
+            } else if (kidKids.getType() == PdfObject.ARRAY && visited.add((PdfDictionary) kid)) {
+                kidsStack.add((PdfArray) kidKids);
+                positionsStack.add(0);
+            } else {
+                return null;
+            }
+        }
+        if (count == null || count.intValue() != pageRefs.size()) {
+            return null;
+        }
+        return pageRefs;
+    }
+
     private void readDecryptObj() {
         if (encrypted)
             return;
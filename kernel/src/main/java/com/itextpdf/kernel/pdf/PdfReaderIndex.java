@@ -0,0 +1,251 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * The result of reading the cross-reference structure of a PDF document: resolved object offsets,
+ * object streams membership, the trailer and the page number to object number map.
+ * <p>
+ * Instances are created by {@link PdfReader} and stored in {@link IPdfReaderIndexCache} when the reader is created
+ * with {@link ReaderProperties#setIndexCache(IPdfReaderIndexCache)}. Subsequent opens of the same unchanged document
+ * use the stored index instead of parsing the cross-reference sections or rebuilding the cross-reference table.
+ * <p>
+ * The index can be stored in a compact binary form via {@link #writeTo(OutputStream)}
+ * and restored via {@link #readFrom(InputStream)}.
+ */
+public final class PdfReaderIndex implements Serializable {
+
+    private static final long serialVersionUID = 2375624108296473413L;
+
+    private static final int MAGIC = 0x69545849;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int XREF_STM_FLAG = 1;
+    private static final int HYBRID_XREF_FLAG = 2;
+    private static final int REBUILT_XREF_FLAG = 4;
+
+    // magic, format version, flags, last xref, eof position and trailer length
+    private static final int HEADER_LENGTH = 32;
+
+    private final PdfXrefIndex xrefIndex;
+    private final byte[] trailer;
+    private final long lastXref;
+    private final long eofPos;
+    private final int flags;
+    private int[] pageObjNumbers;
+    private int[] pageGenNumbers;
+
+    PdfReaderIndex(PdfXrefIndex xrefIndex, byte[] trailer, long lastXref, long eofPos, boolean xrefStm,
+            boolean hybridXref, boolean rebuiltXref) {
+        this(xrefIndex, trailer, lastXref, eofPos,
+                (xrefStm ? XREF_STM_FLAG : 0) | (hybridXref ? HYBRID_XREF_FLAG : 0) | (rebuiltXref ? REBUILT_XREF_FLAG : 0));
+    }
+
+    private PdfReaderIndex(PdfXrefIndex xrefIndex, byte[] trailer, long lastXref, long eofPos, int flags) {
+        this.xrefIndex = xrefIndex;
+        this.trailer = trailer;
+        this.lastXref = lastXref;
+        this.eofPos = eofPos;
+        this.flags = flags;
+    }
+
+    /**
+     * Reads the index previously written by {@link #writeTo(OutputStream)}.
+     *
+     * @param is the stream to read the index from. The stream is not closed.
+     * @return the read {@link PdfReaderIndex}.
+     * @throws IOException if the stream doesn't contain a valid index.
+     */
+    public static PdfReaderIndex readFrom(InputStream is) throws IOException {
+        return readFrom(is, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the index previously written by {@link #writeTo(OutputStream)}. The sizes stored in the index
+     * are checked against the length of the data, so that corrupted data doesn't lead to huge allocations.
+     *
+     * @param is     the stream to read the index from. The stream is not closed.
+     * @param length the number of bytes available in the stream.
+     * @return the read {@link PdfReaderIndex}.
+     * @throws IOException if the stream doesn't contain a valid index.
+     */
+    public static PdfReaderIndex readFrom(InputStream is, long length) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown PdfReaderIndex format.");
+        }
+        int flags = in.readInt();
+        long lastXref = in.readLong();
+        long eofPos = in.readLong();
+        long remaining = length - HEADER_LENGTH;
+        int trailerLength = in.readInt();
+        checkCount(trailerLength, 1, remaining);
+        byte[] trailer = new byte[trailerLength];
+        in.readFully(trailer);
+        remaining -= trailerLength;
+        PdfXrefIndex xrefIndex = PdfXrefIndex.readFrom(in, remaining);
+        PdfReaderIndex index = new PdfReaderIndex(xrefIndex, trailer, lastXref, eofPos, flags);
+        int pagesCount = in.readInt();
+        if (pagesCount >= 0) {
+            // each page is stored as an object number and a generation number
+            checkCount(pagesCount, 8, remaining);
+            int[] objNumbers = new int[pagesCount];
+            int[] genNumbers = new int[pagesCount];
+            for (int i = 0; i < pagesCount; i++) {
+                objNumbers[i] = in.readInt();
+                genNumbers[i] = in.readInt();
+            }
+            index.setPages(objNumbers, genNumbers);
+        }
+        return index;
+    }
+
+    static void checkCount(long count, int entryLength, long remaining) throws IOException {
+        if (count < 0 || count > remaining / entryLength) {
+            throw new IOException("Invalid PdfReaderIndex entries count.");
+        }
+    }
+
+    /**
+     * Writes the index in a compact binary form.
+     *
+     * @param os the stream to write the index to. The stream is not closed.
+     * @throws IOException on error.
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(flags);
+        out.writeLong(lastXref);
+        out.writeLong(eofPos);
+        out.writeInt(trailer.length);
+        out.write(trailer);
+        xrefIndex.writeTo(out);
+        int[] objNumbers = pageObjNumbers;
+        int[] genNumbers = pageGenNumbers;
+        if (objNumbers == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(objNumbers.length);
+            for (int i = 0; i < objNumbers.length; i++) {
+                out.writeInt(objNumbers[i]);
+                out.writeInt(genNumbers[i]);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Gets the number of cross-reference entries in the index.
+     *
+     * @return the number of the indexed objects including the free ones.
+     */
+    public int getNumberOfObjects() {
+        return xrefIndex.size();
+    }
+
+    /**
+     * Gets the number of pages in the page number to object number map.
+     *
+     * @return number of pages, or -1 if the index doesn't contain the pages map.
+     */
+    public int getNumberOfPages() {
+        int[] objNumbers = pageObjNumbers;
+        return objNumbers != null ? objNumbers.length : -1;
+    }
+
+    /**
+     * Checks whether the cross-reference table of the indexed document was rebuilt because of errors.
+     *
+     * @return true, if the cross-reference table was rebuilt.
+     */
+    public boolean isRebuiltXref() {
+        return (flags & REBUILT_XREF_FLAG) != 0;
+    }
+
+    PdfXrefIndex getXrefIndex() {
+        return xrefIndex;
+    }
+
+    byte[] getTrailer() {
+        return trailer;
+    }
+
+    long getLastXref() {
+        return lastXref;
+    }
+
+    long getEofPos() {
+        return eofPos;
+    }
+
+    boolean isXrefStm() {
+        return (flags & XREF_STM_FLAG) != 0;
+    }
+
+    boolean isHybridXref() {
+        return (flags & HYBRID_XREF_FLAG) != 0;
+    }
+
+    int[] getPageObjNumbers() {
+        return pageObjNumbers;
+    }
+
+    int[] getPageGenNumbers() {
+        return pageGenNumbers;
+    }
+
+    void setPages(int[] objNumbers, int[] genNumbers) {
+        this.pageGenNumbers = genNumbers;
+        this.pageObjNumbers = objNumbers;
+    }
+}
@@ -47,6 +47,7 @@ import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.util.FileUtil;
+import com.itextpdf.kernel.PdfException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,11 +56,16 @@ import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static com.itextpdf.io.source.ByteUtils.getIsoBytes;
 
@@ -91,7 +97,13 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
     /**
      * Is used in smart mode to serialize and store serialized objects content.
      */
-    private SmartModePdfObjectsSerializer smartModeSerializer = new SmartModePdfObjectsSerializer();
+    private SmartModePdfObjectsSerializer smartModeSerializer = null;
+
+    /**
+     * Objects which are flushed, but not yet written, because they wait for the parallel compression
+     * of the streams preceding them. Used only if stream compression executor is specified.
+     */
+    private transient Deque<PendingObject> pendingObjects = null;
 
     //forewarned is forearmed
     protected boolean isUserWarnedAboutAcroFormCopying;
@@ -267,7 +279,8 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             objectStream = new PdfObjectStream(document);
         } else if (objectStream.getSize() == PdfObjectStream.MAX_OBJ_STREAM_SIZE) {
             objectStream.flush();
-            objectStream = new PdfObjectStream(objectStream);
+            // the content of a flushed object stream may still be compressed in parallel, so it can't be reused
+            objectStream = isParallelCompressionEnabled() ? new PdfObjectStream(document) : new PdfObjectStream(objectStream);
         }
         return objectStream;
     }
@@ -292,9 +305,12 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     protected void flushObject(PdfObject pdfObject, boolean canBeInObjStm) throws IOException {
         PdfIndirectReference indirectReference = pdfObject.getIndirectReference();
+        boolean writingDeferred = false;
         if (isFullCompression() && canBeInObjStm) {
             PdfObjectStream objectStream = getObjectStream();
             objectStream.addObject(pdfObject);
+        } else if (isParallelCompressionEnabled()) {
+            writingDeferred = writeToBodyInParallelMode(pdfObject);
         } else {
             indirectReference.setOffset(getCurrentPos());
             writeToBody(pdfObject);
@@ -317,7 +333,10 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             case PdfObject.DICTIONARY:
                 PdfDictionary dictionary = ((PdfDictionary) pdfObject);
                 markDictionaryContentToFlush(dictionary);
-                dictionary.releaseContent();
+                if (!writingDeferred) {
+                    // otherwise the content is released after the deferred writing
+                    dictionary.releaseContent();
+                }
                 break;
             case PdfObject.INDIRECT_REFERENCE:
                 markObjectToFlush(((PdfIndirectReference) pdfObject).getRefersTo(false));
@@ -353,6 +372,9 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
 
         SerializedObjectContent serializedContent = null;
         if (properties.smartMode && tryToFindDuplicate && !checkTypeOfPdfDictionary(obj, PdfName.Page)) {
+            if (smartModeSerializer == null) {
+                smartModeSerializer = new SmartModePdfObjectsSerializer(properties.smartModeCacheLimit);
+            }
             serializedContent = smartModeSerializer.serializeObject(obj);
             PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent);
             if (objectRef != null) {
@@ -394,6 +416,20 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         writeBytes(endobj);
     }
 
+    /**
+     * Writes all flushed objects which wait for the parallel compression of streams.
+     * The method blocks until the compression of the corresponding streams is finished.
+     *
+     * @throws IOException on error.
+     */
+    protected void flushPendingObjects() throws IOException {
+        if (pendingObjects != null) {
+            while (!pendingObjects.isEmpty()) {
+                writePendingObject(pendingObjects.removeFirst());
+            }
+        }
+    }
+
     /**
      * Writes PDF header.
      */
@@ -477,6 +513,129 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         }
     }
 
+    private boolean isParallelCompressionEnabled() {
+        return properties.streamCompressionExecutor != null && duplicateStream == null;
+    }
+
+    /**
+     * Writes the object to body of PDF document, preserving the order of objects flushing.
+     * The content of the streams, which is compressed by the writer, is compressed by the executor
+     * and such streams are written once their compression is finished. Objects flushed after such a stream
+     * are serialized immediately, but are written after the stream.
+     *
+     * @return true, if writing of the object is deferred till the compression of its content
+     */
+    private boolean writeToBodyInParallelMode(PdfObject pdfObject) throws IOException {
+        if (pendingObjects == null) {
+            pendingObjects = new ArrayDeque<>();
+        }
+        if (!canBeWrittenOutOfPlace(pdfObject)) {
+            flushPendingObjects();
+            pdfObject.getIndirectReference().setOffset(getCurrentPos());
+            writeToBody(pdfObject);
+            return false;
+        }
+        if (pdfObject.getType() == PdfObject.STREAM && isContentCompressedOnWrite((PdfStream) pdfObject)) {
+            final PdfStream pdfStream = (PdfStream) pdfObject;
+            Future<ByteArrayOutputStream> compressedContent = properties.streamCompressionExecutor.submit(
+                    new Callable<ByteArrayOutputStream>() {
+                        @Override
+                        public ByteArrayOutputStream call() throws IOException {
+                            return compressContent(pdfStream);
+                        }
+                    });
+            addPendingObject(new PendingObject(pdfStream, compressedContent));
+            return true;
+        }
+        if (pendingObjects.isEmpty()) {
+            pdfObject.getIndirectReference().setOffset(getCurrentPos());
+            writeToBody(pdfObject);
+        } else {
+            OutputStream targetStream = outputStream;
+            long targetPos = currentPos;
+            ByteArrayOutputStream serializedObject = new ByteArrayOutputStream();
+            outputStream = serializedObject;
+            currentPos = 0;
+            try {
+                writeToBody(pdfObject);
+            } finally {
+                outputStream = targetStream;
+                currentPos = targetPos;
+            }
+            addPendingObject(new PendingObject(pdfObject, serializedObject));
+        }
+        return false;
+    }
+
+    /**
+     * Adds the object to the queue of the objects waiting for the compression of the streams preceding them.
+     * Both the streams and the serialized objects are limited, so the oldest object is written
+     * once the queue is full.
+     */
+    private void addPendingObject(PendingObject pendingObject) throws IOException {
+        pendingObjects.addLast(pendingObject);
+        if (pendingObjects.size() > properties.maxPendingCompressedStreams) {
+            writePendingObject(pendingObjects.removeFirst());
+        }
+    }
+
+    private void writePendingObject(PendingObject pendingObject) throws IOException {
+        pendingObject.object.getIndirectReference().setOffset(getCurrentPos());
+        if (pendingObject.serializedObject != null) {
+            pendingObject.serializedObject.writeTo(this);
+            return;
+        }
+        PdfStream pdfStream = (PdfStream) pendingObject.object;
+        try {
+            setPrecompressedContent(pdfStream, pendingObject.compressedContent.get());
+            writeToBody(pdfStream);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.CannotWriteToPdfStream, e, pdfStream);
+        } catch (ExecutionException e) {
+            throw new PdfException(PdfException.CannotWriteToPdfStream, e.getCause(), pdfStream);
+        } finally {
+            setPrecompressedContent(null, null);
+        }
+        pdfStream.releaseContent();
+    }
+
+    /**
+     * Checks whether the object may be written after the objects flushed later. It's not the case
+     * for the objects, which direct content gets its position or its own indirect reference on writing.
+     */
+    private static boolean canBeWrittenOutOfPlace(PdfObject pdfObject) {
+        switch (pdfObject.getType()) {
+            case PdfObject.LITERAL:
+                return false;
+            case PdfObject.ARRAY:
+                PdfArray array = (PdfArray) pdfObject;
+                for (int i = 0; i < array.size(); i++) {
+                    if (!canDirectObjectBeWrittenOutOfPlace(array.get(i, false))) {
+                        return false;
+                    }
+                }
+                return true;
+            case PdfObject.DICTIONARY:
+            case PdfObject.STREAM:
+                for (PdfObject value : ((PdfDictionary) pdfObject).values(false)) {
+                    if (!canDirectObjectBeWrittenOutOfPlace(value)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean canDirectObjectBeWrittenOutOfPlace(PdfObject item) {
+        if (item == null || item.getIndirectReference() != null || item.getType() == PdfObject.INDIRECT_REFERENCE) {
+            return true;
+        }
+        return !item.checkState(PdfObject.MUST_BE_INDIRECT) && canBeWrittenOutOfPlace(item);
+    }
+
     private void markArrayContentToFlush(PdfArray array) {
         for (int i = 0; i < array.size(); i++) {
             markObjectToFlush(array.get(i, false));
@@ -524,6 +683,24 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         }
     }
 
+    private static final class PendingObject {
+        final PdfObject object;
+        final ByteArrayOutputStream serializedObject;
+        final Future<ByteArrayOutputStream> compressedContent;
+
+        PendingObject(PdfObject object, ByteArrayOutputStream serializedObject) {
+            this.object = object;
+            this.serializedObject = serializedObject;
+            this.compressedContent = null;
+        }
+
+        PendingObject(PdfStream object, Future<ByteArrayOutputStream> compressedContent) {
+            this.object = object;
+            this.serializedObject = null;
+            this.compressedContent = compressedContent;
+        }
+    }
+
     private static boolean checkTypeOfPdfDictionary(PdfObject dictionary, PdfName expectedType) {
         return dictionary.isDictionary() && expectedType.equals(((PdfDictionary) dictionary).getAsName(PdfName.Type));
     }
@@ -0,0 +1,262 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Compact cross-reference index of the document being read, which stores the entries of xref sections
+ * and xref streams in primitive arrays instead of {@link PdfIndirectReference} instances.
+ * <p>
+ * It is used by {@link PdfXrefTable} in lazy loading mode: an actual {@link PdfIndirectReference} is created
+ * only when the corresponding object number is requested for the first time.
+ */
+class PdfXrefIndex implements Serializable {
+
+    private static final long serialVersionUID = -6316484584416612353L;
+
+    private static final byte ABSENT = 0;
+    private static final byte FREE = 1;
+    private static final byte IN_USE = 2;
+    private static final byte COMPRESSED = 3;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * Entry types, one of {@link #ABSENT}, {@link #FREE}, {@link #IN_USE} or {@link #COMPRESSED}.
+     */
+    private byte[] types;
+
+    /**
+     * Byte offset of the object for in-use entries, index of the object inside the object stream for
+     * compressed entries and the number of the next free object for free entries.
+     */
+    private long[] offsets;
+
+    /**
+     * Generation number of the object, or the number of the object stream for compressed entries.
+     */
+    private int[] generations;
+
+    private int size = 0;
+
+    PdfXrefIndex() {
+        this(INITIAL_CAPACITY);
+    }
+
+    PdfXrefIndex(int capacity) {
+        if (capacity < 1) {
+            capacity = INITIAL_CAPACITY;
+        }
+        types = new byte[capacity];
+        offsets = new long[capacity];
+        generations = new int[capacity];
+    }
+
+    /**
+     * Gets the number of entries covered by this index, i.e. the greatest indexed object number plus one.
+     *
+     * @return the size of the index.
+     */
+    int size() {
+        return size;
+    }
+
+    boolean contains(int objNr) {
+        return objNr >= 0 && objNr < size && types[objNr] != ABSENT;
+    }
+
+    boolean isFree(int objNr) {
+        return contains(objNr) && types[objNr] == FREE;
+    }
+
+    /**
+     * Gets the generation number of the indexed entry. Entries of compressed objects always have zero generation.
+     */
+    int getGenNumber(int objNr) {
+        return types[objNr] == COMPRESSED ? 0 : generations[objNr];
+    }
+
+    /**
+     * Stores the entry of the given reference in the index. The reference object itself is not retained.
+     *
+     * @param reference the reference read from the cross-reference section or stream.
+     */
+    void put(PdfIndirectReference reference) {
+        int objNr = reference.getObjNumber();
+        ensureCapacity(objNr + 1);
+        if (reference.isFree()) {
+            types[objNr] = FREE;
+            offsets[objNr] = reference.offsetOrIndex;
+            generations[objNr] = reference.getGenNumber();
+        } else if (reference.getObjStreamNumber() > 0) {
+            types[objNr] = COMPRESSED;
+            offsets[objNr] = reference.getIndex();
+            generations[objNr] = reference.getObjStreamNumber();
+        } else {
+            types[objNr] = IN_USE;
+            offsets[objNr] = reference.getOffset();
+            generations[objNr] = reference.getGenNumber();
+        }
+        size = Math.max(size, objNr + 1);
+    }
+
+    /**
+     * Creates the reference for the indexed entry. The entry is removed from the index, since from now on it is
+     * represented by the created reference.
+     *
+     * @param document the document the reference belongs to.
+     * @param objNr    the object number.
+     * @return created {@link PdfIndirectReference}, or {@code null} if the object number is not indexed.
+     */
+    PdfIndirectReference createReference(PdfDocument document, int objNr) {
+        if (!contains(objNr)) {
+            return null;
+        }
+        PdfIndirectReference reference;
+        switch (types[objNr]) {
+            case FREE:
+                reference = (PdfIndirectReference) new PdfIndirectReference(document, objNr, generations[objNr],
+                        offsets[objNr]).setState(PdfObject.FREE);
+                break;
+            case COMPRESSED:
+                reference = new PdfIndirectReference(document, objNr, 0, offsets[objNr]);
+                reference.setObjStreamNumber(generations[objNr]);
+                break;
+            default:
+                reference = new PdfIndirectReference(document, objNr, generations[objNr], offsets[objNr]);
+                break;
+        }
+        types[objNr] = ABSENT;
+        return reference;
+    }
+
+    /**
+     * Fixes the offset of the in-use entry if its generation number matches the given one.
+     *
+     * @return {@code true} if the object number is indexed, {@code false} otherwise.
+     */
+    boolean fixOffset(int objNr, int genNr, long offset) {
+        if (!contains(objNr)) {
+            return false;
+        }
+        if (types[objNr] == IN_USE && generations[objNr] == genNr) {
+            offsets[objNr] = offset;
+        }
+        return true;
+    }
+
+    /**
+     * Copies the entry with given object number from another index.
+     */
+    void copyEntry(PdfXrefIndex from, int objNr) {
+        ensureCapacity(objNr + 1);
+        types[objNr] = from.types[objNr];
+        offsets[objNr] = from.offsets[objNr];
+        generations[objNr] = from.generations[objNr];
+        size = Math.max(size, objNr + 1);
+    }
+
+    PdfXrefIndex copy() {
+        PdfXrefIndex copy = new PdfXrefIndex(size);
+        System.arraycopy(types, 0, copy.types, 0, size);
+        System.arraycopy(offsets, 0, copy.offsets, 0, size);
+        System.arraycopy(generations, 0, copy.generations, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Writes the index in a compact binary form: the size followed by the type of each entry
+     * and the offset and generation number of each present entry.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(types[i]);
+            if (types[i] != ABSENT) {
+                out.writeLong(offsets[i]);
+                out.writeInt(generations[i]);
+            }
+        }
+    }
+
+    static PdfXrefIndex readFrom(DataInputStream in, long remaining) throws IOException {
+        int size = in.readInt();
+        // each entry takes at least one byte
+        PdfReaderIndex.checkCount(size, 1, remaining);
+        PdfXrefIndex index = new PdfXrefIndex(size);
+        for (int i = 0; i < size; i++) {
+            byte type = in.readByte();
+            if (type < ABSENT || type > COMPRESSED) {
+                throw new IOException("Invalid cross-reference index entry type.");
+            }
+            index.types[i] = type;
+            if (type != ABSENT) {
+                index.offsets[i] = in.readLong();
+                index.generations[i] = in.readInt();
+            }
+        }
+        index.size = size;
+        return index;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            int newCapacity = Math.max(capacity, types.length << 1);
+            types = Arrays.copyOf(types, newCapacity);
+            offsets = Arrays.copyOf(offsets, newCapacity);
+            generations = Arrays.copyOf(generations, newCapacity);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(types, ABSENT);
+        size = 0;
+    }
+}
@@ -74,6 +74,13 @@ class PdfXrefTable implements Serializable {
     private int count = 0;
     private boolean readingCompleted;
 
+    /**
+     * Compact index of the entries which were read from the document, but whose references have not been
+     * requested yet. It is {@code null} unless the document is read in lazy loading mode.
+     */
+    private PdfXrefIndex lazyIndex;
+    private PdfDocument lazyDocument;
+
     /**
      * Free references linked list is stored in a form of a map, where:
      * key - free reference obj number;
@@ -118,9 +125,148 @@ class PdfXrefTable implements Serializable {
         if (index > count) {
             return null;
         }
+        PdfIndirectReference reference = getLoaded(index);
+        if (reference == null && lazyIndex != null && lazyIndex.contains(index)) {
+            reference = add(lazyIndex.createReference(lazyDocument, index));
+        }
+        return reference;
+    }
+
+    /**
+     * Switches the table to lazy loading mode. In this mode the entries read from the document are kept in a compact
+     * {@link PdfXrefIndex} and {@link PdfIndirectReference} instances are created only on the first request.
+     *
+     * @param document the document which is read.
+     */
+    void initLazyIndex(PdfDocument document) {
+        if (lazyIndex == null) {
+            lazyIndex = new PdfXrefIndex(xref.length);
+            lazyDocument = document;
+        }
+    }
+
+    boolean isLazy() {
+        return lazyIndex != null;
+    }
+
+    /**
+     * Gets the reference with given object number only if it has already been created, i.e. without
+     * creating it from the lazy loading index.
+     *
+     * @param index object number.
+     * @return {@link PdfIndirectReference} instance, or {@code null} if it hasn't been created yet.
+     */
+    PdfIndirectReference getLoaded(int index) {
+        if (index > count || index >= xref.length) {
+            return null;
+        }
         return xref[index];
     }
 
+    /**
+     * Checks whether the entry with given object number was read from the document, but its reference
+     * hasn't been created yet.
+     */
+    boolean isIndexed(int index) {
+        return lazyIndex != null && getLoaded(index) == null && lazyIndex.contains(index);
+    }
+
+    /**
+     * Adds the reference read from the cross-reference section or stream. In lazy loading mode the reference
+     * is stored in the compact index unless the table already contains an instance with the same object number.
+     *
+     * @param reference the reference read from the document.
+     */
+    void addReadReference(PdfIndirectReference reference) {
+        int objNr = reference.getObjNumber();
+        if (lazyIndex != null && getLoaded(objNr) == null) {
+            lazyIndex.put(reference);
+            count = Math.max(count, objNr);
+        } else {
+            add(reference);
+        }
+    }
+
+    /**
+     * Adds the reference found while rebuilding the cross-reference table. The reference replaces
+     * the already found one with the same object number unless the latter has greater generation number.
+     *
+     * @param reference the reference found in the document.
+     */
+    void addRebuiltReference(PdfIndirectReference reference) {
+        int objNr = reference.getObjNumber();
+        if (isIndexed(objNr)) {
+            if (lazyIndex.getGenNumber(objNr) <= reference.getGenNumber()) {
+                lazyIndex.put(reference);
+            }
+        } else {
+            PdfIndirectReference existing = getLoaded(objNr);
+            if (existing == null || existing.getGenNumber() <= reference.getGenNumber()) {
+                addReadReference(reference);
+            }
+        }
+    }
+
+    /**
+     * Fixes the offset of the object with given number and generation. In lazy loading mode the entries
+     * which are only indexed are fixed without creating the references.
+     */
+    void fixOffset(int objNr, int genNr, long offset) {
+        if (isIndexed(objNr)) {
+            lazyIndex.fixOffset(objNr, genNr, offset);
+            return;
+        }
+        PdfIndirectReference reference = get(objNr);
+        if (reference != null && reference.getGenNumber() == genNr) {
+            reference.fixOffset(offset);
+        }
+    }
+
+    /**
+     * Creates the compact index of all the entries of the table, both already created references
+     * and the entries which are only indexed in lazy loading mode.
+     *
+     * @return the created {@link PdfXrefIndex}.
+     */
+    PdfXrefIndex createIndexSnapshot() {
+        PdfXrefIndex snapshot = new PdfXrefIndex(size());
+        for (int i = 0; i < size(); i++) {
+            PdfIndirectReference reference = getLoaded(i);
+            if (reference != null) {
+                snapshot.put(reference);
+            } else if (isIndexed(i)) {
+                snapshot.copyEntry(lazyIndex, i);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Fills the table with the entries of the index which was previously created by {@link #createIndexSnapshot()}.
+     * The passed index is not modified.
+     *
+     * @param snapshot the index to load.
+     * @param document the document which is read.
+     */
+    void loadIndexSnapshot(PdfXrefIndex snapshot, PdfDocument document) {
+        PdfXrefIndex entries = snapshot.copy();
+        if (entries.contains(0)) {
+            // replaces the zero entry added by the table itself
+            add(entries.createReference(document, 0));
+        }
+        if (lazyIndex != null) {
+            lazyIndex = entries;
+            count = Math.max(count, entries.size() - 1);
+        } else {
+            setCapacity(entries.size());
+            for (int i = 1; i < entries.size(); i++) {
+                if (entries.contains(i)) {
+                    add(entries.createReference(document, i));
+                }
+            }
+        }
+    }
+
     void markReadingCompleted() {
         readingCompleted = true;
     }
@@ -136,7 +282,11 @@ class PdfXrefTable implements Serializable {
         xref[0].setState(PdfObject.FREE);
         TreeSet<Integer> freeReferences = new TreeSet<>();
         for (int i = 1; i < size(); ++i) {
-            PdfIndirectReference ref = xref[i];
+            if (isIndexed(i) && !lazyIndex.isFree(i)) {
+                // in-use entry which hasn't been requested yet
+                continue;
+            }
+            PdfIndirectReference ref = get(i);
             if (ref == null || ref.isFree()) {
                 freeReferences.add(i);
             }
@@ -148,22 +298,22 @@ class PdfXrefTable implements Serializable {
             if (prevFreeRef.getOffset() <= Integer.MAX_VALUE) {
                 currFreeRefObjNr = (int) prevFreeRef.getOffset();
             }
-            if (!freeReferences.contains(currFreeRefObjNr) || xref[currFreeRefObjNr] == null) {
+            if (!freeReferences.contains(currFreeRefObjNr) || getLoaded(currFreeRefObjNr) == null) {
                 break;
             }
 
             freeReferencesLinkedList.put(currFreeRefObjNr, prevFreeRef);
-            prevFreeRef = xref[currFreeRefObjNr];
+            prevFreeRef = getLoaded(currFreeRefObjNr);
             freeReferences.remove(currFreeRefObjNr);
         }
 
         while (!freeReferences.<Integer>isEmpty()) {
             int next = freeReferences.pollFirst();
-            if (xref[next] == null) {
+            if (getLoaded(next) == null) {
                 if (pdfDocument.properties.appendMode) {
                     continue;
                 }
-                xref[next] = (PdfIndirectReference) new PdfIndirectReference(pdfDocument, next, 0).setState(PdfObject.FREE).setState(PdfObject.MODIFIED);
+                add((PdfIndirectReference) new PdfIndirectReference(pdfDocument, next, 0).setState(PdfObject.FREE).setState(PdfObject.MODIFIED));
             } else if (xref[next].getGenNumber() == MAX_GENERATION && xref[next].getOffset() == 0) {
                 continue;
             }
@@ -224,7 +374,9 @@ class PdfXrefTable implements Serializable {
     }
 
     protected void setCapacity(int capacity) {
-        if (capacity > xref.length) {
+        if (lazyIndex != null) {
+            lazyIndex.ensureCapacity(capacity);
+        } else if (capacity > xref.length) {
             extendXref(capacity);
         }
     }
@@ -236,10 +388,12 @@ class PdfXrefTable implements Serializable {
      */
     protected void writeXrefTableAndTrailer(PdfDocument document, PdfObject fileId, PdfObject crypto) throws IOException {
         PdfWriter writer = document.getWriter();
+        // offsets of all written objects shall be known
+        writer.flushPendingObjects();
 
         if (!document.properties.appendMode) {
             for (int i = count; i > 0; --i) {
-                PdfIndirectReference lastRef = xref[i];
+                PdfIndirectReference lastRef = get(i);
                 if (lastRef == null || lastRef.isFree()) {
                     removeFreeRefFromList(i);
                     --count;
@@ -369,12 +523,15 @@ class PdfXrefTable implements Serializable {
     }
 
     void clear() {
-        for (int i = 1; i <= count; i++) {
+        for (int i = 1; i <= count && i < xref.length; i++) {
             if (xref[i] != null && xref[i].isFree()) {
                 continue;
             }
             xref[i] = null;
         }
+        if (lazyIndex != null) {
+            lazyIndex.clear();
+        }
         count = 1;
     }
 
@@ -383,7 +540,8 @@ class PdfXrefTable implements Serializable {
         int first = 0;
         int len = 0;
         for (int i = 0; i < size(); i++) {
-            PdfIndirectReference reference = xref[i];
+            // in lazy loading mode the references which were not requested were not modified either
+            PdfIndirectReference reference = document.properties.appendMode ? getLoaded(i) : get(i);
             if (document.properties.appendMode && reference != null &&
                     (!reference.checkState(PdfObject.MODIFIED) || dropObjectsFromObjectStream && reference.getObjStreamNumber() != 0)) {
                 reference = null;
@@ -487,7 +645,7 @@ class PdfXrefTable implements Serializable {
         if (freeRefObjNr < 0) {
             Integer leastFreeRefObjNum = null;
             for (Map.Entry<Integer, PdfIndirectReference> entry : freeReferencesLinkedList.entrySet()) {
-                if (entry.getKey() <= 0 || xref[entry.getKey()].getGenNumber() >= MAX_GENERATION) {
+                if (entry.getKey() <= 0 || getLoaded((int) entry.getKey()).getGenNumber() >= MAX_GENERATION) {
                     continue;
                 }
                 leastFreeRefObjNum = entry.getKey();
@@ -499,8 +657,8 @@ class PdfXrefTable implements Serializable {
             freeRefObjNr = (int)leastFreeRefObjNum;
         }
 
-        PdfIndirectReference freeRef = xref[freeRefObjNr];
-        if (!freeRef.isFree()) {
+        PdfIndirectReference freeRef = get(freeRefObjNr);
+        if (freeRef == null || !freeRef.isFree()) {
             return null;
         }
 
@@ -66,6 +66,10 @@ public class ReaderProperties implements Serializable {
 
     protected MemoryLimitsAwareHandler memoryLimitsAwareHandler;
 
+    protected transient IPdfReaderIndexCache indexCache;
+
+    protected boolean useSharedFileMapping;
+
     /**
      * Defines the password which will be used if the document is encrypted with standard encryption.
      * This could be either user or owner password.
@@ -120,4 +124,35 @@ public class ReaderProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Sets the cache of the cross-reference and page tree indexes of the read documents.
+     * <p>
+     * If the cache contains the index of the document being read, the reader uses it instead of parsing
+     * the cross-reference sections and streams, or rebuilding the cross-reference table of a broken document.
+     * Otherwise the index is created while reading and stored in the cache for the subsequent opens.
+     * It makes sense for the documents which are opened many times without being changed.
+     *
+     * @param indexCache the cache to use, or {@code null} to disable indexes caching.
+     * @return this {@link ReaderProperties} instance.
+     */
+    public ReaderProperties setIndexCache(IPdfReaderIndexCache indexCache) {
+        this.indexCache = indexCache;
+        return this;
+    }
+
+    /**
+     * Defines whether a document opened by file name shall be read through the memory mapping shared
+     * with all other readers of the same file, see {@link com.itextpdf.io.source.SharedMappedSourceRegistry}.
+     * The file is mapped only once for all such readers, and the readers created with
+     * {@link PdfReader#createConcurrentReader()} read it without locking.
+     * The mapping is released when the last of the readers is closed.
+     *
+     * @param useSharedFileMapping true to read the file through the shared memory mapping.
+     * @return this {@link ReaderProperties} instance.
+     */
+    public ReaderProperties setUseSharedFileMapping(boolean useSharedFileMapping) {
+        this.useSharedFileMapping = useSharedFileMapping;
+        return this;
+    }
+
 }
@@ -43,34 +43,70 @@
 package com.itextpdf.kernel.pdf;
 
 import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
+/**
+ * Structural fingerprint of a PDF object graph used in smart mode. The fingerprint consists of two
+ * independent 64-bit hashes of the object content, calculated bottom-up, so that the content of the
+ * referenced indirect objects contributes to the fingerprint via their own fingerprints.
+ * <p>
+ * Besides the hashes, only a compact canonical form of the object itself is kept: the referenced indirect
+ * objects are represented in it by references to their own fingerprints and stream data by its digest.
+ * The hashes are only used to find the candidates quickly: the objects are considered equal if their
+ * canonical forms and the fingerprints of the referenced objects are equal as well, which is only checked
+ * when the hashes match.
+ */
 class SerializedObjectContent {
-    private final byte[] serializedContent;
-    private final int hash;
+    private final long primaryHash;
+    private final long secondaryHash;
+    private final byte[] canonicalForm;
+    private final SerializedObjectContent[] references;
+
+    SerializedObjectContent(long primaryHash, long secondaryHash, byte[] canonicalForm,
+                            SerializedObjectContent[] references) {
+        this.primaryHash = primaryHash;
+        this.secondaryHash = secondaryHash;
+        this.canonicalForm = canonicalForm;
+        this.references = references;
+    }
 
-    SerializedObjectContent(byte[] serializedContent) {
-        this.serializedContent = serializedContent;
-        this.hash = calculateHash(serializedContent);
+    long getPrimaryHash() {
+        return primaryHash;
+    }
+
+    long getSecondaryHash() {
+        return secondaryHash;
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof SerializedObjectContent
-                && hashCode() == obj.hashCode()
-                && Arrays.equals(serializedContent, ((SerializedObjectContent) obj).serializedContent);
+        return obj instanceof SerializedObjectContent && contentEquals((SerializedObjectContent) obj,
+                new IdentityHashMap<SerializedObjectContent, SerializedObjectContent>());
     }
 
     @Override
     public int hashCode() {
-        return hash;
+        return (int) (primaryHash ^ (primaryHash >>> 32));
     }
 
-    private static int calculateHash(byte[] b) {
-        int hash = 0;
-        int len = b.length;
-        for (int k = 0; k < len; ++k) {
-            hash = hash * 31 + (b[k] & 0xff);
+    private boolean contentEquals(SerializedObjectContent other,
+                                  Map<SerializedObjectContent, SerializedObjectContent> equalContents) {
+        if (this == other || equalContents.get(this) == other) {
+            return true;
+        }
+        if (primaryHash != other.primaryHash || secondaryHash != other.secondaryHash
+                || references.length != other.references.length
+                || !Arrays.equals(canonicalForm, other.canonicalForm)) {
+            return false;
+        }
+        for (int i = 0; i < references.length; i++) {
+            if (!references[i].contentEquals(other.references[i], equalContents)) {
+                return false;
+            }
         }
-        return hash;
+        // the same fingerprints are often shared within a graph, so remember the compared ones
+        equalContents.put(this, other);
+        return true;
     }
 }
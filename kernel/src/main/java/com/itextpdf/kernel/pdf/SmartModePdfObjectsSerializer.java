@@ -44,24 +44,35 @@ package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.kernel.PdfException;
+
 import java.io.Serializable;
 import java.security.MessageDigest;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Finds duplicated objects in smart mode by their structural fingerprints.
+ * <p>
+ * Instead of serializing the whole object graph of each copied object, a fingerprint is calculated per
+ * indirect object bottom-up: the content of a referenced indirect object contributes to the fingerprint
+ * of the referring object via its own fingerprint, which is cached in the source document, and stream
+ * data contributes via its digest.
+ * The fingerprint hashes are only a prefilter: objects with equal hashes are reused only if their
+ * canonical forms are equal too, see {@link SerializedObjectContent}.
+ * Found fingerprints are kept in a cache, which can be limited in size, in which case the least recently
+ * used fingerprints are evicted, see {@link WriterProperties#setSmartModeCacheLimit(int)}.
+ */
 class SmartModePdfObjectsSerializer implements Serializable {
 
     private static final long serialVersionUID = 2502203520776244051L;
 
     private transient MessageDigest md5;
-    private HashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj = new HashMap<>();
+    private SerializedContentCache serializedContentToObj;
 
-    SmartModePdfObjectsSerializer() {
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (Exception e) {
-            throw new PdfException(e);
-        }
+    SmartModePdfObjectsSerializer(int maxCachedObjects) {
+        serializedContentToObj = new SerializedContentCache(maxCachedObjects);
     }
 
     public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference objectReference) {
@@ -81,104 +92,120 @@ class SmartModePdfObjectsSerializer implements Serializable {
         }
         PdfIndirectReference indRef = obj.getIndirectReference();
         assert indRef != null;
-        Map<PdfIndirectReference, byte[]> serializedCache = indRef.getDocument().serializedObjectsCache;
+        Map<PdfIndirectReference, SerializedObjectContent> serializedCache = indRef.getDocument().serializedObjectsCache;
 
-        byte[] content = serializedCache.get(indRef);
+        SerializedObjectContent content = serializedCache.get(indRef);
         if (content == null) {
-            ByteBuffer bb = new ByteBuffer();
+            ObjectHasher hasher = new ObjectHasher();
             int level = 100;
             try {
-                serObject(obj, bb, level, serializedCache);
+                serObject(obj, hasher, level, serializedCache);
             } catch (SelfReferenceException e) {
                 return null;
             }
-            content = bb.toByteArray();
+            content = hasher.getContent();
         }
-        return new SerializedObjectContent(content);
+        return content;
+    }
+
+    int getCachedObjectsCount() {
+        return serializedContentToObj.size();
     }
 
-    private void serObject(PdfObject obj, ByteBuffer bb, int level, Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
+    private void serObject(PdfObject obj, ObjectHasher hasher, int level,
+                           Map<PdfIndirectReference, SerializedObjectContent> serializedCache) throws SelfReferenceException {
         if (level <= 0) {
             return;
         }
         if (obj == null) {
-            bb.append("$Lnull");
+            hasher.appendTag(ObjectHasher.LITERAL).append("null");
             return;
         }
         PdfIndirectReference reference = null;
-        ByteBuffer savedBb = null;
+        ObjectHasher savedHasher = null;
 
         if (obj.isIndirectReference()) {
             reference = (PdfIndirectReference) obj;
-            byte[] cached = serializedCache.get(reference);
+            SerializedObjectContent cached = serializedCache.get(reference);
             if (cached != null) {
-                bb.append(cached);
+                hasher.append(cached);
                 return;
             } else {
 
-                if (serializedCache.keySet().contains(reference)) {
+                if (serializedCache.containsKey(reference)) {
                     //referencing itself
                     throw new SelfReferenceException();
                 }
                 serializedCache.put(reference, null);
 
-                savedBb = bb;
-                bb = new ByteBuffer();
+                savedHasher = hasher;
+                hasher = new ObjectHasher();
                 obj = reference.getRefersTo();
             }
         }
 
         if (obj.isStream()) {
-            serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
-            bb.append("$B");
-            if (level > 0) {
-                bb.append(md5.digest(((PdfStream) obj).getBytes(false)));
+            serDic((PdfDictionary) obj, hasher, level - 1, serializedCache);
+            byte[] streamBytes = ((PdfStream) obj).getBytes(false);
+            if (streamBytes != null) {
+                hasher.appendTag(ObjectHasher.STREAM_BYTES).append(getMd5().digest(streamBytes));
             }
         } else if (obj.isDictionary()) {
-            serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
+            serDic((PdfDictionary) obj, hasher, level - 1, serializedCache);
         } else if (obj.isArray()) {
-            serArray((PdfArray) obj, bb, level - 1, serializedCache);
+            serArray((PdfArray) obj, hasher, level - 1, serializedCache);
         } else if (obj.isString()) {
-            // TODO specify length for strings, streams, may be names?
-            bb.append("$S").append(obj.toString());
+            hasher.appendTag(ObjectHasher.STRING).append(obj.toString());
         } else if (obj.isName()) {
-            bb.append("$N").append(obj.toString());
+            hasher.appendTag(ObjectHasher.NAME).append(((PdfName) obj).getValue());
         } else {
             // PdfNull case is also here
-            bb.append("$L").append(obj.toString());
+            hasher.appendTag(ObjectHasher.LITERAL).append(obj.toString());
         }
 
-        if (savedBb != null) {
-            serializedCache.put(reference, bb.toByteArray());
-            savedBb.append(bb.getInternalBuffer(), 0, bb.size());
+        if (savedHasher != null) {
+            SerializedObjectContent content = hasher.getContent();
+            serializedCache.put(reference, content);
+            savedHasher.append(content);
         }
     }
 
-    private void serDic(PdfDictionary dic, ByteBuffer bb, int level,
-                        Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
-        bb.append("$D");
+    private void serDic(PdfDictionary dic, ObjectHasher hasher, int level,
+                        Map<PdfIndirectReference, SerializedObjectContent> serializedCache) throws SelfReferenceException {
+        hasher.appendTag(ObjectHasher.DICTIONARY_START);
         if (level <= 0)
             return;
         for (PdfName key : dic.keySet()) {
             if (isKeyRefersBack(dic, key)) {
                 continue;
             }
-            serObject(key, bb, level, serializedCache);
-            serObject(dic.get(key, false), bb, level, serializedCache);
+            serObject(key, hasher, level, serializedCache);
+            serObject(dic.get(key, false), hasher, level, serializedCache);
 
         }
-        bb.append("$\\D");
+        hasher.appendTag(ObjectHasher.DICTIONARY_END);
     }
 
-    private void serArray(PdfArray array, ByteBuffer bb, int level,
-                          Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
-        bb.append("$A");
+    private void serArray(PdfArray array, ObjectHasher hasher, int level,
+                          Map<PdfIndirectReference, SerializedObjectContent> serializedCache) throws SelfReferenceException {
+        hasher.appendTag(ObjectHasher.ARRAY_START);
         if (level <= 0)
             return;
         for (int k = 0; k < array.size(); ++k) {
-            serObject(array.get(k, false), bb, level, serializedCache);
+            serObject(array.get(k, false), hasher, level, serializedCache);
+        }
+        hasher.appendTag(ObjectHasher.ARRAY_END);
+    }
+
+    private MessageDigest getMd5() {
+        if (md5 == null) {
+            try {
+                md5 = MessageDigest.getInstance("MD5");
+            } catch (Exception e) {
+                throw new PdfException(e);
+            }
         }
-        bb.append("$\\A");
+        return md5;
     }
 
     private boolean isKeyRefersBack(PdfDictionary dic, PdfName key) {
@@ -188,6 +215,117 @@ class SmartModePdfObjectsSerializer implements Serializable {
                 || key.equals(PdfName.Parent);
     }
 
+    /**
+     * Calculates two independent 64-bit hashes of the appended values: FNV-1a and a multiply-rotate hash.
+     * Tags are negative, so they never coincide with appended bytes and characters, and the lengths of
+     * variable-size values are appended after them.
+     * <p>
+     * The appended values are also serialized, with the lengths of variable-size values preceding them,
+     * so that the canonical form identifies the object unambiguously in case of a hash collision.
+     * The fingerprints of the referenced indirect objects are not serialized but kept by reference.
+     */
+    private static final class ObjectHasher {
+        static final long DICTIONARY_START = -1;
+        static final long DICTIONARY_END = -2;
+        static final long ARRAY_START = -3;
+        static final long ARRAY_END = -4;
+        static final long STRING = -5;
+        static final long NAME = -6;
+        static final long LITERAL = -7;
+        static final long STREAM_BYTES = -8;
+        static final long INDIRECT_CONTENT = -9;
+
+        private static final long FNV_PRIME = 0x100000001b3L;
+        private static final long MULTIPLIER_1 = 0x87c37b91114253d5L;
+        private static final long MULTIPLIER_2 = 0x4cf5ad432745937fL;
+
+        private long primaryHash = 0xcbf29ce484222325L;
+        private long secondaryHash = 0x9e3779b97f4a7c15L;
+        private final ByteBuffer serialized = new ByteBuffer();
+        private final List<SerializedObjectContent> references = new ArrayList<>();
+
+        ObjectHasher appendTag(long tag) {
+            mix(tag);
+            serialized.append((byte) tag);
+            return this;
+        }
+
+        ObjectHasher append(String value) {
+            serializeLength(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                mix(ch);
+                serialized.append((byte) (ch >> 8)).append((byte) ch);
+            }
+            mix(value.length());
+            return this;
+        }
+
+        ObjectHasher append(byte[] value) {
+            if (value != null) {
+                serializeLength(value.length);
+                for (byte b : value) {
+                    mix(b & 0xff);
+                }
+                serialized.append(value);
+                mix(value.length);
+            }
+            return this;
+        }
+
+        ObjectHasher append(SerializedObjectContent content) {
+            mix(INDIRECT_CONTENT);
+            mix(content.getPrimaryHash());
+            mix(content.getSecondaryHash());
+            serialized.append((byte) INDIRECT_CONTENT);
+            references.add(content);
+            return this;
+        }
+
+        SerializedObjectContent getContent() {
+            return new SerializedObjectContent(primaryHash, finalizeHash(secondaryHash), serialized.toByteArray(),
+                    references.toArray(new SerializedObjectContent[references.size()]));
+        }
+
+        private void serializeLength(int length) {
+            serialized.append((byte) (length >>> 24)).append((byte) (length >>> 16))
+                    .append((byte) (length >>> 8)).append((byte) length);
+        }
+
+        private void mix(long value) {
+            primaryHash = (primaryHash ^ value) * FNV_PRIME;
+            secondaryHash = Long.rotateLeft(secondaryHash ^ (value * MULTIPLIER_1), 31) * MULTIPLIER_2 + 0x52dce729;
+        }
+
+        private static long finalizeHash(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+
+    /**
+     * Cache of the found fingerprints, which evicts the least recently used ones when the limit is reached.
+     */
+    private static final class SerializedContentCache extends LinkedHashMap<SerializedObjectContent, PdfIndirectReference> {
+        private static final long serialVersionUID = -3434187209386421045L;
+
+        private final int maxSize;
+
+        SerializedContentCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SerializedObjectContent, PdfIndirectReference> eldest) {
+            return size() > maxSize;
+        }
+    }
+
     private static class SelfReferenceException extends Exception {
     }
 }
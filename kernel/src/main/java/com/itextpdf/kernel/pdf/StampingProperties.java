@@ -70,6 +70,14 @@ public class StampingProperties extends DocumentProperties implements Serializab
         return this;
     }
 
+    /**
+     * Checks if the document will be edited in append mode.
+     * @return true if append mode is used, false otherwise
+     */
+    public boolean isAppendMode() {
+        return appendMode;
+    }
+
     /**
      * Defines if the encryption of the original document (if it was encrypted) will be preserved.
      * By default, the resultant document doesn't preserve the original encryption.
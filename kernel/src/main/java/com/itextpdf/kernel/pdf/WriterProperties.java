@@ -45,6 +45,7 @@ package com.itextpdf.kernel.pdf;
 
 import java.io.Serializable;
 import java.security.cert.Certificate;
+import java.util.concurrent.ExecutorService;
 
 public class WriterProperties implements Serializable {
 
@@ -62,6 +63,11 @@ public class WriterProperties implements Serializable {
      * and reused if there's an object with the same content later.
      */
     protected boolean smartMode;
+
+    /**
+     * The maximum number of distinct objects remembered in smart mode.
+     */
+    protected int smartModeCacheLimit;
     protected boolean debugMode;
     protected boolean addXmpMetadata;
     protected boolean addUAXmpMetadata;
@@ -77,13 +83,27 @@ public class WriterProperties implements Serializable {
      */
     protected PdfString modifiedDocumentId;
 
+    /**
+     * The executor used to compress flushed streams in parallel. If null, streams are compressed
+     * sequentially while being written.
+     */
+    protected transient ExecutorService streamCompressionExecutor;
+
+    /**
+     * The maximum number of flushed objects which may wait for their streams to be compressed
+     * before the writer blocks on the oldest one.
+     */
+    protected int maxPendingCompressedStreams;
+
     public WriterProperties() {
         smartMode = false;
+        smartModeCacheLimit = Integer.MAX_VALUE;
         debugMode = false;
         addUAXmpMetadata = false;
         compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
         isFullCompression = null;
         encryptionProperties = new EncryptionProperties();
+        maxPendingCompressedStreams = 64;
     }
 
     /**
@@ -113,6 +133,24 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Limits the number of distinct objects remembered in smart mode. When the limit is reached,
+     * the least recently reused objects are forgotten, so their later duplicates are copied once again.
+     * By default the number of remembered objects is not limited.
+     * <br>
+     * Limiting the cache is useful when merging a lot of documents with mostly unique resources.
+     *
+     * @param maxCachedObjects the maximum number of remembered objects, must be positive
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setSmartModeCacheLimit(int maxCachedObjects) {
+        if (maxCachedObjects <= 0) {
+            throw new IllegalArgumentException("maxCachedObjects");
+        }
+        this.smartModeCacheLimit = maxCachedObjects;
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      * For PDF 2.0 documents, metadata will be added in any case.
@@ -277,6 +315,41 @@ public class WriterProperties implements Serializable {
         return addXmpMetadata();
     }
 
+    /**
+     * Enables parallel compression of flushed streams. The content of the streams which are compressed by
+     * the writer itself is deflated by the tasks submitted to the passed executor, while all objects are
+     * still written in the order they were flushed. The resultant document is byte-identical to the one
+     * created without an executor.
+     * <p>
+     * Flushed objects are kept in memory until the streams preceding them are compressed, so the number of
+     * waiting objects is limited, see {@link #setMaxPendingCompressedStreams(int)}.
+     * The executor is not shut down by the writer. Parallel compression is not used in debug mode.
+     *
+     * @param executor the executor to compress streams with, or null to compress streams sequentially
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setStreamCompressionExecutor(ExecutorService executor) {
+        this.streamCompressionExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of flushed objects which may wait for the parallel compression of the
+     * streams preceding them. Both the streams being compressed and the other objects flushed after them
+     * are counted. When the limit is reached, the writer writes the oldest waiting object, waiting for
+     * its compression if needed. Default value is 64.
+     *
+     * @param maxPendingCompressedStreams the maximum number of waiting objects, must be positive
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setMaxPendingCompressedStreams(int maxPendingCompressedStreams) {
+        if (maxPendingCompressedStreams <= 0) {
+            throw new IllegalArgumentException("maxPendingCompressedStreams");
+        }
+        this.maxPendingCompressedStreams = maxPendingCompressedStreams;
+        return this;
+    }
+
     boolean isStandardEncryptionUsed() {
         return encryptionProperties.isStandardEncryptionUsed();
     }
@@ -942,6 +942,27 @@ public class PdfCanvas implements Serializable {
         return this;
     }
 
+    /**
+     * Appends a polyline as a new subpath. The first point is used as the starting point of the subpath
+     * and every following point is connected to the previous one with a straight line segment.
+     * This is equivalent to a {@link #moveTo(double, double)} call followed by {@link #lineTo(double, double)}
+     * calls for the remaining points, but writes all coordinates in a single pass.
+     *
+     * @param xy the coordinates of the points in the {x0, y0, x1, y1, ...} order.
+     * @return current canvas.
+     */
+    public PdfCanvas polyline(double[] xy) {
+        if (xy == null || xy.length < 2 || xy.length % 2 != 0) {
+            throw new IllegalArgumentException("Even number of coordinates, at least one point, expected.");
+        }
+        PdfOutputStream out = contentStream.getOutputStream();
+        out.writeDouble(xy[0]).writeSpace().writeDouble(xy[1]).writeSpace().writeBytes(m);
+        for (int i = 2; i < xy.length; i += 2) {
+            out.writeDouble(xy[i]).writeSpace().writeDouble(xy[i + 1]).writeSpace().writeBytes(l);
+        }
+        return this;
+    }
+
     /**
      * Appends a B&#xea;zier curve to the path, starting from the current point.
      *
@@ -86,6 +86,8 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperation;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperatorTable;
 import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
 import com.itextpdf.kernel.pdf.colorspace.PdfCieBasedCs;
 import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
@@ -142,6 +144,34 @@ public class PdfCanvasProcessor {
      */
     private Map<String, IContentOperator> operators;
 
+    /**
+     * The table of the operators used for parsing the content streams, which contains the standard operators
+     * and the registered custom ones.
+     */
+    private ContentOperatorTable operatorTable;
+
+    /**
+     * The registered operators indexed by their identifiers in {@link #operatorTable}.
+     */
+    private IContentOperator[] operatorsById;
+
+    /**
+     * The literals of the operators indexed by their identifiers in {@link #operatorTable}, created on demand.
+     */
+    private PdfLiteral[] operatorLiterals;
+
+    /**
+     * The identifier of {@link #DEFAULT_OPERATOR} in {@link #operatorTable}.
+     */
+    private int defaultOperatorId;
+
+    /**
+     * The literal and the identifier of the operator being processed, which allow to avoid the lookup by the string
+     * if {@link #invokeOperator(PdfLiteral, List)} is called with the literal passed by the processor.
+     */
+    private PdfLiteral currentOperatorLiteral;
+    private int currentOperatorId = ContentOperatorTable.UNKNOWN_OPERATOR;
+
     /**
      * Resources for the content stream.
      * Current resources are always at the top of the stack.
@@ -173,6 +203,12 @@ public class PdfCanvasProcessor {
      */
     private Stack<CanvasTag> markedContentStack = new Stack<>();
 
+    /**
+     * Indicates whether the built-in operators may be executed directly from the parsed {@link ContentOperation},
+     * bypassing {@link #invokeOperator(PdfLiteral, List)}. It's not possible if the method is overridden.
+     */
+    private final boolean builtInOperationsEnabled;
+
     /**
      * Creates a new PDF Content Stream Processor that will send its output to the
      * designated render listener.
@@ -182,7 +218,12 @@ public class PdfCanvasProcessor {
     public PdfCanvasProcessor(IEventListener eventListener) {
         this.eventListener = eventListener;
         this.supportedEvents = eventListener.getSupportedEvents();
+        this.builtInOperationsEnabled = !isInvokeOperatorOverridden(getClass());
         operators = new HashMap<>();
+        operatorTable = new ContentOperatorTable();
+        operatorsById = new IContentOperator[operatorTable.size()];
+        operatorLiterals = new PdfLiteral[operatorTable.size()];
+        defaultOperatorId = operatorTable.register(DEFAULT_OPERATOR);
         populateOperators();
         xobjectDoHandlers = new HashMap<>();
         populateXObjectDoHandlers();
@@ -230,6 +271,13 @@ public class PdfCanvasProcessor {
      * @return the existing registered operator, if any
      */
     public IContentOperator registerContentOperator(String operatorString, IContentOperator operator) {
+        int operatorId = operatorTable.register(operatorString);
+        if (operatorId >= operatorsById.length) {
+            int capacity = Math.max(operatorId + 1, operatorsById.length * 2);
+            operatorsById = Arrays.copyOf(operatorsById, capacity);
+            operatorLiterals = Arrays.copyOf(operatorLiterals, capacity);
+        }
+        operatorsById[operatorId] = operator;
         return operators.put(operatorString, operator);
     }
 
@@ -278,14 +326,33 @@ public class PdfCanvasProcessor {
         this.resourcesStack.push(resources);
         PdfTokenizer tokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(contentBytes)));
         PdfCanvasParser ps = new PdfCanvasParser(tokeniser, resources);
-        List<PdfObject> operands = new ArrayList<>();
+        ps.setOperatorTable(operatorTable);
+        ContentOperation operation = new ContentOperation();
+        boolean[] builtInOperations = getBuiltInOperations();
         try {
-            while (ps.parse(operands).size() > 0) {
-                PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
-                invokeOperator(operator, operands);
+            while (ps.parse(operation)) {
+                if (!invokeBuiltInOperation(operation, builtInOperations)) {
+                    List<PdfObject> operands = new ArrayList<>(operation.size() + 1);
+                    for (int i = 0; i < operation.size(); i++) {
+                        operands.add(operation.get(i));
+                    }
+                    int operatorId = operation.getOperatorId();
+                    PdfLiteral operator = getOperatorLiteral(operation);
+                    operands.add(operator);
+                    if (builtInOperationsEnabled) {
+                        getContentOperator(operatorId).invoke(this, operator, operands);
+                    } else {
+                        currentOperatorLiteral = operator;
+                        currentOperatorId = operatorId;
+                        invokeOperator(operator, operands);
+                    }
+                }
             }
         } catch (IOException e) {
             throw new PdfException(PdfException.CannotParseContentStream, e);
+        } finally {
+            currentOperatorLiteral = null;
+            currentOperatorId = ContentOperatorTable.UNKNOWN_OPERATOR;
         }
 
         this.resourcesStack.pop();
@@ -450,11 +517,166 @@ public class PdfCanvasProcessor {
      * @param operands a list with operands
      */
     protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
-        IContentOperator op = operators.get(operator.toString());
+        int operatorId = operator == currentOperatorLiteral ? currentOperatorId : operatorTable.getOperatorId(operator.toString());
+        getContentOperator(operatorId).invoke(this, operator, operands);
+    }
+
+    /**
+     * Gets the operator registered for the identifier, or the catch-all one if there is no such operator.
+     */
+    private IContentOperator getContentOperator(int operatorId) {
+        IContentOperator op = operatorId >= 0 && operatorId < operatorsById.length ? operatorsById[operatorId] : null;
         if (op == null) {
-            op = operators.get(DEFAULT_OPERATOR);
+            op = operatorsById[defaultOperatorId];
+        }
+        return op;
+    }
+
+    /**
+     * Gets the literal of the operator of the operation. The literals of the known operators are created only once.
+     */
+    private PdfLiteral getOperatorLiteral(ContentOperation operation) {
+        int operatorId = operation.getOperatorId();
+        if (operatorId < 0 || operatorId >= operatorLiterals.length) {
+            return operation.getOperatorLiteral();
+        }
+        if (operatorLiterals[operatorId] == null) {
+            operatorLiterals[operatorId] = operation.getOperatorLiteral();
+        }
+        return operatorLiterals[operatorId];
+    }
+
+    /**
+     * Executes the most frequent operations, whose operators are not replaced by custom ones,
+     * directly from the primitive operands of the parsed operation.
+     *
+     * @return true if the operation was executed, false if it shall be executed by means of {@link #invokeOperator}
+     */
+    private boolean invokeBuiltInOperation(ContentOperation operation, boolean[] builtInOperations) {
+        int operatorId = operation.getOperatorId();
+        if (builtInOperations == null || operatorId < 0 || operatorId >= builtInOperations.length
+                || !builtInOperations[operatorId]) {
+            return false;
+        }
+        switch (operatorId) {
+            case ContentOperatorTable.CONCAT_MATRIX:
+                if (operation.size() != 6 || !operation.areAllNumbers()) {
+                    return false;
+                }
+                modifyCurrentTransformationMatrix(new Matrix(operation.getFloat(0), operation.getFloat(1), operation.getFloat(2),
+                        operation.getFloat(3), operation.getFloat(4), operation.getFloat(5)));
+                return true;
+            case ContentOperatorTable.SET_TEXT_MATRIX:
+                if (operation.size() != 6 || !operation.areAllNumbers()) {
+                    return false;
+                }
+                textLineMatrix = new Matrix(operation.getFloat(0), operation.getFloat(1), operation.getFloat(2),
+                        operation.getFloat(3), operation.getFloat(4), operation.getFloat(5));
+                textMatrix = textLineMatrix;
+                return true;
+            case ContentOperatorTable.RECTANGLE:
+                if (operation.size() != 4 || !operation.areAllNumbers()) {
+                    return false;
+                }
+                currentPath.rectangle(operation.getFloat(0), operation.getFloat(1), operation.getFloat(2), operation.getFloat(3));
+                return true;
+            case ContentOperatorTable.MOVE_TO:
+                if (operation.size() != 2 || !operation.areAllNumbers()) {
+                    return false;
+                }
+                currentPath.moveTo(operation.getFloat(0), operation.getFloat(1));
+                return true;
+            case ContentOperatorTable.LINE_TO:
+                if (operation.size() != 2 || !operation.areAllNumbers()) {
+                    return false;
+                }
+                currentPath.lineTo(operation.getFloat(0), operation.getFloat(1));
+                return true;
+            case ContentOperatorTable.CURVE_TO:
+                if (operation.size() != 6 || !operation.areAllNumbers()) {
+                    return false;
+                }
+                currentPath.curveTo(operation.getFloat(0), operation.getFloat(1), operation.getFloat(2),
+                        operation.getFloat(3), operation.getFloat(4), operation.getFloat(5));
+                return true;
+            case ContentOperatorTable.SHOW_TEXT:
+                if (operation.size() != 1 || !operation.isString(0)) {
+                    return false;
+                }
+                displayPdfString((PdfString) operation.get(0));
+                return true;
+            case ContentOperatorTable.SHOW_TEXT_ARRAY:
+                if (operation.size() != 1 || !(operation.get(0) instanceof PdfArray)) {
+                    return false;
+                }
+                showTextArray((PdfArray) operation.get(0));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks which operators of the operations executed by {@link #invokeBuiltInOperation} are not replaced by custom ones.
+     *
+     * @return the flags indexed by the operator identifiers, or {@code null} if the operations cannot be executed directly
+     */
+    private boolean[] getBuiltInOperations() {
+        if (!builtInOperationsEnabled) {
+            return null;
+        }
+        boolean[] builtInOperations = new boolean[ContentOperatorTable.MOVE_TO_NEXT_LINE_SHOW_TEXT_WITH_SPACING + 1];
+        builtInOperations[ContentOperatorTable.CONCAT_MATRIX] = isBuiltInOperator(ContentOperatorTable.CONCAT_MATRIX, ModifyCurrentTransformationMatrixOperator.class);
+        builtInOperations[ContentOperatorTable.SET_TEXT_MATRIX] = isBuiltInOperator(ContentOperatorTable.SET_TEXT_MATRIX, TextSetTextMatrixOperator.class);
+        builtInOperations[ContentOperatorTable.RECTANGLE] = isBuiltInOperator(ContentOperatorTable.RECTANGLE, RectangleOperator.class);
+        builtInOperations[ContentOperatorTable.MOVE_TO] = isBuiltInOperator(ContentOperatorTable.MOVE_TO, MoveToOperator.class);
+        builtInOperations[ContentOperatorTable.LINE_TO] = isBuiltInOperator(ContentOperatorTable.LINE_TO, LineToOperator.class);
+        builtInOperations[ContentOperatorTable.CURVE_TO] = isBuiltInOperator(ContentOperatorTable.CURVE_TO, CurveOperator.class);
+        builtInOperations[ContentOperatorTable.SHOW_TEXT] = isBuiltInOperator(ContentOperatorTable.SHOW_TEXT, ShowTextOperator.class);
+        builtInOperations[ContentOperatorTable.SHOW_TEXT_ARRAY] = isBuiltInOperator(ContentOperatorTable.SHOW_TEXT_ARRAY, ShowTextArrayOperator.class);
+        return builtInOperations;
+    }
+
+    private boolean isBuiltInOperator(int operatorId, Class<?> operatorClass) {
+        IContentOperator operator = operatorsById[operatorId];
+        return operator != null && operator.getClass() == operatorClass;
+    }
+
+    private static boolean isInvokeOperatorOverridden(Class<?> processorClass) {
+        for (Class<?> cls = processorClass; cls != PdfCanvasProcessor.class; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod("invokeOperator", PdfLiteral.class, List.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
+
+    private void modifyCurrentTransformationMatrix(Matrix matrix) {
+        try {
+            getGraphicsState().updateCtm(matrix);
+        } catch (PdfException exception) {
+            if (!(exception.getCause() instanceof NoninvertibleTransformException)) {
+                throw exception;
+            } else {
+                Logger logger = LoggerFactory.getLogger(PdfCanvasProcessor.class);
+                logger.error(MessageFormatUtil.format(LogMessageConstant.FAILED_TO_PROCESS_A_TRANSFORMATION_MATRIX));
+            }
+        }
+    }
+
+    private void showTextArray(PdfArray array) {
+        float tj = 0;
+        for (PdfObject entryObj : array) {
+            if (entryObj instanceof PdfString) {
+                displayPdfString((PdfString) entryObj);
+                tj = 0;
+            } else {
+                tj = ((PdfNumber) entryObj).floatValue();
+                applyTextAdjust(tj);
+            }
         }
-        op.invoke(this, operator, operands);
     }
 
     protected PdfStream getXObjectStream(PdfName xobjectName) {
@@ -615,17 +837,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfArray array = (PdfArray) operands.get(0);
-            float tj = 0;
-            for (PdfObject entryObj : array) {
-                if (entryObj instanceof PdfString) {
-                    processor.displayPdfString((PdfString) entryObj);
-                    tj = 0;
-                } else {
-                    tj = ((PdfNumber) entryObj).floatValue();
-                    processor.applyTextAdjust(tj);
-                }
-            }
+            processor.showTextArray((PdfArray) operands.get(0));
         }
     }
 
@@ -955,17 +1167,7 @@ public class PdfCanvasProcessor {
             float d = ((PdfNumber) operands.get(3)).floatValue();
             float e = ((PdfNumber) operands.get(4)).floatValue();
             float f = ((PdfNumber) operands.get(5)).floatValue();
-            Matrix matrix = new Matrix(a, b, c, d, e, f);
-            try {
-                processor.getGraphicsState().updateCtm(matrix);
-            } catch (PdfException exception) {
-                if (!(exception.getCause() instanceof NoninvertibleTransformException)) {
-                    throw exception;
-                } else {
-                    Logger logger = LoggerFactory.getLogger(PdfCanvasProcessor.class);
-                    logger.error(MessageFormatUtil.format(LogMessageConstant.FAILED_TO_PROCESS_A_TRANSFORMATION_MATRIX));
-                }
-            }
+            processor.modifyCurrentTransformationMatrix(new Matrix(a, b, c, d, e, f));
         }
     }
 
@@ -43,12 +43,27 @@
  */
 package com.itextpdf.kernel.pdf.canvas.parser;
 
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PageFlushingHelper;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategyFactory;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
 import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class PdfTextExtractor {
 
@@ -95,4 +110,156 @@ public final class PdfTextExtractor {
     public static String getTextFromPage(PdfPage page) {
         return getTextFromPage(page, new LocationTextExtractionStrategy());
     }
+
+    /**
+     * Extract text from all pages of the document using the default strategy. The pages are processed
+     * concurrently by the tasks submitted to the executor.
+     * See {@link PdfTextExtractor#getTextFromPages(PdfDocument, int, int, ExecutorService, ITextExtractionStrategyFactory)}.
+     *
+     * @param pdfDocument the document opened for reading
+     * @param executor    the executor to run the extraction tasks
+     * @return the list of the extracted texts in the order of the pages
+     */
+    public static List<String> getTextFromPages(PdfDocument pdfDocument, ExecutorService executor) {
+        return getTextFromPages(pdfDocument, 1, pdfDocument.getNumberOfPages(), executor, new ITextExtractionStrategyFactory() {
+            @Override
+            public ITextExtractionStrategy createStrategy(int pageNumber) {
+                return new LocationTextExtractionStrategy();
+            }
+        });
+    }
+
+    /**
+     * Extract text from the range of pages. The pages are processed concurrently by the tasks submitted
+     * to the executor, while the results are returned in the order of the pages.
+     * <p>
+     * {@link PdfDocument} is not safe for concurrent access, so the pages are not read through the passed document:
+     * every thread of the executor opens its own document with {@link PdfReader#createConcurrentReader()},
+     * which shares the source of bytes with the reader of the passed document. The fonts and other resources
+     * are shared between the pages processed by the same thread. Thus the text is extracted from the document
+     * as it was read, the changes made in the passed document are not taken into account.
+     *
+     * @param pdfDocument     the document opened for reading
+     * @param startPage       one-based number of the first page to extract text from
+     * @param endPage         one-based number of the last page to extract text from, inclusive
+     * @param executor        the executor to run the extraction tasks
+     * @param strategyFactory the factory of the strategies, a new strategy is created for every page
+     * @return the list of the extracted texts in the order of the pages
+     */
+    public static List<String> getTextFromPages(PdfDocument pdfDocument, int startPage, int endPage,
+            ExecutorService executor, ITextExtractionStrategyFactory strategyFactory) {
+        if (pdfDocument.getReader() == null) {
+            throw new PdfException(PdfException.DocumentHasNoReaderToExtractTextConcurrently);
+        }
+        if (startPage < 1 || startPage > endPage || endPage > pdfDocument.getNumberOfPages()) {
+            throw new IndexOutOfBoundsException(MessageFormatUtil.format(PdfException.RequestedPageNumberIsOutOfBounds,
+                    startPage < 1 || startPage > endPage ? startPage : endPage));
+        }
+        ThreadDocuments documents = new ThreadDocuments(pdfDocument.getReader());
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Future<String>> results = new ArrayList<>(endPage - startPage + 1);
+        try {
+            for (int pageNumber = startPage; pageNumber <= endPage; pageNumber++) {
+                results.add(executor.submit(new PageTextExtractionTask(documents, pageNumber, strategyFactory, failed)));
+            }
+            List<String> texts = new ArrayList<>(results.size());
+            for (Future<String> result : results) {
+                texts.add(getResult(result));
+            }
+            return texts;
+        } catch (RuntimeException e) {
+            failed.set(true);
+            // the documents must not be closed while the submitted tasks are still running
+            for (Future<String> result : results) {
+                waitQuietly(result);
+            }
+            throw e;
+        } finally {
+            documents.close();
+        }
+    }
+
+    private static String getResult(Future<String> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.TextExtractionWasInterrupted, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(e.getCause());
+        }
+    }
+
+    private static void waitQuietly(Future<String> result) {
+        boolean interrupted = false;
+        while (!result.isDone()) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException ignored) {
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The documents opened by the threads of the executor, one document per thread.
+     */
+    private static final class ThreadDocuments {
+        private final PdfReader reader;
+        private final Map<Thread, PdfDocument> documents = new ConcurrentHashMap<>();
+
+        ThreadDocuments(PdfReader reader) {
+            this.reader = reader;
+        }
+
+        PdfDocument get() throws IOException {
+            PdfDocument document = documents.get(Thread.currentThread());
+            if (document == null) {
+                document = new PdfDocument(reader.createConcurrentReader());
+                documents.put(Thread.currentThread(), document);
+            }
+            return document;
+        }
+
+        void close() {
+            for (PdfDocument document : documents.values()) {
+                document.close();
+            }
+            documents.clear();
+        }
+    }
+
+    private static final class PageTextExtractionTask implements Callable<String> {
+        private final ThreadDocuments documents;
+        private final int pageNumber;
+        private final ITextExtractionStrategyFactory strategyFactory;
+        private final AtomicBoolean failed;
+
+        PageTextExtractionTask(ThreadDocuments documents, int pageNumber, ITextExtractionStrategyFactory strategyFactory,
+                AtomicBoolean failed) {
+            this.documents = documents;
+            this.pageNumber = pageNumber;
+            this.strategyFactory = strategyFactory;
+            this.failed = failed;
+        }
+
+        @Override
+        public String call() throws IOException {
+            if (failed.get()) {
+                return null;
+            }
+            PdfDocument document = documents.get();
+            String text = getTextFromPage(document.getPage(pageNumber), strategyFactory.createStrategy(pageNumber));
+            // the page objects are not needed anymore, while the shared resources are kept for the next pages
+            new PageFlushingHelper(document).releaseDeep(pageNumber);
+            return text;
+        }
+    }
 }
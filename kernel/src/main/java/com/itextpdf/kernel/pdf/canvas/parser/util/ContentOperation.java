@@ -0,0 +1,355 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single operation of a content stream: the operator and its operands. The instance is reused by
+ * {@link PdfCanvasParser#parse(ContentOperation)} for all the operations of a content stream, so that the numbers
+ * are kept as primitive values and the names and strings are kept as views over a reusable buffer.
+ * The {@link PdfObject} instances are created only on request.
+ * <p>
+ * The data of the operation is valid only until the next operation is parsed.
+ */
+public class ContentOperation {
+
+    private static final int NUMBER = 0;
+    private static final int NAME = 1;
+    private static final int STRING = 2;
+    private static final int HEX_STRING = 3;
+    private static final int OBJECT = 4;
+
+    private static final int INITIAL_OPERANDS_CAPACITY = 8;
+
+    private int operatorId = ContentOperatorTable.UNKNOWN_OPERATOR;
+    private int operatorOffset;
+    private int operatorLength = -1;
+
+    private int size;
+    private int[] types = new int[INITIAL_OPERANDS_CAPACITY];
+    private double[] numbers = new double[INITIAL_OPERANDS_CAPACITY];
+    private int[] offsets = new int[INITIAL_OPERANDS_CAPACITY];
+    private int[] lengths = new int[INITIAL_OPERANDS_CAPACITY];
+    private PdfObject[] objects = new PdfObject[INITIAL_OPERANDS_CAPACITY];
+
+    // the raw bytes of the numbers, names, strings and the operator
+    private byte[] data = new byte[256];
+    private int dataLength;
+
+    /**
+     * Creates an empty operation, which is intended to be filled by {@link PdfCanvasParser#parse(ContentOperation)}.
+     */
+    public ContentOperation() {
+    }
+
+    /**
+     * Gets the identifier of the operator in the {@link ContentOperatorTable} used by the parser.
+     *
+     * @return the identifier of the operator, or {@link ContentOperatorTable#UNKNOWN_OPERATOR}
+     */
+    public int getOperatorId() {
+        return operatorId;
+    }
+
+    /**
+     * Gets the operator as a string.
+     *
+     * @return the operator, or {@code null} if the operation has no operator
+     */
+    public String getOperator() {
+        return operatorLength < 0 ? null : new String(data, operatorOffset, operatorLength, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Gets the operator as a {@link PdfLiteral}, the form used by {@link com.itextpdf.kernel.pdf.canvas.parser.IContentOperator}.
+     *
+     * @return the operator, or {@code null} if the operation has no operator
+     */
+    public PdfLiteral getOperatorLiteral() {
+        return operatorLength < 0 ? null : new PdfLiteral(Arrays.copyOfRange(data, operatorOffset, operatorOffset + operatorLength));
+    }
+
+    /**
+     * Gets the number of the operands.
+     *
+     * @return the number of the operands
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the operand is a number.
+     *
+     * @param index the index of the operand
+     * @return true if the operand is a number
+     */
+    public boolean isNumber(int index) {
+        return types[checkIndex(index)] == NUMBER;
+    }
+
+    /**
+     * Checks whether all the operands are numbers.
+     *
+     * @return true if all the operands are numbers
+     */
+    public boolean areAllNumbers() {
+        for (int i = 0; i < size; i++) {
+            if (types[i] != NUMBER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the operand is a name.
+     *
+     * @param index the index of the operand
+     * @return true if the operand is a name
+     */
+    public boolean isName(int index) {
+        return types[checkIndex(index)] == NAME;
+    }
+
+    /**
+     * Checks whether the operand is a string.
+     *
+     * @param index the index of the operand
+     * @return true if the operand is a string
+     */
+    public boolean isString(int index) {
+        int type = types[checkIndex(index)];
+        return type == STRING || type == HEX_STRING;
+    }
+
+    /**
+     * Gets the value of a number operand.
+     *
+     * @param index the index of the operand
+     * @return the value of the number
+     */
+    public double getDouble(int index) {
+        if (types[checkIndex(index)] != NUMBER) {
+            throw new IllegalStateException("The operand is not a number.");
+        }
+        return numbers[index];
+    }
+
+    /**
+     * Gets the value of a number operand as float, the same way as {@link PdfNumber#floatValue()} does.
+     *
+     * @param index the index of the operand
+     * @return the value of the number
+     */
+    public float getFloat(int index) {
+        return (float) getDouble(index);
+    }
+
+    /**
+     * Gets the value of a number operand as int, the same way as {@link PdfNumber#intValue()} does.
+     *
+     * @param index the index of the operand
+     * @return the value of the number
+     */
+    public int getInt(int index) {
+        return (int) getDouble(index);
+    }
+
+    /**
+     * Compares the raw content of a number, name or string operand with the bytes, without creating any objects.
+     * The content of a name doesn't include the leading slash, the content of a string is not decoded.
+     *
+     * @param index the index of the operand
+     * @param value the bytes to compare with
+     * @return true if the content of the operand equals to the bytes
+     */
+    public boolean contentEquals(int index, byte[] value) {
+        if (types[checkIndex(index)] == OBJECT || lengths[index] != value.length) {
+            return false;
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (data[offsets[index] + i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the operand as a {@link PdfObject}. The numbers, names and strings are created on each call.
+     *
+     * @param index the index of the operand
+     * @return the operand
+     */
+    public PdfObject get(int index) {
+        switch (types[checkIndex(index)]) {
+            case NUMBER:
+                // PdfNumber(byte[]) keeps the original representation of the number
+                return new PdfNumber(copyData(index));
+            case NAME:
+                return new PdfName(copyData(index));
+            case STRING:
+            case HEX_STRING:
+                boolean hexWriting = types[index] == HEX_STRING;
+                return new PdfString(PdfTokenizer.decodeStringContent(copyData(index), hexWriting)).setHexWriting(hexWriting);
+            default:
+                return objects[index];
+        }
+    }
+
+    /**
+     * Fills the list in the same way as {@link PdfCanvasParser#parse(List)} does: the operands followed by the operator.
+     *
+     * @param list the list to fill, it is cleared before filling
+     * @return the same list
+     */
+    public List<PdfObject> toList(List<PdfObject> list) {
+        list.clear();
+        for (int i = 0; i < size; i++) {
+            list.add(get(i));
+        }
+        if (operatorLength >= 0) {
+            list.add(getOperatorLiteral());
+        }
+        return list;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            objects[i] = null;
+        }
+        size = 0;
+        dataLength = 0;
+        operatorId = ContentOperatorTable.UNKNOWN_OPERATOR;
+        operatorLength = -1;
+    }
+
+    void addNumber(double value, ByteBuffer content) {
+        int index = addOperand(NUMBER, content);
+        numbers[index] = value;
+    }
+
+    void addName(ByteBuffer content) {
+        addOperand(NAME, content);
+    }
+
+    void addString(ByteBuffer content, boolean hexString) {
+        addOperand(hexString ? HEX_STRING : STRING, content);
+    }
+
+    void addObject(PdfObject object) {
+        int index = addOperand(OBJECT, null);
+        objects[index] = object;
+    }
+
+    void setOperator(int operatorId, ByteBuffer content) {
+        this.operatorId = operatorId;
+        this.operatorOffset = dataLength;
+        this.operatorLength = content.size();
+        appendData(content);
+    }
+
+    void setOperator(int operatorId, byte[] operator) {
+        ensureDataCapacity(operator.length);
+        System.arraycopy(operator, 0, data, dataLength, operator.length);
+        this.operatorId = operatorId;
+        this.operatorOffset = dataLength;
+        this.operatorLength = operator.length;
+        dataLength += operator.length;
+    }
+
+    private int addOperand(int type, ByteBuffer content) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        types[size] = type;
+        offsets[size] = dataLength;
+        lengths[size] = 0;
+        if (content != null) {
+            lengths[size] = content.size();
+            appendData(content);
+        }
+        return size++;
+    }
+
+    private void appendData(ByteBuffer content) {
+        ensureDataCapacity(content.size());
+        System.arraycopy(content.getInternalBuffer(), 0, data, dataLength, content.size());
+        dataLength += content.size();
+    }
+
+    private void ensureDataCapacity(int length) {
+        if (dataLength + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + length));
+        }
+    }
+
+    private byte[] copyData(int index) {
+        return Arrays.copyOfRange(data, offsets[index], offsets[index] + lengths[index]);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index");
+        }
+        return index;
+    }
+}
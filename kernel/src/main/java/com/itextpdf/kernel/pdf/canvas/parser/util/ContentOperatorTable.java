@@ -0,0 +1,455 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.kernel.PdfException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps the content stream operators to integer identifiers. The lookup by the content of a token doesn't
+ * create any objects, which allows to identify the operators of a content stream without converting them to strings.
+ * <p>
+ * A new table contains all the operators defined in ISO 32000-1, Table A.1, with the identifiers defined
+ * by the constants of this class. Custom operators may be added by {@link #register(String)}, they get
+ * the identifiers following the standard ones.
+ */
+public class ContentOperatorTable {
+
+    /**
+     * The identifier of the operators which are not contained in the table.
+     */
+    public static final int UNKNOWN_OPERATOR = -1;
+
+    /** Operator {@code b}. */
+    public static final int CLOSE_FILL_STROKE = 0;
+    /** Operator {@code B}. */
+    public static final int FILL_STROKE = 1;
+    /** Operator {@code b*}. */
+    public static final int CLOSE_FILL_STROKE_EVEN_ODD = 2;
+    /** Operator {@code B*}. */
+    public static final int FILL_STROKE_EVEN_ODD = 3;
+    /** Operator {@code BDC}. */
+    public static final int BEGIN_MARKED_CONTENT_WITH_PROPERTIES = 4;
+    /** Operator {@code BI}. */
+    public static final int BEGIN_INLINE_IMAGE = 5;
+    /** Operator {@code BMC}. */
+    public static final int BEGIN_MARKED_CONTENT = 6;
+    /** Operator {@code BT}. */
+    public static final int BEGIN_TEXT = 7;
+    /** Operator {@code BX}. */
+    public static final int BEGIN_COMPATIBILITY = 8;
+    /** Operator {@code c}. */
+    public static final int CURVE_TO = 9;
+    /** Operator {@code cm}. */
+    public static final int CONCAT_MATRIX = 10;
+    /** Operator {@code CS}. */
+    public static final int SET_STROKE_COLOR_SPACE = 11;
+    /** Operator {@code cs}. */
+    public static final int SET_FILL_COLOR_SPACE = 12;
+    /** Operator {@code d}. */
+    public static final int SET_DASH = 13;
+    /** Operator {@code d0}. */
+    public static final int SET_CHAR_WIDTH = 14;
+    /** Operator {@code d1}. */
+    public static final int SET_CACHE_DEVICE = 15;
+    /** Operator {@code Do}. */
+    public static final int PAINT_XOBJECT = 16;
+    /** Operator {@code DP}. */
+    public static final int DEFINE_MARKED_CONTENT_POINT_WITH_PROPERTIES = 17;
+    /** Operator {@code EI}. */
+    public static final int END_INLINE_IMAGE = 18;
+    /** Operator {@code EMC}. */
+    public static final int END_MARKED_CONTENT = 19;
+    /** Operator {@code ET}. */
+    public static final int END_TEXT = 20;
+    /** Operator {@code EX}. */
+    public static final int END_COMPATIBILITY = 21;
+    /** Operator {@code f}. */
+    public static final int FILL = 22;
+    /** Operator {@code F}. */
+    public static final int FILL_OBSOLETE = 23;
+    /** Operator {@code f*}. */
+    public static final int FILL_EVEN_ODD = 24;
+    /** Operator {@code G}. */
+    public static final int SET_STROKE_GRAY = 25;
+    /** Operator {@code g}. */
+    public static final int SET_FILL_GRAY = 26;
+    /** Operator {@code gs}. */
+    public static final int SET_GRAPHICS_STATE = 27;
+    /** Operator {@code h}. */
+    public static final int CLOSE_PATH = 28;
+    /** Operator {@code i}. */
+    public static final int SET_FLATNESS = 29;
+    /** Operator {@code ID}. */
+    public static final int BEGIN_INLINE_IMAGE_DATA = 30;
+    /** Operator {@code j}. */
+    public static final int SET_LINE_JOIN = 31;
+    /** Operator {@code J}. */
+    public static final int SET_LINE_CAP = 32;
+    /** Operator {@code K}. */
+    public static final int SET_STROKE_CMYK = 33;
+    /** Operator {@code k}. */
+    public static final int SET_FILL_CMYK = 34;
+    /** Operator {@code l}. */
+    public static final int LINE_TO = 35;
+    /** Operator {@code m}. */
+    public static final int MOVE_TO = 36;
+    /** Operator {@code M}. */
+    public static final int SET_MITER_LIMIT = 37;
+    /** Operator {@code MP}. */
+    public static final int DEFINE_MARKED_CONTENT_POINT = 38;
+    /** Operator {@code n}. */
+    public static final int END_PATH = 39;
+    /** Operator {@code q}. */
+    public static final int SAVE_STATE = 40;
+    /** Operator {@code Q}. */
+    public static final int RESTORE_STATE = 41;
+    /** Operator {@code re}. */
+    public static final int RECTANGLE = 42;
+    /** Operator {@code RG}. */
+    public static final int SET_STROKE_RGB = 43;
+    /** Operator {@code rg}. */
+    public static final int SET_FILL_RGB = 44;
+    /** Operator {@code ri}. */
+    public static final int SET_RENDERING_INTENT = 45;
+    /** Operator {@code s}. */
+    public static final int CLOSE_STROKE = 46;
+    /** Operator {@code S}. */
+    public static final int STROKE = 47;
+    /** Operator {@code SC}. */
+    public static final int SET_STROKE_COLOR = 48;
+    /** Operator {@code sc}. */
+    public static final int SET_FILL_COLOR = 49;
+    /** Operator {@code SCN}. */
+    public static final int SET_STROKE_COLOR_N = 50;
+    /** Operator {@code scn}. */
+    public static final int SET_FILL_COLOR_N = 51;
+    /** Operator {@code sh}. */
+    public static final int SHADING_FILL = 52;
+    /** Operator {@code T*}. */
+    public static final int MOVE_TO_NEXT_LINE = 53;
+    /** Operator {@code Tc}. */
+    public static final int SET_CHAR_SPACING = 54;
+    /** Operator {@code Td}. */
+    public static final int MOVE_TEXT = 55;
+    /** Operator {@code TD}. */
+    public static final int MOVE_TEXT_SET_LEADING = 56;
+    /** Operator {@code Tf}. */
+    public static final int SET_FONT = 57;
+    /** Operator {@code Tj}. */
+    public static final int SHOW_TEXT = 58;
+    /** Operator {@code TJ}. */
+    public static final int SHOW_TEXT_ARRAY = 59;
+    /** Operator {@code TL}. */
+    public static final int SET_TEXT_LEADING = 60;
+    /** Operator {@code Tm}. */
+    public static final int SET_TEXT_MATRIX = 61;
+    /** Operator {@code Tr}. */
+    public static final int SET_TEXT_RENDERING_MODE = 62;
+    /** Operator {@code Ts}. */
+    public static final int SET_TEXT_RISE = 63;
+    /** Operator {@code Tw}. */
+    public static final int SET_WORD_SPACING = 64;
+    /** Operator {@code Tz}. */
+    public static final int SET_HORIZONTAL_SCALING = 65;
+    /** Operator {@code v}. */
+    public static final int CURVE_TO_INITIAL_POINT_REPLICATED = 66;
+    /** Operator {@code w}. */
+    public static final int SET_LINE_WIDTH = 67;
+    /** Operator {@code W}. */
+    public static final int CLIP = 68;
+    /** Operator {@code W*}. */
+    public static final int CLIP_EVEN_ODD = 69;
+    /** Operator {@code y}. */
+    public static final int CURVE_TO_FINAL_POINT_REPLICATED = 70;
+    /** Operator {@code '}. */
+    public static final int MOVE_TO_NEXT_LINE_SHOW_TEXT = 71;
+    /** Operator {@code "}. */
+    public static final int MOVE_TO_NEXT_LINE_SHOW_TEXT_WITH_SPACING = 72;
+
+    private static final String[] STANDARD_OPERATORS = {
+            "b",
+            "B",
+            "b*",
+            "B*",
+            "BDC",
+            "BI",
+            "BMC",
+            "BT",
+            "BX",
+            "c",
+            "cm",
+            "CS",
+            "cs",
+            "d",
+            "d0",
+            "d1",
+            "Do",
+            "DP",
+            "EI",
+            "EMC",
+            "ET",
+            "EX",
+            "f",
+            "F",
+            "f*",
+            "G",
+            "g",
+            "gs",
+            "h",
+            "i",
+            "ID",
+            "j",
+            "J",
+            "K",
+            "k",
+            "l",
+            "m",
+            "M",
+            "MP",
+            "n",
+            "q",
+            "Q",
+            "re",
+            "RG",
+            "rg",
+            "ri",
+            "s",
+            "S",
+            "SC",
+            "sc",
+            "SCN",
+            "scn",
+            "sh",
+            "T*",
+            "Tc",
+            "Td",
+            "TD",
+            "Tf",
+            "Tj",
+            "TJ",
+            "TL",
+            "Tm",
+            "Tr",
+            "Ts",
+            "Tw",
+            "Tz",
+            "v",
+            "w",
+            "W",
+            "W*",
+            "y",
+            "'",
+            "\""
+    };
+
+    private static final byte[][] STANDARD_OPERATOR_BYTES = new byte[STANDARD_OPERATORS.length][];
+
+    static {
+        for (int i = 0; i < STANDARD_OPERATORS.length; i++) {
+            STANDARD_OPERATOR_BYTES[i] = STANDARD_OPERATORS[i].getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final boolean readOnly;
+    private byte[][] operators;
+    private int size;
+
+    // open addressing hash table, the slots contain operator id + 1, zero slot is empty
+    private int[] slots;
+
+    /**
+     * Creates a new table with the standard content stream operators.
+     */
+    public ContentOperatorTable() {
+        this(false);
+    }
+
+    /**
+     * Creates a new table with the standard content stream operators.
+     *
+     * @param readOnly whether registering of the custom operators is prohibited, which allows to share the table
+     */
+    ContentOperatorTable(boolean readOnly) {
+        this.readOnly = readOnly;
+        operators = new byte[STANDARD_OPERATORS.length][];
+        slots = new int[INITIAL_CAPACITY];
+        for (byte[] operator : STANDARD_OPERATOR_BYTES) {
+            add(operator);
+        }
+    }
+
+    /**
+     * Adds the operator to the table, unless it is already contained in it.
+     *
+     * @param operator the operator
+     * @return the identifier of the operator
+     * @throws UnsupportedOperationException if the table is read only, e.g. the one shared by the parsers by default
+     */
+    public int register(String operator) {
+        if (readOnly) {
+            throw new UnsupportedOperationException(PdfException.CannotRegisterOperatorInReadOnlyOperatorTable);
+        }
+        byte[] bytes = operator.getBytes(StandardCharsets.ISO_8859_1);
+        int operatorId = getOperatorId(bytes, bytes.length);
+        return operatorId == UNKNOWN_OPERATOR ? add(bytes) : operatorId;
+    }
+
+    /**
+     * Gets the identifier of the operator contained in the buffer, e.g. in the content of the current
+     * token of a {@link com.itextpdf.io.source.PdfTokenizer}.
+     *
+     * @param operator the buffer with the bytes of the operator
+     * @return the identifier of the operator, or {@link #UNKNOWN_OPERATOR} if it is not contained in the table
+     */
+    public int getOperatorId(ByteBuffer operator) {
+        return getOperatorId(operator.getInternalBuffer(), operator.size());
+    }
+
+    /**
+     * Gets the identifier of the operator.
+     *
+     * @param operator the operator
+     * @return the identifier of the operator, or {@link #UNKNOWN_OPERATOR} if it is not contained in the table
+     */
+    public int getOperatorId(String operator) {
+        byte[] bytes = operator.getBytes(StandardCharsets.ISO_8859_1);
+        return getOperatorId(bytes, bytes.length);
+    }
+
+    /**
+     * Gets the operator by its identifier.
+     *
+     * @param operatorId the identifier of the operator
+     * @return the operator
+     */
+    public String getOperator(int operatorId) {
+        return new String(getOperatorBytes(operatorId), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Gets the bytes of the operator by its identifier. The returned array must not be modified.
+     *
+     * @param operatorId the identifier of the operator
+     * @return the bytes of the operator
+     */
+    public byte[] getOperatorBytes(int operatorId) {
+        if (operatorId < 0 || operatorId >= size) {
+            throw new IndexOutOfBoundsException("operatorId");
+        }
+        return operators[operatorId];
+    }
+
+    /**
+     * Gets the number of the operators in the table. The identifiers of the operators are in range from 0 to size - 1.
+     *
+     * @return the number of the operators
+     */
+    public int size() {
+        return size;
+    }
+
+    private int add(byte[] operator) {
+        if (2 * (size + 1) > slots.length) {
+            rehash(slots.length * 2);
+        }
+        if (size == operators.length) {
+            byte[][] newOperators = new byte[operators.length * 2][];
+            System.arraycopy(operators, 0, newOperators, 0, size);
+            operators = newOperators;
+        }
+        operators[size] = operator;
+        insert(size);
+        return size++;
+    }
+
+    private int getOperatorId(byte[] bytes, int length) {
+        int mask = slots.length - 1;
+        for (int slot = hash(bytes, length) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            byte[] operator = operators[slots[slot] - 1];
+            if (operator.length == length && equals(operator, bytes, length)) {
+                return slots[slot] - 1;
+            }
+        }
+        return UNKNOWN_OPERATOR;
+    }
+
+    private void insert(int operatorId) {
+        byte[] operator = operators[operatorId];
+        int mask = slots.length - 1;
+        int slot = hash(operator, operator.length) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = operatorId + 1;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    private static int hash(byte[] bytes, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (bytes[i] & 0xff);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] operator, byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (operator[i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
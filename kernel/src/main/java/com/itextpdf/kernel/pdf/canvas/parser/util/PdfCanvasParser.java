@@ -72,6 +72,12 @@ public class PdfCanvasParser {
 
     private PdfResources currentResources;
 
+    private ContentOperatorTable operatorTable = DEFAULT_OPERATOR_TABLE;
+
+    private static final ContentOperatorTable DEFAULT_OPERATOR_TABLE = new ContentOperatorTable(true);
+
+    private static final byte[] EI = {(byte) 'E', (byte) 'I'};
+
     /**
      * Creates a new instance of PdfContentParser
      * @param tokeniser the tokeniser with the content
@@ -127,6 +133,79 @@ public class PdfCanvasParser {
         return ls;
     }
 
+    /**
+     * Parses a single operation from the content into the reusable {@link ContentOperation}.
+     * Unlike {@link #parse(List)}, the numeric operands are kept as primitive values and the names, strings and
+     * the operator are kept as views over a reusable buffer, so that parsing of the most of the operations
+     * doesn't create any objects. Only dictionaries and arrays are read as {@link PdfObject} instances.
+     * <br>
+     * Inline images are handled the same way as by {@link #parse(List)}: the operation contains the EI operator
+     * and the inline image as {@link PdfStream} operand.
+     *
+     * @param operation the operation to fill, it is cleared before parsing
+     * @return true if the operation was parsed, false if the end of content was reached
+     * @throws IOException on error
+     */
+    public boolean parse(ContentOperation operation) throws IOException {
+        operation.clear();
+        while (nextValidToken()) {
+            switch (tokeniser.getTokenType()) {
+                case Number:
+                    operation.addNumber(tokeniser.getDoubleValue(), tokeniser.getTokenContent());
+                    break;
+                case Name:
+                    operation.addName(tokeniser.getTokenContent());
+                    break;
+                case String:
+                    operation.addString(tokeniser.getTokenContent(), tokeniser.isHexString());
+                    break;
+                case StartDic:
+                    operation.addObject(readDictionary());
+                    break;
+                case StartArray:
+                    operation.addObject(readArray());
+                    break;
+                case Other:
+                    int operatorId = operatorTable.getOperatorId(tokeniser.getTokenContent());
+                    if (operatorId == ContentOperatorTable.BEGIN_INLINE_IMAGE) {
+                        PdfStream inlineImageAsStream = InlineImageParsingUtils.parse(this, currentResources.getResource(PdfName.ColorSpace));
+                        operation.clear();
+                        operation.addObject(inlineImageAsStream);
+                        operation.setOperator(ContentOperatorTable.END_INLINE_IMAGE, EI);
+                    } else {
+                        operation.setOperator(operatorId, tokeniser.getTokenContent());
+                    }
+                    return true;
+                default:
+                    operation.addObject(new PdfLiteral(tokeniser.getByteContent()));
+                    break;
+            }
+        }
+        return operation.size() > 0;
+    }
+
+    /**
+     * Gets the table used to identify the operators by {@link #parse(ContentOperation)}.
+     * Unless another table was set, a new table is created for this parser on the first call,
+     * so that the custom operators can be registered in it.
+     * @return the table of the operators
+     */
+    public ContentOperatorTable getOperatorTable() {
+        if (operatorTable == DEFAULT_OPERATOR_TABLE) {
+            operatorTable = new ContentOperatorTable();
+        }
+        return operatorTable;
+    }
+
+    /**
+     * Sets the table used to identify the operators by {@link #parse(ContentOperation)}.
+     * By default the table with the standard operators is used.
+     * @param operatorTable the table of the operators
+     */
+    public void setOperatorTable(ContentOperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+    }
+
     /**
      * Gets the tokeniser.
      * @return the tokeniser.
@@ -51,12 +51,13 @@ import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 
 
 /**
  * Handles ASCII85Decode filter
  */
-public class ASCII85DecodeFilter extends MemoryLimitsAwareFilter {
+public class ASCII85DecodeFilter extends MemoryLimitsAwareFilter implements IStreamingFilterHandler {
 
     /**
      * {@inheritDoc}
@@ -68,6 +69,14 @@ public class ASCII85DecodeFilter extends MemoryLimitsAwareFilter {
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream createDecodingStream(InputStream encoded, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return new ASCII85DecodeInputStream(encoded);
+    }
+
     /**
      * Decodes the input bytes according to ASCII85.
      *
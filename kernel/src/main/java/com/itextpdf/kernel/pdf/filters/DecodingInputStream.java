@@ -0,0 +1,230 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The base class for the streams which decode the data of the underlying stream portion by portion.
+ * The encoded data is read through an internal buffer, the decoded portions are collected in another one.
+ */
+abstract class DecodingInputStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The number of the decoded bytes after which {@link #decodeNext()} implementations may stop decoding.
+     */
+    protected static final int PORTION_SIZE = 4096;
+
+    private byte[] encoded = new byte[BUFFER_SIZE];
+    private int encodedPosition;
+    private int encodedCount;
+    private boolean encodedEnd;
+
+    private byte[] decoded = new byte[BUFFER_SIZE];
+    private int decodedPosition;
+    private int decodedCount;
+    private boolean decodedEnd;
+
+    protected DecodingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureDecoded()) {
+            return -1;
+        }
+        return decoded[decodedPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureDecoded()) {
+            return -1;
+        }
+        int n = Math.min(len, decodedCount - decodedPosition);
+        System.arraycopy(decoded, decodedPosition, b, off, n);
+        decodedPosition += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && ensureDecoded()) {
+            int step = (int) Math.min(n - skipped, decodedCount - decodedPosition);
+            decodedPosition += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return decodedCount - decodedPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Decodes the next portion of the data by means of {@link #readEncoded()} and {@link #write(int)}.
+     * Shall call {@link #endDecoding()} when there is no more data.
+     *
+     * @throws IOException if the underlying stream cannot be read
+     */
+    protected abstract void decodeNext() throws IOException;
+
+    /**
+     * Reads the next byte of the encoded data.
+     *
+     * @return the byte, or -1 if the end of the encoded data is reached
+     * @throws IOException if the underlying stream cannot be read
+     */
+    protected int readEncoded() throws IOException {
+        if (encodedPosition == encodedCount && !fillEncoded()) {
+            return -1;
+        }
+        return encoded[encodedPosition++] & 0xff;
+    }
+
+    /**
+     * Reads the encoded bytes into the array until it is filled or the end of the encoded data is reached.
+     *
+     * @return the number of the read bytes
+     * @throws IOException if the underlying stream cannot be read
+     */
+    protected int readEncodedFully(byte[] b, int off, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            if (encodedPosition == encodedCount && !fillEncoded()) {
+                break;
+            }
+            int n = Math.min(len - read, encodedCount - encodedPosition);
+            System.arraycopy(encoded, encodedPosition, b, off + read, n);
+            encodedPosition += n;
+            read += n;
+        }
+        return read;
+    }
+
+    /**
+     * Appends the byte to the decoded data.
+     */
+    protected void write(int b) {
+        ensureDecodedCapacity(1);
+        decoded[decodedCount++] = (byte) b;
+    }
+
+    /**
+     * Appends the bytes to the decoded data.
+     */
+    protected void write(byte[] b, int off, int len) {
+        ensureDecodedCapacity(len);
+        System.arraycopy(b, off, decoded, decodedCount, len);
+        decodedCount += len;
+    }
+
+    /**
+     * Marks that all the data has been decoded.
+     */
+    protected void endDecoding() {
+        decodedEnd = true;
+    }
+
+    private boolean fillEncoded() throws IOException {
+        if (encodedEnd) {
+            return false;
+        }
+        int n = in.read(encoded, 0, encoded.length);
+        if (n <= 0) {
+            encodedEnd = true;
+            return false;
+        }
+        encodedPosition = 0;
+        encodedCount = n;
+        return true;
+    }
+
+    private boolean ensureDecoded() throws IOException {
+        while (decodedPosition == decodedCount) {
+            if (decodedEnd) {
+                return false;
+            }
+            decodedPosition = 0;
+            decodedCount = 0;
+            decodeNext();
+        }
+        return true;
+    }
+
+    private void ensureDecodedCapacity(int len) {
+        if (decodedCount + len > decoded.length) {
+            byte[] newDecoded = new byte[Math.max(decoded.length * 2, decodedCount + len)];
+            System.arraycopy(decoded, 0, newDecoded, 0, decodedCount);
+            decoded = newDecoded;
+        }
+    }
+}
@@ -56,11 +56,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.zip.InflaterInputStream;
+import java.io.InputStream;
 
 /**
  * Handles FlateDecode filter.
  */
-public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
+public class FlateDecodeFilter extends MemoryLimitsAwareFilter implements IStreamingFilterHandler {
 
     /**
      * Creates a FlateDecodeFilter.
@@ -119,6 +120,14 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream createDecodingStream(InputStream encoded, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return PredictorDecodeInputStream.create(new FlateDecodeInputStream(encoded, strictDecoding), decodeParams);
+    }
+
     /**
      * Defines how the corrupted streams should be treated.
      *
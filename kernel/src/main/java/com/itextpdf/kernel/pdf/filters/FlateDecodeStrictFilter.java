@@ -50,6 +50,7 @@ import com.itextpdf.kernel.pdf.PdfObject;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.zip.InflaterInputStream;
+import java.io.InputStream;
 
 /**
  * Handles strict FlateDecode filter.
@@ -67,6 +68,14 @@ public class FlateDecodeStrictFilter extends FlateDecodeFilter {
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream createDecodingStream(InputStream encoded, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return PredictorDecodeInputStream.create(new FlateDecodeInputStream(encoded, true), decodeParams);
+    }
+
     /**
      * A helper to flateDecode.
      *
@@ -0,0 +1,199 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Applies the predictor to the data of the underlying stream row by row, see
+ * {@link FlateDecodeFilter#decodePredictor(byte[], PdfObject)}.
+ */
+class PredictorDecodeInputStream extends DecodingInputStream {
+
+    private final int predictor;
+    private final int bytesPerPixel;
+    private final int bytesPerRow;
+    private byte[] curr;
+    private byte[] prior;
+
+    private PredictorDecodeInputStream(InputStream in, int predictor, int colors, int bpc, int width) {
+        super(in);
+        this.predictor = predictor;
+        this.bytesPerPixel = colors * bpc / 8;
+        this.bytesPerRow = (colors * width * bpc + 7) / 8;
+        this.curr = new byte[bytesPerRow];
+        this.prior = new byte[bytesPerRow];
+    }
+
+    /**
+     * Wraps the stream to apply the predictor specified in the decode parameters.
+     *
+     * @param in           the stream of the data to which the predictor shall be applied
+     * @param decodeParams PdfDictionary of decodeParams
+     * @return the stream of the decoded data, or the passed stream if there is no predictor to apply
+     */
+    static InputStream create(InputStream in, PdfObject decodeParams) {
+        if (decodeParams == null || decodeParams.getType() != PdfObject.DICTIONARY) {
+            return in;
+        }
+        PdfDictionary dic = (PdfDictionary) decodeParams;
+        PdfObject obj = dic.get(PdfName.Predictor);
+        if (obj == null || obj.getType() != PdfObject.NUMBER) {
+            return in;
+        }
+        int predictor = ((PdfNumber) obj).intValue();
+        if (predictor < 10 && predictor != 2) {
+            return in;
+        }
+        int width = getIntValue(dic, PdfName.Columns, 1);
+        int colors = getIntValue(dic, PdfName.Colors, 1);
+        int bpc = getIntValue(dic, PdfName.BitsPerComponent, 8);
+        if (predictor == 2 && (bpc != 8 || colors * width <= 0)) {
+            return in;
+        }
+        return new PredictorDecodeInputStream(in, predictor, colors, bpc, width);
+    }
+
+    @Override
+    protected void decodeNext() throws IOException {
+        boolean hasMoreRows = true;
+        while (hasMoreRows && available() < PORTION_SIZE) {
+            hasMoreRows = predictor == 2 ? decodeTiffRow() : decodePngRow();
+        }
+    }
+
+    private boolean decodeTiffRow() throws IOException {
+        int read = readEncodedFully(curr, 0, bytesPerRow);
+        if (read == bytesPerRow) {
+            for (int col = bytesPerPixel; col < bytesPerRow; col++) {
+                curr[col] = (byte) (curr[col] + curr[col - bytesPerPixel]);
+            }
+        }
+        // the incomplete last row is left as is
+        write(curr, 0, read);
+        if (read < bytesPerRow) {
+            endDecoding();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean decodePngRow() throws IOException {
+        // Read the filter type byte and a row of data
+        int filter = readEncoded();
+        if (filter < 0 || readEncodedFully(curr, 0, bytesPerRow) < bytesPerRow) {
+            endDecoding();
+            return false;
+        }
+        switch (filter) {
+            case 0: //PNG_FILTER_NONE
+                break;
+            case 1: //PNG_FILTER_SUB
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += curr[i - bytesPerPixel];
+                }
+                break;
+            case 2: //PNG_FILTER_UP
+                for (int i = 0; i < bytesPerRow; i++) {
+                    curr[i] += prior[i];
+                }
+                break;
+            case 3: //PNG_FILTER_AVERAGE
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += (byte) (prior[i] / 2);
+                }
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff)) / 2);
+                }
+                break;
+            case 4: //PNG_FILTER_PAETH
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += prior[i];
+                }
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    int a = curr[i - bytesPerPixel] & 0xff;
+                    int b = prior[i] & 0xff;
+                    int c = prior[i - bytesPerPixel] & 0xff;
+
+                    int p = a + b - c;
+                    int pa = Math.abs(p - a);
+                    int pb = Math.abs(p - b);
+                    int pc = Math.abs(p - c);
+
+                    int ret;
+                    if (pa <= pb && pa <= pc) {
+                        ret = a;
+                    } else if (pb <= pc) {
+                        ret = b;
+                    } else {
+                        ret = c;
+                    }
+                    curr[i] += (byte) ret;
+                }
+                break;
+            default:
+                // Error -- unknown filter type
+                throw new PdfException(PdfException.PngFilterUnknown);
+        }
+        write(curr, 0, bytesPerRow);
+
+        // Swap curr and prior
+        byte[] tmp = prior;
+        prior = curr;
+        curr = tmp;
+        return true;
+    }
+
+    private static int getIntValue(PdfDictionary dic, PdfName key, int defaultValue) {
+        PdfObject obj = dic.get(key);
+        return obj != null && obj.getType() == PdfObject.NUMBER ? ((PdfNumber) obj).intValue() : defaultValue;
+    }
+}
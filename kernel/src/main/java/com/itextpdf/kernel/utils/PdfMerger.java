@@ -44,8 +44,10 @@
 package com.itextpdf.kernel.utils;
 
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 
@@ -55,6 +57,7 @@ public class PdfMerger {
     private boolean closeSrcDocuments;
     private boolean mergeTags;
     private boolean mergeOutlines;
+    private boolean deduplicateResources;
 
     /**
      * This class is used to merge a number of existing documents into one. By default, if source document
@@ -93,6 +96,65 @@ public class PdfMerger {
         return this;
     }
 
+    /**
+     * If set to <i>true</i> then equal resources (such as fonts and images) of the documents merged with
+     * {@link #mergeAll(Iterator)} are written only once. This switches the writer of the current document
+     * to the smart mode, see {@link com.itextpdf.kernel.pdf.WriterProperties#useSmartMode()}. The number
+     * of remembered resources can be limited with
+     * {@link com.itextpdf.kernel.pdf.WriterProperties#setSmartModeCacheLimit(int)}.
+     * Default value - <i>false</i>.
+     * @param deduplicateResources should be true to write equal resources of different source documents only once.
+     * @return this {@code PdfMerger} instance.
+     */
+    public PdfMerger setDeduplicateResources(boolean deduplicateResources) {
+        this.deduplicateResources = deduplicateResources;
+        return this;
+    }
+
+    /**
+     * This method merges all pages of the source documents to the current one, keeping the used memory
+     * independent of the number of source documents.
+     * <br><br>
+     * The documents are taken from the iterator one by one, so they can be opened lazily. Right after the pages
+     * of a source document are copied, the copied pages and the objects copied from the source document are
+     * flushed to the output and the source document is closed, regardless of the <i>closeSourceDocuments</i> flag.
+     * Since the pages are flushed, they can't be modified after the merge.
+     * @param sources - iterator over the documents, from which pages will be copied.
+     * @return the throughput metrics of the merge.
+     */
+    public PdfMergerStatistics mergeAll(Iterator<PdfDocument> sources) {
+        if (deduplicateResources && pdfDocument.getWriter() != null) {
+            pdfDocument.getWriter().setSmartMode(true);
+        }
+        PdfMergerStatistics statistics = new PdfMergerStatistics();
+        long startBytes = getWrittenBytes();
+        long startTime = System.nanoTime();
+        while (sources.hasNext()) {
+            PdfDocument from = sources.next();
+            try {
+                if (mergeTags && from.isTagged()) {
+                    pdfDocument.setTagged();
+                }
+                if (mergeOutlines && from.hasOutlines()) {
+                    pdfDocument.initializeOutlines();
+                }
+                int pagesCount = from.getNumberOfPages();
+                if (pagesCount > 0) {
+                    for (PdfPage page : from.copyPagesTo(1, pagesCount, pdfDocument)) {
+                        page.flush();
+                    }
+                    pdfDocument.flushCopiedObjects(from);
+                }
+                statistics.addDocument(pagesCount);
+            } finally {
+                from.close();
+            }
+        }
+        statistics.setElapsedNanos(System.nanoTime() - startTime);
+        statistics.setWrittenBytes(getWrittenBytes() - startBytes);
+        return statistics;
+    }
+
     /**
      * This method merges pages from the source document to the current one.
      * <br><br>
@@ -143,4 +205,8 @@ public class PdfMerger {
     public void close() {
         pdfDocument.close();
     }
+
+    private long getWrittenBytes() {
+        return pdfDocument.getWriter() != null ? pdfDocument.getWriter().getCurrentPos() : 0;
+    }
 }
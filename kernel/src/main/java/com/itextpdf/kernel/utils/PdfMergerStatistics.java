@@ -0,0 +1,132 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+/**
+ * Throughput metrics of a bulk merge performed with {@link PdfMerger#mergeAll(java.util.Iterator)}.
+ */
+public class PdfMergerStatistics {
+
+    private int documentsCount;
+    private int pagesCount;
+    private long writtenBytes;
+    private long elapsedNanos;
+
+    PdfMergerStatistics() {
+    }
+
+    /**
+     * Gets the number of merged source documents.
+     *
+     * @return the number of merged source documents
+     */
+    public int getDocumentsCount() {
+        return documentsCount;
+    }
+
+    /**
+     * Gets the number of pages copied to the resultant document.
+     *
+     * @return the number of copied pages
+     */
+    public int getPagesCount() {
+        return pagesCount;
+    }
+
+    /**
+     * Gets the number of bytes written to the resultant document during the merge. The objects which
+     * are flushed only on closing of the resultant document are not taken into account.
+     *
+     * @return the number of written bytes
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Gets the time spent on the merge in milliseconds.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedNanos / 1000000;
+    }
+
+    /**
+     * Gets the average number of pages merged per second.
+     *
+     * @return the number of pages per second, or 0 if no time has elapsed
+     */
+    public double getPagesPerSecond() {
+        return elapsedNanos > 0 ? pagesCount * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Gets the average number of source documents merged per second.
+     *
+     * @return the number of documents per second, or 0 if no time has elapsed
+     */
+    public double getDocumentsPerSecond() {
+        return elapsedNanos > 0 ? documentsCount * 1e9 / elapsedNanos : 0;
+    }
+
+    void addDocument(int pages) {
+        documentsCount++;
+        pagesCount += pages;
+    }
+
+    void setWrittenBytes(long writtenBytes) {
+        this.writtenBytes = writtenBytes;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "documents: " + documentsCount + ", pages: " + pagesCount + ", bytes: " + writtenBytes
+                + ", time: " + getElapsedTime() + " ms";
+    }
+}
@@ -0,0 +1,296 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfReaderIndexCacheTest extends ExtendedITextTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/pdf/PdfReaderIndexCacheTest/";
+
+    private static final int PAGES_COUNT = 120;
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void secondOpenUsesCachedIndexTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+        InMemoryPdfReaderIndexCache cache = new InMemoryPdfReaderIndexCache();
+
+        PdfReader firstReader = new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache));
+        PdfDocument firstDocument = new PdfDocument(firstReader);
+        String firstContent = new String(firstDocument.getPage(77).getContentBytes());
+        Assert.assertNull(firstReader.getLoadedIndex());
+        firstDocument.close();
+        Assert.assertEquals(1, cache.size());
+
+        PdfReader secondReader = new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache));
+        PdfDocument secondDocument = new PdfDocument(secondReader);
+        PdfReaderIndex index = secondReader.getLoadedIndex();
+        Assert.assertNotNull(index);
+        Assert.assertEquals(PAGES_COUNT, index.getNumberOfPages());
+        Assert.assertEquals(PAGES_COUNT, secondDocument.getNumberOfPages());
+        Assert.assertEquals(firstContent, new String(secondDocument.getPage(77).getContentBytes()));
+        Assert.assertEquals(77, secondDocument.getPageNumber(secondDocument.getPage(77).getPdfObject()));
+        Assert.assertNotNull(secondDocument.getPage(PAGES_COUNT).getMediaBox());
+        secondDocument.close();
+    }
+
+    @Test
+    public void pageTreeIsWalkedOnlyToStoreIndexTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf));
+        PdfDocument document = new PdfDocument(reader);
+        Assert.assertFalse(reader.isIndexToBeStored());
+        Assert.assertNull(getFirstKidReference(document).refersTo);
+        document.close();
+
+        InMemoryPdfReaderIndexCache cache = new InMemoryPdfReaderIndexCache();
+        reader = new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache));
+        document = new PdfDocument(reader);
+        Assert.assertNotNull(getFirstKidReference(document).refersTo);
+        Assert.assertEquals(1, cache.size());
+        document.close();
+    }
+
+    @Test
+    public void cachedIndexInLazyLoadingModeTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties().setFullCompressionMode(true));
+        InMemoryPdfReaderIndexCache cache = new InMemoryPdfReaderIndexCache();
+        new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache))).close();
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache))
+                .setLazyLoadingMode(true);
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        Assert.assertNotNull(reader.getLoadedIndex());
+        Assert.assertTrue(reader.hasXrefStm());
+        Assert.assertTrue(new String(pdfDocument.getPage(PAGES_COUNT).getContentBytes()).contains("(Page " + PAGES_COUNT + ")"));
+        Assert.assertTrue(new String(pdfDocument.getPage(1).getContentBytes()).contains("(Page 1)"));
+        pdfDocument.close();
+    }
+
+    @Test
+    public void stampingWithCachedIndexTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+        InMemoryPdfReaderIndexCache cache = new InMemoryPdfReaderIndexCache();
+        new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache))).close();
+
+        ByteArrayOutputStream stamped = new ByteArrayOutputStream();
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache));
+        PdfDocument pdfDocument = new PdfDocument(reader, new PdfWriter(stamped));
+        Assert.assertNotNull(reader.getLoadedIndex());
+        pdfDocument.removePage(3);
+        pdfDocument.close();
+
+        PdfDocument result = new PdfDocument(new PdfReader(new ByteArrayInputStream(stamped.toByteArray())));
+        Assert.assertEquals(PAGES_COUNT - 1, result.getNumberOfPages());
+        Assert.assertTrue(new String(result.getPage(3).getContentBytes()).contains("(Page 4)"));
+        result.close();
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT))
+    public void rebuiltXrefIsNotRebuiltAgainTest() throws IOException {
+        byte[] pdf = corruptStartXref(createDocument(new WriterProperties()));
+        String filename = destinationFolder + "rebuiltXrefIsNotRebuiltAgain.pdf";
+        writeFile(filename, pdf);
+        FilePdfReaderIndexCache cache = new FilePdfReaderIndexCache(destinationFolder + "rebuiltXrefIndexes");
+
+        PdfReader firstReader = new PdfReader(filename, new ReaderProperties().setIndexCache(cache));
+        PdfDocument firstDocument = new PdfDocument(firstReader);
+        Assert.assertTrue(firstReader.hasRebuiltXref());
+        firstDocument.close();
+
+        PdfReader secondReader = new PdfReader(filename, new ReaderProperties().setIndexCache(cache));
+        PdfDocument secondDocument = new PdfDocument(secondReader);
+        Assert.assertNotNull(secondReader.getLoadedIndex());
+        Assert.assertTrue(secondReader.hasRebuiltXref());
+        Assert.assertTrue(secondReader.getLoadedIndex().isRebuiltXref());
+        Assert.assertTrue(new String(secondDocument.getPage(10).getContentBytes()).contains("(Page 10)"));
+        secondDocument.close();
+    }
+
+    @Test
+    public void changedDocumentDoesNotUseCachedIndexTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+        InMemoryPdfReaderIndexCache cache = new InMemoryPdfReaderIndexCache();
+        new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache))).close();
+
+        ByteArrayOutputStream updated = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)), new PdfWriter(updated),
+                new StampingProperties().useAppendMode());
+        pdfDocument.getDocumentInfo().setTitle("Updated");
+        pdfDocument.close();
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(updated.toByteArray()), new ReaderProperties().setIndexCache(cache));
+        PdfDocument result = new PdfDocument(reader);
+        Assert.assertNull(reader.getLoadedIndex());
+        Assert.assertEquals("Updated", result.getDocumentInfo().getTitle());
+        result.close();
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void indexSerializationTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+        final PdfReaderIndex[] stored = new PdfReaderIndex[1];
+        IPdfReaderIndexCache cache = new IPdfReaderIndexCache() {
+            @Override
+            public PdfReaderIndex get(String fingerprint) {
+                return stored[0];
+            }
+
+            @Override
+            public void put(String fingerprint, PdfReaderIndex index) {
+                stored[0] = index;
+            }
+        };
+        new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache))).close();
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        stored[0].writeTo(serialized);
+        PdfReaderIndex restored = PdfReaderIndex.readFrom(new ByteArrayInputStream(serialized.toByteArray()));
+        Assert.assertEquals(stored[0].getNumberOfObjects(), restored.getNumberOfObjects());
+        Assert.assertEquals(PAGES_COUNT, restored.getNumberOfPages());
+        Assert.assertArrayEquals(stored[0].getTrailer(), restored.getTrailer());
+        Assert.assertArrayEquals(stored[0].getPageObjNumbers(), restored.getPageObjNumbers());
+
+        stored[0] = restored;
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf), new ReaderProperties().setIndexCache(cache));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        Assert.assertSame(restored, reader.getLoadedIndex());
+        Assert.assertTrue(new String(pdfDocument.getPage(50).getContentBytes()).contains("(Page 50)"));
+        pdfDocument.close();
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.PDF_READER_INDEX_CANNOT_BE_READ))
+    public void corruptedIndexFileIsDroppedTest() throws IOException {
+        String filename = destinationFolder + "corruptedIndexFileIsDropped.pdf";
+        writeFile(filename, createDocument(new WriterProperties()));
+        File indexDirectory = new File(destinationFolder + "corruptedIndexes");
+        FilePdfReaderIndexCache cache = new FilePdfReaderIndexCache(indexDirectory.getPath());
+        new PdfDocument(new PdfReader(filename, new ReaderProperties().setIndexCache(cache))).close();
+
+        File[] indexFiles = indexDirectory.listFiles();
+        Assert.assertNotNull(indexFiles);
+        Assert.assertEquals(1, indexFiles.length);
+        byte[] index = readFile(indexFiles[0].getPath());
+        // the trailer length follows magic, format version, flags, last xref and eof position
+        index[28] = 0x7f;
+        index[29] = (byte) 0xff;
+        index[30] = (byte) 0xff;
+        index[31] = (byte) 0xff;
+        writeFile(indexFiles[0].getPath(), index);
+
+        PdfReader reader = new PdfReader(filename, new ReaderProperties().setIndexCache(cache));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        Assert.assertNull(reader.getLoadedIndex());
+        Assert.assertTrue(new String(pdfDocument.getPage(10).getContentBytes()).contains("(Page 10)"));
+        pdfDocument.close();
+
+        // the corrupted file is dropped and replaced by the index of the reopened document
+        PdfReader thirdReader = new PdfReader(filename, new ReaderProperties().setIndexCache(cache));
+        new PdfDocument(thirdReader).close();
+        Assert.assertNotNull(thirdReader.getLoadedIndex());
+    }
+
+    private static PdfIndirectReference getFirstKidReference(PdfDocument document) {
+        PdfArray kids = document.getCatalog().getPdfObject().getAsDictionary(PdfName.Pages).getAsArray(PdfName.Kids);
+        return (PdfIndirectReference) kids.get(0, false);
+    }
+
+    private static byte[] createDocument(WriterProperties properties) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, properties));
+        for (int i = 1; i <= PAGES_COUNT; i++) {
+            PdfPage page = pdfDocument.addNewPage();
+            page.getFirstContentStream().setData(ByteUtils.getIsoBytes("BT /F1 12 Tf 36 800 Td (Page " + i + ") Tj ET"));
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] corruptStartXref(byte[] pdf) {
+        String content = new String(pdf, 0, pdf.length, StandardCharsets.ISO_8859_1);
+        int offsetStart = content.lastIndexOf("startxref") + "startxref".length() + 1;
+        byte[] corrupted = pdf.clone();
+        for (int i = offsetStart; Character.isDigit(content.charAt(i)); i++) {
+            corrupted[i] = (byte) '1';
+        }
+        return corrupted;
+    }
+
+    private static void writeFile(String filename, byte[] content) throws IOException {
+        OutputStream os = new FileOutputStream(new File(filename));
+        try {
+            os.write(content);
+        } finally {
+            os.close();
+        }
+    }
+}
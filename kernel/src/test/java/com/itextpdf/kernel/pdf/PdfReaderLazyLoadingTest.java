@@ -0,0 +1,171 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfReaderLazyLoadingTest extends ExtendedITextTest {
+
+    private static final int PAGES_COUNT = 200;
+
+    @Test
+    public void lazyLoadingCreatesOnlyRequestedReferencesTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)).setLazyLoadingMode(true));
+        int objectsCount = pdfDocument.getNumberOfPdfObjects();
+        int loadedAfterOpening = countLoadedReferences(pdfDocument.getXref());
+
+        String content = new String(pdfDocument.getPage(137).getContentBytes());
+        int loadedAfterPageAccess = countLoadedReferences(pdfDocument.getXref());
+        pdfDocument.close();
+
+        Assert.assertTrue(content.contains("(Page 137)"));
+        Assert.assertTrue(objectsCount > 2 * PAGES_COUNT);
+        Assert.assertTrue(loadedAfterOpening < 10);
+        Assert.assertTrue(loadedAfterPageAccess < objectsCount / 3);
+    }
+
+    @Test
+    public void lazyLoadingWithObjectStreamsTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties().setFullCompressionMode(true));
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)).setLazyLoadingMode(true));
+        String content = new String(pdfDocument.getPage(PAGES_COUNT).getContentBytes());
+        int loaded = countLoadedReferences(pdfDocument.getXref());
+        int objectsCount = pdfDocument.getNumberOfPdfObjects();
+        Assert.assertTrue(pdfDocument.getReader().hasXrefStm());
+        pdfDocument.close();
+
+        Assert.assertTrue(content.contains("(Page " + PAGES_COUNT + ")"));
+        Assert.assertTrue(loaded < objectsCount);
+    }
+
+    @Test
+    public void lazyLoadingReadsLatestIncrementalUpdateTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+
+        ByteArrayOutputStream updated = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)), new PdfWriter(updated),
+                new StampingProperties().useAppendMode());
+        PdfPage page = pdfDocument.getPage(5);
+        page.getFirstContentStream().setData(ByteUtils.getIsoBytes("BT /F1 12 Tf 36 800 Td (Updated) Tj ET"));
+        page.getFirstContentStream().setModified();
+        pdfDocument.close();
+
+        PdfDocument lazyDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(updated.toByteArray())).setLazyLoadingMode(true));
+        String updatedContent = new String(lazyDocument.getPage(5).getContentBytes());
+        String notUpdatedContent = new String(lazyDocument.getPage(6).getContentBytes());
+        lazyDocument.close();
+
+        Assert.assertTrue(updatedContent.contains("(Updated)"));
+        Assert.assertTrue(notUpdatedContent.contains("(Page 6)"));
+    }
+
+    @Test
+    public void lazyLoadingStampingTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties().setFullCompressionMode(true));
+
+        ByteArrayOutputStream stamped = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)).setLazyLoadingMode(true),
+                new PdfWriter(stamped));
+        pdfDocument.removePage(1);
+        pdfDocument.close();
+
+        PdfDocument result = new PdfDocument(new PdfReader(new ByteArrayInputStream(stamped.toByteArray())));
+        Assert.assertEquals(PAGES_COUNT - 1, result.getNumberOfPages());
+        Assert.assertTrue(new String(result.getPage(1).getContentBytes()).contains("(Page 2)"));
+        Assert.assertFalse(result.getReader().hasRebuiltXref());
+        result.close();
+    }
+
+    @Test
+    public void lazyLoadingAndAppendModeTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties());
+
+        ByteArrayOutputStream updated = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)).setLazyLoadingMode(true),
+                new PdfWriter(updated), new StampingProperties().useAppendMode());
+        pdfDocument.getDocumentInfo().setTitle("Lazy");
+        pdfDocument.close();
+
+        PdfDocument result = new PdfDocument(new PdfReader(new ByteArrayInputStream(updated.toByteArray())));
+        Assert.assertEquals("Lazy", result.getDocumentInfo().getTitle());
+        Assert.assertEquals(PAGES_COUNT, result.getNumberOfPages());
+        Assert.assertFalse(result.getReader().hasRebuiltXref());
+        result.close();
+    }
+
+    private static byte[] createDocument(WriterProperties properties) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, properties));
+        for (int i = 1; i <= PAGES_COUNT; i++) {
+            PdfPage page = pdfDocument.addNewPage();
+            page.getFirstContentStream().setData(ByteUtils.getIsoBytes("BT /F1 12 Tf 36 800 Td (Page " + i + ") Tj ET"));
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static int countLoadedReferences(PdfXrefTable xref) {
+        int loaded = 0;
+        for (int i = 1; i < xref.size(); i++) {
+            if (xref.getLoaded(i) != null) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.SharedMappedSourceRegistry;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+
+@Category(IntegrationTest.class)
+public class PdfReaderSharedFileMappingTest extends ExtendedITextTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/pdf/PdfReaderSharedFileMappingTest/";
+
+    private static final int PAGES_COUNT = 20;
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void concurrentReaderOutlivesOriginalReaderTest() throws IOException {
+        String filename = createDocument("outlivesOriginal.pdf");
+        SharedMappedSourceRegistry registry = SharedMappedSourceRegistry.getInstance();
+        int mappedFilesCount = registry.getMappedFilesCount();
+
+        PdfReader reader = new PdfReader(filename, new ReaderProperties().setUseSharedFileMapping(true));
+        PdfDocument document = new PdfDocument(reader);
+        PdfReader concurrentReader = reader.createConcurrentReader();
+        PdfDocument concurrentDocument = new PdfDocument(concurrentReader);
+        Assert.assertEquals("page 1", new String(concurrentDocument.getPage(1).getContentBytes()).trim());
+        Assert.assertEquals(mappedFilesCount + 1, registry.getMappedFilesCount());
+
+        // the concurrent reader holds its own reference, so the file stays mapped
+        document.close();
+        Assert.assertEquals(mappedFilesCount + 1, registry.getMappedFilesCount());
+        for (int i = 2; i <= PAGES_COUNT; i++) {
+            Assert.assertEquals("page " + i, new String(concurrentDocument.getPage(i).getContentBytes()).trim());
+        }
+
+        concurrentDocument.close();
+        Assert.assertEquals(mappedFilesCount, registry.getMappedFilesCount());
+    }
+
+    private static String createDocument(String name) throws IOException {
+        String filename = destinationFolder + name;
+        PdfDocument document = new PdfDocument(new PdfWriter(filename));
+        for (int i = 1; i <= PAGES_COUNT; i++) {
+            PdfPage page = document.addNewPage();
+            page.getFirstContentStream().setData(("page " + i).getBytes());
+        }
+        document.close();
+        return filename;
+    }
+}
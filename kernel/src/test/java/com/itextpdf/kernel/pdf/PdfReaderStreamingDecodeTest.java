@@ -0,0 +1,454 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.filters.FilterHandlers;
+import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfReaderStreamingDecodeTest extends ExtendedITextTest {
+
+    @Test
+    public void flateDecodeTest() throws IOException {
+        byte[] data = createData(100000);
+        assertDecoding(data, flateEncode(data), PdfName.FlateDecode);
+    }
+
+    @Test
+    public void asciiHexDecodeTest() throws IOException {
+        byte[] data = createData(20000);
+        assertDecoding(data, asciiHexEncode(data), PdfName.ASCIIHexDecode);
+        assertDecoding(new byte[] {(byte) 0xab, (byte) 0xc0}, ByteUtils.getIsoBytes("a b\nc>ff"), PdfName.AHx);
+    }
+
+    @Test
+    public void ascii85DecodeTest() throws IOException {
+        byte[] data = createData(20003);
+        Arrays.fill(data, 100, 120, (byte) 0);
+        assertDecoding(data, ascii85Encode(data), PdfName.ASCII85Decode);
+    }
+
+    @Test
+    public void runLengthDecodeTest() throws IOException {
+        byte[] data = createData(20000);
+        Arrays.fill(data, 1000, 1500, (byte) 7);
+        assertDecoding(data, runLengthEncode(data), PdfName.RunLengthDecode);
+    }
+
+    @Test
+    public void lzwDecodeTest() throws IOException {
+        byte[] data = createData(50000);
+        assertDecoding(data, lzwEncode(data), PdfName.LZWDecode);
+    }
+
+    @Test
+    public void chainedFiltersTest() throws IOException {
+        byte[] data = createData(30000);
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Filter, new PdfArray(Arrays.<PdfObject>asList(PdfName.ASCIIHexDecode, PdfName.FlateDecode, PdfName.RunLengthDecode)));
+        byte[] encoded = asciiHexEncode(flateEncode(runLengthEncode(data)));
+        Assert.assertArrayEquals(data, PdfReader.decodeBytes(encoded, stream));
+        Assert.assertArrayEquals(data, readInPortions(PdfReader.createDecodedStream(
+                new ByteArrayInputStream(encoded), stream, FilterHandlers.getDefaultFilterHandlers())));
+    }
+
+    @Test
+    public void pngPredictorTest() throws IOException {
+        int columns = 33;
+        int colors = 3;
+        Random random = new Random(7);
+        ByteArrayOutputStream predicted = new ByteArrayOutputStream();
+        for (int row = 0; row < 200; row++) {
+            predicted.write(row % 5);
+            for (int i = 0; i < columns * colors; i++) {
+                predicted.write(random.nextInt(256));
+            }
+        }
+        // the incomplete last row shall be skipped
+        predicted.write(1);
+        predicted.write(5);
+        byte[] encoded = flateEncode(predicted.toByteArray());
+
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Filter, PdfName.FlateDecode);
+        PdfDictionary decodeParams = new PdfDictionary();
+        decodeParams.put(PdfName.Predictor, new PdfNumber(15));
+        decodeParams.put(PdfName.Columns, new PdfNumber(columns));
+        decodeParams.put(PdfName.Colors, new PdfNumber(colors));
+        stream.put(PdfName.DecodeParms, decodeParams);
+
+        byte[] expected = PdfReader.decodeBytes(encoded, stream);
+        Assert.assertEquals(200 * columns * colors, expected.length);
+        Assert.assertArrayEquals(expected, readInPortions(PdfReader.createDecodedStream(
+                new ByteArrayInputStream(encoded), stream, FilterHandlers.getDefaultFilterHandlers())));
+
+        decodeParams.put(PdfName.Predictor, new PdfNumber(2));
+        expected = PdfReader.decodeBytes(encoded, stream);
+        Assert.assertArrayEquals(expected, readInPortions(PdfReader.createDecodedStream(
+                new ByteArrayInputStream(encoded), stream, FilterHandlers.getDefaultFilterHandlers())));
+    }
+
+    @Test
+    public void corruptedFlateStreamTest() throws IOException {
+        byte[] data = createData(100000);
+        byte[] encoded = flateEncode(data);
+        encoded = Arrays.copyOf(encoded, encoded.length / 2);
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Filter, PdfName.FlateDecode);
+
+        byte[] decoded = readInPortions(PdfReader.createDecodedStream(
+                new ByteArrayInputStream(encoded), stream, FilterHandlers.getDefaultFilterHandlers()));
+        Assert.assertTrue(decoded.length > 0);
+        Assert.assertArrayEquals(Arrays.copyOf(data, decoded.length), decoded);
+    }
+
+    @Test
+    public void nonStreamingFilterHandlerTest() throws IOException {
+        byte[] data = createData(1000);
+        Map<PdfName, IFilterHandler> handlers = new HashMap<>(FilterHandlers.getDefaultFilterHandlers());
+        handlers.put(new PdfName("Reverse"), new IFilterHandler() {
+            @Override
+            public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+                byte[] result = new byte[b.length];
+                for (int i = 0; i < b.length; i++) {
+                    result[i] = b[b.length - 1 - i];
+                }
+                return result;
+            }
+        });
+        byte[] reversed = new byte[data.length];
+        for (int i = 0; i < data.length; i++) {
+            reversed[i] = data[data.length - 1 - i];
+        }
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Filter, new PdfArray(Arrays.<PdfObject>asList(PdfName.FlateDecode, new PdfName("Reverse"))));
+
+        Assert.assertArrayEquals(data, readInPortions(PdfReader.createDecodedStream(
+                new ByteArrayInputStream(flateEncode(reversed)), stream, handlers)));
+    }
+
+    @Test
+    public void readStreamTest() throws IOException {
+        assertReadStream(new WriterProperties());
+    }
+
+    @Test
+    public void readStreamFromRc4EncryptedDocumentTest() throws IOException {
+        assertReadStream(new WriterProperties().setStandardEncryption(ByteUtils.getIsoBytes("user"),
+                ByteUtils.getIsoBytes("owner"), EncryptionConstants.ALLOW_PRINTING, EncryptionConstants.STANDARD_ENCRYPTION_128));
+    }
+
+    @Test
+    public void readStreamFromAesEncryptedDocumentTest() throws IOException {
+        assertReadStream(new WriterProperties().setStandardEncryption(ByteUtils.getIsoBytes("user"),
+                ByteUtils.getIsoBytes("owner"), EncryptionConstants.ALLOW_PRINTING, EncryptionConstants.ENCRYPTION_AES_128));
+    }
+
+    @Test
+    public void readStreamExceedingSingleStreamLimitTest() throws IOException {
+        MemoryLimitsAwareHandler handler = new MemoryLimitsAwareHandler().setMaxSizeOfSingleDecompressedPdfStream(150000);
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(createDocumentWithStream(createData(200000))),
+                new ReaderProperties().setMemoryLimitsAwareHandler(handler));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        PdfStream stream = pdfDocument.getCatalog().getPdfObject().getAsStream(new PdfName("TestStream"));
+        InputStream decoded = reader.readStream(stream, true);
+        try {
+            readInPortions(decoded);
+            Assert.fail("MemoryLimitsAwareException expected");
+        } catch (MemoryLimitsAwareException e) {
+            Assert.assertEquals(PdfException.DuringDecompressionSingleStreamOccupiedMoreMemoryThanAllowed, e.getMessage());
+        }
+        decoded.close();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void readStreamsNotConsideredInStreamsSumLimitTest() throws IOException {
+        MemoryLimitsAwareHandler handler = new MemoryLimitsAwareHandler().setMaxSizeOfDecompressedPdfStreamsSum(300000);
+        byte[] data = createData(200000);
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(createDocumentWithStream(data)),
+                new ReaderProperties().setMemoryLimitsAwareHandler(handler));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        PdfStream stream = pdfDocument.getCatalog().getPdfObject().getAsStream(new PdfName("TestStream"));
+        // a stream without repeated filters isn't suspicious, so it doesn't count towards the sum limit
+        for (int i = 0; i < 2; i++) {
+            InputStream decoded = reader.readStream(stream, true);
+            Assert.assertArrayEquals(data, readInPortions(decoded));
+            decoded.close();
+        }
+        Assert.assertEquals(0, handler.getAllMemoryUsedForDecompression());
+        pdfDocument.close();
+    }
+
+    private static byte[] createDocumentWithStream(byte[] data) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        pdfDocument.addNewPage();
+        PdfStream stream = new PdfStream(data);
+        pdfDocument.getCatalog().put(new PdfName("TestStream"), stream.makeIndirect(pdfDocument).getIndirectReference());
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static void assertReadStream(WriterProperties writerProperties) throws IOException {
+        byte[] data = createData(200000);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, writerProperties));
+        pdfDocument.addNewPage();
+        PdfStream stream = new PdfStream(data);
+        stream.setCompressionLevel(CompressionConstants.BEST_COMPRESSION);
+        pdfDocument.getCatalog().put(new PdfName("TestStream"), stream.makeIndirect(pdfDocument).getIndirectReference());
+        pdfDocument.close();
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(baos.toByteArray()),
+                new ReaderProperties().setPassword(ByteUtils.getIsoBytes("owner")));
+        pdfDocument = new PdfDocument(reader);
+        PdfStream readStream = pdfDocument.getCatalog().getPdfObject().getAsStream(new PdfName("TestStream"));
+
+        InputStream decoded = reader.readStream(readStream, true);
+        Assert.assertArrayEquals(data, readInPortions(decoded));
+        decoded.close();
+        InputStream encoded = reader.readStream(readStream, false);
+        Assert.assertArrayEquals(reader.readStreamBytes(readStream, false), StreamUtil.inputStreamToArray(encoded));
+        encoded.close();
+        pdfDocument.close();
+    }
+
+    private static void assertDecoding(byte[] expected, byte[] encoded, PdfName filter) throws IOException {
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Filter, filter);
+        Assert.assertArrayEquals(expected, PdfReader.decodeBytes(encoded, stream));
+        Assert.assertArrayEquals(expected, readInPortions(PdfReader.createDecodedStream(
+                new ByteArrayInputStream(encoded), stream, FilterHandlers.getDefaultFilterHandlers())));
+    }
+
+    // reads the stream mixing single byte reads, skips and reads of different lengths
+    private static byte[] readInPortions(InputStream is) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int step = 0;
+        while (true) {
+            step++;
+            if (step % 3 == 0) {
+                int b = is.read();
+                if (b == -1) {
+                    break;
+                }
+                result.write(b);
+            } else {
+                int n = is.read(buffer, 0, step % 1000 + 1);
+                if (n == -1) {
+                    break;
+                }
+                result.write(buffer, 0, n);
+            }
+        }
+        Assert.assertEquals(-1, is.read());
+        return result.toByteArray();
+    }
+
+    private static byte[] createData(int length) {
+        Random random = new Random(length);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = i % 7 == 0 ? (byte) random.nextInt(256) : (byte) ('a' + random.nextInt(4));
+        }
+        return data;
+    }
+
+    private static byte[] flateEncode(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(baos, new Deflater(Deflater.BEST_COMPRESSION));
+        zip.write(data);
+        zip.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] asciiHexEncode(byte[] data) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < data.length; i++) {
+            sb.append(String.format("%02X", data[i] & 0xff));
+            if (i % 40 == 39) {
+                sb.append('\n');
+            }
+        }
+        return ByteUtils.getIsoBytes(sb.append('>').toString());
+    }
+
+    private static byte[] ascii85Encode(byte[] data) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < data.length; i += 4) {
+            int n = Math.min(4, data.length - i);
+            long value = 0;
+            for (int j = 0; j < 4; j++) {
+                value = (value << 8) | (j < n ? data[i + j] & 0xff : 0);
+            }
+            if (n == 4 && value == 0) {
+                sb.append('z');
+                continue;
+            }
+            char[] chars = new char[5];
+            for (int j = 4; j >= 0; j--) {
+                chars[j] = (char) ('!' + value % 85);
+                value /= 85;
+            }
+            sb.append(chars, 0, n + 1);
+        }
+        return ByteUtils.getIsoBytes(sb.append("~>").toString());
+    }
+
+    private static byte[] runLengthEncode(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int i = 0;
+        while (i < data.length) {
+            int run = 1;
+            while (i + run < data.length && run < 128 && data[i + run] == data[i]) {
+                run++;
+            }
+            if (run > 1) {
+                out.write(257 - run);
+                out.write(data[i]);
+                i += run;
+            } else {
+                int start = i;
+                while (i < data.length && i - start < 128 && (i + 1 == data.length || data[i + 1] != data[i])) {
+                    i++;
+                }
+                out.write(i - start - 1);
+                out.write(data, start, i - start);
+            }
+        }
+        out.write(128);
+        return out.toByteArray();
+    }
+
+    private static byte[] lzwEncode(byte[] data) {
+        LzwCodeWriter writer = new LzwCodeWriter();
+        Map<Integer, Integer> table = new HashMap<>();
+        int nextCode = 258;
+        writer.write(256);
+        int prefix = data[0] & 0xff;
+        for (int i = 1; i < data.length; i++) {
+            int b = data[i] & 0xff;
+            Integer code = table.get((prefix << 8) | b);
+            if (code != null) {
+                prefix = (int) code;
+                continue;
+            }
+            writer.write(prefix);
+            if (nextCode == 4000) {
+                writer.write(256);
+                table.clear();
+                nextCode = 258;
+            } else {
+                table.put((prefix << 8) | b, nextCode++);
+            }
+            prefix = b;
+        }
+        writer.write(prefix);
+        writer.write(257);
+        return writer.toByteArray();
+    }
+
+    // writes the codes with the width which the decoder expects, tracking the size of the decoder's table
+    private static class LzwCodeWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long bits;
+        private int bitCount;
+        private int width = 9;
+        private int decoderTableIndex = 258;
+        private boolean firstAfterClear;
+
+        void write(int code) {
+            bits = (bits << width) | code;
+            bitCount += width;
+            while (bitCount >= 8) {
+                out.write((int) (bits >> (bitCount - 8)) & 0xff);
+                bitCount -= 8;
+            }
+            if (code == 256) {
+                decoderTableIndex = 258;
+                width = 9;
+                firstAfterClear = true;
+            } else if (firstAfterClear) {
+                firstAfterClear = false;
+            } else {
+                decoderTableIndex++;
+                if (decoderTableIndex == 511) {
+                    width = 10;
+                } else if (decoderTableIndex == 1023) {
+                    width = 11;
+                } else if (decoderTableIndex == 2047) {
+                    width = 12;
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            if (bitCount > 0) {
+                out.write((int) (bits << (8 - bitCount)) & 0xff);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Category(IntegrationTest.class)
+public class PdfWriterParallelCompressionTest extends ExtendedITextTest {
+
+    private static final byte[] USER_PASSWORD = "user".getBytes();
+    private static final byte[] OWNER_PASSWORD = "owner".getBytes();
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void defaultModeTest() throws IOException {
+        assertSameOutput(new WriterProperties(), 30);
+    }
+
+    @Test
+    public void fullCompressionTest() throws IOException {
+        // more than PdfObjectStream.MAX_OBJ_STREAM_SIZE objects to get several object streams
+        assertSameOutput(new WriterProperties().setFullCompressionMode(true), 120);
+    }
+
+    @Test
+    public void encryptionTest() throws IOException {
+        assertSameOutput(new WriterProperties()
+                .setStandardEncryption(USER_PASSWORD, OWNER_PASSWORD, EncryptionConstants.ALLOW_PRINTING,
+                        EncryptionConstants.STANDARD_ENCRYPTION_128), 30);
+    }
+
+    @Test
+    public void encryptionAndFullCompressionTest() throws IOException {
+        assertSameOutput(new WriterProperties()
+                .setFullCompressionMode(true)
+                .setStandardEncryption(USER_PASSWORD, OWNER_PASSWORD, EncryptionConstants.ALLOW_PRINTING,
+                        EncryptionConstants.STANDARD_ENCRYPTION_40), 120);
+    }
+
+    @Test
+    public void singlePendingStreamTest() throws IOException {
+        assertSameOutput(new WriterProperties().setMaxPendingCompressedStreams(1), 30);
+    }
+
+    @Test
+    public void pendingObjectsAreLimitedTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(),
+                new WriterProperties().setMaxPendingCompressedStreams(2).setStreamCompressionExecutor(executor)));
+        PdfStream stream = (PdfStream) new PdfStream("stream".getBytes()).makeIndirect(pdfDocument);
+        stream.flush();
+        Assert.assertEquals(0, stream.getIndirectReference().getOffset());
+
+        // the objects flushed after the stream wait for it as well and count towards the limit
+        new PdfDictionary().makeIndirect(pdfDocument).flush();
+        Assert.assertEquals(0, stream.getIndirectReference().getOffset());
+        new PdfDictionary().makeIndirect(pdfDocument).flush();
+        Assert.assertTrue(stream.getIndirectReference().getOffset() > 0);
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void noCompressionTest() throws IOException {
+        assertSameOutput(new WriterProperties().setCompressionLevel(CompressionConstants.NO_COMPRESSION), 10);
+    }
+
+    @Test
+    public void parallelDocumentIsReadableTest() throws IOException {
+        byte[] bytes = createDocument(new WriterProperties()
+                .setFullCompressionMode(true)
+                .setStandardEncryption(USER_PASSWORD, OWNER_PASSWORD, EncryptionConstants.ALLOW_PRINTING,
+                        EncryptionConstants.STANDARD_ENCRYPTION_128)
+                .setStreamCompressionExecutor(executor), 50);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(bytes),
+                new ReaderProperties().setPassword(OWNER_PASSWORD)));
+        Assert.assertEquals(50, pdfDocument.getNumberOfPages());
+        for (int i = 1; i <= pdfDocument.getNumberOfPages(); i++) {
+            String content = new String(pdfDocument.getPage(i).getContentBytes());
+            Assert.assertTrue(content.contains(i + " 0 m"));
+            PdfStream extra = pdfDocument.getPage(i).getPdfObject().getAsStream(new PdfName("Extra"));
+            Assert.assertEquals("extra " + i, new String(extra.getBytes()));
+        }
+        pdfDocument.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxPendingStreamsTest() {
+        new WriterProperties().setMaxPendingCompressedStreams(0);
+    }
+
+    private static void assertSameOutput(WriterProperties properties, int pageCount) throws IOException {
+        properties.setInitialDocumentId(new PdfString("initial id"))
+                .setModifiedDocumentId(new PdfString("modified id"));
+        byte[] sequential = createDocument(properties, pageCount);
+        byte[] parallel = createDocument(properties.setStreamCompressionExecutor(executor), pageCount);
+        Assert.assertArrayEquals(sequential, parallel);
+    }
+
+    private static byte[] createDocument(WriterProperties properties, int pageCount) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, properties));
+        pdfDocument.getDocumentInfo().getPdfObject().put(PdfName.CreationDate, new PdfString("D:20200101000000Z"));
+        pdfDocument.getDocumentInfo().getPdfObject().put(PdfName.ModDate, new PdfString("D:20200101000000Z"));
+
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(100, 100));
+        new PdfCanvas(form, pdfDocument).circle(50, 50, 40).fill();
+
+        for (int i = 1; i <= pageCount; i++) {
+            PdfPage page = pdfDocument.addNewPage(PageSize.A4);
+            PdfCanvas canvas = new PdfCanvas(page);
+            for (int j = 0; j < 50; j++) {
+                canvas.moveTo(i, j).lineTo(i * 3 + j, j * 7 % 500).rectangle(j, i, i + j, 10);
+            }
+            canvas.stroke().addXObject(form, i, i);
+            // direct stream which gets its indirect reference only on writing
+            page.getPdfObject().put(new PdfName("Extra"), new PdfStream(("extra " + i).getBytes()));
+            // literal which gets its position on writing
+            page.getPdfObject().put(new PdfName("Literal"), new PdfLiteral("[0 0 0 0]"));
+            if (i % 3 == 0) {
+                page.flush();
+            }
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+@Category(IntegrationTest.class)
+public class SmartModePdfObjectsSerializerTest extends ExtendedITextTest {
+
+    @Test
+    public void equalGraphsHaveEqualFingerprintsTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDocument.addNewPage();
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(Integer.MAX_VALUE);
+
+        PdfDictionary first = createResource(pdfDocument, "content");
+        PdfDictionary second = createResource(pdfDocument, "content");
+        PdfDictionary third = createResource(pdfDocument, "other content");
+
+        SerializedObjectContent firstContent = serializer.serializeObject(first);
+        Assert.assertEquals(firstContent, serializer.serializeObject(second));
+        Assert.assertNotEquals(firstContent, serializer.serializeObject(third));
+        pdfDocument.close();
+    }
+
+    @Test
+    public void hashCollisionTest() {
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(Integer.MAX_VALUE);
+        PdfIndirectReference reference = new PdfIndirectReference(null, 1);
+        // both hashes collide, but the canonical form differs
+        SerializedObjectContent saved = createContent(1, 2, new byte[] {1, 2, 3});
+        SerializedObjectContent colliding = createContent(1, 2, new byte[] {1, 2, 4});
+        serializer.saveSerializedObject(saved, reference);
+
+        Assert.assertNotEquals(saved, colliding);
+        Assert.assertNull(serializer.getSavedSerializedObject(colliding));
+        Assert.assertEquals(reference, serializer.getSavedSerializedObject(createContent(1, 2, new byte[] {1, 2, 3})));
+    }
+
+    @Test
+    public void referencedContentHashCollisionTest() {
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(Integer.MAX_VALUE);
+        PdfIndirectReference reference = new PdfIndirectReference(null, 1);
+        // both the referring and the referenced contents collide, only the referenced canonical forms differ
+        SerializedObjectContent saved = new SerializedObjectContent(1, 2, new byte[] {1},
+                new SerializedObjectContent[] {createContent(3, 4, new byte[] {1, 2, 3})});
+        SerializedObjectContent colliding = new SerializedObjectContent(1, 2, new byte[] {1},
+                new SerializedObjectContent[] {createContent(3, 4, new byte[] {1, 2, 4})});
+        SerializedObjectContent equal = new SerializedObjectContent(1, 2, new byte[] {1},
+                new SerializedObjectContent[] {createContent(3, 4, new byte[] {1, 2, 3})});
+        serializer.saveSerializedObject(saved, reference);
+
+        Assert.assertNull(serializer.getSavedSerializedObject(colliding));
+        Assert.assertEquals(reference, serializer.getSavedSerializedObject(equal));
+    }
+
+    @Test
+    public void selfReferenceTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDocument.addNewPage();
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(Integer.MAX_VALUE);
+
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.makeIndirect(pdfDocument);
+        PdfDictionary child = new PdfDictionary();
+        child.makeIndirect(pdfDocument);
+        dictionary.put(new PdfName("Child"), child.getIndirectReference());
+        child.put(new PdfName("Back"), dictionary.getIndirectReference());
+
+        Assert.assertNull(serializer.serializeObject(dictionary));
+        pdfDocument.close();
+    }
+
+    @Test
+    public void cacheLimitTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDocument.addNewPage();
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer(2);
+
+        PdfDictionary first = createResource(pdfDocument, "1");
+        PdfDictionary second = createResource(pdfDocument, "2");
+        PdfDictionary third = createResource(pdfDocument, "3");
+        SerializedObjectContent firstContent = serializer.serializeObject(first);
+        SerializedObjectContent secondContent = serializer.serializeObject(second);
+        SerializedObjectContent thirdContent = serializer.serializeObject(third);
+
+        serializer.saveSerializedObject(firstContent, first.getIndirectReference());
+        serializer.saveSerializedObject(secondContent, second.getIndirectReference());
+        // the first object becomes the most recently used one
+        Assert.assertEquals(first.getIndirectReference(), serializer.getSavedSerializedObject(firstContent));
+        serializer.saveSerializedObject(thirdContent, third.getIndirectReference());
+
+        Assert.assertEquals(2, serializer.getCachedObjectsCount());
+        Assert.assertEquals(first.getIndirectReference(), serializer.getSavedSerializedObject(firstContent));
+        Assert.assertNull(serializer.getSavedSerializedObject(secondContent));
+        Assert.assertEquals(third.getIndirectReference(), serializer.getSavedSerializedObject(thirdContent));
+        pdfDocument.close();
+    }
+
+    @Test
+    public void duplicatedResourcesAreCopiedOnceTest() throws IOException {
+        PdfDocument result = mergeCopies(new WriterProperties().useSmartMode(), 3);
+
+        PdfIndirectReference firstForm = getFormReference(result.getPage(1));
+        for (int i = 2; i <= result.getNumberOfPages(); i++) {
+            Assert.assertEquals(firstForm, getFormReference(result.getPage(i)));
+        }
+        result.close();
+    }
+
+    @Test
+    public void limitedCacheCopyTest() throws IOException {
+        PdfDocument result = mergeCopies(new WriterProperties().useSmartMode().setSmartModeCacheLimit(1), 3);
+        // the form is evicted from the cache by the other copied objects, so it is copied once again
+        Assert.assertEquals(3, result.getNumberOfPages());
+        Assert.assertNotEquals(getFormReference(result.getPage(1)), getFormReference(result.getPage(3)));
+        result.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCacheLimitTest() {
+        new WriterProperties().setSmartModeCacheLimit(0);
+    }
+
+    private static PdfDictionary createResource(PdfDocument pdfDocument, String content) {
+        PdfStream stream = new PdfStream(content.getBytes());
+        stream.makeIndirect(pdfDocument);
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.put(PdfName.Type, PdfName.Font);
+        dictionary.put(new PdfName("Content"), stream.getIndirectReference());
+        dictionary.put(PdfName.Name, new PdfString("name"));
+        dictionary.makeIndirect(pdfDocument);
+        return dictionary;
+    }
+
+    private static PdfDocument mergeCopies(WriterProperties properties, int copies) throws IOException {
+        ByteArrayOutputStream source = new ByteArrayOutputStream();
+        PdfDocument sourceDocument = new PdfDocument(new PdfWriter(source));
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(50, 50));
+        new PdfCanvas(form, sourceDocument).rectangle(10, 10, 30, 30).fill();
+        new PdfCanvas(sourceDocument.addNewPage()).addXObject(form, 0, 0);
+        sourceDocument.close();
+
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        PdfDocument mergedDocument = new PdfDocument(new PdfWriter(merged, properties));
+        for (int i = 0; i < copies; i++) {
+            PdfDocument copy = new PdfDocument(new PdfReader(new ByteArrayInputStream(source.toByteArray())));
+            copy.copyPagesTo(1, 1, mergedDocument);
+            copy.close();
+        }
+        mergedDocument.close();
+        return new PdfDocument(new PdfReader(new ByteArrayInputStream(merged.toByteArray())));
+    }
+
+    private static PdfIndirectReference getFormReference(PdfPage page) {
+        PdfDictionary xObjects = page.getResources().getResource(PdfName.XObject);
+        return xObjects.getAsStream(xObjects.keySet().iterator().next()).getIndirectReference();
+    }
+
+    private static SerializedObjectContent createContent(long primaryHash, long secondaryHash, byte[] canonicalForm) {
+        return new SerializedObjectContent(primaryHash, secondaryHash, canonicalForm, new SerializedObjectContent[0]);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+@Category(UnitTest.class)
+public class PdfCanvasPolylineTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void polylineTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.polyline(new double[] {10, 20.5, 30.25, -40, 0.000001, 1000000});
+
+        Assert.assertEquals("10 20.5 m\n30.25 -40 l\n0 1000000 l\n",
+                new String(canvas.getContentStream().getBytes(), StandardCharsets.ISO_8859_1));
+        document.close();
+    }
+
+    @Test
+    public void polylineMatchesMoveToLineToTest() {
+        double[] xy = new double[200];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = i * 3.14159 - 250;
+        }
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas polylineCanvas = new PdfCanvas(document.addNewPage());
+        polylineCanvas.polyline(xy);
+        PdfCanvas pathCanvas = new PdfCanvas(document.addNewPage());
+        pathCanvas.moveTo(xy[0], xy[1]);
+        for (int i = 2; i < xy.length; i += 2) {
+            pathCanvas.lineTo(xy[i], xy[i + 1]);
+        }
+
+        Assert.assertArrayEquals(pathCanvas.getContentStream().getBytes(), polylineCanvas.getContentStream().getBytes());
+        document.close();
+    }
+
+    @Test
+    public void polylineSinglePointTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.polyline(new double[] {1, 2});
+
+        Assert.assertEquals("1 2 m\n", new String(canvas.getContentStream().getBytes(), StandardCharsets.ISO_8859_1));
+        document.close();
+    }
+
+    @Test
+    public void polylineOddCoordinatesCountTest() {
+        junitExpectedException.expect(IllegalArgumentException.class);
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.polyline(new double[] {1, 2, 3});
+    }
+
+    @Test
+    public void polylineEmptyCoordinatesTest() {
+        junitExpectedException.expect(IllegalArgumentException.class);
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.polyline(new double[0]);
+    }
+}
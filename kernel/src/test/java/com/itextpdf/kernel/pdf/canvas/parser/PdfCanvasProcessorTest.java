@@ -45,9 +45,16 @@ package com.itextpdf.kernel.pdf.canvas.parser;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Subpath;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfResources;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
@@ -65,6 +72,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Assert;
 import org.junit.Ignore;
@@ -146,6 +155,91 @@ public class PdfCanvasProcessorTest extends ExtendedITextTest {
         pdfDocument.close();
     }
 
+    @Test
+    public void builtInPathOperatorsTest() {
+        final List<PathRenderInfo> paths = new ArrayList<>();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new IEventListener() {
+            @Override
+            public void eventOccurred(IEventData data, EventType type) {
+                PathRenderInfo renderInfo = (PathRenderInfo) data;
+                renderInfo.preserveGraphicsState();
+                paths.add(renderInfo);
+            }
+
+            @Override
+            public Set<EventType> getSupportedEvents() {
+                return Collections.singleton(EventType.RENDER_PATH);
+            }
+        });
+        processor.processContent(ByteUtils.getIsoBytes("2 0 0 2 5 5 cm 10 20 m 30.5 40 l 1 2 3 4 5 6 c S 0 0 100 200 re f"),
+                new PdfResources());
+
+        Assert.assertEquals(2, paths.size());
+        Assert.assertEquals(new Matrix(2, 0, 0, 2, 5, 5), paths.get(0).getCtm());
+        Subpath subpath = paths.get(0).getPath().getSubpaths().get(0);
+        Assert.assertEquals(new Point(10, 20), subpath.getStartPoint());
+        Assert.assertEquals(2, subpath.getSegments().size());
+        Assert.assertEquals(new Point(30.5, 40), subpath.getSegments().get(0).getBasePoints().get(1));
+        Assert.assertEquals(new Point(5, 6), subpath.getSegments().get(1).getBasePoints().get(3));
+        Assert.assertEquals(new Point(100, 200), paths.get(1).getPath().getSubpaths().get(0).getSegments().get(1).getBasePoints().get(1));
+    }
+
+    @Test
+    public void customOperatorReplacesBuiltInOneTest() {
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new NoOpEventListener());
+        final List<String> invoked = new ArrayList<>();
+        final IContentOperator originalOperator = processor.registerContentOperator("re", null);
+        processor.registerContentOperator("re", new IContentOperator() {
+            @Override
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                invoked.add(operator.toString() + operands.size());
+                originalOperator.invoke(processor, operator, operands);
+            }
+        });
+        processor.processContent(ByteUtils.getIsoBytes("0 0 10 10 re 5 5 m 20 20 10 10 re f"), new PdfResources());
+
+        Assert.assertEquals(Arrays.asList("re5", "re5"), invoked);
+    }
+
+    @Test
+    public void overriddenInvokeOperatorReceivesAllOperatorsTest() {
+        final List<String> invoked = new ArrayList<>();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new NoOpEventListener()) {
+            @Override
+            protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
+                invoked.add(operator.toString());
+                super.invokeOperator(operator, operands);
+            }
+        };
+        processor.processContent(ByteUtils.getIsoBytes("q 1 0 0 1 0 0 cm 5 5 m 20 20 l S Q"), new PdfResources());
+
+        Assert.assertEquals(Arrays.asList("q", "cm", "m", "l", "S", "Q"), invoked);
+    }
+
+    @Test
+    public void customOperatorTest() {
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new NoOpEventListener());
+        final List<String> invoked = new ArrayList<>();
+        IContentOperator recordingOperator = new IContentOperator() {
+            @Override
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                invoked.add(operator.toString() + operands.size());
+            }
+        };
+        Assert.assertNull(processor.registerContentOperator("Xx", recordingOperator));
+        processor.registerContentOperator(PdfCanvasProcessor.DEFAULT_OPERATOR, new IContentOperator() {
+            @Override
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                invoked.add("default:" + operator.toString());
+            }
+        });
+        Assert.assertTrue(processor.getRegisteredOperatorStrings().contains("Xx"));
+        processor.processContent(ByteUtils.getIsoBytes("1 /A Xx Yy 2 3 Xx q Q"), new PdfResources());
+
+        Assert.assertEquals(Arrays.asList("Xx3", "default:Yy", "Xx3"), invoked);
+        Assert.assertSame(recordingOperator, processor.registerContentOperator("Xx", null));
+    }
+
     private static class NoOpEventListener implements IEventListener {
         @Override
         public void eventOccurred(IEventData data, EventType type) {
@@ -0,0 +1,285 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.EncryptionConstants;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategyFactory;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.SimpleTextExtractionStrategy;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfTextExtractorConcurrentTest extends ExtendedITextTest {
+
+    private static final byte[] USER_PASSWORD = "user".getBytes();
+    private static final byte[] OWNER_PASSWORD = "owner".getBytes();
+
+    @Test
+    public void allPagesInPageOrderTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument(60, new WriterProperties()))));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> texts = PdfTextExtractor.getTextFromPages(pdfDocument, executor);
+            Assert.assertEquals(60, texts.size());
+            for (int i = 1; i <= 60; i++) {
+                Assert.assertEquals(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(i)), texts.get(i - 1));
+                Assert.assertTrue(texts.get(i - 1).startsWith("Page " + i + " "));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        pdfDocument.close();
+    }
+
+    @Test
+    public void pageRangeWithCustomStrategyTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(
+                createDocument(30, new WriterProperties().setFullCompressionMode(true)))));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<String> texts = PdfTextExtractor.getTextFromPages(pdfDocument, 11, 20, executor, new ITextExtractionStrategyFactory() {
+                @Override
+                public ITextExtractionStrategy createStrategy(int pageNumber) {
+                    return new SimpleTextExtractionStrategy();
+                }
+            });
+            Assert.assertEquals(10, texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                Assert.assertEquals(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(11 + i), new SimpleTextExtractionStrategy()),
+                        texts.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        pdfDocument.close();
+    }
+
+    @Test
+    public void encryptedDocumentTest() throws IOException {
+        byte[] pdf = createDocument(20, new WriterProperties().setStandardEncryption(USER_PASSWORD, OWNER_PASSWORD, 0,
+                EncryptionConstants.ENCRYPTION_AES_128));
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf),
+                new ReaderProperties().setPassword(USER_PASSWORD)));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<String> texts = PdfTextExtractor.getTextFromPages(pdfDocument, executor);
+            Assert.assertTrue(texts.get(19).startsWith("Page 20 "));
+        } finally {
+            executor.shutdown();
+        }
+        pdfDocument.close();
+    }
+
+    @Test
+    public void strategyExceptionIsRethrownTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument(10, new WriterProperties()))));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PdfTextExtractor.getTextFromPages(pdfDocument, 1, 10, executor, new ITextExtractionStrategyFactory() {
+                @Override
+                public ITextExtractionStrategy createStrategy(int pageNumber) {
+                    if (pageNumber == 7) {
+                        throw new IllegalStateException("page 7");
+                    }
+                    return new LocationTextExtractionStrategy();
+                }
+            });
+            Assert.fail("Exception expected");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("page 7", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+        pdfDocument.close();
+    }
+
+    @Test(expected = PdfException.class)
+    public void documentWithoutReaderTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDocument.addNewPage();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PdfTextExtractor.getTextFromPages(pdfDocument, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentReadersCreatedConcurrentlyTest() throws IOException, InterruptedException, ExecutionException {
+        final PdfReader reader = new PdfReader(new ByteArrayInputStream(createDocument(20, new WriterProperties())));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() throws Exception {
+                        start.await();
+                        // all the readers are created at the same time, so that the shared source is made
+                        // thread-safe by one of them while the others already read it
+                        PdfDocument document = new PdfDocument(reader.createConcurrentReader());
+                        List<String> texts = new ArrayList<>();
+                        for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                            texts.add(PdfTextExtractor.getTextFromPage(document.getPage(page)));
+                        }
+                        document.close();
+                        return texts;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<List<String>> result : results) {
+                List<String> texts = result.get();
+                Assert.assertEquals(20, texts.size());
+                for (int page = 1; page <= 20; page++) {
+                    Assert.assertEquals(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(page)), texts.get(page - 1));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        pdfDocument.close();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pageRangeOutOfBoundsTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument(5, new WriterProperties()))));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PdfTextExtractor.getTextFromPages(pdfDocument, 3, 6, executor, null);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static byte[] createDocument(int pagesCount, WriterProperties properties) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, properties));
+        PdfFont font = PdfFontFactory.createFont(createFontDictionary(pdfDocument));
+        for (int i = 1; i <= pagesCount; i++) {
+            PdfPage page = pdfDocument.addNewPage();
+            page.getResources().addFont(pdfDocument, font);
+            StringBuilder content = new StringBuilder("BT /F1 10 Tf\n");
+            for (int line = 0; line < 40; line++) {
+                content.append("1 0 0 1 36 ").append(800 - line * 18).append(" Tm (Page ").append(i).append(" line ")
+                        .append(line).append(" of the concurrently extracted document) Tj\n");
+            }
+            content.append("ET");
+            page.getFirstContentStream().setData(ByteUtils.getIsoBytes(content.toString()));
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    // a simple font with explicit widths and ToUnicode map, which doesn't require any font program to extract text
+    private static PdfDictionary createFontDictionary(PdfDocument pdfDocument) {
+        PdfArray widths = new PdfArray();
+        for (int i = 32; i <= 126; i++) {
+            widths.add(new PdfNumber(500));
+        }
+        PdfDictionary descriptor = new PdfDictionary();
+        descriptor.put(PdfName.Type, PdfName.FontDescriptor);
+        descriptor.put(PdfName.FontName, new PdfName("TestFont"));
+        descriptor.put(PdfName.Flags, new PdfNumber(32));
+        descriptor.put(PdfName.FontBBox, new PdfArray(new int[] {0, -200, 1000, 900}));
+        descriptor.put(PdfName.ItalicAngle, new PdfNumber(0));
+        descriptor.put(PdfName.Ascent, new PdfNumber(800));
+        descriptor.put(PdfName.Descent, new PdfNumber(-200));
+        descriptor.put(PdfName.CapHeight, new PdfNumber(700));
+        descriptor.put(PdfName.StemV, new PdfNumber(80));
+        PdfDictionary font = new PdfDictionary();
+        font.put(PdfName.Type, PdfName.Font);
+        font.put(PdfName.Subtype, PdfName.TrueType);
+        font.put(PdfName.BaseFont, new PdfName("TestFont"));
+        font.put(PdfName.FirstChar, new PdfNumber(32));
+        font.put(PdfName.LastChar, new PdfNumber(126));
+        font.put(PdfName.Widths, widths);
+        font.put(PdfName.Encoding, PdfName.WinAnsiEncoding);
+        font.put(PdfName.FontDescriptor, descriptor);
+        font.put(PdfName.ToUnicode, new PdfStream(ByteUtils.getIsoBytes("/CIDInit /ProcSet findresource begin\n"
+                + "12 dict begin\nbegincmap\n/CMapName /TestFont-UCS def\n/CMapType 2 def\n"
+                + "1 begincodespacerange\n<00> <FF>\nendcodespacerange\n"
+                + "1 beginbfrange\n<20> <7E> <0020>\nendbfrange\n"
+                + "endcmap\nCMapName currentdict /CMap defineresource pop\nend\nend")).makeIndirect(pdfDocument));
+        font.makeIndirect(pdfDocument);
+        return font;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.PerformanceTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Checks that the text extracted from a large document by all the available processors is the same as the text
+ * extracted by one thread, so that the threads don't interfere with each other via shared state.
+ */
+@Category(PerformanceTest.class)
+public class PdfTextExtractorLargeDocumentTest extends ExtendedITextTest {
+
+    private static final int PAGES_COUNT = 2000;
+    private static final int ITERATIONS = 3;
+
+    @Test
+    public void singleVersusMultipleThreadsTest() throws IOException {
+        byte[] pdf = PdfTextExtractorConcurrentTest.createDocument(PAGES_COUNT, new WriterProperties().setFullCompressionMode(true));
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        List<String> singleThreadTexts = extract(pdf, 1);
+        Assert.assertEquals(PAGES_COUNT, singleThreadTexts.size());
+        for (int i = 1; i <= PAGES_COUNT; i++) {
+            Assert.assertTrue(singleThreadTexts.get(i - 1).startsWith("Page " + i + " "));
+        }
+        for (int i = 0; i < ITERATIONS; i++) {
+            Assert.assertEquals(singleThreadTexts, extract(pdf, threads));
+        }
+    }
+
+    private static List<String> extract(byte[] pdf, int threads) throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            return PdfTextExtractor.getTextFromPages(pdfDocument, executor);
+        } finally {
+            executor.shutdown();
+            pdfDocument.close();
+        }
+    }
+}
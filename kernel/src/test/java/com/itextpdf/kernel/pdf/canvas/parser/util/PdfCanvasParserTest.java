@@ -0,0 +1,218 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PdfCanvasParserTest extends ExtendedITextTest {
+
+    private static final String CONTENT = "q 1 0 0 1 36.5 -.25 cm /GS1 gs\n"
+            + "BT /F1 12 Tf 1 0 0 1 10 20 Tm (Hello \\(world\\)\\n) Tj [(A) -250 <0042> 5. (C)] TJ ET\n"
+            + "% comment\n10 20 m 30.75 40 l 1 2 3 4 5 6 c 0 0 100 200 re f\n"
+            + "/P <</MCID 3>> BDC --3 0.0000001 123456789012345678 1.5-2 d0 EMC Q";
+
+    @Test
+    public void operationsMatchListParsingTest() throws IOException {
+        List<List<PdfObject>> expected = new ArrayList<>();
+        PdfCanvasParser listParser = createParser(CONTENT);
+        List<PdfObject> operands = new ArrayList<>();
+        while (listParser.parse(operands).size() > 0) {
+            expected.add(new ArrayList<>(operands));
+        }
+
+        PdfCanvasParser operationParser = createParser(CONTENT);
+        ContentOperation operation = new ContentOperation();
+        int count = 0;
+        while (operationParser.parse(operation)) {
+            List<PdfObject> actual = operation.toList(new ArrayList<PdfObject>());
+            Assert.assertEquals(expected.get(count).toString(), actual.toString());
+            for (int i = 0; i < operation.size(); i++) {
+                if (operation.isNumber(i)) {
+                    Assert.assertEquals(((PdfNumber) expected.get(count).get(i)).getValue(), operation.getDouble(i), 0);
+                }
+            }
+            Assert.assertEquals(operationParser.getOperatorTable().getOperatorId(actual.get(actual.size() - 1).toString()),
+                    operation.getOperatorId());
+            count++;
+        }
+        Assert.assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void primitiveOperandsTest() throws IOException {
+        PdfCanvasParser parser = createParser("1 0 0 1 36.5 -.25 cm /F1 12 Tf (text) Tj 1 2 unknownOp");
+        ContentOperation operation = new ContentOperation();
+
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.CONCAT_MATRIX, operation.getOperatorId());
+        Assert.assertTrue(operation.areAllNumbers());
+        Assert.assertEquals(36.5, operation.getDouble(4), 0);
+        Assert.assertEquals(-0.25f, operation.getFloat(5), 0);
+
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.SET_FONT, operation.getOperatorId());
+        Assert.assertTrue(operation.isName(0));
+        Assert.assertTrue(operation.contentEquals(0, ByteUtils.getIsoBytes("F1")));
+        Assert.assertEquals(new PdfName("F1"), operation.get(0));
+        Assert.assertEquals(12, operation.getInt(1));
+
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.SHOW_TEXT, operation.getOperatorId());
+        Assert.assertTrue(operation.isString(0));
+        Assert.assertEquals("text", operation.get(0).toString());
+
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.UNKNOWN_OPERATOR, operation.getOperatorId());
+        Assert.assertEquals("unknownOp", operation.getOperator());
+
+        Assert.assertFalse(parser.parse(operation));
+    }
+
+    @Test
+    public void inlineImageTest() throws IOException {
+        PdfCanvasParser parser = createParser("q BI /W 1 /H 1 /BPC 8 /CS /G ID \u0080 EI Q");
+        ContentOperation operation = new ContentOperation();
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.END_INLINE_IMAGE, operation.getOperatorId());
+        Assert.assertEquals("EI", operation.getOperator());
+        Assert.assertTrue(operation.get(0) instanceof PdfStream);
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.RESTORE_STATE, operation.getOperatorId());
+    }
+
+    @Test
+    public void operatorTableTest() {
+        ContentOperatorTable table = new ContentOperatorTable();
+        Assert.assertEquals(73, table.size());
+        for (int i = 0; i < table.size(); i++) {
+            Assert.assertEquals(i, table.getOperatorId(table.getOperator(i)));
+        }
+        Assert.assertEquals(ContentOperatorTable.MOVE_TO_NEXT_LINE_SHOW_TEXT_WITH_SPACING, table.getOperatorId("\""));
+        Assert.assertEquals(ContentOperatorTable.SET_FILL_COLOR_N, table.getOperatorId("scn"));
+        Assert.assertEquals(ContentOperatorTable.UNKNOWN_OPERATOR, table.getOperatorId("Tx"));
+    }
+
+    @Test
+    public void registerOperatorTest() {
+        ContentOperatorTable table = new ContentOperatorTable();
+        Assert.assertEquals(ContentOperatorTable.SET_FONT, table.register("Tf"));
+        int customId = table.register("Tx");
+        Assert.assertEquals(73, customId);
+        Assert.assertEquals(customId, table.register("Tx"));
+        for (int i = 0; i < 300; i++) {
+            Assert.assertEquals(74 + i, table.register("op" + i));
+        }
+        Assert.assertEquals(customId, table.getOperatorId("Tx"));
+        Assert.assertEquals("op299", table.getOperator(373));
+        Assert.assertEquals(ContentOperatorTable.SHOW_TEXT, table.getOperatorId("Tj"));
+        Assert.assertEquals(ContentOperatorTable.UNKNOWN_OPERATOR, new ContentOperatorTable().getOperatorId("Tx"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void registerOperatorInReadOnlyTableTest() {
+        new ContentOperatorTable(true).register("Tx");
+    }
+
+    @Test
+    public void parserOperatorTablesAreNotSharedTest() throws IOException {
+        PdfCanvasParser parser = createParser("1 2 Tx");
+        int customId = parser.getOperatorTable().register("Tx");
+        ContentOperation operation = new ContentOperation();
+        Assert.assertTrue(parser.parse(operation));
+        Assert.assertEquals(customId, operation.getOperatorId());
+
+        PdfCanvasParser otherParser = createParser("1 2 Tx");
+        Assert.assertEquals(ContentOperatorTable.UNKNOWN_OPERATOR, otherParser.getOperatorTable().getOperatorId("Tx"));
+        Assert.assertTrue(otherParser.parse(operation));
+        Assert.assertEquals(ContentOperatorTable.UNKNOWN_OPERATOR, operation.getOperatorId());
+    }
+
+    @Test
+    public void numberValuesTest() throws IOException {
+        Random random = new Random(17);
+        StringBuilder content = new StringBuilder("0 -0 5. .5 -.5 +3 --7 1.-5 00012.500 9007199254740993 0.1 0.7 3.14159265358979 ");
+        for (int i = 0; i < 2000; i++) {
+            content.append(random.nextInt(2000000) - 1000000).append('.').append(random.nextInt(100000)).append(' ');
+            content.append(random.nextDouble() * 1000).append(' ');
+        }
+        PdfTokenizer tokenizer = new PdfTokenizer(new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().createSource(ByteUtils.getIsoBytes(content.toString()))));
+        int count = 0;
+        while (tokenizer.nextToken()) {
+            Assert.assertEquals(PdfTokenizer.TokenType.Number, tokenizer.getTokenType());
+            double expected = new PdfNumber(tokenizer.getByteContent()).getValue();
+            Assert.assertEquals(tokenizer.getStringValue(), Double.doubleToLongBits(expected),
+                    Double.doubleToLongBits(tokenizer.getDoubleValue()));
+            count++;
+        }
+        Assert.assertEquals(4013, count);
+    }
+
+    private static PdfCanvasParser createParser(String content) {
+        PdfTokenizer tokenizer = new PdfTokenizer(new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().createSource(ByteUtils.getIsoBytes(content))));
+        return new PdfCanvasParser(tokenizer, new PdfResources());
+    }
+}
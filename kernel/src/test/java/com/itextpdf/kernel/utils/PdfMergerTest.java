@@ -43,9 +43,17 @@
 package com.itextpdf.kernel.utils;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.navigation.PdfExplicitDestination;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
@@ -57,6 +65,8 @@ import org.junit.experimental.categories.Category;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -292,4 +302,74 @@ public class PdfMergerTest extends ExtendedITextTest {
             Assert.fail(errorMessage);
         }
     }
+
+    @Test
+    public void mergeAllTest() throws IOException {
+        byte[] source = createSourceDocument();
+        List<PdfDocument> sources = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sources.add(new PdfDocument(new PdfReader(new ByteArrayInputStream(source))));
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfMerger merger = new PdfMerger(new PdfDocument(new PdfWriter(baos)));
+        PdfMergerStatistics statistics = merger.mergeAll(sources.iterator());
+        merger.close();
+
+        Assert.assertEquals(20, statistics.getDocumentsCount());
+        Assert.assertEquals(40, statistics.getPagesCount());
+        Assert.assertTrue(statistics.getWrittenBytes() > 0);
+        for (PdfDocument sourceDocument : sources) {
+            Assert.assertTrue(sourceDocument.isClosed());
+        }
+
+        PdfDocument result = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals(40, result.getNumberOfPages());
+        Assert.assertEquals(20, result.getOutlines(false).getAllChildren().size());
+        Assert.assertNotEquals(getFormReference(result.getPage(1)), getFormReference(result.getPage(3)));
+        result.close();
+    }
+
+    @Test
+    public void mergeAllDeduplicatingResourcesTest() throws IOException {
+        byte[] source = createSourceDocument();
+        List<PdfDocument> sources = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sources.add(new PdfDocument(new PdfReader(new ByteArrayInputStream(source))));
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfMerger merger = new PdfMerger(new PdfDocument(new PdfWriter(baos))).setDeduplicateResources(true);
+        PdfMergerStatistics statistics = merger.mergeAll(sources.iterator());
+        merger.close();
+        Assert.assertEquals(40, statistics.getPagesCount());
+
+        PdfDocument result = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals(40, result.getNumberOfPages());
+        PdfIndirectReference form = getFormReference(result.getPage(1));
+        for (int i = 2; i <= result.getNumberOfPages(); i++) {
+            Assert.assertEquals(form, getFormReference(result.getPage(i)));
+        }
+        result.close();
+    }
+
+    private static byte[] createSourceDocument() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(50, 50));
+        new PdfCanvas(form, pdfDocument).rectangle(10, 10, 30, 30).fill();
+        for (int i = 0; i < 2; i++) {
+            PdfPage page = pdfDocument.addNewPage();
+            new PdfCanvas(page).addXObject(form, i * 50, 0);
+        }
+        pdfDocument.getOutlines(false).addOutline("outline")
+                .addDestination(PdfExplicitDestination.createFit(pdfDocument.getPage(2)));
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static PdfIndirectReference getFormReference(PdfPage page) {
+        PdfDictionary xObjects = page.getResources().getResource(PdfName.XObject);
+        return xObjects.getAsStream(xObjects.keySet().iterator().next()).getIndirectReference();
+    }
 }
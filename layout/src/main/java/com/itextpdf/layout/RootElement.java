@@ -52,6 +52,7 @@ import com.itextpdf.layout.element.BlockElement;
 import com.itextpdf.layout.element.Div;
 import com.itextpdf.layout.element.IBlockElement;
 import com.itextpdf.layout.element.IElement;
+import com.itextpdf.layout.element.ILargeElement;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.font.FontProvider;
@@ -62,7 +63,9 @@ import com.itextpdf.layout.property.Property;
 import com.itextpdf.layout.property.TextAlignment;
 import com.itextpdf.layout.property.UnitValue;
 import com.itextpdf.layout.property.VerticalAlignment;
+import com.itextpdf.layout.renderer.CachedLayoutRenderer;
 import com.itextpdf.layout.renderer.IRenderer;
+import com.itextpdf.layout.renderer.LayoutResultCache;
 import com.itextpdf.layout.renderer.RootRenderer;
 import com.itextpdf.layout.tagging.LayoutTaggingHelper;
 import com.itextpdf.layout.splitting.DefaultSplitCharacters;
@@ -369,8 +372,16 @@ public abstract class RootElement<T extends IPropertyContainer> extends ElementP
     protected abstract RootRenderer ensureRootRendererNotNull();
 
     protected void createAndAddRendererSubTree(IElement element) {
-        IRenderer rendererSubTreeRoot = element.createRendererSubTree();
         LayoutTaggingHelper taggingHelper = initTaggingHelperIfNeeded();
+        LayoutResultCache layoutResultCache = element.<LayoutResultCache>getProperty(Property.LAYOUT_RESULT_CACHE);
+        IRenderer rendererSubTreeRoot;
+        if (layoutResultCache != null && taggingHelper == null && pdfDocument != null && element instanceof IBlockElement
+                && !(element instanceof ILargeElement && !((ILargeElement) element).isComplete())) {
+            // the renderer subtree is created only if the cached layout can't be reused
+            rendererSubTreeRoot = new CachedLayoutRenderer(element, layoutResultCache, pdfDocument);
+        } else {
+            rendererSubTreeRoot = element.createRendererSubTree();
+        }
         if (taggingHelper != null) {
             taggingHelper.addKidsHint(pdfDocument.getTagStructureContext().getAutoTaggingPointer(), Collections.<IRenderer>singletonList(rendererSubTreeRoot));
         }
@@ -0,0 +1,213 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.batch;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.font.FontProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Renders many independent documents in parallel on a caller-provided {@link ExecutorService}.
+ * <p>
+ * Every document is created, filled and closed by a single thread, as {@link PdfDocument} and {@link Document}
+ * are not safe for concurrent access. What is shared between the documents are the read-only resources of
+ * the {@link DocumentBatchResources}: font programs, image data and the font set of the font provider.
+ * A failure of a document doesn't stop the rendering of the other ones, the failed jobs are logged and reported
+ * in the {@link DocumentBatchStatistics} of the run.
+ */
+public class DocumentBatchRenderer {
+
+    private final ExecutorService executor;
+    private final DocumentBatchResources resources;
+
+    /**
+     * Creates a renderer without shared resources.
+     *
+     * @param executor the executor to render the documents on.
+     */
+    public DocumentBatchRenderer(ExecutorService executor) {
+        this(executor, new DocumentBatchResources());
+    }
+
+    /**
+     * Creates a renderer.
+     *
+     * @param executor  the executor to render the documents on.
+     * @param resources the resources shared by the documents.
+     */
+    public DocumentBatchRenderer(ExecutorService executor, DocumentBatchResources resources) {
+        this.executor = executor;
+        this.resources = resources;
+    }
+
+    /**
+     * Gets the resources shared by the documents.
+     *
+     * @return the shared resources.
+     */
+    public DocumentBatchResources getResources() {
+        return resources;
+    }
+
+    /**
+     * Renders the documents and waits for all of them to be closed.
+     *
+     * @param jobs the documents to render.
+     * @return the metrics of the run.
+     * @throws InterruptedException if the current thread is interrupted while waiting, the jobs which haven't
+     *                              been started yet are cancelled then.
+     */
+    public DocumentBatchStatistics render(List<? extends IDocumentBatchJob> jobs) throws InterruptedException {
+        long startTime = System.nanoTime();
+        List<Future<RenderedDocument>> results = new ArrayList<>(jobs.size());
+        try {
+            for (int i = 0; i < jobs.size(); i++) {
+                results.add(executor.submit(new DocumentRenderingTask(jobs.get(i), i, resources)));
+            }
+            int documentsCount = 0;
+            long pagesCount = 0;
+            long[] latencies = new long[jobs.size()];
+            List<IDocumentBatchJob> failedJobs = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                RenderedDocument document = getResult(results.get(i), i);
+                if (document == null) {
+                    failedJobs.add(jobs.get(i));
+                } else {
+                    latencies[documentsCount++] = document.latencyNanos;
+                    pagesCount += document.pagesCount;
+                }
+            }
+            long[] documentLatencies = new long[documentsCount];
+            System.arraycopy(latencies, 0, documentLatencies, 0, documentsCount);
+            return new DocumentBatchStatistics(documentsCount, pagesCount, System.nanoTime() - startTime,
+                    documentLatencies, failedJobs);
+        } catch (InterruptedException e) {
+            // the running jobs are not interrupted, so that their output isn't left half-written
+            for (Future<RenderedDocument> result : results) {
+                result.cancel(false);
+            }
+            throw e;
+        }
+    }
+
+    private static RenderedDocument getResult(Future<RenderedDocument> result, int jobIndex) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            // errors are not caught by the task itself
+            logFailure(jobIndex, e.getCause());
+            return null;
+        }
+    }
+
+    private static void logFailure(int jobIndex, Throwable cause) {
+        Logger logger = LoggerFactory.getLogger(DocumentBatchRenderer.class);
+        logger.error(MessageFormatUtil.format(LogMessageConstant.DOCUMENT_BATCH_JOB_FAILED, jobIndex), cause);
+    }
+
+    private static final class RenderedDocument {
+        final long latencyNanos;
+        final int pagesCount;
+
+        RenderedDocument(long latencyNanos, int pagesCount) {
+            this.latencyNanos = latencyNanos;
+            this.pagesCount = pagesCount;
+        }
+    }
+
+    private static final class DocumentRenderingTask implements Callable<RenderedDocument> {
+        private final IDocumentBatchJob job;
+        private final int jobIndex;
+        private final DocumentBatchResources resources;
+
+        DocumentRenderingTask(IDocumentBatchJob job, int jobIndex, DocumentBatchResources resources) {
+            this.job = job;
+            this.jobIndex = jobIndex;
+            this.resources = resources;
+        }
+
+        @Override
+        public RenderedDocument call() {
+            long startTime = System.nanoTime();
+            PdfDocument pdfDocument = null;
+            try {
+                pdfDocument = job.createPdfDocument();
+                Document document = new Document(pdfDocument);
+                FontProvider fontProvider = resources.createFontProvider();
+                if (fontProvider != null) {
+                    document.setFontProvider(fontProvider);
+                }
+                job.addContent(document);
+                int pagesCount = pdfDocument.getNumberOfPages();
+                document.close();
+                return new RenderedDocument(System.nanoTime() - startTime, pagesCount);
+            } catch (Exception e) {
+                if (pdfDocument != null && !pdfDocument.isClosed()) {
+                    closeQuietly(pdfDocument);
+                }
+                logFailure(jobIndex, e);
+                return null;
+            }
+        }
+
+        private static void closeQuietly(PdfDocument pdfDocument) {
+            try {
+                pdfDocument.close();
+            } catch (RuntimeException ignored) {
+                // the document has already failed, the output is not usable anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.batch;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.image.ImageType;
+import com.itextpdf.layout.font.FontProvider;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read-only resources shared by the documents rendered by a {@link DocumentBatchRenderer}.
+ * <p>
+ * Font programs and image data are parsed once and then used by all the documents, each document still creates
+ * its own {@link com.itextpdf.kernel.font.PdfFont}s and image XObjects from them. The {@link FontProvider} given
+ * to the resources is shared the same way: every document gets a provider created with
+ * {@link FontProvider#FontProvider(FontProvider)}, so that the font set and the font selectors are shared,
+ * while the fonts of the documents are not. The provider must be filled before rendering and must not be changed
+ * afterwards.
+ * <p>
+ * The hyphenation trees are shared by the {@link com.itextpdf.layout.hyphenation.Hyphenator} cache anyway,
+ * they are loaded once for the first document which requests them.
+ */
+public class DocumentBatchResources {
+
+    private final FontProvider fontProvider;
+    private final ConcurrentMap<String, FontProgram> fontPrograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ImageData> images = new ConcurrentHashMap<>();
+
+    /**
+     * Creates resources without a font provider, the documents use their default one.
+     */
+    public DocumentBatchResources() {
+        this(null);
+    }
+
+    /**
+     * Creates resources with a font provider shared by all the documents.
+     *
+     * @param fontProvider the prepared font provider, or {@code null} to use the default one of the documents.
+     */
+    public DocumentBatchResources(FontProvider fontProvider) {
+        this.fontProvider = fontProvider;
+    }
+
+    /**
+     * Creates a font provider for a single document, which shares the font set of the resources' provider.
+     *
+     * @return the new font provider, or {@code null} if the resources have no font provider.
+     */
+    public FontProvider createFontProvider() {
+        return fontProvider != null ? new FontProvider(fontProvider) : null;
+    }
+
+    /**
+     * Gets the font program of the font file, which is parsed on the first request.
+     *
+     * @param fontPath the path of the font file.
+     * @return the shared font program.
+     * @throws IOException if the font file can't be read.
+     */
+    public FontProgram getFontProgram(String fontPath) throws IOException {
+        FontProgram fontProgram = fontPrograms.get(fontPath);
+        if (fontProgram == null) {
+            fontProgram = FontProgramFactory.createFont(fontPath);
+            FontProgram previous = fontPrograms.putIfAbsent(fontPath, fontProgram);
+            if (previous != null) {
+                fontProgram = previous;
+            }
+        }
+        return fontProgram;
+    }
+
+    /**
+     * Gets the image data of the image file, which is read on the first request.
+     * Raw images, e.g. CCITT encoded TIFF images, are read for every request.
+     *
+     * @param filename the path of the image file.
+     * @return the shared image data.
+     * @throws MalformedURLException if the path is not valid.
+     */
+    public ImageData getImageData(String filename) throws MalformedURLException {
+        ImageData imageData = images.get(filename);
+        if (imageData == null) {
+            imageData = ImageDataFactory.create(filename);
+            if (imageData.getOriginalType() == ImageType.RAW) {
+                // the attributes of raw images are updated when an image XObject is created, they aren't shared
+                return imageData;
+            }
+            ImageData previous = images.putIfAbsent(filename, imageData);
+            if (previous != null) {
+                imageData = previous;
+            }
+        }
+        return imageData;
+    }
+}
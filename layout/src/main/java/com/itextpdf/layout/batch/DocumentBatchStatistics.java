@@ -0,0 +1,201 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.batch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Throughput and latency metrics of a single {@link DocumentBatchRenderer#render(List)} run.
+ * The latencies are measured for the successfully rendered documents only, from the start of the rendering
+ * of a document till its closing, without the time the job waited for a free thread.
+ */
+public class DocumentBatchStatistics {
+
+    private final int documentsCount;
+    private final long pagesCount;
+    private final long elapsedTimeNanos;
+    private final long[] latenciesNanos;
+    private final List<IDocumentBatchJob> failedJobs;
+
+    DocumentBatchStatistics(int documentsCount, long pagesCount, long elapsedTimeNanos, long[] latenciesNanos,
+            List<IDocumentBatchJob> failedJobs) {
+        this.documentsCount = documentsCount;
+        this.pagesCount = pagesCount;
+        this.elapsedTimeNanos = elapsedTimeNanos;
+        this.latenciesNanos = latenciesNanos.clone();
+        Arrays.sort(this.latenciesNanos);
+        this.failedJobs = Collections.unmodifiableList(failedJobs);
+    }
+
+    /**
+     * Gets the number of successfully rendered documents.
+     *
+     * @return the number of rendered documents
+     */
+    public int getDocumentsCount() {
+        return documentsCount;
+    }
+
+    /**
+     * Gets the number of documents which failed to render.
+     *
+     * @return the number of failed documents
+     */
+    public int getFailedDocumentsCount() {
+        return failedJobs.size();
+    }
+
+    /**
+     * Gets the jobs which failed to render, in the order they have been passed to the renderer.
+     *
+     * @return the unmodifiable list of the failed jobs
+     */
+    public List<IDocumentBatchJob> getFailedJobs() {
+        return failedJobs;
+    }
+
+    /**
+     * Gets the total number of pages of the successfully rendered documents.
+     *
+     * @return the number of rendered pages
+     */
+    public long getPagesCount() {
+        return pagesCount;
+    }
+
+    /**
+     * Gets the wall clock time of the whole run.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedTimeNanos() {
+        return elapsedTimeNanos;
+    }
+
+    /**
+     * Gets the number of successfully rendered documents per second of the wall clock time.
+     *
+     * @return the documents throughput
+     */
+    public double getDocumentsPerSecond() {
+        return perSecond(documentsCount);
+    }
+
+    /**
+     * Gets the number of rendered pages per second of the wall clock time.
+     *
+     * @return the pages throughput
+     */
+    public double getPagesPerSecond() {
+        return perSecond(pagesCount);
+    }
+
+    /**
+     * Gets the shortest rendering time of a document.
+     *
+     * @return the minimum latency in nanoseconds, or 0 if no document has been rendered
+     */
+    public long getMinLatencyNanos() {
+        return latenciesNanos.length == 0 ? 0 : latenciesNanos[0];
+    }
+
+    /**
+     * Gets the longest rendering time of a document.
+     *
+     * @return the maximum latency in nanoseconds, or 0 if no document has been rendered
+     */
+    public long getMaxLatencyNanos() {
+        return latenciesNanos.length == 0 ? 0 : latenciesNanos[latenciesNanos.length - 1];
+    }
+
+    /**
+     * Gets the average rendering time of a document.
+     *
+     * @return the mean latency in nanoseconds, or 0 if no document has been rendered
+     */
+    public long getMeanLatencyNanos() {
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (long latency : latenciesNanos) {
+            sum += latency;
+        }
+        return sum / latenciesNanos.length;
+    }
+
+    /**
+     * Gets the rendering time which is not exceeded by the given percentage of the documents,
+     * e.g. 50 for the median or 99 for the 99th percentile.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency percentile in nanoseconds, or 0 if no document has been rendered
+     */
+    public long getLatencyPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be in the range from 0 to 100.");
+        }
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        // nearest-rank method
+        int rank = (int) Math.ceil(percentile / 100 * latenciesNanos.length);
+        return latenciesNanos[Math.max(rank - 1, 0)];
+    }
+
+    @Override
+    public String toString() {
+        return "documents: " + documentsCount + ", failed: " + failedJobs.size() + ", pages: " + pagesCount
+                + ", elapsed: " + elapsedTimeNanos / 1000000 + " ms, documents/s: " + (long) getDocumentsPerSecond()
+                + ", latency ms (mean/p50/p99/max): " + getMeanLatencyNanos() / 1000000 + "/"
+                + getLatencyPercentileNanos(50) / 1000000 + "/" + getLatencyPercentileNanos(99) / 1000000 + "/"
+                + getMaxLatencyNanos() / 1000000;
+    }
+
+    private double perSecond(long count) {
+        return elapsedTimeNanos == 0 ? 0 : count * 1e9 / elapsedTimeNanos;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.batch;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+
+import java.io.IOException;
+
+/**
+ * A document rendered by the {@link DocumentBatchRenderer}. Both methods are called on the thread
+ * the document is rendered on, a job is rendered by a single thread.
+ */
+public interface IDocumentBatchJob {
+
+    /**
+     * Creates the document to be rendered, e.g. with its own writer, page size and tagging settings.
+     *
+     * @return the new document, it will be closed by the {@link DocumentBatchRenderer}.
+     * @throws IOException if the document can't be created.
+     */
+    PdfDocument createPdfDocument() throws IOException;
+
+    /**
+     * Adds the content to the document. The shared resources, like font programs or images,
+     * should be taken from the {@link DocumentBatchResources} of the renderer.
+     *
+     * @param document the layout document of the {@link PdfDocument} created by {@link #createPdfDocument()}.
+     * @throws IOException if the content can't be added.
+     */
+    void addContent(Document document) throws IOException;
+}
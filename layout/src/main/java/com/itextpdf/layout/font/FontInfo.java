@@ -116,6 +116,15 @@ public final class FontInfo {
         return descriptor != null ? new FontInfo(fontName, null, encoding, descriptor, range, alias) : null;
     }
 
+    static FontInfo create(String fontName, FontProgramDescriptor descriptor, String encoding, String alias,
+                           Range range) {
+        if (descriptor == null) {
+            return null;
+        }
+        putFontNamesToCache(FontCacheKey.create(fontName), descriptor);
+        return new FontInfo(fontName, null, encoding, descriptor, range, alias);
+    }
+
     static FontInfo create(byte[] fontProgram, String encoding, String alias, Range range) {
         FontCacheKey cacheKey = FontCacheKey.create(fontProgram);
         FontProgramDescriptor descriptor = getFontNamesFromCache(cacheKey);
@@ -44,6 +44,7 @@ package com.itextpdf.layout.font;
 
 import com.itextpdf.io.font.FontCache;
 import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramDescriptorIndex;
 import com.itextpdf.io.font.FontProgramFactory;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.Type1Font;
@@ -67,6 +68,8 @@ import java.util.Map;
  * FontProvider depends on {@link PdfDocument} due to {@link PdfFont}, so it cannot be reused for different documents
  * unless reset with {@link FontProvider#reset()} or recreated with {@link FontProvider#getFontSet()}.
  * In the former case the {@link FontSelectorCache} is reused and in the latter it's reinitialised.
+ * To render multiple documents concurrently, create a document-local provider for each of them
+ * with {@link FontProvider#FontProvider(FontProvider)}, which shares fonts and font selectors with another provider.
  * FontProvider the only end point for creating {@link PdfFont}.
  * <p>
  * It is allowed to use only one {@link FontProvider} per document. If temporary fonts per element needed,
@@ -125,6 +128,31 @@ public class FontProvider {
         this.defaultFontFamily = defaultFontFamily;
     }
 
+    /**
+     * Creates a new instance of FontProvider, which shares the {@link FontSet}, the default font family
+     * and the cache of {@link FontSelector}s with another provider, but has its own {@link PdfFont} cache.
+     * <p>
+     * Font selection results are not bound to a document, while {@link PdfFont}s are. This constructor allows
+     * to prepare a single provider with all the fonts once and to create a cheap document-local provider per
+     * {@link PdfDocument} from it, e.g. per request on a rendering server. The shared provider and its {@link FontSet}
+     * could be used from multiple threads in that case. To keep the shared font selectors valid, the {@link FontSet}
+     * becomes read-only, adding a font to it or to any of the providers sharing it throws an {@link IllegalStateException}.
+     * The font selectors computed for one document are reused by all the others.
+     * <p>
+     * Note, the selector cache is shared, so both providers must create the same {@link FontSelector}s, i.e.
+     * subclasses overriding {@link #createFontSelector(Collection, List, FontCharacteristics)} should
+     * only share the cache with providers of the same class.
+     *
+     * @param sharedProvider the provider to share fonts and font selectors with.
+     */
+    public FontProvider(FontProvider sharedProvider) {
+        sharedProvider.fontSet.makeReadOnly();
+        this.fontSet = sharedProvider.fontSet;
+        this.fontSelectorCache = sharedProvider.fontSelectorCache;
+        this.defaultFontFamily = sharedProvider.defaultFontFamily;
+        this.pdfFonts = new HashMap<>();
+    }
+
     public boolean addFont(FontProgram fontProgram, String encoding, Range unicodeRange) {
         return fontSet.addFont(fontProgram, encoding, null, unicodeRange);
     }
@@ -165,7 +193,30 @@ public class FontProvider {
         return fontSet.addDirectory(dir);
     }
 
+    /**
+     * Adds all the fonts in a directory, taking font descriptors of unchanged files from the index.
+     *
+     * @param dir   path to directory.
+     * @param index index of font descriptors, could be null.
+     * @return number of added fonts.
+     */
+    public int addDirectory(String dir, FontProgramDescriptorIndex index) {
+        return fontSet.addDirectory(dir, index);
+    }
+
     public int addSystemFonts() {
+        return addSystemFonts(null);
+    }
+
+    /**
+     * Adds the fonts from the system font directories, taking font descriptors of unchanged files from the index.
+     * Store the index with {@link FontProgramDescriptorIndex#store(String)} and load it on the next run
+     * to avoid parsing all the system fonts again.
+     *
+     * @param index index of font descriptors, could be null.
+     * @return number of added fonts.
+     */
+    public int addSystemFonts(FontProgramDescriptorIndex index) {
         int count = 0;
         String[] withSubDirs = {
                 FileUtil.getFontsDir(),
@@ -176,7 +227,7 @@ public class FontProvider {
                 "/usr/X11R6/lib/X11/fonts"
         };
         for (String directory : withSubDirs) {
-            count += fontSet.addDirectory(directory, true);
+            count += fontSet.addDirectory(directory, true, index);
         }
 
         String[] withoutSubDirs = {
@@ -184,7 +235,7 @@ public class FontProvider {
                 "/System/Library/Fonts"
         };
         for (String directory : withoutSubDirs) {
-            count += fontSet.addDirectory(directory, false);
+            count += fontSet.addDirectory(directory, false, index);
         }
 
         return count;
@@ -42,20 +42,40 @@
  */
 package com.itextpdf.layout.font;
 
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of {@link FontSelector}s of a {@link FontSet} and of the temporary font sets used together with it.
+ * <p>
+ * The cache could be shared for multiple threads, see {@link FontProvider#FontProvider(FontProvider)}.
+ * Both the number of selectors per font set and the number of cached temporary font sets are bounded,
+ * when a limit is reached an arbitrary entry is evicted.
+ */
 class FontSelectorCache {
 
+    static final int DEFAULT_MAX_SELECTORS = 1024;
+    static final int DEFAULT_MAX_TEMPORARY_FONT_SETS = 256;
+
     private final FontSetSelectors defaultSelectors;
     private final FontSet defaultFontSet;
-    private final Map<Long, FontSetSelectors> caches = new HashMap<>();
+    private final ConcurrentMap<Long, FontSetSelectors> caches = new ConcurrentHashMap<>();
+    private final int maxSelectors;
+    private final int maxTemporaryFontSets;
 
     FontSelectorCache(FontSet defaultFontSet) {
+        this(defaultFontSet, DEFAULT_MAX_SELECTORS, DEFAULT_MAX_TEMPORARY_FONT_SETS);
+    }
+
+    FontSelectorCache(FontSet defaultFontSet, int maxSelectors, int maxTemporaryFontSets) {
         assert defaultFontSet != null;
         this.defaultSelectors = new FontSetSelectors();
         this.defaultSelectors.update(defaultFontSet);
         this.defaultFontSet = defaultFontSet;
+        this.maxSelectors = maxSelectors;
+        this.maxTemporaryFontSets = maxTemporaryFontSets;
     }
 
     FontSelector get(FontSelectorKey key) {
@@ -70,10 +90,7 @@ class FontSelectorCache {
         if (fontSet == null) {
             return get(key);
         } else {
-            FontSetSelectors selectors = caches.get(fontSet.getId());
-            if (selectors == null) {
-                caches.put(fontSet.getId(), selectors = new FontSetSelectors());
-            }
+            FontSetSelectors selectors = getSelectors(fontSet);
             if (update(selectors, fontSet)) {
                 return null;
             } else {
@@ -85,21 +102,39 @@ class FontSelectorCache {
     void put(FontSelectorKey key, FontSelector fontSelector) {
         //update defaultSelectors to reset counter before pushing if needed.
         update(null, null);
-        defaultSelectors.map.put(key, fontSelector);
+        defaultSelectors.put(key, fontSelector, maxSelectors);
     }
 
     void put(FontSelectorKey key, FontSelector fontSelector, FontSet fontSet) {
         if (fontSet == null) {
             put(key, fontSelector);
         } else {
-            FontSetSelectors selectors = caches.get(fontSet.getId());
-            if (selectors == null) {
-                caches.put(fontSet.getId(), selectors = new FontSetSelectors());
-            }
+            FontSetSelectors selectors = getSelectors(fontSet);
             //update selectors and defaultSelectors to reset counter before pushing if needed.
             update(selectors, fontSet);
-            selectors.map.put(key, fontSelector);
+            selectors.put(key, fontSelector, maxSelectors);
+        }
+    }
+
+    int size() {
+        int size = defaultSelectors.map.size();
+        for (FontSetSelectors selectors : caches.values()) {
+            size += selectors.map.size();
         }
+        return size;
+    }
+
+    private FontSetSelectors getSelectors(FontSet fontSet) {
+        FontSetSelectors selectors = caches.get(fontSet.getId());
+        if (selectors == null) {
+            evictIfFull(caches, maxTemporaryFontSets);
+            FontSetSelectors newSelectors = new FontSetSelectors();
+            selectors = caches.putIfAbsent(fontSet.getId(), newSelectors);
+            if (selectors == null) {
+                selectors = newSelectors;
+            }
+        }
+        return selectors;
     }
 
     private boolean update(FontSetSelectors selectors, FontSet fontSet) {
@@ -113,19 +148,39 @@ class FontSelectorCache {
         return updated;
     }
 
+    private static <K, V> void evictIfFull(Map<K, V> map, int maxSize) {
+        if (map.size() >= maxSize) {
+            Iterator<K> iterator = map.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
     private static class FontSetSelectors {
-        final Map<FontSelectorKey, FontSelector> map = new HashMap<>();
-        private int fontSetSize = -1;
+        final Map<FontSelectorKey, FontSelector> map = new ConcurrentHashMap<>();
+        private volatile int fontSetSize = -1;
 
         boolean update(FontSet fontSet) {
             assert fontSet != null;
-            if (fontSetSize == fontSet.size()) {
+            int size = fontSet.size();
+            if (fontSetSize == size) {
                 return false;
             } else {
-                map.clear();
-                fontSetSize = fontSet.size();
+                synchronized (this) {
+                    if (fontSetSize != size) {
+                        map.clear();
+                        fontSetSize = size;
+                    }
+                }
                 return true;
             }
         }
+
+        void put(FontSelectorKey key, FontSelector fontSelector, int maxSize) {
+            evictIfFull(map, maxSize);
+            map.put(key, fontSelector);
+        }
     }
 }
@@ -51,8 +51,8 @@ import java.util.List;
  * @see FontSelectorCache
  */
 final class FontSelectorKey {
-    private List<String> fontFamilies;
-    private FontCharacteristics fc;
+    private final List<String> fontFamilies;
+    private final FontCharacteristics fc;
 
     FontSelectorKey(List<String> fontFamilies, FontCharacteristics fc) {
         this.fontFamilies = new ArrayList<>(fontFamilies);
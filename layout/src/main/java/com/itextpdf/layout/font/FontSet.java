@@ -44,6 +44,7 @@ package com.itextpdf.layout.font;
 
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramDescriptorIndex;
 import com.itextpdf.io.util.FileUtil;
 import com.itextpdf.kernel.font.Type3Font;
 import org.slf4j.Logger;
@@ -78,6 +79,7 @@ public final class FontSet {
     private final Set<FontInfo> fonts = new LinkedHashSet<>();
     private final Map<FontInfo, FontProgram> fontPrograms = new HashMap<>();
     private final long id;
+    private volatile boolean readOnly;
 
     /**
      * Creates a new instance of {@link FontSet}.
@@ -94,6 +96,20 @@ public final class FontSet {
      * @return number of added fonts.
      */
     public int addDirectory(String dir, boolean scanSubdirectories) {
+        return addDirectory(dir, scanSubdirectories, null);
+    }
+
+    /**
+     * Add all the fonts in a directory and possibly its subdirectories.
+     * Font descriptors are taken from the index for the files which have not been changed since they were indexed,
+     * other files are parsed and added to the index.
+     *
+     * @param dir                path to directory.
+     * @param scanSubdirectories recursively scan subdirectories if {@code true}.
+     * @param index              index of font descriptors, could be null.
+     * @return number of added fonts.
+     */
+    public int addDirectory(String dir, boolean scanSubdirectories, FontProgramDescriptorIndex index) {
         int count = 0;
         String[] files = FileUtil.listFilesInDirectory(dir, scanSubdirectories);
         if (files == null)
@@ -104,14 +120,16 @@ public final class FontSet {
                 if (".afm".equals(suffix) || ".pfm".equals(suffix)) {
                     // Add only Type 1 fonts with matching .pfb files.
                     String pfb = file.substring(0, file.length() - 4) + ".pfb";
-                    if (FileUtil.fileExists(pfb) && addFont(file)) {
+                    if (FileUtil.fileExists(pfb) && addIndexedFont(file, index)) {
                         count++;
                     }
                 } else if ((".ttf".equals(suffix) || ".otf".equals(suffix) || ".ttc".equals(suffix))
-                        && addFont(file)) {
+                        && addIndexedFont(file, index)) {
                     count++;
                 }
-            } catch (Exception ignored) {
+            } catch (com.itextpdf.io.IOException ignored) {
+                // the file can't be read or isn't a valid font, while the exceptions caused by the state
+                // of the font set, e.g. when it is read only, shall not be hidden
             }
         }
         return count;
@@ -127,6 +145,18 @@ public final class FontSet {
         return addDirectory(dir, false);
     }
 
+    /**
+     * Add all the fonts in a directory using the index of font descriptors.
+     *
+     * @param dir   path to directory.
+     * @param index index of font descriptors, could be null.
+     * @return number of added fonts.
+     * @see #addDirectory(String, boolean, FontProgramDescriptorIndex)
+     */
+    public int addDirectory(String dir, FontProgramDescriptorIndex index) {
+        return addDirectory(dir, false, index);
+    }
+
     /**
      * Add not supported for auto creating FontPrograms.
      * <p>
@@ -352,6 +382,9 @@ public final class FontSet {
     public final boolean addFont(FontInfo fontInfo) {
         // This method MUST be final, to avoid inconsistency with FontSelectorCache.
         // (Yes, FontSet is final. Double check.)
+        if (readOnly) {
+            throw new IllegalStateException("Fonts cannot be added to a FontSet shared between font providers.");
+        }
         if (fontInfo != null && !fonts.contains(fontInfo)) {
             // NOTE! We SHALL NOT replace font, because it will influence on FontSelectorCache.
             // FontSelectorCache reset cache ONLY if number of fonts has been changed,
@@ -451,6 +484,25 @@ public final class FontSet {
 
     //region Internal members
 
+    /**
+     * Prohibits adding fonts to this set, as it is shared between font providers and could be used
+     * from multiple threads.
+     */
+    void makeReadOnly() {
+        readOnly = true;
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    private boolean addIndexedFont(String fontPath, FontProgramDescriptorIndex index) {
+        if (index == null) {
+            return addFont(fontPath);
+        }
+        return addFont(FontInfo.create(fontPath, index.fetchDescriptor(fontPath), null, null, null));
+    }
+
     long getId() {
         return id;
     }
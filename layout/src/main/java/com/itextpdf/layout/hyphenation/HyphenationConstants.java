@@ -45,4 +45,9 @@ package com.itextpdf.layout.hyphenation;
 public class HyphenationConstants {
 
     public static final String HYPHENATION_DEFAULT_RESOURCE = "com/itextpdf/hyph/";
+
+    /**
+     * The extension of the pattern files compiled with {@link HyphenationTreeCompiler}.
+     */
+    public static final String HYPHENATION_COMPILED_EXTENSION = ".hyph";
 }
@@ -0,0 +1,290 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.hyphenation;
+
+import com.itextpdf.io.LogMessageConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads the compact binary form of {@link HyphenationTree}s.
+ * <p>
+ * Parsing the XML pattern files takes hundreds of milliseconds for large languages, most of which is spent on
+ * building and balancing the ternary trees. The binary form stores the resulting arrays of the trees as they are,
+ * so loading it is a plain copy of the arrays. The {@link Hyphenator} looks for a compiled pattern file with
+ * the {@link HyphenationConstants#HYPHENATION_COMPILED_EXTENSION} extension before the XML one, both in
+ * the additional hyphenation directories and in the default resource location.
+ * <p>
+ * The compiled files can be created with {@link #compile(HyphenationTree, OutputStream)}, or for the whole
+ * directory of XML pattern files with the {@link #main(String[])} method.
+ */
+public final class HyphenationTreeCompiler {
+
+    private static final int MAGIC = 0x69487950;
+    private static final int VERSION = 1;
+
+    private static final byte EXCEPTION_STRING = 0;
+    private static final byte EXCEPTION_HYPHEN = 1;
+
+    private HyphenationTreeCompiler() {
+    }
+
+    /**
+     * Compiles every XML pattern file of the source directory into the target directory.
+     *
+     * @param args the source directory of the XML pattern files and the target directory of the compiled files,
+     *             which is the source one if omitted.
+     * @throws IOException if a file can't be read or written, or the patterns can't be parsed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            Logger logger = LoggerFactory.getLogger(HyphenationTreeCompiler.class);
+            logger.error(LogMessageConstant.HYPHENATION_TREE_COMPILER_USAGE);
+            return;
+        }
+        File sourceDirectory = new File(args[0]);
+        File targetDirectory = new File(args.length > 1 ? args[1] : args[0]);
+        File[] files = sourceDirectory.listFiles();
+        if (files == null) {
+            throw new IOException("Can't list the directory " + sourceDirectory);
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (!file.isFile() || !name.endsWith(".xml")) {
+                continue;
+            }
+            HyphenationTree tree = new HyphenationTree();
+            try {
+                tree.loadPatterns(file.getPath());
+            } catch (HyphenationException e) {
+                throw new IOException("Can't parse the patterns of " + file + ": " + e.getMessage());
+            }
+            File target = new File(targetDirectory,
+                    name.substring(0, name.length() - 4) + HyphenationConstants.HYPHENATION_COMPILED_EXTENSION);
+            OutputStream out = new FileOutputStream(target);
+            try {
+                compile(tree, out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the compiled form of the loaded hyphenation tree. The stream is not closed.
+     *
+     * @param tree the hyphenation tree with the patterns loaded.
+     * @param out  the stream to write to.
+     * @throws IOException if the stream can't be written.
+     */
+    public static void compile(HyphenationTree tree, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeTree(tree, data);
+        byte[] values = tree.vspace.getArray();
+        data.writeInt(values.length);
+        data.write(values);
+        writeTree(tree.classmap, data);
+        data.writeInt(tree.stoplist.size());
+        for (Map.Entry<String, List> exception : tree.stoplist.entrySet()) {
+            writeString(exception.getKey(), data);
+            data.writeInt(exception.getValue().size());
+            for (Object item : exception.getValue()) {
+                if (item instanceof Hyphen) {
+                    Hyphen hyphen = (Hyphen) item;
+                    data.writeByte(EXCEPTION_HYPHEN);
+                    writeString(hyphen.preBreak, data);
+                    writeString(hyphen.noBreak, data);
+                    writeString(hyphen.postBreak, data);
+                } else {
+                    data.writeByte(EXCEPTION_STRING);
+                    writeString((String) item, data);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads the hyphenation tree from its compiled form.
+     *
+     * @param compiled the buffer positioned at the start of the compiled form.
+     * @return the hyphenation tree.
+     * @throws HyphenationException if the data is not a compiled hyphenation tree of the supported version.
+     */
+    public static HyphenationTree read(ByteBuffer compiled) throws HyphenationException {
+        try {
+            if (compiled.getInt() != MAGIC) {
+                throw new HyphenationException("Not a compiled hyphenation tree.");
+            }
+            int version = compiled.getInt();
+            if (version != VERSION) {
+                throw new HyphenationException("Unsupported compiled hyphenation tree version " + version + ".");
+            }
+            HyphenationTree tree = new HyphenationTree();
+            readTree(tree, compiled);
+            byte[] values = new byte[readLength(compiled)];
+            compiled.get(values);
+            tree.vspace = new ByteVector(values);
+            readTree(tree.classmap, compiled);
+            int exceptionsCount = readLength(compiled);
+            tree.stoplist = new HashMap<>(exceptionsCount * 4 / 3 + 1);
+            for (int i = 0; i < exceptionsCount; i++) {
+                String word = readString(compiled);
+                int itemsCount = readLength(compiled);
+                List<Object> items = new ArrayList<>(itemsCount);
+                for (int j = 0; j < itemsCount; j++) {
+                    if (compiled.get() == EXCEPTION_HYPHEN) {
+                        items.add(new Hyphen(readString(compiled), readString(compiled), readString(compiled)));
+                    } else {
+                        items.add(readString(compiled));
+                    }
+                }
+                tree.stoplist.put(word, items);
+            }
+            return tree;
+        } catch (BufferUnderflowException e) {
+            throw new HyphenationException("The compiled hyphenation tree is truncated.");
+        }
+    }
+
+    /**
+     * Reads the hyphenation tree from a compiled file. The file is memory mapped, and only the arrays of the tree
+     * are copied to the heap.
+     *
+     * @param file the compiled file.
+     * @return the hyphenation tree.
+     * @throws IOException          if the file can't be read.
+     * @throws HyphenationException if the file is not a compiled hyphenation tree of the supported version.
+     */
+    public static HyphenationTree read(File file) throws IOException, HyphenationException {
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            fis.close();
+        }
+    }
+
+    private static void writeTree(TernaryTree tree, DataOutputStream data) throws IOException {
+        // the nodes are allocated sequentially, the ones after the free node are unused
+        int nodesCount = tree.freenode;
+        data.writeChar(tree.root);
+        data.writeChar(tree.freenode);
+        data.writeInt(tree.length);
+        data.writeInt(nodesCount);
+        writeChars(tree.lo, nodesCount, data);
+        writeChars(tree.hi, nodesCount, data);
+        writeChars(tree.eq, nodesCount, data);
+        writeChars(tree.sc, nodesCount, data);
+        int keysLength = tree.kv.length();
+        data.writeInt(keysLength);
+        writeChars(tree.kv.getArray(), keysLength, data);
+    }
+
+    private static void readTree(TernaryTree tree, ByteBuffer compiled) {
+        tree.root = compiled.getChar();
+        tree.freenode = compiled.getChar();
+        tree.length = compiled.getInt();
+        int nodesCount = readLength(compiled);
+        tree.lo = readChars(compiled, nodesCount);
+        tree.hi = readChars(compiled, nodesCount);
+        tree.eq = readChars(compiled, nodesCount);
+        tree.sc = readChars(compiled, nodesCount);
+        tree.kv = new CharVector(readChars(compiled, readLength(compiled)));
+    }
+
+    private static void writeChars(char[] chars, int length, DataOutputStream data) throws IOException {
+        for (int i = 0; i < length; i++) {
+            data.writeChar(chars[i]);
+        }
+    }
+
+    private static char[] readChars(ByteBuffer compiled, int length) {
+        char[] chars = new char[length];
+        compiled.asCharBuffer().get(chars);
+        ((Buffer) compiled).position(compiled.position() + 2 * length);
+        return chars;
+    }
+
+    private static void writeString(String s, DataOutputStream data) throws IOException {
+        if (s == null) {
+            data.writeInt(-1);
+        } else {
+            data.writeInt(s.length());
+            data.writeChars(s);
+        }
+    }
+
+    private static String readString(ByteBuffer compiled) {
+        int length = compiled.getInt();
+        return length < 0 ? null : new String(readChars(compiled, length));
+    }
+
+    private static int readLength(ByteBuffer compiled) {
+        int length = compiled.getInt();
+        if (length < 0 || length > compiled.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+}
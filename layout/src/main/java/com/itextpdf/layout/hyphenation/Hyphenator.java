@@ -18,6 +18,7 @@
 package com.itextpdf.layout.hyphenation;
 
 import com.itextpdf.io.util.ResourceUtil;
+import com.itextpdf.io.util.StreamUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +26,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -46,9 +48,10 @@ public final class Hyphenator {
      */
     private static Logger log = LoggerFactory.getLogger(Hyphenator.class);
 
-    private static HyphenationTreeCache hTreeCache;
+    private static volatile HyphenationTreeCache hTreeCache;
 
-    private static List<String> additionalHyphenationFileDirectories;
+    // replaced on registration, so that the directories can be iterated without locking
+    private static volatile List<String> additionalHyphenationFileDirectories;
 
     protected String lang;
     protected String country;
@@ -92,10 +95,10 @@ public final class Hyphenator {
      */
     public static void registerAdditionalHyphenationFileDirectory(String directory) {
         synchronized (staticLock) {
-            if (additionalHyphenationFileDirectories == null) {
-                additionalHyphenationFileDirectories = new ArrayList<>();
-            }
-            additionalHyphenationFileDirectories.add(directory);
+            List<String> directories = additionalHyphenationFileDirectories == null
+                    ? new ArrayList<String>() : new ArrayList<>(additionalHyphenationFileDirectories);
+            directories.add(directory);
+            additionalHyphenationFileDirectories = directories;
         }
     }
 
@@ -192,18 +195,33 @@ public final class Hyphenator {
 
         HyphenationTree hTree;
         // first try to find it in the cache
-        hTree = getHyphenationTreeCache().getHyphenationTree(lang, country);
+        hTree = cache.getHyphenationTree(lang, country);
         if (hTree != null) {
             return hTree;
         }
+        // the patterns are loaded once even if several threads request them at the same time
+        synchronized (cache) {
+            hTree = cache.getHyphenationTree(lang, country);
+            if (hTree == null) {
+                hTree = loadHyphenationTree(lang, country, hyphPathNames);
+                if (hTree != null) {
+                    cache.cache(llccKey, hTree);
+                }
+            }
+        }
+        return hTree;
+    }
 
+    private static HyphenationTree loadHyphenationTree(String lang, String country, Map<String, String> hyphPathNames) {
+        HyphenationTree hTree = null;
         String key = HyphenationTreeCache.constructUserKey(lang, country, hyphPathNames);
         if (key == null) {
-            key = llccKey;
+            key = HyphenationTreeCache.constructLlccKey(lang, country);
         }
 
-        if (additionalHyphenationFileDirectories != null) {
-            for (String dir : additionalHyphenationFileDirectories) {
+        List<String> directories = additionalHyphenationFileDirectories;
+        if (directories != null) {
+            for (String dir : directories) {
                 hTree = getHyphenationTree(dir, key);
                 if (hTree != null) {
                     break;
@@ -212,18 +230,21 @@ public final class Hyphenator {
         }
 
         if (hTree == null) {
-            // get from the default directory
+            // get from the default directory, the compiled patterns are preferred
+            InputStream compiledResourceStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE
+                    + key + HyphenationConstants.HYPHENATION_COMPILED_EXTENSION);
+            if (compiledResourceStream != null) {
+                hTree = getCompiledHyphenationTree(compiledResourceStream, key);
+            }
+        }
+
+        if (hTree == null) {
             InputStream defaultHyphenationResourceStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + key + ".xml");
             if (defaultHyphenationResourceStream != null) {
                 hTree = getHyphenationTree(defaultHyphenationResourceStream, key);
             }
         }
 
-        // put it into the pattern cache
-        if (hTree != null) {
-            cache.cache(llccKey, hTree);
-        }
-
         return hTree;
     }
 
@@ -235,6 +256,20 @@ public final class Hyphenator {
      * @return the requested HyphenationTree or null if it is not available
      */
     public static HyphenationTree getHyphenationTree(String searchDirectory, String key) {
+        // try the compiled file first
+        File compiledFile = new File(searchDirectory, key + HyphenationConstants.HYPHENATION_COMPILED_EXTENSION);
+        if (compiledFile.isFile()) {
+            try {
+                return HyphenationTreeCompiler.read(compiledFile);
+            } catch (HyphenationException ex) {
+                log.error("Can't load compiled patterns from file " + compiledFile + ": " + ex.getMessage());
+            } catch (IOException ioe) {
+                if (log.isDebugEnabled()) {
+                    log.debug("I/O problem while trying to load " + compiledFile + ": " + ioe.getMessage());
+                }
+            }
+        }
+
         // try the raw XML file
         String name = key + ".xml";
         try {
@@ -276,6 +311,23 @@ public final class Hyphenator {
         return hTree;
     }
 
+    private static HyphenationTree getCompiledHyphenationTree(InputStream in, String key) {
+        try {
+            return HyphenationTreeCompiler.read(ByteBuffer.wrap(StreamUtil.inputStreamToArray(in)));
+        } catch (HyphenationException ex) {
+            log.error("Can't load compiled patterns for " + key + ": " + ex.getMessage());
+        } catch (IOException ioe) {
+            if (log.isDebugEnabled()) {
+                log.debug("I/O problem while trying to load compiled patterns for " + key + ": " + ioe.getMessage());
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (Exception ignored) {}
+        }
+        return null;
+    }
+
     /**
      * Hyphenates a word.
      *
@@ -120,6 +120,11 @@ public final class Property {
     public static final int FONT_SIZE = 24;
     public static final int FORCED_PLACEMENT = 26;
     public static final int FULL = 25;
+    /**
+     * Value is a {@link com.itextpdf.layout.renderer.GlyphLineCache}, which keeps converted and shaped text
+     * to be reused by text renderers with the same text and font.
+     */
+    public static final int GLYPH_LINE_CACHE = 121;
     public static final int HEIGHT = 27;
     public static final int HORIZONTAL_ALIGNMENT = 28;
     public static final int HORIZONTAL_BORDER_SPACING = 115;
@@ -133,6 +138,11 @@ public final class Property {
     public static final int ITALIC_SIMULATION = 31;
     public static final int KEEP_TOGETHER = 32;
     public static final int KEEP_WITH_NEXT = 81;
+    /**
+     * Value is a {@link com.itextpdf.layout.renderer.LayoutResultCache}, which keeps the laid out and drawn content
+     * of an element added to a {@link com.itextpdf.layout.RootElement} to be reused when the element is added again.
+     */
+    public static final int LAYOUT_RESULT_CACHE = 122;
     public static final int LEADING = 33;
     public static final int LEFT = 34;
     public static final int LINE_DRAWER = 35;
@@ -217,7 +227,7 @@ public final class Property {
      * related to textual operations. Indicates whether or not this type of property is inheritable.
      */
     private static final boolean[] INHERITED_PROPERTIES;
-    private static final int MAX_INHERITED_PROPERTY_ID = 119;
+    private static final int MAX_INHERITED_PROPERTY_ID = 121;
 
     static {
         INHERITED_PROPERTIES = new boolean[MAX_INHERITED_PROPERTY_ID + 1];
@@ -239,6 +249,7 @@ public final class Property {
         INHERITED_PROPERTIES[Property.FONT_STYLE] = true;
         INHERITED_PROPERTIES[Property.FONT_WEIGHT] = true;
         INHERITED_PROPERTIES[Property.FORCED_PLACEMENT] = true;
+        INHERITED_PROPERTIES[Property.GLYPH_LINE_CACHE] = true;
         INHERITED_PROPERTIES[Property.HYPHENATION] = true;
         INHERITED_PROPERTIES[Property.ITALIC_SIMULATION] = true;
         INHERITED_PROPERTIES[Property.KEEP_TOGETHER] = true;
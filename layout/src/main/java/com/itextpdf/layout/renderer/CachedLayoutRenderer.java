@@ -0,0 +1,223 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.element.AbstractElement;
+import com.itextpdf.layout.element.IElement;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
+import com.itextpdf.layout.layout.PositionedLayoutContext;
+import com.itextpdf.layout.minmaxwidth.MinMaxWidth;
+import com.itextpdf.layout.property.Property;
+
+/**
+ * Renderer of an element with the {@link Property#LAYOUT_RESULT_CACHE} property, which is added to
+ * a {@link RootRenderer}. It reuses the content cached by the {@link LayoutResultCache} if the element has
+ * already been laid out with the same available width, otherwise it creates the renderer subtree of the element,
+ * lays it out and draws it into a form XObject, which is then stored in the cache.
+ */
+public class CachedLayoutRenderer extends AbstractRenderer {
+
+    private final IElement element;
+    private final LayoutResultCache cache;
+    private final PdfDocument pdfDocument;
+    private IRenderer renderer;
+    private LayoutResultCache.CachedLayout cachedLayout;
+    private boolean storeLayout;
+    private float layoutWidth;
+    private float layoutOffsetX;
+    private float layoutOffsetTop;
+
+    /**
+     * Creates a renderer for the element, which uses the cache set as the {@link Property#LAYOUT_RESULT_CACHE}
+     * property of the element.
+     *
+     * @param modelElement the element to be rendered.
+     * @param cache        the cache of the element's layout results.
+     * @param pdfDocument  the document the element is added to.
+     */
+    public CachedLayoutRenderer(IElement modelElement, LayoutResultCache cache, PdfDocument pdfDocument) {
+        super(modelElement);
+        this.element = modelElement;
+        this.cache = cache;
+        this.pdfDocument = pdfDocument;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LayoutResult layout(LayoutContext layoutContext) {
+        cachedLayout = null;
+        storeLayout = false;
+        Rectangle area = layoutContext.getArea().getBBox();
+        boolean cacheable = isCacheable(layoutContext);
+        if (cacheable) {
+            LayoutResultCache.CachedLayout layout = cache.get(pdfDocument, area.getWidth());
+            if (layout != null && layout.height <= area.getHeight()) {
+                cachedLayout = layout;
+                renderer = null;
+                occupiedArea = new LayoutArea(layoutContext.getArea().getPageNumber(), new Rectangle(area.getX() + layout.offsetX,
+                        area.getTop() - layout.offsetTop - layout.height, layout.width, layout.height));
+                return new LayoutResult(LayoutResult.FULL, occupiedArea.clone(), null, null);
+            }
+        }
+
+        LayoutResult result = getRenderer().setParent(parent).layout(layoutContext);
+        if (result.getStatus() != LayoutResult.FULL) {
+            return result;
+        }
+        occupiedArea = renderer.getOccupiedArea();
+        if (result.getSplitRenderer() == renderer) {
+            result.setSplitRenderer(this);
+        }
+        // a different split renderer is drawn instead of this one, e.g. a renderer of an element with reduced height
+        if (cacheable && result.getAreaBreak() == null && (result.getSplitRenderer() == null || result.getSplitRenderer() == this)
+                && result.getOccupiedArea().getBBox().equalsWithEpsilon(occupiedArea.getBBox())) {
+            Rectangle occupiedBBox = occupiedArea.getBBox();
+            storeLayout = true;
+            layoutWidth = area.getWidth();
+            layoutOffsetX = occupiedBBox.getX() - area.getX();
+            layoutOffsetTop = area.getTop() - occupiedBBox.getTop();
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void draw(DrawContext drawContext) {
+        PdfDocument document = drawContext.getDocument();
+        Rectangle occupiedBBox = occupiedArea.getBBox();
+        if (cachedLayout != null) {
+            drawContext.getCanvas().addXObject(cachedLayout.xObject, occupiedBBox.getX() - cachedLayout.originX,
+                    occupiedBBox.getY() - cachedLayout.originY);
+        } else if (storeLayout && document == pdfDocument) {
+            // the content may be drawn outside of the occupied area, e.g. overflowing content or outlines
+            Rectangle formBBox = occupiedBBox.clone();
+            int pageNumber = occupiedArea.getPageNumber();
+            if (pageNumber > 0 && pageNumber <= document.getNumberOfPages()) {
+                formBBox = Rectangle.getCommonRectangle(formBBox, document.getPage(pageNumber).getMediaBox());
+            }
+            PdfFormXObject xObject = new PdfFormXObject(formBBox);
+            renderer.draw(new DrawContext(document, new PdfCanvas(xObject, document), false));
+            drawContext.getCanvas().addXObject(xObject, 0, 0);
+            cache.put(layoutWidth, new LayoutResultCache.CachedLayout(document, xObject, layoutOffsetX, layoutOffsetTop,
+                    occupiedBBox.getWidth(), occupiedBBox.getHeight(), occupiedBBox.getX(), occupiedBBox.getY()));
+        } else {
+            renderer.draw(drawContext);
+        }
+        flushed = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void move(float dxRight, float dyUp) {
+        if (renderer != null) {
+            // the occupied area is shared with the wrapped renderer
+            renderer.move(dxRight, dyUp);
+        } else {
+            occupiedArea.getBBox().moveRight(dxRight);
+            occupiedArea.getBBox().moveUp(dyUp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MinMaxWidth getMinMaxWidth() {
+        IRenderer wrapped = getRenderer();
+        return wrapped instanceof AbstractRenderer ? ((AbstractRenderer) wrapped).getMinMaxWidth() : super.getMinMaxWidth();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IRenderer getNextRenderer() {
+        return new CachedLayoutRenderer(element, cache, pdfDocument);
+    }
+
+    private IRenderer getRenderer() {
+        if (renderer == null) {
+            renderer = element.createRendererSubTree();
+        }
+        return renderer;
+    }
+
+    private boolean isCacheable(LayoutContext layoutContext) {
+        return !(layoutContext instanceof PositionedLayoutContext)
+                && (layoutContext.getFloatRendererAreas() == null || layoutContext.getFloatRendererAreas().isEmpty())
+                && layoutContext.getMarginsCollapseInfo() == null
+                && !FloatingHelper.isRendererFloating(this)
+                && isStaticLayout()
+                && !hasProperty(Property.TRANSFORM)
+                && getProperty(Property.TAGGING_HELPER) == null
+                && !hasInteractiveContent(element);
+    }
+
+    private static boolean hasInteractiveContent(IElement element) {
+        if (element.hasProperty(Property.LINK_ANNOTATION) || element.hasProperty(Property.DESTINATION)
+                || element.hasProperty(Property.ACTION)) {
+            return true;
+        }
+        if (element instanceof AbstractElement) {
+            for (IElement child : ((AbstractElement<?>) element).getChildren()) {
+                if (hasInteractiveContent(child)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
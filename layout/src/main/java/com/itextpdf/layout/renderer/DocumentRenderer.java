@@ -67,6 +67,9 @@ public class DocumentRenderer extends RootRenderer {
     protected Document document;
     protected List<Integer> wrappedContentPage = new ArrayList<>();
 
+    private int addChildDepth = 0;
+    private int streamedPagesCount = 0;
+
     public DocumentRenderer(Document document) {
         this(document, true);
     }
@@ -77,6 +80,51 @@ public class DocumentRenderer extends RootRenderer {
         this.modelElement = document;
     }
 
+    /**
+     * Enables or disables streaming layout. In streaming layout mode the renderers of an element are released
+     * as soon as their content is drawn, even if the element itself spans many pages, and each page is flushed
+     * as soon as the element which finishes it has been placed. This way the memory consumption is proportional
+     * to a page of content plus the content which is yet to be laid out, rather than to the whole document.
+     * <p>
+     * Streaming layout requires immediate flush. Note that all the pages before the current one are flushed
+     * in this mode, so they cannot be drawn upon later, e.g. with elements having {@link Property#PAGE_NUMBER} set.
+     *
+     * @param streamingLayout true to enable streaming layout
+     * @return this {@link DocumentRenderer} instance
+     */
+    public DocumentRenderer setStreamingLayout(boolean streamingLayout) {
+        if (streamingLayout && !immediateFlush) {
+            throw new IllegalStateException("Streaming layout requires immediate flush.");
+        }
+        this.streamingLayout = streamingLayout;
+        return this;
+    }
+
+    /**
+     * Checks whether streaming layout is enabled.
+     *
+     * @return true if streaming layout is enabled
+     * @see #setStreamingLayout(boolean)
+     */
+    public boolean isStreamingLayout() {
+        return streamingLayout;
+    }
+
+    @Override
+    public void addChild(IRenderer renderer) {
+        // Nested calls add waiting floating renderers while the outer element is being laid out,
+        // and the outer element might still return to the previous page.
+        addChildDepth++;
+        try {
+            super.addChild(renderer);
+        } finally {
+            addChildDepth--;
+        }
+        if (streamingLayout && addChildDepth == 0) {
+            flushFinishedPages();
+        }
+    }
+
     @Override
     public LayoutArea getOccupiedArea() {
         throw new IllegalStateException("Not applicable for DocumentRenderer");
@@ -89,7 +137,7 @@ public class DocumentRenderer extends RootRenderer {
      */
     @Override
     public IRenderer getNextRenderer() {
-        return new DocumentRenderer(document, immediateFlush);
+        return new DocumentRenderer(document, immediateFlush).setStreamingLayout(streamingLayout);
     }
 
     protected LayoutArea updateCurrentArea(LayoutResult overflowResult) {
@@ -139,7 +187,9 @@ public class DocumentRenderer extends RootRenderer {
             boolean wrapOldContent = pdfDocument.getReader() != null && pdfDocument.getWriter() != null &&
                     correspondingPage.getContentStreamCount() > 0 && correspondingPage.getLastContentStream().getLength() > 0 &&
                     !wrappedContentPage.contains(pageNum) && pdfDocument.getNumberOfPages() >= pageNum;
-            wrappedContentPage.add(pageNum);
+            if (pdfDocument.getReader() != null && !wrappedContentPage.contains(pageNum)) {
+                wrappedContentPage.add(pageNum);
+            }
 
             if (pdfDocument.isTagged()) {
                 pdfDocument.getTagStructureContext().getAutoTaggingPointer().setPageForTagging(correspondingPage);
@@ -180,6 +230,18 @@ public class DocumentRenderer extends RootRenderer {
                 pageSize.getHeight() - bottomMargin - topMargin);
     }
 
+    private void flushFinishedPages() {
+        PdfDocument pdfDocument = document.getPdfDocument();
+        int lastFinishedPage = Math.min(currentPageNumber - 1, pdfDocument.getNumberOfPages());
+        for (int pageNum = streamedPagesCount + 1; pageNum <= lastFinishedPage; pageNum++) {
+            PdfPage page = pdfDocument.getPage(pageNum);
+            if (!page.isFlushed()) {
+                page.flush();
+            }
+        }
+        streamedPagesCount = Math.max(streamedPagesCount, lastFinishedPage);
+    }
+
     private void moveToNextPage() {
         // We don't flush this page immediately, but only flush previous one because of manipulations with areas in case
         // of keepTogether property.
@@ -0,0 +1,262 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.layout.property.FontKerning;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of the glyph lines created by {@link TextRenderer}s, to be set as {@link com.itextpdf.layout.property.Property#GLYPH_LINE_CACHE}
+ * on a {@link com.itextpdf.layout.Document} or on any other element.
+ * <p>
+ * Converting text to glyphs and applying OpenType features (shaping) is repeated for every text renderer,
+ * even if the same text has been laid out with the same font many times, e.g. labels of a table
+ * or of a statement. The cache keeps the results of both steps, so that repetitive text skips them.
+ * The cached results do not depend on the font size, they are reused for the same {@link PdfFont} instance only.
+ * As {@link PdfFont}s are bound to a document, the cache is effectively per-document, though it is safe to share it
+ * between documents and threads: the fonts are weakly referenced and do not outlive their documents because
+ * of the cache.
+ * <p>
+ * The number of cached lines per font is bounded, the least recently used ones are evicted.
+ * Long texts are not cached, since they are unlikely to be repeated.
+ */
+public class GlyphLineCache {
+
+    private static final int DEFAULT_MAX_ENTRIES_PER_FONT = 4096;
+    private static final int DEFAULT_MAX_TEXT_LENGTH = 256;
+
+    private final Map<PdfFont, FontGlyphLines> fonts = new WeakHashMap<>();
+    private final int maxEntriesPerFont;
+    private final int maxTextLength;
+
+    /**
+     * Creates a new cache which keeps up to 4096 lines per font of up to 256 characters each.
+     */
+    public GlyphLineCache() {
+        this(DEFAULT_MAX_ENTRIES_PER_FONT, DEFAULT_MAX_TEXT_LENGTH);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntriesPerFont the maximum number of cached converted and shaped lines per font.
+     * @param maxTextLength     the maximum number of characters (or glyphs) in a cached line.
+     */
+    public GlyphLineCache(int maxEntriesPerFont, int maxTextLength) {
+        if (maxEntriesPerFont <= 0) {
+            throw new IllegalArgumentException("maxEntriesPerFont must be positive.");
+        }
+        this.maxEntriesPerFont = maxEntriesPerFont;
+        this.maxTextLength = maxTextLength;
+    }
+
+    /**
+     * Gets the number of currently cached lines, both converted and shaped.
+     *
+     * @return the number of cached lines.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (FontGlyphLines lines : fonts.values()) {
+            size += lines.converted.size() + lines.shaped.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the cached lines.
+     */
+    public synchronized void clear() {
+        fonts.clear();
+    }
+
+    /**
+     * Converts the text to glyphs as {@link PdfFont#createGlyphLine(String)} does, reusing the previous conversion
+     * of the same text with the same font.
+     *
+     * @param font font to convert the text with.
+     * @param text text to convert.
+     * @return a new glyph line, which can be modified by the caller.
+     */
+    GlyphLine convertToGlyphLine(PdfFont font, String text) {
+        if (text.length() > maxTextLength) {
+            return font.createGlyphLine(text);
+        }
+        GlyphLine cached;
+        synchronized (this) {
+            cached = getFontGlyphLines(font).converted.get(text);
+        }
+        if (cached == null) {
+            cached = font.createGlyphLine(text);
+            synchronized (this) {
+                getFontGlyphLines(font).converted.put(text, cached);
+            }
+        }
+        return cached.copy(cached.start, cached.end);
+    }
+
+    /**
+     * Creates the key to look up the shaping result of the whole line, or {@code null} if the line is not cacheable.
+     */
+    ShapingKey createShapingKey(GlyphLine text, Character.UnicodeScript script, Object typographyConfig,
+                                FontKerning fontKerning) {
+        if (text.start != 0 || text.end != text.size() || text.size() > maxTextLength) {
+            return null;
+        }
+        return new ShapingKey(text.copy(0, text.size()), script, typographyConfig, fontKerning);
+    }
+
+    ShapingResult getShapingResult(PdfFont font, ShapingKey key) {
+        synchronized (this) {
+            return getFontGlyphLines(font).shaped.get(key);
+        }
+    }
+
+    void putShapingResult(PdfFont font, ShapingKey key, GlyphLine shapedText, boolean bidiScriptShaped) {
+        ShapingResult result = new ShapingResult(copyShapedLine(shapedText), bidiScriptShaped);
+        synchronized (this) {
+            getFontGlyphLines(font).shaped.put(key, result);
+        }
+    }
+
+    /**
+     * Copies the shaped line together with its positioned glyphs. Unlike the glyphs of the font, the positioned
+     * glyphs created by shaping are modified afterwards, e.g. bidi reordering updates their anchor delta.
+     */
+    private static GlyphLine copyShapedLine(GlyphLine line) {
+        GlyphLine copy = line.copy(line.start, line.end);
+        for (int i = 0; i < copy.size(); i++) {
+            Glyph glyph = copy.get(i);
+            if (glyph.hasOffsets()) {
+                copy.set(i, new Glyph(glyph));
+            }
+        }
+        return copy;
+    }
+
+    private FontGlyphLines getFontGlyphLines(PdfFont font) {
+        FontGlyphLines lines = fonts.get(font);
+        if (lines == null) {
+            lines = new FontGlyphLines(maxEntriesPerFont);
+            fonts.put(font, lines);
+        }
+        return lines;
+    }
+
+    static final class ShapingKey {
+        private final GlyphLine text;
+        private final Character.UnicodeScript script;
+        private final Object typographyConfig;
+        private final FontKerning fontKerning;
+        private final int hash;
+
+        ShapingKey(GlyphLine text, Character.UnicodeScript script, Object typographyConfig, FontKerning fontKerning) {
+            this.text = text;
+            this.script = script;
+            this.typographyConfig = typographyConfig;
+            this.fontKerning = fontKerning;
+            int result = text.hashCode();
+            result = 31 * result + (script != null ? script.hashCode() : 0);
+            result = 31 * result + (typographyConfig != null ? typographyConfig.hashCode() : 0);
+            result = 31 * result + (fontKerning != null ? fontKerning.hashCode() : 0);
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ShapingKey that = (ShapingKey) o;
+            return hash == that.hash
+                    && script == that.script
+                    && fontKerning == that.fontKerning
+                    && (typographyConfig != null ? typographyConfig.equals(that.typographyConfig) : that.typographyConfig == null)
+                    && text.equals(that.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    static final class ShapingResult {
+        private final GlyphLine shapedText;
+        private final boolean bidiScriptShaped;
+
+        ShapingResult(GlyphLine shapedText, boolean bidiScriptShaped) {
+            this.shapedText = shapedText;
+            this.bidiScriptShaped = bidiScriptShaped;
+        }
+
+        /**
+         * Gets a new copy of the shaped line, which can be modified by the caller.
+         */
+        GlyphLine getShapedText() {
+            return copyShapedLine(shapedText);
+        }
+
+        /**
+         * Whether an Arabic or Hebrew script range has been shaped, which requires bidi processing of the line.
+         */
+        boolean isBidiScriptShaped() {
+            return bidiScriptShaped;
+        }
+    }
+
+    private static final class FontGlyphLines {
+        final Map<String, GlyphLine> converted;
+        final Map<ShapingKey, ShapingResult> shaped;
+
+        FontGlyphLines(int maxEntries) {
+            converted = new LruMap<>(maxEntries);
+            shaped = new LruMap<>(maxEntries);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+import java.util.Map;
+
+/**
+ * Cache of the layout results and the drawn content of an element, to be set as
+ * {@link com.itextpdf.layout.property.Property#LAYOUT_RESULT_CACHE} on an element which is added
+ * to a {@link com.itextpdf.layout.RootElement} many times, e.g. a block repeated on every page of a statement.
+ * <p>
+ * The first time the element is laid out with a given available width, it is laid out and drawn as usual,
+ * but into a {@link PdfFormXObject}. Following additions of the element with the same available width,
+ * which fit into the remaining area, skip the layout and only reference the same form XObject again,
+ * so that neither the layout is repeated nor the content is written to the document again.
+ * <p>
+ * The cache is meant to be used for a single element of a single document. The element must not be changed
+ * after it has been added to the document for the first time, otherwise the stale content is reused.
+ * The content is not reused in the following cases, in which the element is laid out and drawn as usual:
+ * <ul>
+ * <li>the document is tagged, since the content of the form XObject would be tagged only once;
+ * <li>the element or any of its descendants has a link annotation, a destination or an action;
+ * <li>the element is floating, positioned, transformed, or is laid out with collapsing margins or next to floats;
+ * <li>the element doesn't fit into the area as a whole and is split.
+ * </ul>
+ * The number of cached widths is bounded, the least recently used ones are evicted.
+ */
+public class LayoutResultCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final Map<Float, CachedLayout> layouts;
+
+    /**
+     * Creates a new cache which keeps the content laid out with up to 16 distinct widths.
+     */
+    public LayoutResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries the maximum number of distinct widths for which the content is kept.
+     */
+    public LayoutResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        }
+        this.layouts = new LruMap<>(maxEntries);
+    }
+
+    /**
+     * Gets the number of currently cached layouts.
+     *
+     * @return the number of cached layouts.
+     */
+    public synchronized int size() {
+        return layouts.size();
+    }
+
+    /**
+     * Removes all the cached layouts.
+     */
+    public synchronized void clear() {
+        layouts.clear();
+    }
+
+    synchronized CachedLayout get(PdfDocument document, float width) {
+        CachedLayout layout = layouts.get(width);
+        return layout != null && layout.document == document ? layout : null;
+    }
+
+    synchronized void put(float width, CachedLayout layout) {
+        layouts.put(width, layout);
+    }
+
+    static final class CachedLayout {
+        final PdfDocument document;
+        final PdfFormXObject xObject;
+        // position and size of the occupied area relatively to the top left corner of the layout area
+        final float offsetX;
+        final float offsetTop;
+        final float width;
+        final float height;
+        // position of the occupied area at which the form XObject content has been drawn
+        final float originX;
+        final float originY;
+
+        CachedLayout(PdfDocument document, PdfFormXObject xObject, float offsetX, float offsetTop, float width,
+                     float height, float originX, float originY) {
+            this.document = document;
+            this.xObject = xObject;
+            this.offsetX = offsetX;
+            this.offsetTop = offsetTop;
+            this.width = width;
+            this.height = height;
+            this.originX = originX;
+            this.originY = originY;
+        }
+    }
+}
@@ -66,6 +66,12 @@ import java.util.List;
 public abstract class RootRenderer extends AbstractRenderer {
 
     protected boolean immediateFlush = true;
+    /**
+     * If true, renderers which were split and drawn are released as soon as possible,
+     * so that the memory consumption doesn't depend on the total size of the laid out element.
+     * Only has an effect together with {@link #immediateFlush}.
+     */
+    protected boolean streamingLayout = false;
     protected RootLayoutArea currentArea;
     protected int currentPageNumber;
     protected List<IRenderer> waitingDrawingElements = new ArrayList<>();
@@ -143,6 +149,9 @@ public abstract class RootRenderer extends AbstractRenderer {
                         break;
                     } else {
                         processRenderer(result.getSplitRenderer(), resultRenderers);
+                        if (streamingLayout && immediateFlush) {
+                            releaseSplitRenderer(renderer, result);
+                        }
                         if (nextStoredArea != null) {
                             currentArea = nextStoredArea;
                             currentPageNumber = nextStoredArea.getPageNumber();
@@ -383,6 +392,18 @@ public abstract class RootRenderer extends AbstractRenderer {
         }
     }
 
+    /**
+     * Once the split part of a renderer is drawn, the original renderer is not used anymore: the rest
+     * of its content is continued by the overflow renderer. However it still might be referenced
+     * (e.g. by the element adding routine), so its children, which include already drawn content, are dropped.
+     */
+    private static void releaseSplitRenderer(IRenderer renderer, LayoutResult result) {
+        if (renderer instanceof AbstractRenderer && renderer != result.getSplitRenderer() && renderer != result.getOverflowRenderer()) {
+            ((AbstractRenderer) renderer).childRenderers = new ArrayList<>();
+            ((AbstractRenderer) renderer).positionedRenderers = new ArrayList<>();
+        }
+    }
+
     private void processWaitingKeepWithNextElement(IRenderer renderer) {
         if (keepWithNextHangingRenderer != null) {
             LayoutArea rest = currentArea.clone();
@@ -569,8 +569,25 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         updateFontAndText();
         Character.UnicodeScript script = this.<Character.UnicodeScript>getProperty(Property.FONT_SCRIPT);
         if (!otfFeaturesApplied && TypographyUtils.isPdfCalligraphAvailable() && text.start < text.end) {
+            Object typographyConfig = this.<Object>getProperty(Property.TYPOGRAPHY_CONFIG);
+            FontKerning fontKerning = (FontKerning) this.<FontKerning>getProperty(Property.FONT_KERNING, FontKerning.NO);
+            GlyphLineCache glyphLineCache = this.<GlyphLineCache>getProperty(Property.GLYPH_LINE_CACHE);
+            GlyphLineCache.ShapingKey shapingKey = null;
+            if (glyphLineCache != null) {
+                shapingKey = glyphLineCache.createShapingKey(text, script, typographyConfig, fontKerning);
+                GlyphLineCache.ShapingResult shapingResult = shapingKey != null
+                        ? glyphLineCache.getShapingResult(font, shapingKey) : null;
+                if (shapingResult != null) {
+                    text = shapingResult.getShapedText();
+                    if (shapingResult.isBidiScriptShaped() && parent instanceof LineRenderer) {
+                        setProperty(Property.BASE_DIRECTION, BaseDirection.DEFAULT_BIDI);
+                    }
+                    otfFeaturesApplied = true;
+                    return;
+                }
+            }
+            boolean bidiScriptShaped = false;
             if (hasOtfFont()) {
-                Object typographyConfig = this.<Object>getProperty(Property.TYPOGRAPHY_CONFIG);
                 Collection<Character.UnicodeScript> supportedScripts = null;
         	    if (typographyConfig != null) {
     	            supportedScripts = TypographyUtils.getSupportedScripts(typographyConfig);
@@ -618,7 +635,10 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                     text.start = shapingRangeStart;
                     text.end = scriptsRange.rangeEnd;
 
-                    if ((scriptsRange.script == Character.UnicodeScript.ARABIC || scriptsRange.script == Character.UnicodeScript.HEBREW) && parent instanceof LineRenderer) {
+                    boolean bidiScript = scriptsRange.script == Character.UnicodeScript.ARABIC
+                            || scriptsRange.script == Character.UnicodeScript.HEBREW;
+                    bidiScriptShaped = bidiScriptShaped || bidiScript;
+                    if (bidiScript && parent instanceof LineRenderer) {
                         // It's safe to set here BASE_DIRECTION to TextRenderer without additional checks, because
                         // by convention this property makes sense only if it's applied to LineRenderer or it's
                         // parents (Paragraph or above).
@@ -635,11 +655,13 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                 text.end = origTextEnd + delta;
             }
 
-            FontKerning fontKerning = (FontKerning) this.<FontKerning>getProperty(Property.FONT_KERNING, FontKerning.NO);
             if (fontKerning == FontKerning.YES) {
                 TypographyUtils.applyKerning(font.getFontProgram(), text);
             }
 
+            if (shapingKey != null) {
+                glyphLineCache.putShapingResult(font, shapingKey, text, bidiScriptShaped);
+            }
             otfFeaturesApplied = true;
         }
     }
@@ -1079,6 +1101,10 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
     }
 
     private GlyphLine convertToGlyphLine(String text) {
+        GlyphLineCache glyphLineCache = this.<GlyphLineCache>getProperty(Property.GLYPH_LINE_CACHE);
+        if (glyphLineCache != null) {
+            return glyphLineCache.convertToGlyphLine(font, text);
+        }
         return font.createGlyphLine(text);
     }
 
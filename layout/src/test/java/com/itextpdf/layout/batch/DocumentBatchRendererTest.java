@@ -0,0 +1,237 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.batch;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Category(UnitTest.class)
+public class DocumentBatchRendererTest extends ExtendedITextTest {
+
+    private static final String destinationFolder = "./target/test/com/itextpdf/layout/batch/DocumentBatchRendererTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void renderDocumentsTest() throws Exception {
+        List<LetterJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            jobs.add(new LetterJob(i, null));
+        }
+        DocumentBatchStatistics statistics = render(Executors.newFixedThreadPool(4), new DocumentBatchResources(), jobs);
+
+        Assert.assertEquals(24, statistics.getDocumentsCount());
+        Assert.assertEquals(0, statistics.getFailedDocumentsCount());
+        long pagesCount = 0;
+        for (LetterJob job : jobs) {
+            PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(job.output.toByteArray())));
+            Assert.assertTrue(document.getNumberOfPages() >= 1);
+            pagesCount += document.getNumberOfPages();
+            document.close();
+        }
+        Assert.assertEquals(pagesCount, statistics.getPagesCount());
+        Assert.assertTrue(statistics.getMinLatencyNanos() > 0);
+        Assert.assertTrue(statistics.getMinLatencyNanos() <= statistics.getLatencyPercentileNanos(50));
+        Assert.assertTrue(statistics.getLatencyPercentileNanos(50) <= statistics.getMaxLatencyNanos());
+        Assert.assertTrue(statistics.getDocumentsPerSecond() > 0);
+    }
+
+    @Test
+    @LogMessages(messages = {@LogMessage(messageTemplate = LogMessageConstant.DOCUMENT_BATCH_JOB_FAILED)})
+    public void failedJobTest() throws Exception {
+        List<LetterJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            jobs.add(new LetterJob(i, null));
+        }
+        LetterJob failingJob = new LetterJob(5, null) {
+            @Override
+            public void addContent(Document document) throws IOException {
+                super.addContent(document);
+                throw new IOException("The data of the letter is not available.");
+            }
+        };
+        jobs.add(2, failingJob);
+        DocumentBatchStatistics statistics = render(Executors.newFixedThreadPool(2), new DocumentBatchResources(), jobs);
+
+        Assert.assertEquals(5, statistics.getDocumentsCount());
+        Assert.assertEquals(1, statistics.getFailedDocumentsCount());
+        Assert.assertSame(failingJob, statistics.getFailedJobs().get(0));
+    }
+
+    @Test
+    public void sharedImageTest() throws Exception {
+        String imagePath = destinationFolder + "image.png";
+        ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "png", new File(imagePath));
+        DocumentBatchResources resources = new DocumentBatchResources();
+        ImageData imageData = resources.getImageData(imagePath);
+        Assert.assertSame(imageData, resources.getImageData(imagePath));
+
+        List<LetterJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            jobs.add(new LetterJob(i, imageData));
+        }
+        DocumentBatchStatistics statistics = render(Executors.newFixedThreadPool(4), resources, jobs);
+        Assert.assertEquals(8, statistics.getDocumentsCount());
+    }
+
+    @Test
+    public void fontProviderIsCreatedPerDocumentTest() {
+        Assert.assertNull(new DocumentBatchResources().createFontProvider());
+        DocumentBatchResources resources = new DocumentBatchResources(new FontProvider());
+        FontProvider first = resources.createFontProvider();
+        FontProvider second = resources.createFontProvider();
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getFontSet(), second.getFontSet());
+    }
+
+    @Test
+    public void latencyPercentilesTest() {
+        long[] latencies = new long[] {50, 10, 40, 20, 30, 100, 90, 80, 60, 70};
+        DocumentBatchStatistics statistics = new DocumentBatchStatistics(10, 20, 1000000000L, latencies,
+                Collections.<IDocumentBatchJob>emptyList());
+        Assert.assertEquals(10, statistics.getMinLatencyNanos());
+        Assert.assertEquals(100, statistics.getMaxLatencyNanos());
+        Assert.assertEquals(55, statistics.getMeanLatencyNanos());
+        Assert.assertEquals(50, statistics.getLatencyPercentileNanos(50));
+        Assert.assertEquals(100, statistics.getLatencyPercentileNanos(99));
+        Assert.assertEquals(10, statistics.getLatencyPercentileNanos(0));
+        Assert.assertEquals(10.0, statistics.getDocumentsPerSecond(), 1e-6);
+        Assert.assertEquals(20.0, statistics.getPagesPerSecond(), 1e-6);
+        // the statistics keep their own copy of the latencies
+        Arrays.fill(latencies, 0);
+        Assert.assertEquals(100, statistics.getMaxLatencyNanos());
+    }
+
+    @Test
+    public void emptyBatchTest() throws Exception {
+        DocumentBatchStatistics statistics = render(Executors.newSingleThreadExecutor(), new DocumentBatchResources(),
+                Collections.<IDocumentBatchJob>emptyList());
+        Assert.assertEquals(0, statistics.getDocumentsCount());
+        Assert.assertEquals(0, statistics.getLatencyPercentileNanos(50));
+        Assert.assertEquals(0, statistics.getMeanLatencyNanos());
+    }
+
+    private static DocumentBatchStatistics render(ExecutorService executor, DocumentBatchResources resources,
+            List<? extends IDocumentBatchJob> jobs) throws InterruptedException {
+        try {
+            return new DocumentBatchRenderer(executor, resources).render(jobs);
+        } finally {
+            // the renderer doesn't own the executor
+            executor.shutdown();
+        }
+    }
+
+    private static class LetterJob implements IDocumentBatchJob {
+        final int index;
+        final ImageData imageData;
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        LetterJob(int index, ImageData imageData) {
+            this.index = index;
+            this.imageData = imageData;
+        }
+
+        @Override
+        public PdfDocument createPdfDocument() {
+            return new PdfDocument(new PdfWriter(output));
+        }
+
+        @Override
+        public void addContent(Document document) throws IOException {
+            document.setFont(createFont(document.getPdfDocument()));
+            if (imageData != null) {
+                document.add(new Image(imageData));
+            }
+            // letters of different length
+            int linesCount = 30 + (index % 3) * 50;
+            for (int i = 0; i < linesCount; i++) {
+                document.add(new Paragraph("\u0001\u0002 \u0003 " + index));
+            }
+        }
+    }
+
+    private static PdfFont createFont(PdfDocument pdfDocument) {
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDocument, false);
+        // codes below 33 are resolved by Type 3 fonts without a glyph list lookup
+        for (char c = 1; c <= 3; c++) {
+            font.addGlyph(c, 500, 0, 0, 500, 700).rectangle(0, 0, 500, 700).fill();
+        }
+        font.addGlyph(' ', 250, 0, 0, 0, 0);
+        return font;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.font;
+
+import com.itextpdf.io.font.FontNames;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Category(UnitTest.class)
+public class FontSelectorCacheTest extends ExtendedITextTest {
+
+    private static final String destinationFolder = "./target/test/com/itextpdf/layout/font/FontSelectorCacheTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void sharedProviderReusesFontSelectorsTest() {
+        FontSet fontSet = createFontSet("Alpha", "Beta");
+        FontProvider sharedProvider = new FontProvider(fontSet, "Beta");
+        FontProvider documentProvider = new FontProvider(sharedProvider);
+
+        Assert.assertSame(fontSet, documentProvider.getFontSet());
+        Assert.assertEquals("Beta", documentProvider.getDefaultFontFamily());
+        Assert.assertNotSame(sharedProvider.pdfFonts, documentProvider.pdfFonts);
+
+        List<String> families = Collections.singletonList("Alpha");
+        FontSelector selector = sharedProvider.getFontSelector(families, new FontCharacteristics());
+        Assert.assertSame(selector, documentProvider.getFontSelector(families, new FontCharacteristics()));
+        Assert.assertEquals("Alpha", selector.bestMatch().getDescriptor().getFontName());
+    }
+
+    @Test
+    public void sharedFontSetIsReadOnlyTest() {
+        FontSet fontSet = createFontSet("Alpha");
+        FontProvider sharedProvider = new FontProvider(fontSet);
+        Assert.assertTrue(sharedProvider.getFontSet().addFont(createFontInfo("Beta")));
+        Assert.assertFalse(fontSet.isReadOnly());
+
+        FontProvider documentProvider = new FontProvider(sharedProvider);
+        Assert.assertTrue(fontSet.isReadOnly());
+        try {
+            documentProvider.getFontSet().addFont(createFontInfo("Gamma"));
+            Assert.fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            sharedProvider.addFont(new TestFontProgram("Delta"), null);
+            Assert.fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(2, fontSet.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addDirectoryToReadOnlyFontSetTest() throws IOException {
+        FontSet fontSet = createFontSet("Alpha");
+        new FontProvider(new FontProvider(fontSet));
+        // the content of the file doesn't matter, since fonts can't be added to the font set anyway
+        FileOutputStream fos = new FileOutputStream(destinationFolder + "font.ttf");
+        fos.write(new byte[] {0, 1, 0, 0});
+        fos.close();
+        fontSet.addDirectory(destinationFolder);
+    }
+
+    @Test
+    public void fontSetChangeResetsSelectorsTest() {
+        FontSet fontSet = createFontSet("Alpha");
+        FontSelectorCache cache = new FontSelectorCache(fontSet);
+        FontSelectorKey key = createKey("Alpha");
+        FontSelector selector = new FontSelector(fontSet.getFonts(), Collections.singletonList("Alpha"), null);
+        cache.put(key, selector);
+        Assert.assertSame(selector, cache.get(key));
+
+        fontSet.addFont(createFontInfo("Beta"));
+        Assert.assertNull(cache.get(key));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void selectorsCountIsBoundedTest() {
+        FontSet fontSet = createFontSet("Alpha");
+        FontSelectorCache cache = new FontSelectorCache(fontSet, 3, 2);
+        for (int i = 0; i < 10; i++) {
+            cache.put(createKey("Family" + i), new FontSelector(fontSet.getFonts(),
+                    Collections.singletonList("Family" + i), null));
+        }
+        Assert.assertEquals(3, cache.size());
+        // the most recently added selector is always kept
+        Assert.assertNotNull(cache.get(createKey("Family9")));
+    }
+
+    @Test
+    public void temporaryFontSetsCountIsBoundedTest() {
+        FontSet fontSet = createFontSet("Alpha");
+        FontSelectorCache cache = new FontSelectorCache(fontSet, 3, 2);
+        FontSelectorKey key = createKey("Alpha");
+        List<FontSet> tempFontSets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            FontSet tempFonts = createFontSet("Temp" + i);
+            tempFontSets.add(tempFonts);
+            cache.put(key, new FontSelector(fontSet.getFonts(tempFonts), Collections.singletonList("Alpha"), null),
+                    tempFonts);
+        }
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.get(key, tempFontSets.get(4)));
+    }
+
+    @Test
+    public void concurrentFontSelectionTest() throws Exception {
+        FontSet fontSet = createFontSet("Alpha", "Beta", "Gamma", "Delta");
+        final FontProvider sharedProvider = new FontProvider(fontSet, "Alpha");
+        final List<String> families = Arrays.asList("Gamma", "Delta", "Beta", "Alpha");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final int index = i;
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        FontProvider documentProvider = new FontProvider(sharedProvider);
+                        String result = null;
+                        for (int j = 0; j < 200; j++) {
+                            List<String> requested = Collections.singletonList(families.get((index + j) % families.size()));
+                            FontSelector selector = documentProvider.getFontSelector(requested, new FontCharacteristics());
+                            Assert.assertEquals(requested.get(0), selector.bestMatch().getDescriptor().getFontName());
+                            result = selector.bestMatch().getDescriptor().getFontName();
+                        }
+                        return result;
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                Assert.assertNotNull(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static FontSelectorKey createKey(String fontFamily) {
+        return new FontSelectorKey(Collections.singletonList(fontFamily), new FontCharacteristics());
+    }
+
+    private static FontSet createFontSet(String... fontNames) {
+        FontSet fontSet = new FontSet();
+        for (String fontName : fontNames) {
+            fontSet.addFont(createFontInfo(fontName));
+        }
+        return fontSet;
+    }
+
+    private static FontInfo createFontInfo(String fontName) {
+        return FontInfo.create(new TestFontProgram(fontName), null, null);
+    }
+
+    private static class TestFontProgram extends FontProgram {
+
+        TestFontProgram(String fontName) {
+            fontNames = new FontNames();
+            setFontName(fontName);
+            setFontFamily(fontName);
+        }
+
+        @Override
+        public int getPdfFontFlags() {
+            return 0;
+        }
+
+        @Override
+        public int getKerning(Glyph first, Glyph second) {
+            return 0;
+        }
+    }
+}
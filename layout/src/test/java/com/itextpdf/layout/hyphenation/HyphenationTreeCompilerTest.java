@@ -0,0 +1,174 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.hyphenation;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+@Category(UnitTest.class)
+public class HyphenationTreeCompilerTest extends ExtendedITextTest {
+
+    private static final String destinationFolder = "./target/test/com/itextpdf/layout/hyphenation/HyphenationTreeCompilerTest/";
+
+    private static final String PATTERNS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+            + "<hyphenation-info>\n"
+            + "<hyphen-min before=\"2\" after=\"2\"/>\n"
+            + "<classes>\naA\nbB\ncC\ndD\neE\nfF\ngG\nhH\niI\njJ\nkK\nlL\nmM\nnN\noO\npP\nqQ\nrR\nsS\ntT\nuU\nvV\nwW\nxX\nyY\nzZ\n</classes>\n"
+            + "<exceptions>\nta-ble\nhy-phen-ation\npre<hyphen pre=\"-\" no=\"\" post=\"\"/>sent\n</exceptions>\n"
+            + "<patterns>\n.ach4 .ad4der .af1t .al3t .am5at .an5c .ang4 .ani5m .ant4 .an3te .anti5s .ar5s .ar4tie .ar4ty\n"
+            + "1ba 4bb b1bl 2b1d be5ra be5sm 1bi 2b1j 4b1m b1n 1bo bo4e b3p 4b5s 2bt 1bu 5bus\n"
+            + "1ca cach4 ca5den 4cag4 2c5ah ca3lat cal4la call5in 4calo can5d can4e can4ic can5is\n"
+            + "hy3ph he2n hena4 hen5at 1na n2at n2it n2ic 1tio 2io o2n 4te 1ta 1ti 5tion\n"
+            + "1do 3dr 1de 4di 1mo m1p 1pr 3pro 1ple 2pl 4ll 1ra 3ri 1ro 2r1m 1co 4ck 1ci 1cu\n"
+            + "</patterns>\n"
+            + "</hyphenation-info>\n";
+
+    private static final String[] WORDS = {"hyphenation", "table", "present", "anticipation", "bamboo", "calculation",
+            "production", "ambulance", "hyphen", "Hyphenation", "x", "procrastination", "about", "cab"};
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void compiledTreeHyphenatesAsParsedTreeTest() throws Exception {
+        HyphenationTree parsed = parsePatterns();
+        HyphenationTree compiled = HyphenationTreeCompiler.read(ByteBuffer.wrap(compile(parsed)));
+
+        for (String word : WORDS) {
+            assertSameHyphenation(parsed.hyphenate(word, 2, 2), compiled.hyphenate(word, 2, 2));
+        }
+        Assert.assertEquals(parsed.findPattern("tion"), compiled.findPattern("tion"));
+        Assert.assertEquals(parsed.stoplist.keySet(), compiled.stoplist.keySet());
+        Assert.assertEquals(parsed.stoplist.get("present").toString(), compiled.stoplist.get("present").toString());
+    }
+
+    @Test
+    public void compiledFileIsPreferredTest() throws Exception {
+        String directory = destinationFolder + "compiled";
+        new File(directory).mkdirs();
+        OutputStream out = new FileOutputStream(new File(directory, "xx_compiled" + HyphenationConstants.HYPHENATION_COMPILED_EXTENSION));
+        out.write(compile(parsePatterns()));
+        out.close();
+        // the XML file with the same key has no patterns at all, so it isn't the one which is loaded
+        out = new FileOutputStream(new File(directory, "xx_compiled.xml"));
+        out.write("<hyphenation-info><patterns></patterns></hyphenation-info>".getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        HyphenationTree tree = Hyphenator.getHyphenationTree(directory, "xx_compiled");
+        Assert.assertNotNull(tree);
+        Assert.assertNotNull(tree.hyphenate("calculation", 2, 2));
+    }
+
+    @Test
+    public void mainCompilesDirectoryTest() throws Exception {
+        String directory = destinationFolder + "main";
+        new File(directory).mkdirs();
+        OutputStream out = new FileOutputStream(new File(directory, "yy.xml"));
+        out.write(PATTERNS.getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        HyphenationTreeCompiler.main(new String[] {directory});
+
+        HyphenationTree tree = HyphenationTreeCompiler.read(new File(directory, "yy" + HyphenationConstants.HYPHENATION_COMPILED_EXTENSION));
+        assertSameHyphenation(parsePatterns().hyphenate("hyphenation", 2, 2), tree.hyphenate("hyphenation", 2, 2));
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.HYPHENATION_TREE_COMPILER_USAGE))
+    public void mainWithoutArgumentsTest() throws IOException {
+        HyphenationTreeCompiler.main(new String[0]);
+    }
+
+    @Test(expected = HyphenationException.class)
+    public void notCompiledDataTest() throws HyphenationException {
+        HyphenationTreeCompiler.read(ByteBuffer.wrap(PATTERNS.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = HyphenationException.class)
+    public void truncatedDataTest() throws Exception {
+        byte[] compiled = compile(parsePatterns());
+        HyphenationTreeCompiler.read(ByteBuffer.wrap(Arrays.copyOf(compiled, compiled.length / 2)));
+    }
+
+    private static HyphenationTree parsePatterns() throws HyphenationException {
+        HyphenationTree tree = new HyphenationTree();
+        tree.loadPatterns(new ByteArrayInputStream(PATTERNS.getBytes(StandardCharsets.UTF_8)), "test");
+        return tree;
+    }
+
+    private static byte[] compile(HyphenationTree tree) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        HyphenationTreeCompiler.compile(tree, baos);
+        return baos.toByteArray();
+    }
+
+    private static void assertSameHyphenation(Hyphenation expected, Hyphenation actual) {
+        if (expected == null) {
+            Assert.assertNull(actual);
+        } else {
+            Assert.assertNotNull(actual);
+            Assert.assertArrayEquals(expected.getHyphenationPoints(), actual.getHyphenationPoints());
+            Assert.assertEquals(expected.toString(), actual.toString());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class CollapsedTableBordersTest extends ExtendedITextTest {
+
+    @Test
+    public void outerCellBorderIndentsTest() {
+        Table table = new Table(3);
+        table.setBorder(new SolidBorder(5));
+        for (int i = 0; i < 12; i++) {
+            table.addCell(new Cell().setBorder(new SolidBorder(i % 2 == 0 ? 1 : 7)));
+        }
+        CollapsedTableBorders borders = createBordersHandler(table);
+
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 3; col++) {
+                float[] indents = borders.getCellBorderIndents(row, col, 1, 1);
+                Assert.assertEquals(borders.getVerticalBorder(col + 1).get(row).getWidth(), indents[1], 0);
+                Assert.assertEquals(borders.getVerticalBorder(col).get(row).getWidth(), indents[3], 0);
+            }
+        }
+    }
+
+    @Test
+    public void outerCellBorderIndentsWithRowspanTest() {
+        Table table = new Table(2);
+        table.setBorder(new SolidBorder(3));
+        table.addCell(new Cell(3, 1).setBorder(new SolidBorder(1)));
+        table.addCell(new Cell().setBorder(new SolidBorder(1)));
+        table.addCell(new Cell().setBorder(new SolidBorder(4)));
+        table.addCell(new Cell().setBorder(new SolidBorder(1)));
+        CollapsedTableBorders borders = createBordersHandler(table);
+
+        float[] indents = borders.getCellBorderIndents(2, 0, 3, 1);
+        Assert.assertEquals(3, indents[3], 0);
+        Assert.assertEquals(4, indents[1], 0);
+        Assert.assertEquals(4, borders.getCellBorderIndents(1, 1, 1, 1)[1], 0);
+        Assert.assertEquals(3, borders.getCellBorderIndents(2, 1, 1, 1)[1], 0);
+    }
+
+    @Test
+    @LogMessages(messages = {@LogMessage(messageTemplate = LogMessageConstant.LAST_ROW_IS_NOT_COMPLETE)})
+    public void largeTableFlushKeepsIncompleteRowGroupsTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+
+        Table table = new Table(2, true);
+        document.add(table);
+        for (int i = 0; i < 20; i++) {
+            table.addCell("\u0001\u0002");
+        }
+        table.addCell(new Cell(2, 1).add(new Paragraph("\u0003")));
+        table.addCell("\u0001");
+        table.flush();
+        Assert.assertEquals(2, table.getChildren().size());
+        Assert.assertEquals(2, table.getNumberOfRows());
+
+        table.addCell("\u0002");
+        table.flush();
+        Assert.assertEquals(0, table.getChildren().size());
+        table.complete();
+        document.close();
+    }
+
+    private static CollapsedTableBorders createBordersHandler(Table table) {
+        TableRenderer renderer = (TableRenderer) table.createRendererSubTree();
+        CollapsedTableBorders borders = new CollapsedTableBorders(renderer.rows, table.getNumberOfColumns(), renderer.getBorders());
+        borders.initializeBorders();
+        borders.setRowRange(0, renderer.rows.size() - 1);
+        borders.processAllBordersAndEmptyRows();
+        return borders;
+    }
+
+    private static PdfFont createFont(PdfDocument pdfDocument) {
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDocument, false);
+        // codes below 33 are resolved by Type 3 fonts without a glyph list lookup
+        for (char c = 1; c <= 3; c++) {
+            font.addGlyph(c, 500, 0, 0, 500, 700).rectangle(0, 0, 500, 700).fill();
+        }
+        return font;
+    }
+}
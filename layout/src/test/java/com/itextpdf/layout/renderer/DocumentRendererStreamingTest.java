@@ -0,0 +1,192 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+@Category(UnitTest.class)
+public class DocumentRendererStreamingTest extends ExtendedITextTest {
+
+    @Test
+    public void splitRendererIsReleasedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setRenderer(new DocumentRenderer(document).setStreamingLayout(true));
+        document.setFont(createFont(pdfDocument));
+
+        Div div = createLongDiv();
+        DivRenderer divRenderer = new DivRenderer(div);
+        div.setNextRenderer(divRenderer);
+        document.add(div);
+
+        Assert.assertTrue(pdfDocument.getNumberOfPages() > 3);
+        Assert.assertTrue(divRenderer.getChildRenderers().isEmpty());
+        document.close();
+    }
+
+    @Test
+    public void splitRendererIsKeptWithoutStreamingTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+
+        Div div = createLongDiv();
+        DivRenderer divRenderer = new DivRenderer(div);
+        div.setNextRenderer(divRenderer);
+        document.add(div);
+
+        Assert.assertEquals(151, divRenderer.getChildRenderers().size());
+        document.close();
+    }
+
+    @Test
+    public void finishedPagesAreFlushedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setRenderer(new DocumentRenderer(document).setStreamingLayout(true));
+        document.setFont(createFont(pdfDocument));
+        document.add(createLongDiv());
+
+        int numberOfPages = pdfDocument.getNumberOfPages();
+        for (int i = 1; i < numberOfPages; i++) {
+            Assert.assertTrue(pdfDocument.getPage(i).isFlushed());
+        }
+        Assert.assertFalse(pdfDocument.getPage(numberOfPages).isFlushed());
+        document.close();
+    }
+
+    @Test
+    public void previousPageIsNotFlushedWithoutStreamingTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+        document.add(createLongDiv());
+
+        Assert.assertFalse(pdfDocument.getPage(pdfDocument.getNumberOfPages() - 1).isFlushed());
+        document.close();
+    }
+
+    @Test
+    public void streamingLayoutResultTest() throws IOException {
+        byte[] regular = createDocument(false);
+        byte[] streamed = createDocument(true);
+        PdfDocument regularDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(regular)));
+        PdfDocument streamedDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(streamed)));
+        Assert.assertEquals(regularDocument.getNumberOfPages(), streamedDocument.getNumberOfPages());
+        for (int i = 1; i <= regularDocument.getNumberOfPages(); i++) {
+            Assert.assertArrayEquals(regularDocument.getPage(i).getContentBytes(), streamedDocument.getPage(i).getContentBytes());
+        }
+        regularDocument.close();
+        streamedDocument.close();
+    }
+
+    @Test
+    public void nextRendererKeepsStreamingLayoutTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        DocumentRenderer renderer = new DocumentRenderer(document).setStreamingLayout(true);
+        Assert.assertTrue(renderer.isStreamingLayout());
+        Assert.assertTrue(((DocumentRenderer) renderer.getNextRenderer()).isStreamingLayout());
+        Assert.assertFalse(new DocumentRenderer(document).isStreamingLayout());
+        document.add(new Paragraph());
+        document.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void streamingLayoutRequiresImmediateFlushTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        new DocumentRenderer(new Document(pdfDocument, pdfDocument.getDefaultPageSize(), false), false).setStreamingLayout(true);
+    }
+
+    private static byte[] createDocument(boolean streamingLayout) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        Document document = new Document(pdfDocument);
+        document.setRenderer(new DocumentRenderer(document).setStreamingLayout(streamingLayout));
+        document.setFont(createFont(pdfDocument));
+        document.add(createLongDiv());
+        document.add(new Paragraph("\u0003\u0002\u0001"));
+        document.add(createLongDiv());
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static Div createLongDiv() {
+        Div div = new Div();
+        Div nestedDiv = new Div();
+        for (int i = 0; i < 150; i++) {
+            div.add(new Paragraph("\u0001\u0002 \u0003 " + i % 10));
+            nestedDiv.add(new Paragraph("\u0003 \u0002\u0001"));
+        }
+        div.add(nestedDiv);
+        return div;
+    }
+
+    private static PdfFont createFont(PdfDocument pdfDocument) {
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDocument, false);
+        // codes below 33 are resolved by Type 3 fonts without a glyph list lookup
+        for (char c = 1; c <= 3; c++) {
+            font.addGlyph(c, 500, 0, 0, 500, 700).rectangle(0, 0, 500, 700).fill();
+        }
+        font.addGlyph(' ', 250, 0, 0, 0, 0);
+        return font;
+    }
+}
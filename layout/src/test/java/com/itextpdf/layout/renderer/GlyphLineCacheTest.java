@@ -0,0 +1,210 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.property.FontKerning;
+import com.itextpdf.layout.property.Property;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class GlyphLineCacheTest extends ExtendedITextTest {
+
+    @Test
+    public void convertedLineIsReusedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLineCache cache = new GlyphLineCache();
+
+        GlyphLine first = cache.convertToGlyphLine(font, "\u0001\u0002\u0003");
+        Assert.assertEquals(font.createGlyphLine("\u0001\u0002\u0003"), first);
+        Assert.assertEquals(1, cache.size());
+
+        // modification of the returned line doesn't affect the cached one
+        first.set(0, first.get(2));
+        GlyphLine second = cache.convertToGlyphLine(font, "\u0001\u0002\u0003");
+        Assert.assertEquals(font.createGlyphLine("\u0001\u0002\u0003"), second);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(1, cache.size());
+
+        cache.convertToGlyphLine(createFont(pdfDocument), "\u0001\u0002\u0003");
+        Assert.assertEquals(2, cache.size());
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void longTextIsNotCachedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLineCache cache = new GlyphLineCache(10, 3);
+
+        String text = "\u0001\u0002\u0003\u0001\u0002\u0003";
+        Assert.assertEquals(font.createGlyphLine(text), cache.convertToGlyphLine(font, text));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.createShapingKey(font.createGlyphLine(text), null, null, FontKerning.NO));
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void leastRecentlyUsedLineIsEvictedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLineCache cache = new GlyphLineCache(2, 256);
+        cache.convertToGlyphLine(font, "\u0001");
+        cache.convertToGlyphLine(font, "\u0002");
+        cache.convertToGlyphLine(font, "\u0003");
+        Assert.assertEquals(2, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void shapingResultTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLineCache cache = new GlyphLineCache();
+        GlyphLine text = font.createGlyphLine("\u0001\u0002\u0003");
+
+        GlyphLineCache.ShapingKey key = cache.createShapingKey(text, Character.UnicodeScript.LATIN, null, FontKerning.NO);
+        Assert.assertNull(cache.getShapingResult(font, key));
+        GlyphLine shaped = font.createGlyphLine("\u0003\u0002\u0001");
+        cache.putShapingResult(font, key, shaped, true);
+
+        GlyphLineCache.ShapingKey sameKey = cache.createShapingKey(font.createGlyphLine("\u0001\u0002\u0003"),
+                Character.UnicodeScript.LATIN, null, FontKerning.NO);
+        GlyphLineCache.ShapingResult result = cache.getShapingResult(font, sameKey);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(shaped, result.getShapedText());
+        Assert.assertNotSame(result.getShapedText(), result.getShapedText());
+        Assert.assertTrue(result.isBidiScriptShaped());
+
+        Assert.assertNull(cache.getShapingResult(font, cache.createShapingKey(font.createGlyphLine("\u0001\u0002\u0003"),
+                Character.UnicodeScript.LATIN, null, FontKerning.YES)));
+        Assert.assertNull(cache.getShapingResult(font, cache.createShapingKey(font.createGlyphLine("\u0001\u0002\u0003"),
+                Character.UnicodeScript.ARABIC, null, FontKerning.NO)));
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void positionedGlyphsAreNotSharedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLineCache cache = new GlyphLineCache();
+        GlyphLine text = font.createGlyphLine("\u0001\u0002\u0003");
+        GlyphLineCache.ShapingKey key = cache.createShapingKey(text, Character.UnicodeScript.LATIN, null, FontKerning.NO);
+
+        GlyphLine shaped = font.createGlyphLine("\u0001\u0002\u0003");
+        shaped.set(2, new Glyph(shaped.get(2), 10, 0, 0, 0, -2));
+        cache.putShapingResult(font, key, shaped, true);
+        // bidi reordering modifies the anchor delta of the positioned glyphs in place
+        shaped.get(2).setAnchorDelta((short) 1);
+
+        GlyphLine first = cache.getShapingResult(font, key).getShapedText();
+        Assert.assertEquals(-2, first.get(2).getAnchorDelta());
+        Assert.assertSame(shaped.get(0), first.get(0));
+        first.get(2).setAnchorDelta((short) 2);
+
+        GlyphLine second = cache.getShapingResult(font, key).getShapedText();
+        Assert.assertEquals(-2, second.get(2).getAnchorDelta());
+        Assert.assertEquals(10, second.get(2).getXPlacement());
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void partialLineIsNotShapingCachedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLine text = font.createGlyphLine("\u0001\u0002\u0003");
+        text.start = 1;
+        Assert.assertNull(new GlyphLineCache().createShapingKey(text, null, null, FontKerning.NO));
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+    }
+
+    @Test
+    public void documentLayoutUsesCacheTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfFont font = createFont(pdfDocument);
+        GlyphLineCache cache = new GlyphLineCache();
+        Document document = new Document(pdfDocument);
+        document.setProperty(Property.GLYPH_LINE_CACHE, cache);
+        document.setFont(font);
+        for (int i = 0; i < 50; i++) {
+            document.add(new Paragraph("\u0001\u0002\u0003 \u0003\u0001\u0002"));
+            document.add(new Paragraph("\u0002\u0003\u0001"));
+        }
+        Assert.assertEquals(2, cache.size());
+        document.close();
+    }
+
+    private static PdfFont createFont(PdfDocument pdfDocument) {
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDocument, false);
+        // codes below 33 are resolved by Type 3 fonts without a glyph list lookup
+        for (char c = 1; c <= 3; c++) {
+            font.addGlyph(c, 500, 0, 0, 500, 700).rectangle(0, 0, 500, 700).fill();
+        }
+        font.addGlyph(' ', 250, 0, 0, 0, 0);
+        return font;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.action.PdfAction;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Link;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.property.Property;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+@Category(UnitTest.class)
+public class LayoutResultCacheTest extends ExtendedITextTest {
+
+    @Test
+    public void cachedContentIsReusedTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+        LayoutResultCache cache = new LayoutResultCache();
+        Div div = createDiv(cache);
+        for (int i = 0; i < 3; i++) {
+            if (i > 0) {
+                document.add(new AreaBreak());
+            }
+            document.add(div);
+            document.add(new Paragraph("\u0003 " + i % 10));
+        }
+        Assert.assertEquals(1, cache.size());
+        document.close();
+
+        PdfDocument resultDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Set<Integer> xObjects = new HashSet<>();
+        for (int i = 1; i <= 3; i++) {
+            PdfDictionary pageXObjects = resultDocument.getPage(i).getResources().getResource(PdfName.XObject);
+            Assert.assertEquals(1, pageXObjects.size());
+            PdfName name = pageXObjects.keySet().iterator().next();
+            xObjects.add(pageXObjects.get(name).getIndirectReference().getObjNumber());
+        }
+        Assert.assertEquals(1, xObjects.size());
+        resultDocument.close();
+    }
+
+    @Test
+    public void cachedContentIsPlacedAsLaidOutTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+        document.setRenderer(new DocumentRenderer(document, false));
+        LayoutResultCache cache = new LayoutResultCache();
+        Div div = createDiv(cache);
+        document.add(div);
+        document.add(div);
+        document.add(new Paragraph("\u0003"));
+        document.add(div);
+
+        CachedLayoutRenderer first = (CachedLayoutRenderer) document.getRenderer().getChildRenderers().get(0);
+        CachedLayoutRenderer second = (CachedLayoutRenderer) document.getRenderer().getChildRenderers().get(1);
+        Assert.assertEquals(first.getOccupiedArea().getBBox().getHeight(), second.getOccupiedArea().getBBox().getHeight(), 1e-3);
+        Assert.assertEquals(first.getOccupiedArea().getBBox().getX(), second.getOccupiedArea().getBBox().getX(), 1e-3);
+        Assert.assertEquals(first.getOccupiedArea().getBBox().getBottom(), second.getOccupiedArea().getBBox().getTop(), 1e-3);
+        document.close();
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void differentWidthIsLaidOutAgainTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+        LayoutResultCache cache = new LayoutResultCache();
+        Div div = createDiv(cache);
+        document.add(div);
+        document.add(new AreaBreak(PageSize.A5));
+        document.add(div);
+        document.add(new AreaBreak(PageSize.A4));
+        document.add(div);
+
+        Assert.assertEquals(2, cache.size());
+        document.close();
+    }
+
+    @Test
+    public void sameLayoutAsWithoutCacheTest() {
+        Assert.assertEquals(createDocument(null), createDocument(new LayoutResultCache()));
+    }
+
+    @Test
+    @LogMessages(messages = {@LogMessage(messageTemplate = LogMessageConstant.TYPE3_FONT_ISSUE_TAGGED_PDF)})
+    public void taggedDocumentIsNotCachedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDocument.setTagged();
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+        LayoutResultCache cache = new LayoutResultCache();
+        Div div = createDiv(cache);
+        document.add(div);
+        document.add(div);
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(pdfDocument.getPage(1).getResources().getResource(PdfName.XObject));
+        document.close();
+    }
+
+    @Test
+    public void linkIsNotCachedTest() {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument);
+        document.setFont(createFont(pdfDocument));
+        LayoutResultCache cache = new LayoutResultCache();
+        Div div = createDiv(cache);
+        div.add(new Paragraph().add(new Link("\u0001", PdfAction.createURI("http://itextpdf.com/"))));
+        document.add(div);
+        document.add(div);
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(2, pdfDocument.getPage(1).getAnnotations().size());
+        document.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveMaxEntriesTest() {
+        new LayoutResultCache(0);
+    }
+
+    private static int createDocument(LayoutResultCache cache) {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document document = new Document(pdfDocument, PageSize.A6);
+        document.setFont(createFont(pdfDocument));
+        Div div = createDiv(cache);
+        for (int i = 0; i < 40; i++) {
+            document.add(div);
+            // varying remaining height, so that the cached block doesn't always fit into the page
+            for (int j = 0; j < i % 4; j++) {
+                document.add(new Paragraph("\u0002 " + j));
+            }
+        }
+        int numberOfPages = pdfDocument.getNumberOfPages();
+        document.close();
+        return numberOfPages;
+    }
+
+    private static Div createDiv(LayoutResultCache cache) {
+        Div div = new Div();
+        for (int i = 0; i < 5; i++) {
+            div.add(new Paragraph("\u0001\u0002 \u0003 " + i));
+        }
+        if (cache != null) {
+            div.setProperty(Property.LAYOUT_RESULT_CACHE, cache);
+        }
+        return div;
+    }
+
+    private static PdfFont createFont(PdfDocument pdfDocument) {
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDocument, false);
+        // codes below 33 are resolved by Type 3 fonts without a glyph list lookup
+        for (char c = 1; c <= 3; c++) {
+            font.addGlyph(c, 500, 0, 0, 500, 700).rectangle(0, 0, 500, 700).fill();
+        }
+        font.addGlyph(' ', 250, 0, 0, 0, 0);
+        return font;
+    }
+}
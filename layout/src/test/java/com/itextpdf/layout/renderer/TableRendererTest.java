@@ -66,9 +66,6 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-
 @Category(UnitTest.class)
 public class TableRendererTest  extends ExtendedITextTest {
 
@@ -77,10 +74,10 @@ public class TableRendererTest  extends ExtendedITextTest {
 
     @Test
     @LogMessages(messages = {@LogMessage(messageTemplate = LogMessageConstant.PROPERTY_IN_PERCENTS_NOT_SUPPORTED, count=13)})
-    public void calculateColumnWidthsNotPointValue() throws FileNotFoundException {
+    public void calculateColumnWidthsNotPointValue() {
         junitExpectedException.expect(NullPointerException.class);
 
-        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new FileOutputStream("table_out.pdf")));
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
         Document doc = new Document(pdfDoc);
         LayoutArea area = new LayoutArea(1, new Rectangle(0,0,100,100));
         LayoutContext layoutContext = new LayoutContext(area);
@@ -227,6 +227,17 @@ public class PdfSigner {
      */
     protected boolean closed;
 
+    /**
+     * The stream which digests the document bytes while they are being written, or null if
+     * the document is written to a temporary buffer or file first.
+     */
+    private RangeDigestingOutputStream rangeDigestingOS;
+
+    /**
+     * The digest of the byte ranges, computed by {@link #rangeDigestingOS} when the document is pre-closed.
+     */
+    private byte[] rangeDigest;
+
     /**
      * Creates a PdfSigner instance. Uses a {@link java.io.ByteArrayOutputStream} instead of a temporary file.
      *
@@ -292,12 +303,69 @@ public class PdfSigner {
         }
 
         originalOS = outputStream;
-        signDate = DateTimeUtil.getCurrentTimeCalendar();
-        fieldName = getNewSigFieldName();
-        appearance = new PdfSignatureAppearance(document, new Rectangle(0, 0), 1);
-        appearance.setSignDate(signDate);
+        initSigner();
+    }
 
-        closed = false;
+    /**
+     * Creates a PdfSigner instance which digests the signed bytes while the document is written in append mode.
+     * <p>
+     * Neither a temporary buffer nor a temporary file for the whole document is used: the bytes are written
+     * directly to the output stream and digested on the way. Only the signature dictionary and the bytes
+     * following it, which are a part of the incremental update, are kept in memory until the signature is inserted.
+     * To sign a document in the other modes without keeping it in memory, use
+     * {@link #PdfSigner(PdfReader, RandomAccessFile, StampingProperties, MessageDigest)}.
+     * <p>
+     * Since the digest algorithm has to be known before the document is written, only {@link #signDetached}
+     * with an {@link IExternalSignature} which uses the same hash algorithm as the given message digest and
+     * {@link #timestamp} with an {@link ITSAClient} which uses the same digest algorithm are supported.
+     * {@link #signExternalContainer} requires the signed bytes and is not supported.
+     *
+     * @param reader        PdfReader that reads the PDF file
+     * @param outputStream  OutputStream to write the signed PDF file
+     * @param properties    {@link StampingProperties} for the signing document, which shall specify append mode.
+     *                      Note that encryption will be preserved regardless of what is set in properties.
+     * @param messageDigest the message digest to digest the signed bytes with
+     * @throws IOException
+     */
+    public PdfSigner(PdfReader reader, OutputStream outputStream, StampingProperties properties, MessageDigest messageDigest) throws IOException {
+        if (!properties.isAppendMode()) {
+            // otherwise nearly the whole document would be kept in memory
+            throw new PdfException(PdfException.DigestingWhileWritingToOutputStreamRequiresAppendMode);
+        }
+        StampingProperties localProps = new StampingProperties(properties).preserveEncryption();
+        rangeDigestingOS = new RangeDigestingOutputStream(outputStream, messageDigest);
+        document = initDocument(reader, new PdfWriter(rangeDigestingOS), localProps);
+
+        originalOS = outputStream;
+        initSigner();
+    }
+
+    /**
+     * Creates a PdfSigner instance which digests the signed bytes while the document is written to a file.
+     * <p>
+     * Neither a temporary buffer nor a temporary file for the whole document is used: the bytes are written
+     * directly to the output file and digested on the way. The /ByteRange and the signature are then written
+     * in place, and the bytes following the signature dictionary are read back from the file to digest them,
+     * since their digest depends on the /ByteRange value. Note that in append mode those are only the bytes
+     * of the incremental update, otherwise most of the document follows the signature dictionary.
+     * <p>
+     * The previous content of the file is discarded, and the file is closed when the document is signed.
+     * The same restrictions on the signing methods apply as for
+     * {@link #PdfSigner(PdfReader, OutputStream, StampingProperties, MessageDigest)}.
+     *
+     * @param reader        PdfReader that reads the PDF file
+     * @param outputFile    the file opened for writing to write the signed PDF file to
+     * @param properties    {@link StampingProperties} for the signing document. Note that encryption will be
+     *                      preserved regardless of what is set in properties.
+     * @param messageDigest the message digest to digest the signed bytes with
+     * @throws IOException
+     */
+    public PdfSigner(PdfReader reader, RandomAccessFile outputFile, StampingProperties properties, MessageDigest messageDigest) throws IOException {
+        StampingProperties localProps = new StampingProperties(properties).preserveEncryption();
+        rangeDigestingOS = new RangeDigestingOutputStream(outputFile, messageDigest);
+        document = initDocument(reader, new PdfWriter(rangeDigestingOS), localProps);
+
+        initSigner();
     }
 
     protected PdfDocument initDocument(PdfReader reader, PdfWriter writer, StampingProperties properties) {
@@ -309,6 +377,15 @@ public class PdfSigner {
         }
     }
 
+    private void initSigner() {
+        signDate = DateTimeUtil.getCurrentTimeCalendar();
+        fieldName = getNewSigFieldName();
+        appearance = new PdfSignatureAppearance(document, new Rectangle(0, 0), 1);
+        appearance.setSignDate(signDate);
+
+        closed = false;
+    }
+
     /**
      * Gets the signature date.
      *
@@ -584,6 +661,7 @@ public class PdfSigner {
         if (closed) {
             throw new PdfException(PdfException.ThisInstanceOfPdfSignerAlreadyClosed);
         }
+        checkRangeDigestAlgorithm(externalSignature.getHashAlgorithm());
 
         if (certificationLevel > 0 && isDocumentPdf2()) {
             if (documentContainsCertificationOrApprovalSignatures()) {
@@ -630,8 +708,13 @@ public class PdfSigner {
         if (signaturePolicy != null) {
             sgn.setSignaturePolicy(signaturePolicy);
         }
-        InputStream data = getRangeStream();
-        byte[] hash = DigestAlgorithms.digest(data, SignUtils.getMessageDigest(hashAlgorithm, externalDigest));
+        byte[] hash;
+        if (rangeDigestingOS != null) {
+            hash = rangeDigest;
+        } else {
+            InputStream data = getRangeStream();
+            hash = DigestAlgorithms.digest(data, SignUtils.getMessageDigest(hashAlgorithm, externalDigest));
+        }
         List<byte[]> ocspList = new ArrayList<>();
         if (chain.length > 1 && ocspClient != null) {
             for (int j = 0; j < chain.length - 1; ++j) {
@@ -676,6 +759,9 @@ public class PdfSigner {
         if (closed) {
             throw new PdfException(PdfException.ThisInstanceOfPdfSignerAlreadyClosed);
         }
+        if (rangeDigestingOS != null) {
+            throw new PdfException(PdfException.RangeStreamIsNotAvailableWhenDigestingWhileWriting);
+        }
 
         PdfSignature dic = new PdfSignature();
         PdfSignatureAppearance appearance = getSignatureAppearance();
@@ -723,6 +809,8 @@ public class PdfSigner {
         if (closed) {
             throw new PdfException(PdfException.ThisInstanceOfPdfSignerAlreadyClosed);
         }
+        MessageDigest messageDigest = tsa.getMessageDigest();
+        checkRangeDigestAlgorithm(messageDigest.getAlgorithm());
 
         int contentEstimated = tsa.getTokenSizeEstimate();
         if (!isDocumentPdf2()) {
@@ -737,14 +825,18 @@ public class PdfSigner {
         Map<PdfName, Integer> exc = new HashMap<>();
         exc.put(PdfName.Contents, contentEstimated * 2 + 2);
         preClose(exc);
-        InputStream data = getRangeStream();
-        MessageDigest messageDigest = tsa.getMessageDigest();
-        byte[] buf = new byte[4096];
-        int n;
-        while ((n = data.read(buf)) > 0) {
-            messageDigest.update(buf, 0, n);
+        byte[] tsImprint;
+        if (rangeDigestingOS != null) {
+            tsImprint = rangeDigest;
+        } else {
+            InputStream data = getRangeStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = data.read(buf)) > 0) {
+                messageDigest.update(buf, 0, n);
+            }
+            tsImprint = messageDigest.digest();
         }
-        byte[] tsImprint = messageDigest.digest();
         byte[] tsToken;
         try {
             tsToken = tsa.getTimeStampToken(tsImprint);
@@ -980,6 +1072,10 @@ public class PdfSigner {
             document.getCatalog().put(PdfName.Perms, docmdp);
             document.getCatalog().setModified();
         }
+        if (rangeDigestingOS != null) {
+            // the signature dictionary is written at the current position, it is patched before being passed further
+            rangeDigestingOS.holdFrom(document.getWriter().getCurrentPos());
+        }
         cryptoDictionary.getPdfObject().flush(false);
         document.close();
 
@@ -996,7 +1092,18 @@ public class PdfSigner {
         for (int k = 3; k < range.length - 2; k += 2)
             range[k] -= range[k - 1];
 
-        if (tempFile == null) {
+        if (rangeDigestingOS != null) {
+            range[range.length - 1] = rangeDigestingOS.getLength() - range[range.length - 2];
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            PdfOutputStream os = new PdfOutputStream(bos);
+            os.write('[');
+            for (int k = 0; k < range.length; ++k) {
+                os.writeLong(range[k]).write(' ');
+            }
+            os.write(']');
+            rangeDigestingOS.patch(byteRangePosition, bos.toByteArray());
+            rangeDigest = rangeDigestingOS.digestRanges(range);
+        } else if (tempFile == null) {
             bout = temporaryOS.toByteArray();
             range[range.length - 1] = bout.length - range[range.length - 2];
             ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -1044,6 +1151,9 @@ public class PdfSigner {
      * @throws IOException
      */
     protected InputStream getRangeStream() throws IOException {
+        if (rangeDigestingOS != null) {
+            throw new PdfException(PdfException.RangeStreamIsNotAvailableWhenDigestingWhileWriting);
+        }
         RandomAccessSourceFactory fac = new RandomAccessSourceFactory();
         return new RASInputStream(fac.createRanged(getUnderlyingSource(), range));
     }
@@ -1060,6 +1170,7 @@ public class PdfSigner {
      * @throws IOException on error
      */
     protected void close(PdfDictionary update) throws IOException {
+        boolean completed = false;
         try {
             if (!preClosed)
                 throw new PdfException(PdfException.DocumentMustBePreClosed);
@@ -1075,7 +1186,9 @@ public class PdfSigner {
                 os.write(obj);
                 if (bous.size() > lit.getBytesCount())
                     throw new IllegalArgumentException("The key is too big");
-                if (tempFile == null) {
+                if (rangeDigestingOS != null) {
+                    rangeDigestingOS.patch(lit.getPosition(), bous.toByteArray());
+                } else if (tempFile == null) {
                     System.arraycopy(bous.toByteArray(), 0, bout, (int) lit.getPosition(), (int) bous.size());
                 } else {
                     raf.seek(lit.getPosition());
@@ -1084,7 +1197,9 @@ public class PdfSigner {
             }
             if (update.size() != exclusionLocations.size())
                 throw new IllegalArgumentException("The update dictionary has less keys than required");
-            if (tempFile == null) {
+            if (rangeDigestingOS != null) {
+                rangeDigestingOS.writeHeldBytes();
+            } else if (tempFile == null) {
                 originalOS.write(bout, 0, bout.length);
             } else {
                 if (originalOS != null) {
@@ -1100,6 +1215,7 @@ public class PdfSigner {
                     }
                 }
             }
+            completed = true;
         } finally {
             if (tempFile != null) {
                 raf.close();
@@ -1109,7 +1225,16 @@ public class PdfSigner {
                 }
             }
 
-            if (originalOS != null) {
+            if (rangeDigestingOS != null) {
+                try {
+                    rangeDigestingOS.closeTarget();
+                } catch (IOException e) {
+                    // the signed document may be incomplete, unless another exception is already being thrown
+                    if (completed) {
+                        throw e;
+                    }
+                }
+            } else if (originalOS != null) {
                 try {
                     originalOS.close();
                 } catch (Exception ignored) {
@@ -1125,6 +1250,9 @@ public class PdfSigner {
      * @throws IOException
      */
     protected IRandomAccessSource getUnderlyingSource() throws IOException {
+        if (rangeDigestingOS != null) {
+            throw new PdfException(PdfException.RangeStreamIsNotAvailableWhenDigestingWhileWriting);
+        }
         RandomAccessSourceFactory fac = new RandomAccessSourceFactory();
         return raf == null ? fac.createSource(bout) : fac.createSource(raf);
     }
@@ -1279,6 +1407,18 @@ public class PdfSigner {
         return pdfCompatibleName;
     }
 
+    private void checkRangeDigestAlgorithm(String hashAlgorithm) {
+        if (rangeDigestingOS == null) {
+            return;
+        }
+        String documentDigestAlgorithm = rangeDigestingOS.getAlgorithm();
+        String hashAlgOid = DigestAlgorithms.getAllowedDigest(hashAlgorithm);
+        if (hashAlgOid == null || !hashAlgOid.equals(DigestAlgorithms.getAllowedDigest(documentDigestAlgorithm))) {
+            throw new PdfException(PdfException.DigestAlgorithm1DoesNotMatchDocumentDigestAlgorithm2)
+                    .setMessageParams(hashAlgorithm, documentDigestAlgorithm);
+        }
+    }
+
     private boolean isDocumentPdf2() {
         return document.getPdfVersion().compareTo(PdfVersion.PDF_2_0) >= 0;
     }
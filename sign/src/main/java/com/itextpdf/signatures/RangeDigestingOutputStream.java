@@ -0,0 +1,263 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+
+/**
+ * An output stream which digests the document bytes while they are being written.
+ * <p>
+ * All the bytes are passed to the target and added to the digest as soon as they arrive, until the hold position
+ * is set. The bytes starting from the hold position, i.e. the signature dictionary and everything written after it,
+ * contain the /ByteRange and /Contents values, which are only known after the whole document is written.
+ * Once the /ByteRange is patched in, the bytes following the hold position outside of the excluded ranges
+ * are digested, and then the /Contents is patched in.
+ * <p>
+ * If the target is a {@link RandomAccessFile}, all the bytes are written to it directly, the values are patched
+ * in place and the bytes following the hold position are read back from the file to digest them.
+ * If the target is a plain {@link OutputStream}, the bytes following the hold position are kept in memory until
+ * they are patched, so this target is only suitable if these are few, e.g. in append mode.
+ * <p>
+ * Closing this stream doesn't close the target, since the values still have to be patched in.
+ */
+final class RangeDigestingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final RandomAccessFile file;
+    private final MessageDigest messageDigest;
+    private long position;
+    private long holdPosition = -1;
+    private ByteArrayOutputStream heldStream;
+    private byte[] heldBytes;
+    private boolean digested;
+
+    RangeDigestingOutputStream(OutputStream out, MessageDigest messageDigest) {
+        this.out = out;
+        this.file = null;
+        this.messageDigest = messageDigest;
+    }
+
+    RangeDigestingOutputStream(RandomAccessFile file, MessageDigest messageDigest) throws IOException {
+        this.out = null;
+        this.file = file;
+        this.messageDigest = messageDigest;
+        file.setLength(0);
+        file.seek(0);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (digested) {
+            throw new IllegalStateException("The byte ranges are already digested.");
+        }
+        int passed = len;
+        if (holdPosition >= 0) {
+            passed = (int) Math.max(0, Math.min(len, holdPosition - position));
+        }
+        if (passed > 0) {
+            messageDigest.update(b, off, passed);
+        }
+        if (file != null) {
+            file.write(b, off, len);
+        } else {
+            if (passed > 0) {
+                out.write(b, off, passed);
+            }
+            if (passed < len) {
+                heldStream.write(b, off + passed, len - passed);
+            }
+        }
+        position += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Stops digesting the bytes from the given position on. The position may be ahead of the bytes
+     * already written to this stream, e.g. if the writer buffers its output.
+     *
+     * @param holdPosition the position of the first byte which is not digested while being written
+     */
+    void holdFrom(long holdPosition) {
+        if (holdPosition < position) {
+            throw new IllegalStateException("The bytes at the hold position are already written.");
+        }
+        this.holdPosition = holdPosition;
+        if (file == null) {
+            this.heldStream = new ByteArrayOutputStream();
+        }
+    }
+
+    /**
+     * Gets the number of bytes written to this stream so far.
+     *
+     * @return the number of written bytes
+     */
+    long getLength() {
+        return position;
+    }
+
+    /**
+     * Gets the digest algorithm the bytes are digested with.
+     *
+     * @return the digest algorithm name
+     */
+    String getAlgorithm() {
+        return messageDigest.getAlgorithm();
+    }
+
+    /**
+     * Replaces the bytes at the given position, which shall follow the hold position.
+     *
+     * @param position the position in the whole document of the first byte to replace
+     * @param bytes    the new bytes
+     * @throws IOException if an I/O error occurs
+     */
+    void patch(long position, byte[] bytes) throws IOException {
+        checkHoldPosition();
+        if (position < holdPosition || position + bytes.length > this.position) {
+            throw new IllegalArgumentException("Only the bytes following the hold position can be patched.");
+        }
+        if (file != null) {
+            file.seek(position);
+            file.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, getHeldBytes(), (int) (position - holdPosition), bytes.length);
+        }
+    }
+
+    /**
+     * Digests the bytes following the hold position which belong to the given byte ranges and completes the digest.
+     * The ranges must cover all the bytes preceding the hold position, since they are already digested.
+     *
+     * @param range the byte ranges as start and length pairs
+     * @return the digest of the byte ranges
+     * @throws IOException if an I/O error occurs
+     */
+    byte[] digestRanges(long[] range) throws IOException {
+        checkHoldPosition();
+        if (range.length < 2 || range[0] != 0 || range[1] < holdPosition) {
+            throw new IllegalArgumentException("The byte ranges must cover the bytes preceding the hold position.");
+        }
+        digested = true;
+        byte[] buffer = file != null ? new byte[8192] : null;
+        for (int k = 0; k < range.length; k += 2) {
+            long from = Math.max(range[k], holdPosition);
+            long to = range[k] + range[k + 1];
+            if (from >= to) {
+                continue;
+            }
+            if (file != null) {
+                file.seek(from);
+                while (from < to) {
+                    int n = (int) Math.min(buffer.length, to - from);
+                    file.readFully(buffer, 0, n);
+                    messageDigest.update(buffer, 0, n);
+                    from += n;
+                }
+            } else {
+                messageDigest.update(getHeldBytes(), (int) (from - holdPosition), (int) (to - from));
+            }
+        }
+        return messageDigest.digest();
+    }
+
+    /**
+     * Writes the held bytes to the target, if they are kept in memory.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void writeHeldBytes() throws IOException {
+        if (file == null) {
+            out.write(getHeldBytes());
+            out.flush();
+        }
+    }
+
+    /**
+     * Closes the target.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void closeTarget() throws IOException {
+        if (file != null) {
+            file.close();
+        } else {
+            out.close();
+        }
+    }
+
+    private void checkHoldPosition() {
+        if (holdPosition < 0) {
+            throw new IllegalStateException("The hold position is not set.");
+        }
+    }
+
+    private byte[] getHeldBytes() {
+        if (heldBytes == null) {
+            heldBytes = heldStream.toByteArray();
+            heldStream = null;
+        }
+        return heldBytes;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.signatures.PdfSigner.CryptoStandard;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.Arrays;
+import java.util.Date;
+
+@Category(UnitTest.class)
+public class PdfSignerDigestWhileWritingTest extends ExtendedITextTest {
+
+    private static final String destinationFolder = "./target/test/com/itextpdf/signatures/PdfSignerDigestWhileWritingTest/";
+
+    private static KeyPair keyPair;
+    private static Certificate[] chain;
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @BeforeClass
+    public static void before() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        createOrClearDestinationFolder(destinationFolder);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=iText signing test");
+        Date now = new Date();
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+                new Date(now.getTime() - 86400000L), new Date(now.getTime() + 86400000L), name, keyPair.getPublic());
+        chain = new Certificate[] {new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())))};
+    }
+
+    @Test
+    public void signDetachedInAppendModeTest() throws IOException, GeneralSecurityException {
+        byte[] original = createDocument();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(original)), baos,
+                new StampingProperties().useAppendMode(), MessageDigest.getInstance("SHA-256"));
+        signer.setFieldName("Signature1");
+        signDetached(signer, DigestAlgorithms.SHA256);
+
+        byte[] signed = baos.toByteArray();
+        // the original revision is kept untouched
+        Assert.assertArrayEquals(original, Arrays.copyOf(signed, original.length));
+        assertSignatureIsValid(signed, "Signature1");
+    }
+
+    @Test
+    public void signDetachedToFileTest() throws IOException, GeneralSecurityException {
+        String outFileName = destinationFolder + "signDetachedToFile.pdf";
+        // the previous content of the file is discarded
+        writeFile(outFileName, new byte[100000]);
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(createDocument())),
+                new RandomAccessFile(outFileName, "rw"), new StampingProperties(), MessageDigest.getInstance("SHA-256"));
+        signer.setFieldName("Signature1");
+        signDetached(signer, "SHA256");
+
+        assertSignatureIsValid(readFile(outFileName), "Signature1");
+    }
+
+    @Test
+    public void signDetachedToFileInAppendModeTest() throws IOException, GeneralSecurityException {
+        byte[] original = createDocument();
+        String outFileName = destinationFolder + "signDetachedToFileInAppendMode.pdf";
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(original)),
+                new RandomAccessFile(outFileName, "rw"), new StampingProperties().useAppendMode(),
+                MessageDigest.getInstance("SHA-256"));
+        signer.setFieldName("Signature1");
+        signDetached(signer, DigestAlgorithms.SHA256);
+
+        byte[] signed = readFile(outFileName);
+        Assert.assertArrayEquals(original, Arrays.copyOf(signed, original.length));
+        assertSignatureIsValid(signed, "Signature1");
+    }
+
+    @Test
+    public void outputStreamRequiresAppendModeTest() throws IOException, GeneralSecurityException {
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(createDocument()));
+        try {
+            new TestPdfSigner(reader, new ByteArrayOutputStream(), new StampingProperties(),
+                    MessageDigest.getInstance("SHA-256"));
+            Assert.fail("PdfException expected");
+        } catch (PdfException e) {
+            Assert.assertEquals(PdfException.DigestingWhileWritingToOutputStreamRequiresAppendMode, e.getMessage());
+        }
+        // the mode is checked before the document is created, so the reader hasn't been utilized
+        new PdfDocument(reader).close();
+    }
+
+    @Test
+    public void closeTargetFailureTest() throws IOException, GeneralSecurityException {
+        junitExpectedException.expect(IOException.class);
+        junitExpectedException.expectMessage("close failed");
+
+        OutputStream failingOnClose = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                throw new IOException("close failed");
+            }
+        };
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(createDocument())), failingOnClose,
+                new StampingProperties().useAppendMode(), MessageDigest.getInstance("SHA-256"));
+        signer.setFieldName("Signature1");
+        signDetached(signer, DigestAlgorithms.SHA256);
+    }
+
+    @Test
+    public void secondSignatureTest() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(createDocument())), first,
+                new StampingProperties());
+        signer.setFieldName("Signature1");
+        signDetached(signer, DigestAlgorithms.SHA256);
+
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(first.toByteArray())), second,
+                new StampingProperties().useAppendMode(), MessageDigest.getInstance("SHA-512"));
+        signer.setFieldName("Signature2");
+        signDetached(signer, DigestAlgorithms.SHA512);
+
+        PdfDocument document = openDocument(second.toByteArray());
+        SignatureUtil signatureUtil = new SignatureUtil(document);
+        Assert.assertTrue(signatureUtil.readSignatureData("Signature1").verify());
+        Assert.assertFalse(signatureUtil.signatureCoversWholeDocument("Signature1"));
+        Assert.assertTrue(signatureUtil.readSignatureData("Signature2").verify());
+        Assert.assertTrue(signatureUtil.signatureCoversWholeDocument("Signature2"));
+        document.close();
+    }
+
+    @Test
+    public void timestampTest() throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(createDocument())), baos,
+                new StampingProperties().useAppendMode(), MessageDigest.getInstance("SHA-256"));
+        signer.timestamp(new ImprintTsaClient(), "timestampSig1");
+
+        PdfDocument document = openDocument(baos.toByteArray());
+        SignatureUtil signatureUtil = new SignatureUtil(document);
+        Assert.assertTrue(signatureUtil.signatureCoversWholeDocument("timestampSig1"));
+        PdfDictionary signature = signatureUtil.getSignatureDictionary("timestampSig1");
+        long[] range = signature.getAsArray(PdfName.ByteRange).toLongArray();
+        byte[] contents = signature.getAsString(PdfName.Contents).getValueBytes();
+        document.close();
+
+        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        byte[] signed = baos.toByteArray();
+        for (int k = 0; k < range.length; k += 2) {
+            messageDigest.update(signed, (int) range[k], (int) range[k + 1]);
+        }
+        byte[] imprint = messageDigest.digest();
+        Assert.assertArrayEquals(imprint, Arrays.copyOf(contents, imprint.length));
+    }
+
+    @Test
+    public void mismatchingDigestAlgorithmTest() throws IOException, GeneralSecurityException {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(
+                "Digest algorithm SHA512 does not match digest algorithm SHA-256 the document is digested with.");
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(createDocument())), baos,
+                new StampingProperties().useAppendMode(), MessageDigest.getInstance("SHA-256"));
+        signDetached(signer, DigestAlgorithms.SHA512);
+    }
+
+    @Test
+    public void externalContainerIsNotSupportedTest() throws IOException, GeneralSecurityException {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(PdfException.RangeStreamIsNotAvailableWhenDigestingWhileWriting);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfSigner signer = new TestPdfSigner(new PdfReader(new ByteArrayInputStream(createDocument())), baos,
+                new StampingProperties().useAppendMode(), MessageDigest.getInstance("SHA-256"));
+        signer.signExternalContainer(new ExternalBlankSignatureContainer(new PdfDictionary()), 8192);
+    }
+
+    private static void signDetached(PdfSigner signer, String hashAlgorithm) throws IOException, GeneralSecurityException {
+        IExternalSignature signature = new PrivateKeySignature(keyPair.getPrivate(), hashAlgorithm,
+                BouncyCastleProvider.PROVIDER_NAME);
+        signer.signDetached(new BouncyCastleDigest(), signature, chain, null, null, null, 0, CryptoStandard.CMS);
+    }
+
+    private static void assertSignatureIsValid(byte[] signed, String signatureName) throws IOException, GeneralSecurityException {
+        PdfDocument document = openDocument(signed);
+        SignatureUtil signatureUtil = new SignatureUtil(document);
+        Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(signatureName));
+        Assert.assertTrue(signatureUtil.readSignatureData(signatureName).verify());
+        document.close();
+    }
+
+    private static void writeFile(String filename, byte[] content) throws IOException {
+        FileOutputStream fos = new FileOutputStream(filename);
+        fos.write(content);
+        fos.close();
+    }
+
+    private static PdfDocument openDocument(byte[] pdf) throws IOException {
+        // the document is opened in stamping mode, so that the default font can be added to it
+        return new TestPdfDocument(new PdfReader(new ByteArrayInputStream(pdf)),
+                new PdfWriter(new ByteArrayOutputStream()), new StampingProperties());
+    }
+
+    private static byte[] createDocument() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        document.addNewPage();
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static class TestPdfSigner extends PdfSigner {
+        TestPdfSigner(PdfReader reader, ByteArrayOutputStream outputStream, StampingProperties properties) throws IOException {
+            super(reader, outputStream, properties);
+        }
+
+        TestPdfSigner(PdfReader reader, OutputStream outputStream, StampingProperties properties,
+                MessageDigest messageDigest) throws IOException {
+            super(reader, outputStream, properties, messageDigest);
+        }
+
+        TestPdfSigner(PdfReader reader, RandomAccessFile outputFile, StampingProperties properties,
+                MessageDigest messageDigest) throws IOException {
+            super(reader, outputFile, properties, messageDigest);
+        }
+
+        @Override
+        protected PdfDocument initDocument(PdfReader reader, PdfWriter writer, StampingProperties properties) {
+            return new TestPdfDocument(reader, writer, properties);
+        }
+    }
+
+    private static class TestPdfDocument extends PdfDocument {
+        private PdfFont defaultFont;
+
+        TestPdfDocument(PdfReader reader, PdfWriter writer, StampingProperties properties) {
+            super(reader, writer, properties);
+        }
+
+        @Override
+        public PdfFont getDefaultFont() {
+            if (defaultFont == null) {
+                // a non-embedded font described by its widths only, no font program has to be loaded for it
+                PdfArray widths = new PdfArray();
+                for (int i = 32; i <= 126; i++) {
+                    widths.add(new PdfNumber(500));
+                }
+                PdfDictionary fontDescriptor = new PdfDictionary();
+                fontDescriptor.put(PdfName.Type, PdfName.FontDescriptor);
+                fontDescriptor.put(PdfName.FontName, new PdfName("SignerTestFont"));
+                fontDescriptor.put(PdfName.Flags, new PdfNumber(32));
+                fontDescriptor.put(PdfName.FontBBox, new PdfArray(new float[] {0, -200, 500, 800}));
+                fontDescriptor.put(PdfName.Ascent, new PdfNumber(800));
+                fontDescriptor.put(PdfName.Descent, new PdfNumber(-200));
+                fontDescriptor.put(PdfName.CapHeight, new PdfNumber(700));
+                fontDescriptor.put(PdfName.ItalicAngle, new PdfNumber(0));
+                fontDescriptor.put(PdfName.StemV, new PdfNumber(80));
+                PdfDictionary fontDictionary = new PdfDictionary();
+                fontDictionary.put(PdfName.Type, PdfName.Font);
+                fontDictionary.put(PdfName.Subtype, PdfName.Type1);
+                fontDictionary.put(PdfName.BaseFont, new PdfName("SignerTestFont"));
+                fontDictionary.put(PdfName.FirstChar, new PdfNumber(32));
+                fontDictionary.put(PdfName.LastChar, new PdfNumber(126));
+                fontDictionary.put(PdfName.Widths, widths);
+                fontDictionary.put(PdfName.Encoding, PdfName.WinAnsiEncoding);
+                fontDictionary.put(PdfName.FontDescriptor, fontDescriptor);
+                fontDictionary.makeIndirect(this);
+                defaultFont = getFont(fontDictionary);
+            }
+            return defaultFont;
+        }
+    }
+
+    private static class ImprintTsaClient implements ITSAClient {
+        @Override
+        public int getTokenSizeEstimate() {
+            return 4096;
+        }
+
+        @Override
+        public MessageDigest getMessageDigest() throws GeneralSecurityException {
+            return MessageDigest.getInstance("SHA-256");
+        }
+
+        @Override
+        public byte[] getTimeStampToken(byte[] imprint) {
+            return imprint;
+        }
+    }
+}